@@ -0,0 +1,161 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.MeshLeveler;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of lines per second that can be run through the command processors. The parser
+ * state before each line is prepared up front so that only the processing is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CommandProcessorBenchmark {
+    private static final double ARC_SEGMENT_LENGTH = 0.5;
+
+    @Param({Workloads.SURFACING, Workloads.LASER_RASTER, Workloads.ARCS, "rotation.ngc"})
+    public String workload;
+
+    @Param("1000000")
+    public int lines;
+
+    private ArcExpander arcExpander;
+    private MeshLeveler meshLeveler;
+    private GcodeParser processorList;
+
+    private PreparedProgram program;
+    private PreparedProgram linesOnlyProgram;
+    private int programIndex;
+    private int linesOnlyIndex;
+
+    @Setup
+    public void setup() throws IOException, GcodeParserException {
+        arcExpander = new ArcExpander(true, ARC_SEGMENT_LENGTH);
+        meshLeveler = new MeshLeveler(0, createSurfaceMesh());
+
+        processorList = new GcodeParser();
+        processorList.addCommandProcessor(new ArcExpander(true, ARC_SEGMENT_LENGTH));
+        processorList.addCommandProcessor(new MeshLeveler(0, createSurfaceMesh()));
+
+        List<String> commands = Workloads.load(workload, lines);
+        program = new PreparedProgram(commands, null, lines);
+
+        // The mesh leveler can't handle arcs, expand them first
+        linesOnlyProgram = new PreparedProgram(commands, new ArcExpander(true, ARC_SEGMENT_LENGTH), lines);
+    }
+
+    @Benchmark
+    public Object arcExpander() throws GcodeParserException {
+        if (programIndex == program.size()) {
+            programIndex = 0;
+        }
+        int i = programIndex++;
+        return arcExpander.processCommand(program.commands[i], program.states[i]);
+    }
+
+    @Benchmark
+    public Object meshLeveler() throws GcodeParserException {
+        if (linesOnlyIndex == linesOnlyProgram.size()) {
+            linesOnlyIndex = 0;
+        }
+        int i = linesOnlyIndex++;
+        return meshLeveler.processCommand(linesOnlyProgram.commands[i], linesOnlyProgram.states[i]);
+    }
+
+    @Benchmark
+    public Object commandProcessorList() throws GcodeParserException {
+        if (programIndex == program.size()) {
+            programIndex = 0;
+        }
+        int i = programIndex++;
+        return processorList.preprocessCommand(program.commands[i], program.states[i]);
+    }
+
+    private static Position[][] createSurfaceMesh() {
+        int size = 21;
+        double resolution = 10;
+        Position[][] mesh = new Position[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                double z = Math.sin(x / 3.0) * Math.cos(y / 4.0) * 0.2;
+                mesh[x][y] = new Position(x * resolution, y * resolution, z, UnitUtils.Units.MM);
+            }
+        }
+        return mesh;
+    }
+
+    /**
+     * The commands of a program together with the parser state before each command
+     */
+    private static class PreparedProgram {
+        private final String[] commands;
+        private final GcodeState[] states;
+
+        private PreparedProgram(List<String> program, ArcExpander arcExpander, int maxLines) throws GcodeParserException {
+            List<String> preparedCommands = new ArrayList<>(program.size());
+            List<GcodeState> preparedStates = new ArrayList<>(program.size());
+            GcodeParser parser = new GcodeParser();
+            for (String line : program) {
+                List<String> expanded = arcExpander == null ? List.of(line) : arcExpander.processCommand(line, parser.getCurrentState());
+                for (String command : expanded) {
+                    preparedCommands.add(command);
+                    preparedStates.add(parser.getCurrentState());
+                    parser.addCommand(command);
+                }
+
+                if (preparedCommands.size() >= maxLines) {
+                    break;
+                }
+            }
+
+            commands = preparedCommands.toArray(new String[0]);
+            states = preparedStates.toArray(new GcodeState[0]);
+        }
+
+        private int size() {
+            return commands.length;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files written with "-rf json" and prints the change of each benchmark.
+ * A positive change is an improvement, regardless if the benchmark measures throughput or time.
+ * <p>
+ * Usage: java -cp benchmarks.jar com.willwinder.ugs.benchmarks.CompareResults baseline.json current.json [threshold %]
+ * <p>
+ * Exits with status 1 if any benchmark has regressed more than the threshold, which defaults to 10%.
+ */
+public class CompareResults {
+    private static final double DEFAULT_THRESHOLD = 10;
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+
+        Map<String, Result> baseline = readResults(Path.of(args[0]));
+        Map<String, Result> current = readResults(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        boolean regressed = false;
+        System.out.printf(Locale.ROOT, "%-90s %15s %15s %9s %12s %12s%n", "Benchmark", "Baseline", "Current", "Change", "Alloc base", "Alloc curr");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result result = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf(Locale.ROOT, "%-90s %15s %15.3f %9s%n", entry.getKey(), "-", result.score, "new");
+                continue;
+            }
+
+            double change = result.getImprovement(base) * 100;
+            boolean isRegression = change < -threshold;
+            regressed |= isRegression;
+            System.out.printf(Locale.ROOT, "%-90s %15.3f %15.3f %+8.1f%% %12s %12s%s%n", entry.getKey(), base.score, result.score, change,
+                    formatAllocation(base), formatAllocation(result), isRegression ? "  REGRESSION" : "");
+        }
+
+        if (regressed) {
+            System.out.printf(Locale.ROOT, "%nOne or more benchmarks regressed more than %.1f%%%n", threshold);
+            System.exit(1);
+        }
+    }
+
+    private static String formatAllocation(Result result) {
+        return Double.isNaN(result.allocation) ? "-" : String.format(Locale.ROOT, "%.0f B/op", result.allocation);
+    }
+
+    private static Map<String, Result> readResults(Path path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject benchmark = element.getAsJsonObject();
+                JsonObject primaryMetric = benchmark.getAsJsonObject("primaryMetric");
+                String mode = benchmark.get("mode").getAsString();
+                double score = primaryMetric.get("score").getAsDouble();
+                String unit = primaryMetric.get("scoreUnit").getAsString();
+                results.put(getName(benchmark, unit), new Result(mode, score, getAllocation(benchmark)));
+            }
+        }
+        return results;
+    }
+
+    private static String getName(JsonObject benchmark, String unit) {
+        StringBuilder name = new StringBuilder(benchmark.get("benchmark").getAsString()
+                .replace(CompareResults.class.getPackageName() + ".", ""));
+        if (benchmark.has("params")) {
+            Map<String, String> params = new TreeMap<>();
+            benchmark.getAsJsonObject("params").entrySet().forEach(param -> params.put(param.getKey(), param.getValue().getAsString()));
+            name.append(' ').append(params);
+        }
+        return name.append(" (").append(unit).append(")").toString();
+    }
+
+    private static double getAllocation(JsonObject benchmark) {
+        if (!benchmark.has("secondaryMetrics")) {
+            return Double.NaN;
+        }
+
+        // Older JMH versions prefixes the profiler metrics with a middle dot
+        for (Map.Entry<String, JsonElement> metric : benchmark.getAsJsonObject("secondaryMetrics").entrySet()) {
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue().getAsJsonObject().get("score").getAsDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private record Result(String mode, double score, double allocation) {
+        /**
+         * @return the relative improvement compared to the baseline, where throughput should increase and time decrease
+         */
+        private double getImprovement(Result baseline) {
+            if ("thrpt".equals(mode)) {
+                return score / baseline.score - 1;
+            }
+            return baseline.score / score - 1;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.connection.ConnectionListenerManager;
+import com.willwinder.universalgcodesender.connection.IConnectionListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of received chunks per second that can be split into response lines. The data is
+ * a mix of "ok" responses and status reports, split into chunks of the given size like they would be
+ * read from a serial port.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionListenerManagerBenchmark {
+    @Param({"16", "64", "256"})
+    public int chunkSize;
+
+    private byte[] data;
+    private int position;
+    private ConnectionListenerManager connectionListenerManager;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int i = 0; i < 10000; i++) {
+            output.writeBytes("ok\r\n".getBytes(StandardCharsets.US_ASCII));
+            if (i % 5 == 0) {
+                String status = "<Run|MPos:" + i * 0.125 + ",-2.500,-1.000|Bf:15,128|FS:1000,12000|Ov:100,100,100>\r\n";
+                output.writeBytes(status.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        data = output.toByteArray();
+
+        connectionListenerManager = new ConnectionListenerManager();
+        connectionListenerManager.addListener(new IConnectionListener() {
+            @Override
+            public void handleResponseMessage(String response) {
+                blackhole.consume(response);
+            }
+
+            @Override
+            public void onConnectionClosed() {
+                // Not used
+            }
+        });
+    }
+
+    @Benchmark
+    public void handleResponse() {
+        if (position + chunkSize > data.length) {
+            position = 0;
+        }
+        connectionListenerManager.handleResponse(data, position, chunkSize);
+        position += chunkSize;
+    }
+}
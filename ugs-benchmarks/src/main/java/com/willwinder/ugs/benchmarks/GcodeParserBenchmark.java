@@ -0,0 +1,74 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of lines per second that can be added to the {@link GcodeParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GcodeParserBenchmark {
+    @Param({Workloads.SURFACING, Workloads.LASER_RASTER, Workloads.ARCS, "rotation.ngc"})
+    public String workload;
+
+    @Param("1000000")
+    public int lines;
+
+    private String[] commands;
+    private GcodeParser parser;
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> program = Workloads.load(workload, lines);
+        commands = program.toArray(new String[0]);
+        parser = new GcodeParser();
+    }
+
+    @Benchmark
+    public Object addCommand() throws GcodeParserException {
+        if (index == commands.length) {
+            index = 0;
+            parser.reset();
+        }
+        return parser.addCommand(commands[index++]);
+    }
+}
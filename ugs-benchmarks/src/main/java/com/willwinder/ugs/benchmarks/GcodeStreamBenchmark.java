@@ -0,0 +1,139 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to write, read and export a whole program as a processed gcode stream file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GcodeStreamBenchmark {
+    private static final String FORMAT_TEXT = "text";
+    private static final String FORMAT_BINARY = "binary";
+
+    @Param({Workloads.SURFACING, Workloads.LASER_RASTER, Workloads.ARCS, "rotation.ngc"})
+    public String workload;
+
+    @Param("1000000")
+    public int lines;
+
+    @Param({FORMAT_TEXT, FORMAT_BINARY})
+    public String format;
+
+    private List<String> program;
+    private File inputFile;
+    private File streamFile;
+    private File outputFile;
+
+    @Setup
+    public void setup() throws IOException {
+        program = Workloads.load(workload, lines);
+        inputFile = Workloads.createFile(workload, lines);
+
+        streamFile = createTempFile();
+        writeStream(streamFile);
+
+        outputFile = createTempFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        inputFile.delete();
+        streamFile.delete();
+        outputFile.delete();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        writeStream(outputFile);
+        return outputFile.length();
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws IOException, GcodeStreamReader.NotGcodeStreamFile {
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(streamFile, new DefaultCommandCreator())) {
+            while (reader.getNumRowsRemaining() > 0) {
+                blackhole.consume(reader.getNextCommand());
+            }
+        }
+    }
+
+    @Benchmark
+    public long processAndExport() throws IOException, GcodeParserException {
+        GcodeParser parser = new GcodeParser();
+        parser.addCommandProcessor(new ArcExpander(true, 0.5));
+        try (IGcodeWriter writer = createWriter(outputFile)) {
+            GcodeParserUtils.processAndExport(parser, inputFile, writer);
+        }
+        return outputFile.length();
+    }
+
+    private void writeStream(File file) throws IOException {
+        try (IGcodeWriter writer = createWriter(file)) {
+            for (int i = 0; i < program.size(); i++) {
+                String command = program.get(i);
+                writer.addLine(command, command, "", i + 1);
+            }
+        }
+    }
+
+    private IGcodeWriter createWriter(File file) throws IOException {
+        return FORMAT_BINARY.equals(format) ? new BinaryGcodeStreamWriter(file) : new GcodeStreamWriter(file);
+    }
+
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("ugs-benchmark", ".gcs");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time it takes to convert a processed gcode stream to line segments or toolpath geometry for the visualizer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GcodeViewParseBenchmark {
+    private static final double ARC_SEGMENT_LENGTH = 0.3;
+
+    @Param({Workloads.SURFACING, Workloads.LASER_RASTER, Workloads.ARCS, "rotation.ngc"})
+    public String workload;
+
+    @Param("1000000")
+    public int lines;
+
+    private File streamFile;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> program = Workloads.load(workload, lines);
+        streamFile = File.createTempFile("ugs-benchmark", ".gcs");
+        streamFile.deleteOnExit();
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(streamFile)) {
+            for (int i = 0; i < program.size(); i++) {
+                String command = program.get(i);
+                writer.addLine(command, command, "", i + 1);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        streamFile.delete();
+    }
+
+    @Benchmark
+    public Object toObjFromReader() throws IOException, GcodeParserException, GcodeStreamReader.NotGcodeStreamFile {
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(streamFile, new DefaultCommandCreator())) {
+            return new GcodeViewParse().toObjFromReader(reader, ARC_SEGMENT_LENGTH, 0);
+        }
+    }
+
+    @Benchmark
+    public Object toGeometryFromReader() throws IOException, GcodeParserException, GcodeStreamReader.NotGcodeStreamFile {
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(streamFile, new DefaultCommandCreator())) {
+            return new GcodeViewParse().toGeometryFromReader(reader, ARC_SEGMENT_LENGTH, 0);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of GRBL 1.1 status reports per second that can be parsed. The reports are
+ * similar to the ones sent while running a program, where the work coordinate offset, overrides
+ * and accessories are only reported every few status reports, or while the machine is idle where
+ * only the buffer state changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrblStatusBenchmark {
+    private static final int NUMBER_OF_STATUSES = 1000;
+
+    private static final String STATE_RUN = "run";
+    private static final String STATE_IDLE = "idle";
+
+    @Param({STATE_RUN, STATE_IDLE})
+    public String state;
+
+    @Param({"3", "6"})
+    public int axes;
+
+    private String[] statuses;
+    private ControllerStatus lastStatus;
+    private int index;
+
+    @Setup
+    public void setup() {
+        boolean isIdle = STATE_IDLE.equals(state);
+        statuses = new String[NUMBER_OF_STATUSES];
+        for (int i = 0; i < NUMBER_OF_STATUSES; i++) {
+            int step = isIdle ? 0 : i;
+            StringBuilder status = new StringBuilder();
+            if (isIdle) {
+                status.append("<Idle");
+            } else {
+                status.append(i % 50 == 0 ? "<Hold:0" : "<Run");
+            }
+
+            status.append(String.format(Locale.ROOT, "|MPos:%.3f,%.3f,%.3f", step * 0.125, step * -0.25, -1.5 + step % 10 * 0.1));
+            if (axes > 3) {
+                status.append(String.format(Locale.ROOT, ",%.3f,%.3f,%.3f", step * 0.5, step * -0.05, 0.0));
+            }
+            status.append("|Bf:15,").append(128 - i % 128)
+                    .append("|FS:").append(isIdle ? 0 : 1000 + i % 500).append(isIdle ? ",0" : ",12000");
+
+            if (i % 10 == 0) {
+                status.append(axes > 3 ? "|WCO:10.000,-20.000,-5.500,0.000,0.000,0.000" : "|WCO:10.000,-20.000,-5.500");
+            } else if (i % 10 == 1 && !isIdle) {
+                status.append("|Ov:100,100,").append(90 + i % 20).append("|A:SF");
+            }
+
+            if (i % 25 == 0) {
+                status.append("|Pn:PZ");
+            }
+            statuses[i] = status.append(">").toString();
+        }
+
+        lastStatus = new ControllerStatus(ControllerState.IDLE, Position.ZERO, Position.ZERO);
+    }
+
+    @Benchmark
+    public ControllerStatus getStatusFromStatusStringV1() {
+        if (index == statuses.length) {
+            index = 0;
+        }
+        lastStatus = GrblUtils.getStatusFromStatusStringV1(lastStatus, statuses[index++], UnitUtils.Units.MM);
+        return lastStatus;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The gcode programs used by the benchmarks. A workload is either the name of one of the
+ * synthetic programs which are generated with the requested number of lines, or the name
+ * of a file in the "test_files" directory of the repository.
+ * <p>
+ * The test files directory can be changed with the system property "ugs.benchmarks.testFiles".
+ */
+public class Workloads {
+    /**
+     * A 3D surfacing job, zig-zagging over a wavy surface with small steps in all axes
+     */
+    public static final String SURFACING = "surfacing";
+
+    /**
+     * A laser engraving job, rastering lines with a varying laser power on every move
+     */
+    public static final String LASER_RASTER = "laser-raster";
+
+    /**
+     * A job consisting of helical arcs using both IJK and R words
+     */
+    public static final String ARCS = "arcs";
+
+    private static final String TEST_FILES_PROPERTY = "ugs.benchmarks.testFiles";
+    private static final double SIZE = 200;
+
+    private Workloads() {
+    }
+
+    /**
+     * Loads or generates the lines of the given workload
+     *
+     * @param workload the name of a synthetic workload or a test file
+     * @param lines    the number of lines to generate for a synthetic workload
+     * @return the lines of the program
+     * @throws IOException if the test file couldn't be read
+     */
+    public static List<String> load(String workload, int lines) throws IOException {
+        return switch (workload) {
+            case SURFACING -> generateSurfacing(lines);
+            case LASER_RASTER -> generateLaserRaster(lines);
+            case ARCS -> generateArcs(lines);
+            default -> Files.readAllLines(getTestFile(workload).toPath(), StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * Writes the lines of the given workload to a temporary file which is deleted on exit
+     *
+     * @param workload the name of a synthetic workload or a test file
+     * @param lines    the number of lines to generate for a synthetic workload
+     * @return the file with the program
+     * @throws IOException if the file couldn't be written
+     */
+    public static File createFile(String workload, int lines) throws IOException {
+        File file = File.createTempFile("ugs-benchmark-" + workload, ".gcode");
+        file.deleteOnExit();
+        Files.write(file.toPath(), load(workload, lines), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static File getTestFile(String name) throws IOException {
+        File directory = new File(System.getProperty(TEST_FILES_PROPERTY, "../test_files"));
+        File file = new File(directory, name);
+        if (!file.isFile()) {
+            throw new IOException("Unknown workload \"" + name + "\", it is not a synthetic workload or a file in " + directory.getAbsolutePath());
+        }
+        return file;
+    }
+
+    private static List<String> generateSurfacing(int lines) {
+        List<String> result = createProgram(lines, "G21 G90 G17 G94", "M3 S18000", "G0 Z5", "G0 X0 Y0", "G1 Z0 F1500");
+        double step = 0.1;
+        int columns = (int) (SIZE / step);
+        int row = 0;
+        while (result.size() < lines) {
+            double y = (row * step) % SIZE;
+            for (int column = 0; column <= columns && result.size() < lines; column++) {
+                double x = row % 2 == 0 ? column * step : SIZE - column * step;
+                double z = Math.sin(x / 10) * Math.cos(y / 15) * 3 - 3;
+                result.add(format("G1 X%.4f Y%.4f Z%.4f", x, y, z));
+            }
+            row++;
+        }
+        return result;
+    }
+
+    private static List<String> generateLaserRaster(int lines) {
+        List<String> result = createProgram(lines, "G21 G90 G17 G94", "M4 S0", "G0 X0 Y0", "G1 F3000");
+        double step = 0.08;
+        int columns = (int) (SIZE / step);
+        int row = 0;
+        while (result.size() < lines) {
+            double y = (row * step) % SIZE;
+            boolean forward = row % 2 == 0;
+            result.add(format("G0 X%.3f Y%.3f S0", forward ? 0 : SIZE, y));
+            for (int column = 1; column <= columns && result.size() < lines; column++) {
+                double x = forward ? column * step : SIZE - column * step;
+                int power = (int) (500 + 500 * Math.sin(x / 5) * Math.cos(y / 7));
+                result.add(format("G1 X%.3f S%d", x, power));
+            }
+            row++;
+        }
+        return result;
+    }
+
+    private static List<String> generateArcs(int lines) {
+        List<String> result = createProgram(lines, "G21 G90 G17 G94", "M3 S12000", "G0 Z5", "G0 X10 Y0", "G1 Z0 F800");
+        int arc = 0;
+        while (result.size() < lines) {
+            // A helical half circle followed by two quarter circles
+            int group = arc / 4;
+            double radius = 1 + group % 5;
+            double center = SIZE / 2;
+            double z = -(group % 100) * 0.02;
+            switch (arc % 4) {
+                case 0 -> result.add(format("G0 X%.3f Y%.3f", center + radius, center));
+                case 1 -> result.add(format("G2 X%.3f Y%.3f Z%.3f I%.3f J0", center - radius, center, z, -radius));
+                case 2 -> result.add(format("G3 X%.3f Y%.3f R%.3f", center, center - radius, radius));
+                default -> result.add(format("G3 X%.3f Y%.3f R%.3f", center + radius, center, radius));
+            }
+            arc++;
+        }
+        return result;
+    }
+
+    private static List<String> createProgram(int lines, String... preamble) {
+        List<String> result = new ArrayList<>(lines);
+        for (String line : preamble) {
+            if (result.size() < lines) {
+                result.add(line);
+            }
+        }
+        return result;
+    }
+
+    private static String format(String pattern, Object... arguments) {
+        return String.format(Locale.ROOT, pattern, arguments);
+    }
+}
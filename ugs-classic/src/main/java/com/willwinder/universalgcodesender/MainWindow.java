@@ -1,5 +1,5 @@
 /*
-    Copyright 2012-2023 Will Winder
+    Copyright 2012-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -75,6 +75,7 @@ import com.willwinder.universalgcodesender.services.JogService;
 import com.willwinder.universalgcodesender.uielements.jog.JogPanel;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 
 import javax.swing.text.DefaultEditorKit;
 import org.apache.commons.lang3.SystemUtils;
@@ -1771,7 +1772,7 @@ public class MainWindow extends JFrame implements UGSEventListener {
                     if (commandTableScrollPane.isEnabled()) {
                         commandTable.clear();
                     }
-                    try (IGcodeStreamReader gsr = new GcodeStreamReader(backend.getProcessedGcodeFile(), new DefaultCommandCreator())) {
+                    try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(backend.getProcessedGcodeFile(), new DefaultCommandCreator())) {
                         resetSentRowLabels(gsr.getNumRows());
                     } catch (IOException | GcodeStreamReader.NotGcodeStreamFile ex) {}
                     break;
@@ -1810,10 +1811,6 @@ public class MainWindow extends JFrame implements UGSEventListener {
                         if (commandTableScrollPane.isEnabled()) {
                             commandTable.updateRow(command);
                         }
-
-                        if (backend.isSendingFile() && vw != null && !command.isGenerated()) {
-                            vw.setCompletedCommandNumber(command.getCommandNumber());
-                        }
                     });
                 } else if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_SENT || commandEvent.getCommandEventType() == CommandEventType.COMMAND_SKIPPED) {
                     EventQueue.invokeLater(() -> {
@@ -1823,6 +1820,15 @@ public class MainWindow extends JFrame implements UGSEventListener {
                         });
                 }
             }
+        } else if (evt instanceof CommandRangeEvent) {
+            CommandRangeEvent commandRangeEvent = (CommandRangeEvent) evt;
+            if (commandRangeEvent.hasCommandNumbers()) {
+                EventQueue.invokeLater(() -> {
+                    if (backend.isSendingFile() && vw != null) {
+                        vw.setCompletedCommandNumber(commandRangeEvent.getLastCommandNumber());
+                    }
+                });
+            }
         }
     }
 
@@ -48,6 +48,7 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.awt.Font;
@@ -469,7 +470,7 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
 
             // Load from stream
             if (this.processedGcodeFile) {
-                IGcodeStreamReader gsr = new GcodeStreamReader(new File(this.gcodeFile), new DefaultCommandCreator());
+                IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(new File(this.gcodeFile), new DefaultCommandCreator());
                 gcodeLineList = gcvp.toObjFromReader(gsr, 0.3, 0);
             }
             // Load raw file
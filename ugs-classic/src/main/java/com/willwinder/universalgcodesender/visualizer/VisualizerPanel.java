@@ -1,5 +1,5 @@
 /*
-    Copyright 2013-2018 Will Winder
+    Copyright 2013-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -23,8 +23,7 @@ import com.jogamp.opengl.util.FPSAnimator;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
 
@@ -92,10 +91,10 @@ public class VisualizerPanel extends JPanel implements UGSEventListener {
             ControllerStatusEvent controllerStatusEvent = (ControllerStatusEvent) evt;
             this.canvas.setMachineCoordinate(controllerStatusEvent.getStatus().getMachineCoord());
             this.canvas.setWorkCoordinate(controllerStatusEvent.getStatus().getWorkCoord());
-        } else if (evt instanceof CommandEvent) {
-            CommandEvent commandEvent = (CommandEvent) evt;
-            if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE && !commandEvent.getCommand().isGenerated()) {
-                canvas.setCurrentCommandNumber(commandEvent.getCommand().getCommandNumber());
+        } else if (evt instanceof CommandRangeEvent) {
+            CommandRangeEvent commandRangeEvent = (CommandRangeEvent) evt;
+            if (commandRangeEvent.hasCommandNumbers()) {
+                canvas.setCurrentCommandNumber(commandRangeEvent.getLastCommandNumber());
             }
         }
     }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2012-2024 Will Winder
+    Copyright 2012-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -22,17 +22,13 @@ package com.willwinder.universalgcodesender;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblCapabilitiesConstants;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblBuildOption;
 import com.willwinder.universalgcodesender.firmware.grbl.GrblBuildOptions;
+import com.willwinder.universalgcodesender.firmware.grbl.GrblStatusParser;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GetStatusCommand;
 import com.willwinder.universalgcodesender.firmware.grbl.commands.GrblSystemCommand;
-import com.willwinder.universalgcodesender.listeners.AccessoryStates;
-import com.willwinder.universalgcodesender.listeners.AccessoryStatesBuilder;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
-import com.willwinder.universalgcodesender.listeners.EnabledPins;
-import com.willwinder.universalgcodesender.listeners.EnabledPinsBuilder;
 import com.willwinder.universalgcodesender.listeners.MessageType;
-import com.willwinder.universalgcodesender.listeners.OverridePercents;
 import com.willwinder.universalgcodesender.model.Alarm;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.Overrides;
@@ -44,7 +40,6 @@ import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndW
 import com.willwinder.universalgcodesender.utils.GrblLookups;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -393,144 +388,7 @@ public class GrblUtils {
      * @return the parsed controller status
      */
     public static ControllerStatus getStatusFromStatusStringV1(ControllerStatus lastStatus, String status, Units reportingUnits) {
-        String stateString = "";
-        String subStateString = "";
-
-        Position MPos = null;
-        Position WPos = null;
-        Position WCO = null;
-
-        OverridePercents overrides = null;
-        EnabledPins pins = EnabledPins.EMPTY_PINS;
-        AccessoryStates accessoryStates = null;
-
-        double feedSpeed = 0;
-        double spindleSpeed = 0;
-        if (lastStatus != null) {
-            feedSpeed = lastStatus.getFeedSpeed();
-            spindleSpeed = lastStatus.getSpindleSpeed();
-        }
-        boolean isOverrideReport = false;
-
-        // Parse out the status messages.
-        for (String part : status.substring(0, status.length()-1).split("\\|")) {
-            if (part.startsWith("<")) {
-                int idx = part.indexOf(':');
-                if (idx == -1) {
-                    stateString = part.substring(1);
-                } else {
-                    stateString = part.substring(1, idx);
-                    subStateString = part.substring(idx + 1);
-                }
-            }
-            else if (part.startsWith("MPos:")) {
-                MPos = GrblUtils.getPositionFromStatusString(status, machinePattern, reportingUnits);
-            }
-            else if (part.startsWith("WPos:")) {
-                WPos = GrblUtils.getPositionFromStatusString(status, workPattern, reportingUnits);
-            }
-            else if (part.startsWith("WCO:")) {
-                WCO = GrblUtils.getPositionFromStatusString(status, wcoPattern, reportingUnits);
-            }
-            else if (part.startsWith("Ov:")) {
-                isOverrideReport = true;
-                overrides = parseOverrides(part).orElse(OverridePercents.EMTPY_OVERRIDE_PERCENTS);
-            }
-            else if (part.startsWith("F:")) {
-                feedSpeed = parseFeedSpeed(part);
-            }
-            else if (part.startsWith("FS:")) {
-                String[] parts = part.substring(3).split(",");
-                feedSpeed = Double.parseDouble(parts[0]);
-                spindleSpeed = Double.parseDouble(parts[1]);
-            }
-            else if (part.startsWith("Pn:")) {
-                String value = part.substring(part.indexOf(':')+1);
-                pins = parseEnabledPins(value);
-            }
-            else if (part.startsWith("A:")) {
-                String value = part.substring(part.indexOf(':')+1);
-                accessoryStates = parseAccessoryStates(value);
-            }
-        }
-
-        // Grab WCO from state information if necessary.
-        if (WCO == null) {
-            // Grab the work coordinate offset.
-            if (lastStatus != null && lastStatus.getWorkCoordinateOffset() != null) {
-                WCO = lastStatus.getWorkCoordinateOffset();
-            } else {
-                WCO = new Position(0,0,0,0,0,0, reportingUnits);
-            }
-        }
-
-        // Calculate missing coordinate with WCO
-        if (WPos == null && MPos != null) {
-            WPos = new Position(MPos.x-WCO.x, MPos.y-WCO.y, MPos.z-WCO.z, MPos.a-WCO.a, MPos.b-WCO.b, MPos.c-WCO.c, reportingUnits);
-        } else if (MPos == null && WPos != null) {
-            MPos = new Position(WPos.x+WCO.x, WPos.y+WCO.y, WPos.z+WCO.z, WPos.a+WCO.a, WPos.b+WCO.b, WPos.c+WCO.c, reportingUnits);
-        }
-
-        if (!isOverrideReport && lastStatus != null) {
-            overrides = lastStatus.getOverrides();
-        }
-
-        if (accessoryStates == null && !isOverrideReport && lastStatus != null) {
-            accessoryStates = lastStatus.getAccessoryStates();
-        } else if (accessoryStates == null) {
-            accessoryStates = AccessoryStates.EMPTY_ACCESSORY_STATE;
-        }
-
-        ControllerState state = getControllerStateFromStateString(stateString);
-        return new ControllerStatus(state, subStateString, MPos, WPos, feedSpeed, reportingUnits, spindleSpeed, overrides, WCO, pins, accessoryStates);
-    }
-
-    private static Optional<OverridePercents> parseOverrides(String value) {
-        String[] overrideParts = value.substring(3).trim().split(",");
-        if (overrideParts.length == 3) {
-            return Optional.of(new OverridePercents(
-                    Integer.parseInt(overrideParts[0]),
-                    Integer.parseInt(overrideParts[1]),
-                    Integer.parseInt(overrideParts[2])));
-        }
-        return Optional.empty();
-    }
-
-    private static EnabledPins parseEnabledPins(String value) {
-        String enabledUpper = value.toUpperCase();
-        return  new EnabledPinsBuilder()
-                .setX(enabledUpper.contains("X"))
-                .setX0(enabledUpper.contains("X0"))
-                .setX1(enabledUpper.contains("X1"))
-                .setY(enabledUpper.contains("Y"))
-                .setY0(enabledUpper.contains("Y0"))
-                .setY1(enabledUpper.contains("Y1"))
-                .setZ(enabledUpper.contains("Z"))
-                .setZ0(enabledUpper.contains("Z0"))
-                .setZ1(enabledUpper.contains("Z1"))
-                .setA(enabledUpper.contains("A"))
-                .setB(enabledUpper.contains("B"))
-                .setC(enabledUpper.contains("C"))
-                .setProbe(enabledUpper.contains("P"))
-                .setDoor(enabledUpper.contains("D"))
-                .setHold(enabledUpper.contains("H"))
-                .setSoftReset(enabledUpper.contains("R"))
-                .setCycleStart(enabledUpper.contains("S"))
-                .createEnabledPins();
-    }
-
-    /**
-     * Parses the accessory state string
-     *
-     * @param accessoryStates as a string
-     * @return the parsed accessory state
-     */
-    private static AccessoryStates parseAccessoryStates(String accessoryStates) {
-        String enabledUpper = accessoryStates.toUpperCase();
-        boolean spindleCW = enabledUpper.contains("S");
-        boolean flood = enabledUpper.contains("F");
-        boolean mist = enabledUpper.contains("M");
-        return new AccessoryStatesBuilder().setSpindleCW(spindleCW).setFlood(flood).setMist(mist).createAccessoryStates();
+        return GrblStatusParser.parse(lastStatus, status, reportingUnits);
     }
 
     /**
@@ -18,7 +18,11 @@
  */
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
+
 import javax.swing.Timer;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -83,6 +87,7 @@ public class StatusPollTimer {
 
         if (outstandingPolls == 0) {
             outstandingPolls++;
+            getMetrics().ifPresent(CommunicatorMetrics::statusPollSent);
             controller.requestStatusReport();
         } else {
             // If a poll is somehow lost after 20 intervals,
@@ -109,6 +114,12 @@ public class StatusPollTimer {
      */
     public void receivedStatus() {
         outstandingPolls = 0;
+        getMetrics().ifPresent(CommunicatorMetrics::statusPollReceived);
+    }
+
+    private Optional<CommunicatorMetrics> getMetrics() {
+        return Optional.ofNullable(controller.getCommunicator())
+                .map(ICommunicator::getMetrics);
     }
 
     /**
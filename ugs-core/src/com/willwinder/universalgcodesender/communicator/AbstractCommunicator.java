@@ -25,6 +25,7 @@ import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
 
 import java.io.IOException;
 import java.util.logging.Logger;
@@ -38,6 +39,7 @@ public abstract class AbstractCommunicator implements ICommunicator, IConnection
     private static final Logger logger = Logger.getLogger(AbstractCommunicator.class.getName());
 
     private final ICommunicatorEventDispatcher eventDispatcher;
+    private final CommunicatorMetrics metrics = new CommunicatorMetrics();
 
     protected Connection connection;
 
@@ -47,12 +49,20 @@ public abstract class AbstractCommunicator implements ICommunicator, IConnection
 
     protected AbstractCommunicator(ICommunicatorEventDispatcher eventDispatcher) {
         this.eventDispatcher = eventDispatcher;
+        if (eventDispatcher instanceof AsyncCommunicatorEventDispatcher asyncEventDispatcher) {
+            metrics.setEventQueueDepth(asyncEventDispatcher::getEventCount);
+        }
     }
 
     protected ICommunicatorEventDispatcher getEventDispatcher() {
         return eventDispatcher;
     }
 
+    @Override
+    public CommunicatorMetrics getMetrics() {
+        return metrics;
+    }
+
     /*********************/
     /* Serial Layer API. */
     /*********************/
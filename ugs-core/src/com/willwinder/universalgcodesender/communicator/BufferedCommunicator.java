@@ -1,5 +1,5 @@
 /*
-    Copyright 2012-2022 Will Winder
+    Copyright 2012-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -22,12 +22,19 @@ package com.willwinder.universalgcodesender.communicator;
 import com.willwinder.universalgcodesender.communicator.event.AsyncCommunicatorEventDispatcher;
 import com.willwinder.universalgcodesender.communicator.event.ICommunicatorEventDispatcher;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.CommUtils;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,12 +49,26 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     private static final Logger logger = Logger.getLogger(BufferedCommunicator.class.getName());
 
     // Command streaming variables
-    private Boolean sendPaused = false;
-    private GcodeCommand nextCommand;                      // Cached command.
+    private volatile boolean sendPaused = false;
+    private volatile GcodeCommand nextCommand;             // Cached command.
     private IGcodeStreamReader commandStream;               // Arbitrary number of commands
     private final LinkedBlockingDeque<GcodeCommand> commandBuffer;     // Manually specified commands
     private final LinkedBlockingDeque<GcodeCommand> activeCommandList;  // Currently running commands
-    private int sentBufferSize = 0;
+    private final AtomicInteger sentBufferSize = new AtomicInteger();
+
+    // The number of requests to stream commands, only the thread that raised it from zero is streaming
+    private final AtomicInteger streamRequests = new AtomicInteger();
+
+    // The time when the controller completed a command which hasn't been followed by a write yet
+    private final AtomicLong commandCompletedTime = new AtomicLong();
+
+    // The time each active command was sent, in the same order as the active command list
+    private final LongRingBuffer sendTimes = new LongRingBuffer(64);
+
+    // Reused between calls to streamCommands to write all commands that fit at once
+    private byte[] sendBuffer = new byte[256];
+    private int sendBufferLength = 0;
+    private final List<GcodeCommand> sentCommands = new ArrayList<>();
 
     private Boolean singleStepModeEnabled = false;
 
@@ -82,6 +103,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     @Override
     public void queueStreamForComm(final IGcodeStreamReader input) {
         commandStream = input;
+        getMetrics().reset();
     }
 
     /** File Stream Methods. **/
@@ -91,6 +113,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         if (activeCommandList != null) {
             activeCommandList.clear();
         }
+        sendTimes.clear();
     }
 
     @Override
@@ -143,8 +166,8 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     }
     
     /**
-     * THIS COMMAND CAN ONLY BE CALLED FROM streamCommands UNLESS
-     * THE nextCommand OBJECT IS SYNCHRONIZED.
+     * THIS COMMAND CAN ONLY BE CALLED FROM THE THREAD STREAMING
+     * COMMANDS IN streamAvailableCommands.
      * 
      * Returns the next command with the following priority:
      * 1. nextCommand object if set.
@@ -174,14 +197,37 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     }
    
     /**
-     * Streams anything in the command buffer to the comm port.
-     * Synchronized to prevent commands from sending out of order.
+     * Streams anything in the command buffer to the comm port. All commands that fit
+     * in the controller buffer are written to the connection in a single write.
+     * <p>
+     * Only one thread streams at a time to prevent commands from sending out of order.
+     * A thread calling this while another thread is streaming will not wait for it,
+     * instead the streaming thread will make another pass before it returns. This way
+     * the thread receiving responses never blocks on a write made from another thread.
      */
     @Override
-    synchronized public void streamCommands() {
+    public void streamCommands() {
+        if (streamRequests.getAndIncrement() != 0) {
+            return;
+        }
+
+        int requests = 1;
+        try {
+            do {
+                streamAvailableCommands();
+                requests = streamRequests.addAndGet(-requests);
+            } while (requests != 0);
+        } catch (RuntimeException e) {
+            streamRequests.set(0);
+            throw e;
+        }
+    }
+
+    private void streamAvailableCommands() {
         // If there are no commands to send, exit.
         if (this.getNextCommand() == null) {
             logger.log(Level.FINE, "There are no more commands to stream");
+            commandCompletedTime.set(0);
             return;
         }
         
@@ -193,7 +239,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         while (this.getNextCommand() != null &&
                 !isPaused() &&
                 CommUtils.checkRoomInBuffer(
-                    this.sentBufferSize,
+                    this.sentBufferSize.get(),
                     this.getNextCommand().getCommandString(),
                     this.getBufferSize())
                 && allowMoreCommands()) {
@@ -202,17 +248,72 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
             String commandString = command.getCommandString();
             
             this.activeCommandList.add(command);
-            this.sentBufferSize += (commandString.length() + 1);
+            this.sentBufferSize.addAndGet(commandString.length() + 1);
+            this.sendingCommand(commandString);
+            appendToSendBuffer(commandString);
+            sentCommands.add(command);
+            nextCommand = null;
+        }
+
+        // Write all commands that fit in the controller buffer at once
+        try {
+            if (sendBufferLength > 0) {
+                // Add the send times before writing as the responses may arrive before the write returns
+                long sendTime = System.nanoTime();
+                for (int i = 0; i < sentCommands.size(); i++) {
+                    sendTimes.add(sendTime);
+                }
+
+                connection.sendBytesToComm(sendBuffer, 0, sendBufferLength);
+                getMetrics().commandsWritten(sentCommands.size());
+
+                long completedTime = commandCompletedTime.getAndSet(0);
+                if (completedTime != 0) {
+                    getMetrics().getResponseToSendLatency().record(System.nanoTime() - completedTime);
+                }
 
-            try {
-                this.sendingCommand(commandString);
-                connection.sendStringToComm(commandString + "\n");
+                getMetrics().plannerFed();
+                getMetrics().sampleBytesInFlight(sentBufferSize.get());
+            }
+
+            for (GcodeCommand command : sentCommands) {
                 getEventDispatcher().commandSent(command);
-                nextCommand = null;
-            } catch (Exception e) {
-                e.printStackTrace();
-                System.exit(-1);
             }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(-1);
+        } finally {
+            sendBufferLength = 0;
+            sentCommands.clear();
+        }
+    }
+
+    /**
+     * Appends the command followed by a newline to the send buffer, growing it if needed.
+     */
+    private void appendToSendBuffer(String command) {
+        int length = command.length();
+        ensureSendBufferCapacity(sendBufferLength + length + 1);
+
+        int start = sendBufferLength;
+        for (int i = 0; i < length; i++) {
+            char c = command.charAt(i);
+            if (c >= 0x80) {
+                // Not plain ASCII, start over and encode the whole command
+                byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+                ensureSendBufferCapacity(start + bytes.length + 1);
+                System.arraycopy(bytes, 0, sendBuffer, start, bytes.length);
+                sendBufferLength = start + bytes.length;
+                break;
+            }
+            sendBuffer[sendBufferLength++] = (byte) c;
+        }
+        sendBuffer[sendBufferLength++] = '\n';
+    }
+
+    private void ensureSendBufferCapacity(int capacity) {
+        if (capacity > sendBuffer.length) {
+            sendBuffer = Arrays.copyOf(sendBuffer, Math.max(capacity, sendBuffer.length * 2));
         }
     }
     
@@ -237,9 +338,11 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         this.nextCommand = null;
         this.commandBuffer.clear();
         this.activeCommandList.clear();
+        this.sendTimes.clear();
         this.commandStream = null;
         this.sendPaused = false;
-        this.sentBufferSize = 0;
+        this.sentBufferSize.set(0);
+        this.commandCompletedTime.set(0);
     }
 
     /**
@@ -280,22 +383,39 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
             // Pop the front of the active list.
             if (areActiveCommands()) {
                 GcodeCommand command = activeCommandList.pop();
-                sentBufferSize -= (command.getCommandString().length() + 1);
+                int bytesInFlight = sentBufferSize.addAndGet(-(command.getCommandString().length() + 1));
+                recordCompletedCommand(bytesInFlight);
 
                 if (!isPaused()) {
+                    commandCompletedTime.compareAndSet(0, System.nanoTime());
                     streamCommands();
                 }
             }
         }
     }
 
+    private void recordCompletedCommand(int bytesInFlight) {
+        CommunicatorMetrics metrics = getMetrics();
+        long sendTime = sendTimes.poll();
+        if (sendTime != 0) {
+            metrics.getCommandLatency().record(System.nanoTime() - sendTime);
+        }
+
+        IGcodeStreamReader stream = commandStream;
+        if (bytesInFlight <= 0 && !isPaused() && stream != null && stream.getNumRowsRemaining() > 0) {
+            metrics.plannerStarved();
+        }
+        metrics.sampleBytesInFlight(bytesInFlight);
+    }
+
     @Override
     public void connect(ConnectionDriver connectionDriver, String name, int baud) throws Exception {
         super.connect(connectionDriver, name, baud);
 
         this.commandBuffer.clear();
         this.activeCommandList.clear();
-        this.sentBufferSize = 0;
+        this.sendTimes.clear();
+        this.sentBufferSize.set(0);
     }
 
     @Override
@@ -20,6 +20,7 @@ package com.willwinder.universalgcodesender.communicator;
 
 import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
@@ -213,4 +214,11 @@ public interface ICommunicator {
      * @throws IOException if there is a protocol error or a timeout occurs.
      */
     void xmodemSend(byte[] data) throws IOException;
+
+    /**
+     * Returns the metrics of how well the controller is kept fed with commands
+     *
+     * @return the metrics of this communicator
+     */
+    CommunicatorMetrics getMetrics();
 }
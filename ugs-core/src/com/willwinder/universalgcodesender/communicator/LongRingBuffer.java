@@ -0,0 +1,75 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.communicator;
+
+import java.util.Arrays;
+
+/**
+ * A queue of primitive long values stored in a growing ring buffer, used for keeping track of
+ * the time each active command was sent without boxing the values.
+ */
+class LongRingBuffer {
+    private long[] values;
+    private int head;
+    private int size;
+
+    LongRingBuffer(int initialCapacity) {
+        values = new long[initialCapacity];
+    }
+
+    /**
+     * Adds a value to the end of the queue
+     *
+     * @param value the value to add
+     */
+    synchronized void add(long value) {
+        if (size == values.length) {
+            long[] grown = Arrays.copyOf(values, values.length * 2);
+            // Move the values that wrapped around to the end of the new array
+            System.arraycopy(values, 0, grown, values.length, head);
+            values = grown;
+        }
+        values[(head + size) % values.length] = value;
+        size++;
+    }
+
+    /**
+     * Removes the value at the front of the queue
+     *
+     * @return the value or zero if the queue is empty
+     */
+    synchronized long poll() {
+        if (size == 0) {
+            return 0;
+        }
+        long value = values[head];
+        head = (head + 1) % values.length;
+        size--;
+        return value;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+}
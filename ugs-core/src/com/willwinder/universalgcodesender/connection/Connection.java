@@ -20,6 +20,7 @@
 package com.willwinder.universalgcodesender.connection;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -82,6 +83,18 @@ public interface Connection {
      */
     void sendStringToComm(String command) throws Exception;
 
+    /**
+     * Sends a range of bytes to the device in a single write, used for streaming several
+     * commands at once. The caller may reuse the byte array when this method returns.
+     *
+     * @param bytes  the buffer with the bytes to send
+     * @param offset the offset of the first byte to send
+     * @param length the number of bytes to send
+     */
+    default void sendBytesToComm(byte[] bytes, int offset, int length) throws Exception {
+        sendStringToComm(new String(bytes, offset, length, StandardCharsets.UTF_8));
+    }
+
     /**
      * Checks if the communication is established
      *
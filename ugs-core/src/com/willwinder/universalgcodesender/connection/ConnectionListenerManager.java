@@ -1,5 +1,5 @@
 /*
-    Copyright 2018-2024 Will Winder
+    Copyright 2018-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -18,8 +18,6 @@
  */
 package com.willwinder.universalgcodesender.connection;
 
-import org.apache.commons.lang3.StringUtils;
-
 import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Level;
@@ -28,7 +26,9 @@ import java.util.logging.Logger;
 /**
  * Handles response messages from the serial connection buffering the data
  * until we have a complete line. It will then attempt to dispatch that
- * data to a communicator via a {@link IConnectionListener}
+ * data to a communicator via a {@link IConnectionListener}. The lines are
+ * framed by a {@link ResponseLineFramer} without copying the received data
+ * more than necessary.
  *
  * @author wwinder
  * @author Joacim Breiler
@@ -37,49 +37,33 @@ public class ConnectionListenerManager implements IConnectionListenerManager {
 
     private static final Logger LOGGER = Logger.getLogger(ConnectionListenerManager.class.getSimpleName());
 
-    private final StringBuilder inputBuffer;
+    private final ConnectionStatistics statistics = new ConnectionStatistics();
+    private final ResponseLineFramer lineFramer;
     private final Set<IConnectionListener> listeners = new HashSet<>();
 
     public ConnectionListenerManager() {
-        inputBuffer = new StringBuilder();
+        lineFramer = new ResponseLineFramer(statistics, this::notifyListeners);
     }
 
     @Override
     public void handleResponse(byte[] buffer, int offset, int length) {
-        String response = new String(buffer, offset, length);
-        inputBuffer.append(StringUtils.remove(response, '\r'));
-
-        // Only continue if there is a line terminator and split out command(response).
-        if (!inputBuffer.toString().contains("\n")) {
-            return;
-        }
-
-        // Split with the -1 option will give an empty string at
-        // the end if there is a terminator there as well.
-        String[] messages = inputBuffer.toString().split("\\n", -1);
-        for (int i = 0; i < messages.length; i++) {
-            // Make sure this isn't the last command.
-            if ((i + 1) < messages.length) {
-
-                notifyListeners(messages[i]);
+        lineFramer.append(buffer, offset, length);
+    }
 
-                // Append last command to input buffer because it didn't have a terminator.
-            } else {
-                inputBuffer.setLength(0);
-                inputBuffer.append(messages[i]);
-            }
-        }
+    @Override
+    public ConnectionStatistics getStatistics() {
+        return statistics;
     }
 
     public void notifyListeners(String message) {
-        listeners.forEach(listener -> {
+        for (IConnectionListener listener : listeners) {
             try {
                 listener.handleResponseMessage(message);
             } catch (Exception e) {
                 LOGGER.log(Level.SEVERE, e, () -> "The response message could not be handled: \"" + message + "\", unsafe to proceed, shutting down connection.");
                 throw new ConnectionException("The response message could not be handled: \"" + message + "\", unsafe to proceed, shutting down connection.", e);
             }
-        });
+        }
     }
 
     @Override
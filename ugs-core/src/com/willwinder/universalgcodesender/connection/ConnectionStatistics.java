@@ -0,0 +1,97 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the data received from a connection. The counters are updated by the thread reading from the
+ * connection and can be read from any thread.
+ */
+public class ConnectionStatistics {
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong linesReceived = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+
+    private long lastSampleTime = System.nanoTime();
+    private long lastBytesReceived;
+    private long lastLinesReceived;
+    private long lastAllocations;
+
+    /**
+     * @return the total number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * @return the total number of complete lines received
+     */
+    public long getLinesReceived() {
+        return linesReceived.get();
+    }
+
+    /**
+     * @return the total number of objects allocated while framing the received data into lines
+     */
+    public long getAllocations() {
+        return allocations.get();
+    }
+
+    /**
+     * Calculates the rates since the previous time this method was called
+     *
+     * @return the number of bytes, lines and allocations per second
+     */
+    public synchronized Rate sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(now - lastSampleTime, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+
+        long bytes = getBytesReceived();
+        long lines = getLinesReceived();
+        long allocated = getAllocations();
+        Rate rate = new Rate((bytes - lastBytesReceived) / seconds, (lines - lastLinesReceived) / seconds, (allocated - lastAllocations) / seconds);
+
+        lastSampleTime = now;
+        lastBytesReceived = bytes;
+        lastLinesReceived = lines;
+        lastAllocations = allocated;
+        return rate;
+    }
+
+    void addBytesReceived(int bytes) {
+        bytesReceived.addAndGet(bytes);
+    }
+
+    void addLineReceived() {
+        linesReceived.incrementAndGet();
+    }
+
+    void addAllocation() {
+        allocations.incrementAndGet();
+    }
+
+    /**
+     * The received data per second
+     */
+    public record Rate(double bytesPerSecond, double linesPerSecond, double allocationsPerSecond) {
+    }
+}
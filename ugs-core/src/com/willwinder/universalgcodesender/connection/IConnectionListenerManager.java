@@ -38,6 +38,11 @@ public interface IConnectionListenerManager {
 
     void notifyListeners(String message);
 
+    /**
+     * @return the statistics of the data received from the connection
+     */
+    ConnectionStatistics getStatistics();
+
     /**
      * Is triggered when a connection was closed
      */
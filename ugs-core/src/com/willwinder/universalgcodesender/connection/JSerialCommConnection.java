@@ -35,6 +35,7 @@ import java.util.List;
 public class JSerialCommConnection extends AbstractConnection implements SerialPortDataListener {
 
     private SerialPort serialPort;
+    private byte[] readBuffer = new byte[1024];
 
     public JSerialCommConnection() {
         // Empty implementation
@@ -115,6 +116,11 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
         serialPort.writeBytes(command.getBytes(), command.length());
     }
 
+    @Override
+    public void sendBytesToComm(byte[] bytes, int offset, int length) throws Exception {
+        serialPort.writeBytes(bytes, length, offset);
+    }
+
     @Override
     public boolean isOpen() {
         return serialPort != null && serialPort.isOpen();
@@ -143,9 +149,19 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
                 }
             }
             case SerialPort.LISTENING_EVENT_DATA_AVAILABLE -> {
-                byte[] newData = new byte[serialPort.bytesAvailable()];
-                int numRead = serialPort.readBytes(newData, newData.length);
-                getConnectionListenerManager().handleResponse(newData, 0, numRead);
+                int bytesAvailable = serialPort.bytesAvailable();
+                if (bytesAvailable <= 0) {
+                    return;
+                }
+
+                // The buffer is reused as the listener manager doesn't keep any references to it
+                if (bytesAvailable > readBuffer.length) {
+                    readBuffer = new byte[bytesAvailable];
+                }
+                int numRead = serialPort.readBytes(readBuffer, bytesAvailable);
+                if (numRead > 0) {
+                    getConnectionListenerManager().handleResponse(readBuffer, 0, numRead);
+                }
             }
             default -> {
                 // Never mind
@@ -0,0 +1,153 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits the data received from a connection into lines. The incoming bytes are scanned for line
+ * feeds directly and only complete lines are decoded, any carriage returns are removed. The bytes
+ * of an incomplete line are kept in a reusable buffer until the rest of the line is received.
+ * <p>
+ * An instance is not thread safe and should only be used by the thread reading from the connection.
+ */
+class ResponseLineFramer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Charset charset;
+    private final ConnectionStatistics statistics;
+    private final Consumer<String> lineConsumer;
+
+    /**
+     * The bytes of the incomplete line received so far
+     */
+    private byte[] pending = new byte[INITIAL_CAPACITY];
+    private int pendingLength;
+
+    /**
+     * Buffer for lines that needs carriage returns removed
+     */
+    private byte[] lineBuffer = new byte[INITIAL_CAPACITY];
+
+    ResponseLineFramer(ConnectionStatistics statistics, Consumer<String> lineConsumer) {
+        this(Charset.defaultCharset(), statistics, lineConsumer);
+    }
+
+    ResponseLineFramer(Charset charset, ConnectionStatistics statistics, Consumer<String> lineConsumer) {
+        this.charset = charset;
+        this.statistics = statistics;
+        this.lineConsumer = lineConsumer;
+    }
+
+    /**
+     * Adds received data, any complete lines will be passed to the line consumer without their line endings.
+     *
+     * @param buffer the byte buffer with data, it will not be referenced after this method returns
+     * @param offset the start index of the byte buffer to read from
+     * @param length the number of bytes to read
+     */
+    void append(byte[] buffer, int offset, int length) {
+        statistics.addBytesReceived(length);
+
+        int end = offset + length;
+        int lineStart = offset;
+        for (int i = offset; i < end; i++) {
+            if (buffer[i] != '\n') {
+                continue;
+            }
+
+            String line;
+            if (pendingLength == 0) {
+                line = decode(buffer, lineStart, i);
+            } else {
+                addPending(buffer, lineStart, i);
+                line = decode(pending, 0, pendingLength);
+                pendingLength = 0;
+            }
+
+            lineStart = i + 1;
+            statistics.addLineReceived();
+            lineConsumer.accept(line);
+        }
+
+        if (lineStart < end) {
+            addPending(buffer, lineStart, end);
+        }
+    }
+
+    private void addPending(byte[] buffer, int start, int end) {
+        int length = end - start;
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + length));
+            statistics.addAllocation();
+        }
+        System.arraycopy(buffer, start, pending, pendingLength, length);
+        pendingLength += length;
+    }
+
+    private String decode(byte[] buffer, int start, int end) {
+        // Line endings are usually "\r\n", remove the trailing carriage returns without copying
+        while (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+
+        boolean isAscii = true;
+        boolean hasCarriageReturn = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b < 0) {
+                isAscii = false;
+            } else if (b == '\r') {
+                hasCarriageReturn = true;
+            }
+        }
+
+        if (hasCarriageReturn) {
+            int length = removeCarriageReturns(buffer, start, end);
+            buffer = lineBuffer;
+            start = 0;
+            end = length;
+        }
+
+        statistics.addAllocation();
+        if (isAscii) {
+            // Decoding ASCII as ISO-8859-1 is a plain copy of the bytes
+            return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return new String(buffer, start, end - start, charset);
+    }
+
+    private int removeCarriageReturns(byte[] buffer, int start, int end) {
+        if (end - start > lineBuffer.length) {
+            lineBuffer = new byte[Math.max(lineBuffer.length * 2, end - start)];
+            statistics.addAllocation();
+        }
+
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] != '\r') {
+                lineBuffer[length++] = buffer[i];
+            }
+        }
+        return length;
+    }
+}
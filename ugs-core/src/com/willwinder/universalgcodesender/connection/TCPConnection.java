@@ -130,6 +130,18 @@ public class TCPConnection extends AbstractConnection implements Runnable, Conne
         }
     }
 
+    @Override
+    public void sendBytesToComm(byte[] bytes, int offset, int length) throws Exception {
+        try {
+            bufOut.write(bytes, offset, length);
+            bufOut.flush();
+        } catch (IOException e) {
+            // very likely we got disconnected, attempt to disconnect gracefully
+            connectionListenerManager.onConnectionClosed();
+            throw e;
+        }
+    }
+
     /**
      * Immediately sends a byte, used for real-time commands.
      */
@@ -77,7 +77,8 @@ public class WSConnection  extends AbstractConnection implements Connection  {
 
     @OnMessage
     public void onMessage(String message) {
-        connectionListenerManager.handleResponse(message.getBytes(), 0, message.length());
+        byte[] bytes = message.getBytes();
+        connectionListenerManager.handleResponse(bytes, 0, bytes.length);
     }
 
     @Override
@@ -108,6 +109,11 @@ public class WSConnection  extends AbstractConnection implements Connection  {
         this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(command.getBytes(StandardCharsets.UTF_8)), true);
     }
 
+    @Override
+    public void sendBytesToComm(byte[] bytes, int offset, int length) throws Exception {
+        this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(bytes, offset, length), true);
+    }
+
     @Override
     public boolean isOpen() {
         return this.userSession != null && this.userSession.isOpen();
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.connection.xmodem;
 
 import com.willwinder.universalgcodesender.connection.Connection;
+import com.willwinder.universalgcodesender.connection.ConnectionStatistics;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
 import com.willwinder.universalgcodesender.connection.IConnectionListenerManager;
 import static com.willwinder.universalgcodesender.connection.xmodem.XModemUtils.trimEOF;
@@ -62,6 +63,11 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
         // Not implemented
     }
 
+    @Override
+    public ConnectionStatistics getStatistics() {
+        return previousConnectionListenerManager.getStatistics();
+    }
+
     @Override
     public void onConnectionClosed() {
         previousConnectionListenerManager.onConnectionClosed();
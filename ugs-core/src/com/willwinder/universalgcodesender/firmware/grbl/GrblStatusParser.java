@@ -0,0 +1,413 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware.grbl;
+
+import com.willwinder.universalgcodesender.listeners.AccessoryStates;
+import com.willwinder.universalgcodesender.listeners.AccessoryStatesBuilder;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.EnabledPins;
+import com.willwinder.universalgcodesender.listeners.EnabledPinsBuilder;
+import com.willwinder.universalgcodesender.listeners.OverridePercents;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+
+/**
+ * Parses GRBL 1.1 status reports, which are also used by FluidNC and Smoothieware:
+ * <pre>
+ * &lt;Run|MPos:1.000,2.000,3.000|Bf:15,128|FS:1000,12000|WCO:0.000,0.000,0.000&gt;
+ * </pre>
+ * The report is walked once with a cursor and the numbers are parsed in place instead of splitting
+ * the report into strings. Status reports are received many times per second, so the immutable parts
+ * of the last status that haven't changed, such as the speeds, pins and overrides, are reused instead
+ * of being created again. The positions are mutable and always created for each status, so that a
+ * consumer modifying a position can't change another status.
+ */
+public final class GrblStatusParser {
+    private static final int MAX_AXES = 6;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private static final String[] STATE_NAMES = {"jog", "run", "hold", "door", "home", "idle", "alarm", "check", "sleep", "tool"};
+    private static final ControllerState[] STATES = {ControllerState.JOG, ControllerState.RUN, ControllerState.HOLD,
+            ControllerState.DOOR, ControllerState.HOME, ControllerState.IDLE, ControllerState.ALARM, ControllerState.CHECK,
+            ControllerState.SLEEP, ControllerState.TOOL};
+
+    private final String status;
+    private final ControllerStatus lastStatus;
+    private final Units reportingUnits;
+    private final double[] values = new double[MAX_AXES];
+
+    /**
+     * The position of the cursor in the status report
+     */
+    private int index;
+
+    private GrblStatusParser(ControllerStatus lastStatus, String status, Units reportingUnits) {
+        this.lastStatus = lastStatus;
+        this.status = status;
+        this.reportingUnits = reportingUnits;
+    }
+
+    /**
+     * Parses a status report in the GRBL 1.1 format, see {@link com.willwinder.universalgcodesender.GrblUtils#getStatusFromStatusStringV1}
+     *
+     * @param lastStatus     the previous status, which has the values that are only reported when they change
+     * @param status         the status report
+     * @param reportingUnits the units of the positions in the report
+     * @return the parsed status
+     */
+    public static ControllerStatus parse(ControllerStatus lastStatus, String status, Units reportingUnits) {
+        return new GrblStatusParser(lastStatus, status, reportingUnits).parse();
+    }
+
+    private ControllerStatus parse() {
+        ControllerState state = ControllerState.UNKNOWN;
+        String subState = "";
+        Position machinePosition = null;
+        Position workPosition = null;
+        Position workCoordinateOffset = null;
+        OverridePercents overrides = null;
+        EnabledPins pins = EnabledPins.EMPTY_PINS;
+        AccessoryStates accessoryStates = null;
+        boolean isOverrideReport = false;
+
+        Double feedSpeed = 0d;
+        Double spindleSpeed = 0d;
+        if (lastStatus != null) {
+            feedSpeed = lastStatus.getFeedSpeed();
+            spindleSpeed = lastStatus.getSpindleSpeed();
+        }
+
+        // The last character is the closing bracket of the report
+        int end = Math.max(status.length() - 1, 0);
+        while (index < end) {
+            int fieldEnd = status.indexOf('|', index);
+            if (fieldEnd < 0 || fieldEnd > end) {
+                fieldEnd = end;
+            }
+
+            if (status.charAt(index) == '<') {
+                int separator = status.indexOf(':', index);
+                if (separator < 0 || separator > fieldEnd) {
+                    state = getState(index + 1, fieldEnd);
+                } else {
+                    state = getState(index + 1, separator);
+                    subState = status.substring(separator + 1, fieldEnd);
+                }
+            } else if (status.startsWith("MPos:", index)) {
+                machinePosition = parsePosition(index + 5);
+            } else if (status.startsWith("WPos:", index)) {
+                workPosition = parsePosition(index + 5);
+            } else if (status.startsWith("WCO:", index)) {
+                workCoordinateOffset = parsePosition(index + 4);
+            } else if (status.startsWith("Ov:", index)) {
+                isOverrideReport = true;
+                overrides = parseOverrides(index + 3, fieldEnd);
+            } else if (status.startsWith("FS:", index)) {
+                int count = parseValues(index + 3, fieldEnd);
+                feedSpeed = reuse(values[0], feedSpeed);
+                if (count > 1) {
+                    spindleSpeed = reuse(values[1], spindleSpeed);
+                }
+            } else if (status.startsWith("F:", index)) {
+                feedSpeed = reuse(parseFeedSpeed(index + 2, fieldEnd), feedSpeed);
+            } else if (status.startsWith("Pn:", index)) {
+                pins = parseEnabledPins(index + 3, fieldEnd);
+            } else if (status.startsWith("A:", index)) {
+                accessoryStates = parseAccessoryStates(index + 2, fieldEnd);
+            }
+
+            index = fieldEnd + 1;
+        }
+
+        // Grab WCO from state information if necessary.
+        if (workCoordinateOffset == null) {
+            if (lastStatus != null && lastStatus.getWorkCoordinateOffset() != null) {
+                workCoordinateOffset = lastStatus.getWorkCoordinateOffset();
+            } else {
+                workCoordinateOffset = new Position(0, 0, 0, 0, 0, 0, reportingUnits);
+            }
+        }
+
+        // Calculate missing coordinate with WCO
+        if (workPosition == null && machinePosition != null) {
+            Position offset = workCoordinateOffset;
+            workPosition = new Position(machinePosition.x - offset.x, machinePosition.y - offset.y, machinePosition.z - offset.z,
+                    machinePosition.a - offset.a, machinePosition.b - offset.b, machinePosition.c - offset.c,
+                    reportingUnits);
+        } else if (machinePosition == null && workPosition != null) {
+            Position offset = workCoordinateOffset;
+            machinePosition = new Position(workPosition.x + offset.x, workPosition.y + offset.y, workPosition.z + offset.z,
+                    workPosition.a + offset.a, workPosition.b + offset.b, workPosition.c + offset.c,
+                    reportingUnits);
+        }
+
+        if (!isOverrideReport && lastStatus != null) {
+            overrides = lastStatus.getOverrides();
+        }
+
+        if (accessoryStates == null && !isOverrideReport && lastStatus != null) {
+            accessoryStates = lastStatus.getAccessoryStates();
+        } else if (accessoryStates == null) {
+            accessoryStates = AccessoryStates.EMPTY_ACCESSORY_STATE;
+        }
+
+        return new ControllerStatus(state, subState, machinePosition, workPosition, feedSpeed, reportingUnits, spindleSpeed,
+                overrides, workCoordinateOffset, pins, accessoryStates);
+    }
+
+    private ControllerState getState(int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < STATE_NAMES.length; i++) {
+            String name = STATE_NAMES[i];
+            if (name.length() == length && status.regionMatches(true, start, name, 0, length)) {
+                return STATES[i];
+            }
+        }
+        return ControllerState.UNKNOWN;
+    }
+
+    /**
+     * Parses the comma separated coordinates of a position, which has three to six axes
+     *
+     * @return the position or null if there are too few coordinates
+     */
+    private Position parsePosition(int start) {
+        int count = 0;
+        int position = start;
+        while (count < MAX_AXES && position < status.length()) {
+            int valueEnd = position;
+            while (valueEnd < status.length() && isNumberCharacter(status.charAt(valueEnd))) {
+                valueEnd++;
+            }
+
+            // The optional axes need at least one digit
+            if (count >= 3 && valueEnd == position) {
+                break;
+            }
+            values[count++] = parseDouble(position, valueEnd);
+
+            if (valueEnd >= status.length() || status.charAt(valueEnd) != ',') {
+                break;
+            }
+            position = valueEnd + 1;
+        }
+
+        if (count < 3) {
+            return null;
+        }
+
+        double a = count > 3 ? values[3] : Double.NaN;
+        double b = count > 4 ? values[4] : Double.NaN;
+        double c = count > 5 ? values[5] : Double.NaN;
+        return new Position(values[0], values[1], values[2], a, b, c, reportingUnits);
+    }
+
+    private static Double reuse(double value, Double lastValue) {
+        if (lastValue != null && isSame(value, lastValue)) {
+            return lastValue;
+        }
+        return value;
+    }
+
+    private static boolean isSame(double value, double lastValue) {
+        return Double.doubleToLongBits(value) == Double.doubleToLongBits(lastValue);
+    }
+
+    /**
+     * Parses the comma separated values of a field into the values array
+     *
+     * @return the number of values
+     */
+    private int parseValues(int start, int end) {
+        int count = 0;
+        int position = start;
+        while (count < MAX_AXES) {
+            int valueEnd = status.indexOf(',', position);
+            if (valueEnd < 0 || valueEnd > end) {
+                valueEnd = end;
+            }
+            values[count++] = parseDouble(position, valueEnd);
+            if (valueEnd == end) {
+                break;
+            }
+            position = valueEnd + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Parses a field with the current feed rate in the format "F:1000.0" or "F:3000.0,100.0,100.0"
+     */
+    private double parseFeedSpeed(int start, int end) {
+        int commas = 0;
+        for (int i = start; i < end; i++) {
+            if (status.charAt(i) == ',') {
+                commas++;
+            }
+        }
+
+        if (commas == 1) {
+            return 0;
+        }
+        parseValues(start, end);
+        return values[0];
+    }
+
+    private OverridePercents parseOverrides(int start, int end) {
+        if (parseValues(start, end) != 3) {
+            return OverridePercents.EMTPY_OVERRIDE_PERCENTS;
+        }
+
+        int feed = toPercent(values[0], start, end);
+        int rapid = toPercent(values[1], start, end);
+        int spindle = toPercent(values[2], start, end);
+        OverridePercents lastOverrides = lastStatus == null ? null : lastStatus.getOverrides();
+        if (lastOverrides != null && lastOverrides.feed() == feed && lastOverrides.rapid() == rapid && lastOverrides.spindle() == spindle) {
+            return lastOverrides;
+        }
+        return new OverridePercents(feed, rapid, spindle);
+    }
+
+    private int toPercent(double value, int start, int end) {
+        if (value != Math.rint(value)) {
+            throw new NumberFormatException("Invalid override percents: " + status.substring(start, end));
+        }
+        return (int) value;
+    }
+
+    private EnabledPins parseEnabledPins(int start, int end) {
+        boolean x = false, x0 = false, x1 = false, y = false, y0 = false, y1 = false, z = false, z0 = false, z1 = false;
+        boolean a = false, b = false, c = false, probe = false, door = false, hold = false, softReset = false, cycleStart = false;
+        for (int i = start; i < end; i++) {
+            char next = i + 1 < end ? status.charAt(i + 1) : 0;
+            switch (Character.toUpperCase(status.charAt(i))) {
+                case 'X' -> {
+                    x = true;
+                    x0 |= next == '0';
+                    x1 |= next == '1';
+                }
+                case 'Y' -> {
+                    y = true;
+                    y0 |= next == '0';
+                    y1 |= next == '1';
+                }
+                case 'Z' -> {
+                    z = true;
+                    z0 |= next == '0';
+                    z1 |= next == '1';
+                }
+                case 'A' -> a = true;
+                case 'B' -> b = true;
+                case 'C' -> c = true;
+                case 'P' -> probe = true;
+                case 'D' -> door = true;
+                case 'H' -> hold = true;
+                case 'R' -> softReset = true;
+                case 'S' -> cycleStart = true;
+                default -> {
+                    // Unknown pin
+                }
+            }
+        }
+
+        EnabledPins lastPins = lastStatus == null ? null : lastStatus.getEnabledPins();
+        if (lastPins != null && lastPins.x() == x && lastPins.x0() == x0 && lastPins.x1() == x1 &&
+                lastPins.y() == y && lastPins.y0() == y0 && lastPins.y1() == y1 &&
+                lastPins.z() == z && lastPins.z0() == z0 && lastPins.z1() == z1 &&
+                lastPins.a() == a && lastPins.b() == b && lastPins.c() == c && lastPins.probe() == probe &&
+                lastPins.door() == door && lastPins.hold() == hold && lastPins.softReset() == softReset &&
+                lastPins.cycleStart() == cycleStart) {
+            return lastPins;
+        }
+
+        return new EnabledPinsBuilder().setX(x).setX0(x0).setX1(x1)
+                .setY(y).setY0(y0).setY1(y1)
+                .setZ(z).setZ0(z0).setZ1(z1)
+                .setA(a).setB(b).setC(c)
+                .setProbe(probe).setDoor(door).setHold(hold).setSoftReset(softReset).setCycleStart(cycleStart)
+                .createEnabledPins();
+    }
+
+    private AccessoryStates parseAccessoryStates(int start, int end) {
+        boolean spindleCW = false;
+        boolean flood = false;
+        boolean mist = false;
+        for (int i = start; i < end; i++) {
+            switch (Character.toUpperCase(status.charAt(i))) {
+                case 'S' -> spindleCW = true;
+                case 'F' -> flood = true;
+                case 'M' -> mist = true;
+                default -> {
+                    // Other accessories are not tracked
+                }
+            }
+        }
+
+        AccessoryStates lastStates = lastStatus == null ? null : lastStatus.getAccessoryStates();
+        if (lastStates != null && lastStates.spindleCW() == spindleCW && lastStates.flood() == flood && lastStates.mist() == mist) {
+            return lastStates;
+        }
+        return new AccessoryStatesBuilder().setSpindleCW(spindleCW).setFlood(flood).setMist(mist).createAccessoryStates();
+    }
+
+    private static boolean isNumberCharacter(char character) {
+        return (character >= '0' && character <= '9') || character == '.' || character == '-';
+    }
+
+    /**
+     * Parses a decimal number without creating a string. The result is the same as {@link Double#parseDouble}
+     * as the digits and the power of ten are exact doubles, anything else is handed to it.
+     */
+    private double parseDouble(int start, int end) {
+        int position = start;
+        boolean isNegative = false;
+        if (position < end && (status.charAt(position) == '-' || status.charAt(position) == '+')) {
+            isNegative = status.charAt(position) == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; position < end; position++) {
+            char character = status.charAt(position);
+            if (character >= '0' && character <= '9') {
+                mantissa = mantissa * 10 + (character - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else if (character == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (position != end || digits == 0 || digits > 15 || decimals >= POWERS_OF_TEN.length || mantissa >= MAX_EXACT_MANTISSA) {
+            return Double.parseDouble(status.substring(start, end));
+        }
+
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return isNegative ? -value : value;
+    }
+}
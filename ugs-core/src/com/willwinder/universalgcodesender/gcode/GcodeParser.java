@@ -1,5 +1,5 @@
 /*
-    Copyright 2013-2020 Will Winder
+    Copyright 2013-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -49,6 +49,7 @@ public class GcodeParser implements IGcodeParser {
 
     private final CommandProcessorList processors = new CommandProcessorList();
 
+    private final boolean isStatsEnabled;
     private Stats statsProcessor;
 
     /**
@@ -80,6 +81,15 @@ public class GcodeParser implements IGcodeParser {
      * Constructor.
      */
     public GcodeParser() {
+        this(true);
+    }
+
+    /**
+     * @param isStatsEnabled if the statistics should be collected while adding commands, it can be
+     *                       disabled when only the state and points are needed.
+     */
+    public GcodeParser(boolean isStatsEnabled) {
+        this.isStatsEnabled = isStatsEnabled;
         this.state = new GcodeState();
         this.reset();
     }
@@ -92,6 +102,13 @@ public class GcodeParser implements IGcodeParser {
         return this.processors.size();
     }
 
+    /**
+     * @return true if any of the command processors needs to process the commands in sequence.
+     */
+    public boolean hasStatefulCommandProcessors() {
+        return this.processors.isStateful();
+    }
+
     /**
      * Add a preprocessor to use with the preprocessCommand method.
      */
@@ -133,7 +150,16 @@ public class GcodeParser implements IGcodeParser {
      */
     @Override
     public List<GcodeMeta> addCommand(String command) throws GcodeParserException {
-        return addCommand(command, ++this.state.commandNumber);
+        int line = this.state.commandNumber + 1;
+        try {
+            return addCommand(command, line);
+        } finally {
+            // The current state may be used by others, only replace it if the command didn't
+            if (this.state.commandNumber != line) {
+                this.state = this.state.copy();
+                this.state.commandNumber = line;
+            }
+        }
     }
 
     /**
@@ -142,7 +168,9 @@ public class GcodeParser implements IGcodeParser {
      */
     @Override
     public List<GcodeMeta> addCommand(String command, int line) throws GcodeParserException {
-        statsProcessor.processCommand(command, state);
+        if (isStatsEnabled) {
+            statsProcessor.processCommand(command, state);
+        }
         List<GcodeMeta> results = new ArrayList<>();
         // Add command get meta doesn't update the state, so we need to do that
         // manually.
@@ -155,7 +183,9 @@ public class GcodeParser implements IGcodeParser {
                 if (c.state != null) {
                     this.state = c.state;
                     // Process stats.
-                    statsProcessor.processCommand(command, state);
+                    if (isStatsEnabled) {
+                        statsProcessor.processCommand(command, state);
+                    }
                 }
             }
         }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2013-2022 Will Winder
+    Copyright 2013-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -57,7 +57,13 @@ public class GcodePreprocessorUtils {
     public static final Pattern COMMENT = Pattern.compile("\\(.*\\)|\\s*;.*|%.*$");
     private static final String EMPTY = "";
     private static final Pattern COMMENTPARSE = Pattern.compile("(?<=\\()[^()]*|(?<=;).*|%");
-    private static final DecimalFormat DEFAULT_FORMATTER = new DecimalFormat("0.####", Localization.dfs);
+    private static final String DEFAULT_FORMAT = "0.####";
+
+    /**
+     * DecimalFormat isn't thread safe and the processors may be run in parallel, so each thread gets its own formatter.
+     */
+    private static final ThreadLocal<DecimalFormat> DEFAULT_FORMATTER = ThreadLocal.withInitial(() -> new DecimalFormat(DEFAULT_FORMAT, Localization.dfs));
+    private static final ThreadLocal<DecimalTruncation> DECIMAL_TRUNCATION = new ThreadLocal<>();
 
     private static final EnumMap<Axis, Pattern> POSITION_OVERRIDE_MAP = new EnumMap<>(Axis.class);
     static {
@@ -69,9 +75,7 @@ public class GcodePreprocessorUtils {
         POSITION_OVERRIDE_MAP.put(Axis.C, Pattern.compile("C([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
     }
 
-    private static int decimalLength = -1;
-    private static Pattern decimalPattern;
-    private static DecimalFormat decimalFormatter = DEFAULT_FORMATTER;
+    private static volatile DecimalFormat decimalFormatter = new DecimalFormat(DEFAULT_FORMAT, Localization.dfs);
 
     /**
      * Searches the command string for moves (x, y, z, a, b, or c) and replaces
@@ -84,7 +88,7 @@ public class GcodePreprocessorUtils {
             Axis axis = axisToPattern.getKey();
             if (updated.hasAxis(axis)) {
                 Matcher matcher = axisToPattern.getValue().matcher(command);
-                String updatedStr = axis + DEFAULT_FORMATTER.format(updated.getAxis(axis));
+                String updatedStr = axis + DEFAULT_FORMATTER.get().format(updated.getAxis(axis));
                 if (matcher.find()) {
                     command = matcher.replaceAll(updatedStr);
                 } else {
@@ -144,19 +148,21 @@ public class GcodePreprocessorUtils {
     }
 
     static public String truncateDecimals(int length, String command) {
-        if (length != decimalLength) {
+        DecimalTruncation truncation = DECIMAL_TRUNCATION.get();
+        if (truncation == null || truncation.length != length) {
             //Only build the decimal formatter if the truncation length has changed.
-            updateDecimalFormatter(length);
-
+            truncation = new DecimalTruncation(length);
+            DECIMAL_TRUNCATION.set(truncation);
+            decimalFormatter = (DecimalFormat) truncation.formatter.clone();
         }
-        Matcher matcher = decimalPattern.matcher(command);
+        Matcher matcher = truncation.pattern.matcher(command);
 
         // Build up the truncated command.
         double d;
         StringBuffer sb = new StringBuffer();
         while (matcher.find()) {
             d = Double.parseDouble(matcher.group());
-            matcher.appendReplacement(sb, decimalFormatter.format(d));
+            matcher.appendReplacement(sb, truncation.formatter.format(d));
         }
         matcher.appendTail(sb);
 
@@ -164,34 +170,47 @@ public class GcodePreprocessorUtils {
         return sb.toString();
     }
 
+    /**
+     * Returns a copy of the formatter last used for truncating decimals. A new copy is returned
+     * on each call as the formatter is not thread safe.
+     */
     public static DecimalFormat getDecimalFormatter() {
-        return decimalFormatter;
+        return (DecimalFormat) decimalFormatter.clone();
     }
 
-    private static void updateDecimalFormatter(int length) {
-        StringBuilder df = new StringBuilder();
+    /**
+     * The formatter and pattern used for truncating decimals to a given length.
+     */
+    private static class DecimalTruncation {
+        private final int length;
+        private final DecimalFormat formatter;
+        private final Pattern pattern;
+
+        private DecimalTruncation(int length) {
+            StringBuilder df = new StringBuilder();
 
-        // Build up the decimal formatter.
-        df.append("#");
+            // Build up the decimal formatter.
+            df.append("#");
 
-        if (length != 0) {
-            df.append(".");
-        }
-        for (int i = 0; i < length; i++) {
-            df.append('#');
-        }
+            if (length != 0) {
+                df.append(".");
+            }
+            for (int i = 0; i < length; i++) {
+                df.append('#');
+            }
 
-        decimalFormatter = new DecimalFormat(df.toString(), Localization.dfs);
+            this.formatter = new DecimalFormat(df.toString(), Localization.dfs);
 
-        // Build up the regular expression.
-        df = new StringBuilder();
-        df.append("\\d+\\.\\d");
-        for (int i = 0; i < length; i++) {
-            df.append("\\d");
+            // Build up the regular expression.
+            df = new StringBuilder();
+            df.append("\\d+\\.\\d");
+            for (int i = 0; i < length; i++) {
+                df.append("\\d");
+            }
+            df.append('+');
+            this.pattern = Pattern.compile(df.toString());
+            this.length = length;
         }
-        df.append('+');
-        decimalPattern = Pattern.compile(df.toString());
-        decimalLength = length;
     }
 
     static public List<String> parseCodes(List<String> args, char code) {
@@ -228,6 +247,26 @@ public class GcodePreprocessorUtils {
         return updatePointWithCommand(initial, x, y, z, a, b, c, absoluteMode);
     }
 
+    /**
+     * Update a point given the arguments of a tokenized command.
+     */
+    public static Position updatePointWithCommand(GcodeTokenizer words, Position initial, boolean absoluteMode) {
+        double x = words.getCoordinate('X');
+        double y = words.getCoordinate('Y');
+        double z = words.getCoordinate('Z');
+        double a = words.getCoordinate('A');
+        double b = words.getCoordinate('B');
+        double c = words.getCoordinate('C');
+        double e = words.getCoordinate('E');
+
+        if (Double.isNaN(x) && Double.isNaN(y) && Double.isNaN(z) &&
+                Double.isNaN(a) && Double.isNaN(b) && Double.isNaN(c) && Double.isNaN(e)) {
+            return null;
+        }
+
+        return updatePointWithCommand(initial, x, y, z, a, b, c, absoluteMode);
+    }
+
     /**
      * Update a point given the new coordinates.
      */
@@ -297,7 +336,29 @@ public class GcodePreprocessorUtils {
         double j = parseCoord(commandArgs, 'J');
         double k = parseCoord(commandArgs, 'K');
         double radius = parseCoord(commandArgs, 'R');
+        return updateCenterWithCommand(i, j, k, radius, initial, nextPoint, absoluteIJKMode, clockwise, plane);
+    }
 
+    /**
+     * Calculates the center of an arc given the arguments of a tokenized command.
+     */
+    public static Position updateCenterWithCommand(
+            GcodeTokenizer words,
+            Position initial,
+            Position nextPoint,
+            boolean absoluteIJKMode,
+            boolean clockwise,
+            PlaneFormatter plane) {
+        double i = words.getCoordinate('I');
+        double j = words.getCoordinate('J');
+        double k = words.getCoordinate('K');
+        double radius = words.getCoordinate('R');
+        return updateCenterWithCommand(i, j, k, radius, initial, nextPoint, absoluteIJKMode, clockwise, plane);
+    }
+
+    private static Position updateCenterWithCommand(double i, double j, double k, double radius, Position initial,
+                                                    Position nextPoint, boolean absoluteIJKMode, boolean clockwise,
+                                                    PlaneFormatter plane) {
         if (Double.isNaN(i) && Double.isNaN(j) && Double.isNaN(k)) {
             return GcodePreprocessorUtils.convertRToCenter(
                     initial, nextPoint, radius, absoluteIJKMode,
@@ -315,7 +376,7 @@ public class GcodePreprocessorUtils {
     static public String generateLineFromPoints(final Code command, final CNCPoint start, final CNCPoint end, final boolean absoluteMode, DecimalFormat formatter) {
         DecimalFormat df = formatter;
         if (df == null) {
-            df = DEFAULT_FORMATTER;
+            df = DEFAULT_FORMATTER.get();
         }
 
         StringBuilder sb = new StringBuilder();
@@ -354,81 +415,14 @@ public class GcodePreprocessorUtils {
 
     /**
      * Splits a gcode command by each word/argument, doesn't care about spaces.
-     * This command is about the same speed as the string.split(" ") command,
-     * but might be a little faster using precompiled regex.
+     * Use a {@link GcodeTokenizer} directly to avoid creating a string for each word.
      */
     static public List<String> splitCommand(String command) {
-        // Special handling for GRBL system commands which will not be splitted
-        if (command.startsWith("$")) {
-            return Collections.singletonList(command);
+        GcodeTokenizer tokenizer = new GcodeTokenizer().tokenize(command);
+        List<String> l = new ArrayList<>(tokenizer.size());
+        for (int i = 0; i < tokenizer.size(); i++) {
+            l.add(tokenizer.getWord(i));
         }
-
-        List<String> l = new ArrayList<>();
-        boolean readNumeric = false;
-        boolean readLineComment = false;
-        int blockCommentDepth = 0;
-        StringBuilder sb = new StringBuilder();
-
-        for (int i = 0; i < command.length(); i++) {
-            char c = command.charAt(i);
-
-            if (c == '(' && !readLineComment) {
-                if (blockCommentDepth == 0 && sb.length() > 0) {
-                    l.add(sb.toString());
-                    sb = new StringBuilder();
-                }
-                sb.append(c);
-                blockCommentDepth++;
-                readNumeric = false;
-                continue;
-            } else if (blockCommentDepth > 0 && c == ')') {
-                sb.append(c);
-                blockCommentDepth--;
-                if (blockCommentDepth == 0) {
-                    l.add(sb.toString());
-                    sb = new StringBuilder();
-                }
-                continue;
-            } else if (c == ';' && !readLineComment && blockCommentDepth == 0) {
-                if (sb.length() > 0) {
-                    l.add(sb.toString());
-                    sb = new StringBuilder();
-                }
-                sb.append(c);
-                readLineComment = true;
-                continue;
-            }
-
-
-            if (readLineComment || blockCommentDepth > 0) {
-                sb.append(c);
-            } else if (Character.isWhitespace(c)) {
-                continue;
-            }
-            // If the last character was numeric (readNumeric is true) and this
-            // character is a letter or whitespace, then we hit a boundary.
-            else if (readNumeric && !Character.isDigit(c) && c != '.') {
-                readNumeric = false; // reset flag.
-
-                l.add(sb.toString());
-                sb = new StringBuilder();
-
-                if (Character.isLetter(c)) {
-                    sb.append(c);
-                }
-            } else if (Character.isDigit(c) || c == '.' || c == '-') {
-                sb.append(c);
-                readNumeric = true;
-            } else if (Character.isLetter(c)) {
-                sb.append(c);
-            }
-        }
-
-        // Add final one
-        if (sb.length() > 0) {
-            l.add(sb.toString());
-        }
-
         return l;
     }
 
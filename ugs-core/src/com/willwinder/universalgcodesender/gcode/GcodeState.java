@@ -28,6 +28,10 @@ import static com.willwinder.universalgcodesender.gcode.util.Code.*;
 
 /**
  * The current state of a gcode program.
+ * <p>
+ * A state that has been handed out by the parser is a snapshot and should not be modified, use
+ * {@link #copy()} to create a state that can be changed. The {@link #currentPoint} is shared between
+ * copies and must be replaced rather than modified.
  *
  * @author wwinder
  */
@@ -86,6 +90,12 @@ public class GcodeState {
         this.currentPoint = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Units.MM);
     }
 
+    /**
+     * Creates a copy of this state which can be modified without affecting this state. The current
+     * point is not copied as positions are never modified once they have been assigned to a state.
+     *
+     * @return a copy of the state
+     */
     public GcodeState copy() {
         GcodeState ret = new GcodeState();
         ret.currentMotionMode = currentMotionMode;
@@ -113,7 +123,8 @@ public class GcodeState {
 
         ret.toolNumber = toolNumber;
 
-        if (currentPoint != null) {
+        ret.currentPoint = currentPoint;
+        if (currentPoint != null && currentPoint.getUnits() != getUnits()) {
             ret.currentPoint = new Position(currentPoint.x, currentPoint.y, currentPoint.z, currentPoint.a, currentPoint.b, currentPoint.c, getUnits());
         }
         ret.commandNumber = commandNumber;
@@ -0,0 +1,426 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Code;
+
+import java.util.Arrays;
+
+/**
+ * Splits a gcode command into its words in a single pass. The letter, numeric value and
+ * G/M-code of each word is parsed once and stored in primitive arrays which are reused when
+ * the next command is tokenized, so that the words can be looked up without creating any
+ * intermediate strings.
+ * <p>
+ * The words are split the same way as {@link GcodePreprocessorUtils#splitCommand(String)}.
+ * An instance is not thread safe but can be reused for any number of commands.
+ */
+public class GcodeTokenizer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The largest number that will fit in the mantissa of a double without losing precision
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final Code[] G_CODES = createCodeTable('G');
+    private static final Code[] M_CODES = createCodeTable('M');
+
+    private String command = "";
+    private int size;
+    private char[] buffer = new char[64];
+    private int bufferLength;
+    private int[] wordStart = new int[INITIAL_CAPACITY];
+    private int[] wordEnd = new int[INITIAL_CAPACITY];
+    private char[] letters = new char[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private Code[] codes = new Code[INITIAL_CAPACITY];
+
+    /**
+     * Splits the given command into words, replacing the words of any previous command.
+     *
+     * @param command the command to tokenize
+     * @return this tokenizer
+     */
+    public GcodeTokenizer tokenize(String command) {
+        this.command = command;
+        size = 0;
+        bufferLength = 0;
+
+        // Special handling for GRBL system commands which will not be splitted
+        if (command.startsWith("$")) {
+            int start = bufferLength;
+            for (int i = 0; i < command.length(); i++) {
+                append(command.charAt(i));
+            }
+            addWord(start);
+            return this;
+        }
+
+        boolean readNumeric = false;
+        boolean readLineComment = false;
+        int blockCommentDepth = 0;
+        int start = 0;
+
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+
+            if (c == '(' && !readLineComment) {
+                if (blockCommentDepth == 0 && bufferLength > start) {
+                    start = addWord(start);
+                }
+                append(c);
+                blockCommentDepth++;
+                readNumeric = false;
+                continue;
+            } else if (blockCommentDepth > 0 && c == ')') {
+                append(c);
+                blockCommentDepth--;
+                if (blockCommentDepth == 0) {
+                    start = addWord(start);
+                }
+                continue;
+            } else if (c == ';' && !readLineComment && blockCommentDepth == 0) {
+                if (bufferLength > start) {
+                    start = addWord(start);
+                }
+                append(c);
+                readLineComment = true;
+                continue;
+            }
+
+            if (readLineComment || blockCommentDepth > 0) {
+                append(c);
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            }
+            // If the last character was numeric (readNumeric is true) and this
+            // character is a letter or whitespace, then we hit a boundary.
+            else if (readNumeric && !Character.isDigit(c) && c != '.') {
+                readNumeric = false;
+                start = addWord(start);
+
+                if (Character.isLetter(c)) {
+                    append(c);
+                }
+            } else if (Character.isDigit(c) || c == '.' || c == '-') {
+                append(c);
+                readNumeric = true;
+            } else if (Character.isLetter(c)) {
+                append(c);
+            }
+        }
+
+        // Add final one
+        if (bufferLength > start) {
+            addWord(start);
+        }
+        return this;
+    }
+
+    /**
+     * @return the last tokenized command
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the number of words in the command, including comments
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the index of the word
+     * @return the word as a string, like "X-0.5" or "(comment)"
+     */
+    public String getWord(int index) {
+        return new String(buffer, wordStart[index], wordEnd[index] - wordStart[index]);
+    }
+
+    /**
+     * @param index the index of the word
+     * @return the upper case first character of the word
+     */
+    public char getLetter(int index) {
+        return letters[index];
+    }
+
+    /**
+     * @param index the index of the word
+     * @return the number following the first character of the word, or NaN if it isn't a number
+     */
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @param index the index of the word
+     * @return the G or M code of the word, {@link Code#UNKNOWN} if it isn't a known code or null if the word
+     * isn't a G or M word
+     */
+    public Code getCode(int index) {
+        return codes[index];
+    }
+
+    /**
+     * @param index the index of the word
+     * @return the number of characters in the word
+     */
+    public int getWordLength(int index) {
+        return wordEnd[index] - wordStart[index];
+    }
+
+    /**
+     * @param letter the letter to find
+     * @return the index of the first word starting with the given letter, or -1 if not found
+     */
+    public int indexOf(char letter) {
+        char address = Character.toUpperCase(letter);
+        for (int i = 0; i < size; i++) {
+            if (letters[i] == address) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param letter the letter to count
+     * @return the number of words starting with the given letter
+     */
+    public int count(char letter) {
+        char address = Character.toUpperCase(letter);
+        int result = 0;
+        for (int i = 0; i < size; i++) {
+            if (letters[i] == address) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the code of the given word has been used by a previous word with the same letter
+     *
+     * @param index the index of the word
+     * @return true if this is the first word with its code
+     */
+    public boolean isFirstOccurrence(int index) {
+        for (int i = 0; i < index; i++) {
+            if (codes[i] == codes[index] && letters[i] == letters[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of the first word with the given letter, the same as
+     * {@link GcodePreprocessorUtils#parseCoord(java.util.List, char)}.
+     *
+     * @param letter the letter of the word
+     * @return the value or NaN if the word is missing or isn't a number
+     */
+    public double getCoordinate(char letter) {
+        int index = indexOf(letter);
+        if (index < 0 || getWordLength(index) <= 1) {
+            return Double.NaN;
+        }
+        return values[index];
+    }
+
+    /**
+     * @return true if the command contains any X, Y, Z, A, B or C words
+     */
+    public boolean hasAxisWords() {
+        for (int i = 0; i < size; i++) {
+            if (getWordLength(i) > 1) {
+                char c = letters[i];
+                if (c == 'X' || c == 'Y' || c == 'Z' || c == 'A' || c == 'B' || c == 'C') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void append(char c) {
+        if (bufferLength == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[bufferLength++] = c;
+    }
+
+    private int addWord(int start) {
+        if (size == letters.length) {
+            int capacity = size * 2;
+            wordStart = Arrays.copyOf(wordStart, capacity);
+            wordEnd = Arrays.copyOf(wordEnd, capacity);
+            letters = Arrays.copyOf(letters, capacity);
+            values = Arrays.copyOf(values, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        char letter = Character.toUpperCase(buffer[start]);
+        wordStart[size] = start;
+        wordEnd[size] = bufferLength;
+        letters[size] = letter;
+        if (letter == '(' || letter == ';' || letter == '$') {
+            // Comments and system commands don't have a value
+            values[size] = Double.NaN;
+        } else {
+            values[size] = parseDouble(buffer, start + 1, bufferLength);
+        }
+        codes[size] = switch (letter) {
+            case 'G' -> lookupCode(G_CODES, buffer, start + 1, bufferLength);
+            case 'M' -> lookupCode(M_CODES, buffer, start + 1, bufferLength);
+            default -> null;
+        };
+        size++;
+        return bufferLength;
+    }
+
+    /**
+     * Parses a decimal number with the same result as {@link Double#parseDouble(String)}. Numbers with
+     * few enough digits to be exactly represented are parsed directly from the characters, anything else
+     * falls back to {@link Double#parseDouble(String)}.
+     *
+     * @return the number or NaN if the characters are not a number
+     */
+    static double parseDouble(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && chars[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return parseDoubleSlow(chars, start, end);
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return parseDoubleSlow(chars, start, end);
+            }
+        }
+
+        if (digits == 0 || decimals >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(chars, start, end);
+        }
+
+        // Both values are exact so the division is correctly rounded
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(char[] chars, int start, int end) {
+        try {
+            return Double.parseDouble(new String(chars, start, end - start));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Finds the code for the number of a G or M word the same way as {@link Code#lookupCode(String)}, where
+     * leading zeros are ignored and only numbers with at most one decimal are known.
+     */
+    private static Code lookupCode(Code[] table, char[] chars, int start, int end) {
+        if (start >= end) {
+            return Code.UNKNOWN;
+        }
+
+        // Strip leading zeros in a way that leaves the last zero in case of 'G0'
+        int i = start;
+        while (i < end - 1 && chars[i] == '0') {
+            i++;
+        }
+
+        int number = 0;
+        int numberStart = i;
+        for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+            number = number * 10 + (chars[i] - '0');
+            if (number >= table.length) {
+                return Code.UNKNOWN;
+            }
+        }
+
+        if (i == numberStart) {
+            return Code.UNKNOWN;
+        }
+
+        int key = getCodeKey(number, -1);
+        if (i < end) {
+            if (i + 2 != end || chars[i] != '.' || chars[i + 1] < '0' || chars[i + 1] > '9') {
+                return Code.UNKNOWN;
+            }
+            key = getCodeKey(number, chars[i + 1] - '0');
+        }
+
+        Code code = key < table.length ? table[key] : null;
+        return code == null ? Code.UNKNOWN : code;
+    }
+
+    private static int getCodeKey(int number, int decimal) {
+        return number * 11 + decimal + 1;
+    }
+
+    private static Code[] createCodeTable(char letter) {
+        Code[] table = new Code[0];
+        for (Code code : Code.values()) {
+            String name = code.toString();
+            if (code == Code.UNKNOWN || name.charAt(0) != letter) {
+                continue;
+            }
+
+            int separator = name.indexOf('.');
+            int number = Integer.parseInt(separator < 0 ? name.substring(1) : name.substring(1, separator));
+            int decimal = separator < 0 ? -1 : Integer.parseInt(name.substring(separator + 1));
+            int key = getCodeKey(number, decimal);
+            if (key >= table.length) {
+                table = Arrays.copyOf(table, key + 1);
+            }
+            table[key] = code;
+        }
+        return table;
+    }
+}
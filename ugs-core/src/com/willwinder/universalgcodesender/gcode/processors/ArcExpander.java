@@ -46,13 +46,13 @@ import java.util.List;
 public class ArcExpander implements CommandProcessor {
     private final boolean convertToLines;
     private final double length;
-    private final DecimalFormat df;
+    private final ThreadLocal<DecimalFormat> df;
 
     @Override
     public String getHelp() {
         return Localization.getString("sender.help.arcs") + "\n"
                 + Localization.getString("sender.arcs.length")
-                + ": " + df.format(length);
+                + ": " + df.get().format(length);
     }
 
     /**
@@ -63,8 +63,8 @@ public class ArcExpander implements CommandProcessor {
         this.convertToLines = convertToLines;
         this.length = length;
 
-        // Setup decimal formatter
-        df = new DecimalFormat("#.#########", Localization.dfs);
+        // Setup decimal formatter, one per thread as the processor may be used in parallel
+        df = ThreadLocal.withInitial(() -> new DecimalFormat("#.#########", Localization.dfs));
     }
 
     /**
@@ -74,7 +74,7 @@ public class ArcExpander implements CommandProcessor {
     public ArcExpander(boolean convertToLines, double length, DecimalFormat df) {
         this.convertToLines = convertToLines;
         this.length = length;
-        this.df = df;
+        this.df = ThreadLocal.withInitial(() -> (DecimalFormat) df.clone());
     }
 
     @Override
@@ -115,7 +115,7 @@ public class ArcExpander implements CommandProcessor {
 
         if (convertToLines) {
             for (Position point : points) {
-                results.add(GcodePreprocessorUtils.generateLineFromPoints(G1, start, point, state.inAbsoluteMode, df));
+                results.add(GcodePreprocessorUtils.generateLineFromPoints(G1, start, point, state.inAbsoluteMode, df.get()));
                 start = point;
             }
         } else {
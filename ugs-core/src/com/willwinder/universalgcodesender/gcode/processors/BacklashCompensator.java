@@ -97,6 +97,11 @@ public class BacklashCompensator implements CommandProcessor {
         offset.clear();
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public String getHelp() {
         return Localization.getString("sender.help.backlash") + "\n"
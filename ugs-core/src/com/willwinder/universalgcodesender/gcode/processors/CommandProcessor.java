@@ -49,4 +49,15 @@ public interface CommandProcessor {
      * Called before a new file is processed to allow the processor to reset any state about the processed file.
      */
     default void reset() {}
+
+    /**
+     * Returns if the processor keeps state between the processed commands and needs to see them one at a
+     * time in program order. Stateless processors must be thread safe as the commands of a file may be
+     * processed in parallel.
+     *
+     * @return true if the commands needs to be processed in sequence
+     */
+    default boolean isStateful() {
+        return false;
+    }
 }
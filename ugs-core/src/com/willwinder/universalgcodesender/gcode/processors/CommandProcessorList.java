@@ -37,14 +37,17 @@ public class CommandProcessorList implements CommandProcessor, Iterable<CommandP
         GcodeState tempState;
         for (CommandProcessor p : commandProcessors) {
             // Reset point segments after each pass. The final pass is what we will return.
-            tempState = initialState.copy();
+            tempState = initialState;
             // Process each command in the list and add results to the end.
             // Don't re-process the results with the same preprocessor.
             for (int i = ret.size(); i > 0; i--) {
                 // The arc expander changes the lastGcodeCommand which causes the following to fail:
                 // G2 Y-0.7 J-14.7
                 // Y28.7 J14.7 (this line treated as a G1)
-                tempState.currentMotionMode = initialState.currentMotionMode;
+                if (tempState.currentMotionMode != initialState.currentMotionMode) {
+                    tempState = tempState.copy();
+                    tempState.currentMotionMode = initialState.currentMotionMode;
+                }
                 List<String> intermediate = p.processCommand(ret.remove(0), tempState);
 
                 // process results to update the state and collect PointSegments
@@ -64,6 +67,11 @@ public class CommandProcessorList implements CommandProcessor, Iterable<CommandP
         return "Combines several processors and runs them in sequence";
     }
 
+    @Override
+    public boolean isStateful() {
+        return commandProcessors.stream().anyMatch(CommandProcessor::isStateful);
+    }
+
     /**
      * Helper to statically process the next step in a program without modifying the parser.
      */
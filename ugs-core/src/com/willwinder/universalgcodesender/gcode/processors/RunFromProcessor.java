@@ -51,6 +51,11 @@ public class RunFromProcessor implements CommandProcessor {
         this.lineNumber = lineNumber;
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public List<String> processCommand(String command, GcodeState state) throws GcodeParserException {
         // The processor is not activated
@@ -68,7 +73,26 @@ public class RunFromProcessor implements CommandProcessor {
     }
 
     private List<String> getSkippedLinesState(String command) {
-        Position pos = parser.getCurrentState().currentPoint;
+        GcodeState s = parser.getCurrentState();
+
+        // Reset the parser to prevent the state to be re-added
+        parser = null;
+
+        return createResumeCommands(s, clearanceHeight, command);
+    }
+
+    /**
+     * Creates the commands needed for resuming a program at the given command. The commands will
+     * restore the machine state, move to the start location at the clearance height, start the
+     * spindle and plunge before sending the normalized command.
+     *
+     * @param state           the gcode state after the skipped lines
+     * @param clearanceHeight the height to use when moving to the start location
+     * @param command         the command to resume the program from
+     * @return a list of commands to send
+     */
+    public static List<String> createResumeCommands(GcodeState state, double clearanceHeight, String command) {
+        Position pos = state.currentPoint;
 
         String moveToClearanceHeight = "";
         if (!Double.isNaN(pos.z)) {
@@ -89,27 +113,23 @@ public class RunFromProcessor implements CommandProcessor {
             plunge = "G1Z" + pos.z;
         }
 
-        GcodeState s = parser.getCurrentState();
         String normalized = command;
         try {
-            normalized = normalizeCommand(command, s);
+            normalized = normalizeCommand(command, state);
         } catch (GcodeParserException e) {
             // If command couldn't be normalized, send as is
         }
 
-        // Reset the parser to prevent the state to be re-added
-        parser = null;
-
         return ImmutableList.of(
                 // Initialize state
-                s.machineStateCode(),
+                state.machineStateCode(),
 
                 // Move to start location
                 moveToClearanceHeight,
                 moveToXY,
 
                 // Start spindle and set feed/speed before plunging into the work.
-                s.toAccessoriesCode(),
+                state.toAccessoriesCode(),
                 plunge,
 
                 // Append normalized command
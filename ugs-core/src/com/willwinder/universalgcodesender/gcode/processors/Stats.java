@@ -231,6 +231,11 @@ public class Stats implements CommandProcessor, GcodeStats {
         return "Caches program metrics, shouldn't be enabled or disabled.";
     }
 
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
     @Override
     public final Position getMin() {
         return min;
@@ -18,11 +18,11 @@
  */
 package com.willwinder.universalgcodesender.gcode.util;
 
-import com.google.common.collect.Iterables;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.GcodeTokenizer;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G20;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G21;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G90;
@@ -37,6 +37,7 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.types.PointSegment;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
 import org.apache.commons.lang3.StringUtils;
@@ -45,17 +46,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * @author wwinder
@@ -63,6 +59,11 @@ import java.util.stream.Collectors;
 public class GcodeParserUtils {
     private static final Logger LOGGER = Logger.getLogger(GcodeParserUtils.class.getName());
 
+    /**
+     * A tokenizer for each thread which is reused for all commands processed from a string
+     */
+    private static final ThreadLocal<GcodeTokenizer> TOKENIZER = ThreadLocal.withInitial(GcodeTokenizer::new);
+
     /**
      * For backwards compatibility this method calls processCommand with includeNonMotionStates = false.
      */
@@ -81,8 +82,22 @@ public class GcodeParserUtils {
     public static List<GcodeParser.GcodeMeta> processCommand(String command, int line, final GcodeState inputState,
                                                              boolean includeNonMotionStates)
             throws GcodeParserException {
-        List<String> args = GcodePreprocessorUtils.splitCommand(command);
-        if (args.isEmpty()) return null;
+        return processCommand(TOKENIZER.get().tokenize(command), line, inputState, includeNonMotionStates);
+    }
+
+    /**
+     * Process an already tokenized command given an initial state. This method will not modify its
+     * input parameters.
+     *
+     * @param words                  the tokenized command
+     * @param includeNonMotionStates Create gcode meta responses even if there is no motion, for example "F100" will not
+     *                               return a GcodeMeta entry unless this flag is set to true.
+     */
+    public static List<GcodeParser.GcodeMeta> processCommand(GcodeTokenizer words, int line, final GcodeState inputState,
+                                                             boolean includeNonMotionStates)
+            throws GcodeParserException {
+        if (words.isEmpty()) return null;
+        String command = words.getCommand();
 
         // Initialize with original state
         GcodeState state = inputState.copy();
@@ -90,8 +105,12 @@ public class GcodeParserUtils {
         state.commandNumber = line;
 
         // handle M codes.
-        Set<Code> mCodes = GcodePreprocessorUtils.getMCodes(args);
-        for (Code c : mCodes) {
+        for (int i = 0; i < words.size(); i++) {
+            Code c = words.getCode(i);
+            if (words.getLetter(i) != 'M' || !words.isFirstOccurrence(i)) {
+                continue;
+            }
+
             switch (c.getType()) {
                 case Spindle:
                     state.spindle = c;
@@ -104,42 +123,48 @@ public class GcodeParserUtils {
             }
         }
 
-        List<String> fCodes = GcodePreprocessorUtils.parseCodes(args, 'F');
-        if (!fCodes.isEmpty()) {
-            try {
-                state.feedRate = Double.parseDouble(Iterables.getOnlyElement(fCodes));
-            } catch (IllegalArgumentException e) {
+        int fIndex = words.indexOf('F');
+        if (fIndex >= 0) {
+            if (words.count('F') > 1 || Double.isNaN(words.getValue(fIndex))) {
                 throw new GcodeParserException("Multiple F-codes on one line.");
             }
+            state.feedRate = words.getValue(fIndex);
         }
 
-        List<String> sCodes = GcodePreprocessorUtils.parseCodes(args, 'S');
-        if (!sCodes.isEmpty()) {
-            try {
-                state.spindleSpeed = Double.parseDouble(Iterables.getOnlyElement(sCodes));
-            } catch (IllegalArgumentException e) {
+        int sIndex = words.indexOf('S');
+        if (sIndex >= 0) {
+            if (words.count('S') > 1 || Double.isNaN(words.getValue(sIndex))) {
                 throw new GcodeParserException("Multiple S-codes on one line.");
             }
+            state.spindleSpeed = words.getValue(sIndex);
         }
 
-        List<String> tCodes = GcodePreprocessorUtils.parseCodes(args, 'T');
-        if (!tCodes.isEmpty()) {
+        int tIndex = words.indexOf('T');
+        if (tIndex >= 0) {
             try {
-                state.toolNumber = Integer.parseInt(Iterables.getOnlyElement(tCodes).trim());
+                if (words.count('T') > 1) {
+                    throw new IllegalArgumentException();
+                }
+                state.toolNumber = Integer.parseInt(words.getWord(tIndex).substring(1).trim());
             } catch (IllegalArgumentException e) {
                 throw new GcodeParserException("Multiple T-codes on one line.");
             }
         }
 
         // Gather G codes.
-        Set<Code> gCodes = GcodePreprocessorUtils.getGCodes(args);
-
-        boolean hasAxisWords = GcodePreprocessorUtils.hasAxisWords(args);
-
-        // Error to mix group 1 (Motion) and certain group 0 (NonModal) codes (G10, G28, G30, G92)
-        Collection<Code> motionCodes = gCodes.stream()
-                .filter(Code::consumesMotion)
-                .collect(Collectors.toList());
+        List<Code> gCodes = new ArrayList<>(words.size());
+        List<Code> motionCodes = new ArrayList<>(1);
+        for (int i = 0; i < words.size(); i++) {
+            if (words.getLetter(i) == 'G' && words.isFirstOccurrence(i)) {
+                Code c = words.getCode(i);
+                gCodes.add(c);
+
+                // Error to mix group 1 (Motion) and certain group 0 (NonModal) codes (G10, G28, G30, G92)
+                if (c.consumesMotion()) {
+                    motionCodes.add(c);
+                }
+            }
+        }
 
         // 1 motion code per line.
         if (motionCodes.size() > 1) {
@@ -148,17 +173,22 @@ public class GcodeParserUtils {
         }
 
         // If there are axis words and nothing to use them, add the currentMotionMode.
-        if (hasAxisWords && motionCodes.isEmpty() && state.currentMotionMode != null) {
+        if (motionCodes.isEmpty() && state.currentMotionMode != null && words.hasAxisWords()) {
             gCodes.add(state.currentMotionMode);
         }
 
         // Apply each code to the state.
-        List<GcodeParser.GcodeMeta> results = new ArrayList<>();
+        List<GcodeParser.GcodeMeta> results = new ArrayList<>(gCodes.size());
         for (Code i : gCodes) {
             if (i == UNKNOWN) {
                 LOGGER.warning("An unknown gcode command was detected in: " + command);
             } else {
-                GcodeParser.GcodeMeta meta = handleGCode(i, args, line, state);
+                // The previous result keeps its state, continue with a copy of it
+                if (!results.isEmpty()) {
+                    state = state.copy();
+                }
+
+                GcodeParser.GcodeMeta meta = handleGCode(i, words, line, state);
                 meta.command = command;
                 // Commands like 'G21' don't return a point segment.
                 if (meta.point != null) {
@@ -216,7 +246,7 @@ public class GcodeParserUtils {
     /**
      * Create a PointSegment representing the arc command.
      */
-    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, List<String> args, int line, GcodeState state) {
+    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, GcodeTokenizer words, int line, GcodeState state) {
         if (nextPoint == null) {
             return null;
         }
@@ -226,9 +256,9 @@ public class GcodeParserUtils {
         PlaneFormatter plane = new PlaneFormatter(state.plane);
         Position center =
                 GcodePreprocessorUtils.updateCenterWithCommand(
-                        args, state.currentPoint, nextPoint, state.inAbsoluteIJKMode, clockwise, plane);
+                        words, state.currentPoint, nextPoint, state.inAbsoluteIJKMode, clockwise, plane);
 
-        double radius = GcodePreprocessorUtils.parseCoord(args, 'R');
+        double radius = words.getCoordinate('R');
 
         // Calculate radius if necessary, according to the current G17/18/19 Plane
         if (Double.isNaN(radius)) {
@@ -257,9 +287,9 @@ public class GcodeParserUtils {
     /**
      * Branch parser to handle specific gcode command.
      * <p>
-     * A copy of the state object should go in the resulting GcodeMeta object.
+     * The given state is updated and goes in the resulting GcodeMeta object.
      */
-    private static GcodeParser.GcodeMeta handleGCode(final Code code, List<String> args, int line, GcodeState state)
+    private static GcodeParser.GcodeMeta handleGCode(final Code code, GcodeTokenizer words, int line, GcodeState state)
             throws GcodeParserException {
         GcodeParser.GcodeMeta meta = new GcodeParser.GcodeMeta();
 
@@ -269,7 +299,7 @@ public class GcodeParserUtils {
 
         // If it is a movement code make sure it has some coordinates.
         if (code.consumesMotion()) {
-            nextPoint = GcodePreprocessorUtils.updatePointWithCommand(args, state.currentPoint, state.inAbsoluteMode);
+            nextPoint = GcodePreprocessorUtils.updatePointWithCommand(words, state.currentPoint, state.inAbsoluteMode);
 
             if (nextPoint == null) {
                 if (!code.motionOptional()) {
@@ -293,10 +323,10 @@ public class GcodeParserUtils {
 
             // Arc command.
             case G2:
-                meta.point = addArcPointSegment(nextPoint, true, args, line, state);
+                meta.point = addArcPointSegment(nextPoint, true, words, line, state);
                 break;
             case G3:
-                meta.point = addArcPointSegment(nextPoint, false, args, line, state);
+                meta.point = addArcPointSegment(nextPoint, false, words, line, state);
                 break;
 
             case G17:
@@ -371,19 +401,18 @@ public class GcodeParserUtils {
         if (code.getType() == Motion) {
             state.currentMotionMode = code;
         }
-        meta.state = state.copy();
+        meta.state = state;
         return meta;
     }
 
     /**
-     * Helper method to apply processors to gcode.
+     * Helper method to apply processors to gcode. The processors are run in parallel unless
+     * any of them are stateful, see {@link GcodePreprocessorPipeline}.
      */
     public static void processAndExport(GcodeParser gcp, File input, IGcodeWriter output)
             throws IOException, GcodeParserException {
-        try (InputStream inputStream = new FileInputStream(input)) {
-            if (processAndExportGcodeStream(gcp, inputStream, output)) {
-                return;
-            }
+        if (processAndExportGcodeStream(gcp, input, output)) {
+            return;
         }
 
         try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8.name()))) {
@@ -391,40 +420,24 @@ public class GcodeParserUtils {
         }
     }
 
-    /**
-     * Common logic in processAndExport* methods.
-     */
-    private static void preprocessAndWrite(GcodeParser gcp, IGcodeWriter gsw, String command, String comment, int idx) throws GcodeParserException {
-        if (idx % 100000 == 0) {
-            LOGGER.log(Level.FINE, "gcode processing line: " + idx);
-        }
-
-        // Parse the gcode for the buffer.
-        Collection<String> lines = gcp.preprocessCommand(command, gcp.getCurrentState());
-
-        for (String processedLine : lines) {
-            gsw.addLine(command, processedLine, comment, idx);
-        }
-
-        gcp.addCommand(command);
-    }
-
     /**
      * Attempts to read the input file in GcodeStream format.
      *
      * @return whether or not we succeed processing the file.
      */
-    private static boolean processAndExportGcodeStream(GcodeParser gcp, InputStream input, IGcodeWriter output)
+    private static boolean processAndExportGcodeStream(GcodeParser gcp, File input, IGcodeWriter output)
             throws IOException, GcodeParserException {
 
         // Preprocess a GcodeStream file.
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(input, new DefaultCommandCreator())) {
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(input, new DefaultCommandCreator());
+             GcodePreprocessorPipeline pipeline = new GcodePreprocessorPipeline(gcp, output)) {
             int i = 0;
             while (gsr.getNumRowsRemaining() > 0) {
                 i++;
                 GcodeCommand gc = gsr.getNextCommand();
-                preprocessAndWrite(gcp, output, gc.getCommandString(), gc.getComment(), i);
+                pipeline.addLine(gc.getCommandString(), gc.getComment(), i);
             }
+            pipeline.finish();
 
             // Done processing GcodeStream file.
             return true;
@@ -442,14 +455,15 @@ public class GcodeParserUtils {
     private static void processAndExportText(GcodeParser gcp, BufferedReader input, IGcodeWriter output)
             throws IOException, GcodeParserException {
         // Preprocess a regular gcode file.
-        try (BufferedReader br = input) {
+        try (BufferedReader br = input; GcodePreprocessorPipeline pipeline = new GcodePreprocessorPipeline(gcp, output)) {
             int i = 0;
             for (String line; (line = br.readLine()) != null; ) {
                 i++;
 
                 String comment = GcodePreprocessorUtils.parseComment(line);
-                preprocessAndWrite(gcp, output, line, comment, i);
+                pipeline.addLine(line, comment, i);
             }
+            pipeline.finish();
         }
     }
 }
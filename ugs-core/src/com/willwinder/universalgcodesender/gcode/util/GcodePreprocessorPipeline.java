@@ -0,0 +1,244 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the command processors of a {@link GcodeParser} on the lines of a program and writes the
+ * result to a {@link IGcodeWriter}.
+ * <p>
+ * The lines are added in program order and are run through the parser in a sequential pass which
+ * records the modal state before each line. The lines are then grouped in chunks which are processed
+ * in parallel on a {@link ForkJoinPool}, and the results are written in the original order.
+ * <p>
+ * If any of the processors are stateful, or if there is nothing to gain from running in parallel, each
+ * line is processed and written directly instead.
+ */
+class GcodePreprocessorPipeline implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(GcodePreprocessorPipeline.class.getName());
+    private static final int CHUNK_SIZE = 1000;
+
+    private final GcodeParser gcp;
+    private final IGcodeWriter output;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final boolean parallel;
+    private final Deque<ForkJoinTask<Chunk>> pendingChunks = new ArrayDeque<>();
+    private Chunk chunk;
+
+    GcodePreprocessorPipeline(GcodeParser gcp, IGcodeWriter output) {
+        this(gcp, output, ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    GcodePreprocessorPipeline(GcodeParser gcp, IGcodeWriter output, ForkJoinPool pool, int chunkSize) {
+        this.gcp = gcp;
+        this.output = output;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxPendingChunks = pool.getParallelism() * 2;
+        this.parallel = pool.getParallelism() > 1 && gcp.numCommandProcessors() > 0 && !gcp.hasStatefulCommandProcessors();
+        this.chunk = new Chunk(chunkSize);
+    }
+
+    /**
+     * @return true if the lines are processed in parallel
+     */
+    boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Adds the next line of the program. Any processed lines that are done will be written to the output.
+     *
+     * @param command the command to process
+     * @param comment the comment of the command
+     * @param idx     the line number of the command
+     * @throws GcodeParserException if a previous line couldn't be processed
+     */
+    void addLine(String command, String comment, int idx) throws GcodeParserException, InterruptedIOException {
+        if (idx % 100000 == 0) {
+            LOGGER.log(Level.FINE, "gcode processing line: " + idx);
+        }
+
+        if (!parallel) {
+            preprocessAndWrite(command, comment, idx);
+            return;
+        }
+
+        // The parser replaces its current state rather than modifying it, so it can be kept for later
+        chunk.add(command, comment, idx, gcp.getCurrentState());
+        try {
+            gcp.addCommand(command);
+        } catch (GcodeParserException e) {
+            // Throws the first exception in program order once the lines before it have been written
+            chunk.parserException = e;
+            finish();
+            throw e;
+        }
+
+        if (chunk.size() >= chunkSize) {
+            submitChunk();
+        }
+    }
+
+    /**
+     * Processes and writes all remaining lines.
+     *
+     * @throws GcodeParserException if a line couldn't be processed
+     */
+    void finish() throws GcodeParserException, InterruptedIOException {
+        if (!chunk.isEmpty()) {
+            submitChunk();
+        }
+
+        while (!pendingChunks.isEmpty()) {
+            writeNextChunk();
+        }
+    }
+
+    private void preprocessAndWrite(String command, String comment, int idx) throws GcodeParserException {
+        List<String> lines = gcp.preprocessCommand(command, gcp.getCurrentState());
+        for (String processedLine : lines) {
+            output.addLine(command, processedLine, comment, idx);
+        }
+
+        gcp.addCommand(command);
+    }
+
+    private void submitChunk() throws GcodeParserException, InterruptedIOException {
+        Chunk submitted = chunk;
+        chunk = new Chunk(chunkSize);
+        pendingChunks.add(pool.submit(() -> submitted.process(gcp)));
+
+        // Limit the number of lines kept in memory
+        while (pendingChunks.size() > maxPendingChunks) {
+            writeNextChunk();
+        }
+    }
+
+    private void writeNextChunk() throws GcodeParserException, InterruptedIOException {
+        Chunk result = getResult(pendingChunks.poll());
+        for (int i = 0; i < result.processedSize; i++) {
+            String command = result.commands.get(i);
+            String comment = result.comments.get(i);
+            int idx = result.lineNumbers.get(i);
+            for (String processedLine : result.processedLines.get(i)) {
+                output.addLine(command, processedLine, comment, idx);
+            }
+        }
+
+        if (result.processorException != null) {
+            throw result.processorException;
+        } else if (result.parserException != null) {
+            throw result.parserException;
+        }
+    }
+
+    private static Chunk getResult(ForkJoinTask<Chunk> task) throws InterruptedIOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing gcode");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancels any lines that haven't been processed yet
+     */
+    @Override
+    public void close() {
+        pendingChunks.forEach(task -> task.cancel(true));
+        pendingChunks.clear();
+    }
+
+    /**
+     * A number of consecutive lines with the parser state before each line
+     */
+    private static class Chunk {
+        private final List<String> commands;
+        private final List<String> comments;
+        private final List<Integer> lineNumbers;
+        private final List<GcodeState> states;
+        private final List<List<String>> processedLines;
+        private int processedSize;
+        private GcodeParserException processorException;
+        private GcodeParserException parserException;
+
+        private Chunk(int chunkSize) {
+            commands = new ArrayList<>(chunkSize);
+            comments = new ArrayList<>(chunkSize);
+            lineNumbers = new ArrayList<>(chunkSize);
+            states = new ArrayList<>(chunkSize);
+            processedLines = new ArrayList<>(chunkSize);
+        }
+
+        private void add(String command, String comment, int idx, GcodeState state) {
+            commands.add(command);
+            comments.add(comment);
+            lineNumbers.add(idx);
+            states.add(state);
+        }
+
+        private int size() {
+            return commands.size();
+        }
+
+        private boolean isEmpty() {
+            return commands.isEmpty();
+        }
+
+        private Chunk process(GcodeParser gcp) {
+            try {
+                for (int i = 0; i < commands.size(); i++) {
+                    processedLines.add(gcp.preprocessCommand(commands.get(i), states.get(i)));
+                    processedSize++;
+                }
+            } catch (GcodeParserException e) {
+                processorException = e;
+            }
+
+            // The states are no longer needed, release them while waiting to be written
+            states.clear();
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.listeners;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A listener for the commands of a gcode file while it is being preprocessed. Each processed command
+ * is parsed once when it is written to the processed file, and the result is handed to all listeners
+ * so that they don't have to read and parse the processed file again.
+ * <p>
+ * All methods are called on the thread preprocessing the file.
+ */
+public interface ProcessedGcodeListener {
+
+    /**
+     * Called before the first processed command of a file is written
+     *
+     * @param file the processed file that is being written
+     */
+    void onProcessingStarted(File file);
+
+    /**
+     * Called with each processed command once it has been written
+     *
+     * @param commandNumber the command number of the processed command
+     * @param points        the parsed motions of the command, may be empty
+     * @param state         the state after the command
+     */
+    void onCommandProcessed(int commandNumber, List<GcodeMeta> points, GcodeState state);
+
+    /**
+     * Called when all processed commands of the file have been written
+     *
+     * @param file the processed file that was written
+     */
+    void onProcessingFinished(File file);
+}
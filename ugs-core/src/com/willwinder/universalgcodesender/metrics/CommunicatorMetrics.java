@@ -0,0 +1,284 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import com.google.gson.GsonBuilder;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * A registry of metrics showing how well the controller is kept fed with commands:
+ * <ul>
+ *     <li>the time from a command being sent until the controller responded</li>
+ *     <li>the time from a command being completed until the next write to the controller</li>
+ *     <li>the round trip time of status polls</li>
+ *     <li>the intervals where the controller buffer was empty while the stream still had commands</li>
+ *     <li>the number of writes to the controller and the number of commands sent with them</li>
+ *     <li>samples of the number of bytes in the controller buffer and the communicator event queue over time</li>
+ * </ul>
+ * The metrics are recorded by the communicator and can be read from any thread, either as a
+ * {@link #getSnapshot() snapshot} or dumped as JSON or CSV for analysis after a job.
+ */
+public class CommunicatorMetrics {
+    private static final long SAMPLE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * The number of samples to keep, which is one hour with the sample interval
+     */
+    private static final int MAX_SAMPLES = 14400;
+
+    private final LatencyHistogram commandLatency = new LatencyHistogram();
+    private final LatencyHistogram responseToSendLatency = new LatencyHistogram();
+    private final LatencyHistogram statusPollLatency = new LatencyHistogram();
+    private final LatencyHistogram plannerStarvation = new LatencyHistogram();
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong commandsSent = new AtomicLong();
+    private final AtomicLong statusPollTime = new AtomicLong();
+    private final AtomicLong starvationStartTime = new AtomicLong();
+    private volatile IntSupplier eventQueueDepth = () -> 0;
+
+    private final long[] sampleTimes = new long[MAX_SAMPLES];
+    private final int[] sampleBytesInFlight = new int[MAX_SAMPLES];
+    private final int[] sampleEventQueueDepth = new int[MAX_SAMPLES];
+    private int sampleStart;
+    private int sampleCount;
+    private long lastSampleTime;
+
+    /**
+     * @return the time from commands being sent until the controller responded
+     */
+    public LatencyHistogram getCommandLatency() {
+        return commandLatency;
+    }
+
+    /**
+     * @return the time from a command being completed by the controller until the next write to it
+     */
+    public LatencyHistogram getResponseToSendLatency() {
+        return responseToSendLatency;
+    }
+
+    /**
+     * @return the time from requesting a status report until it was received
+     */
+    public LatencyHistogram getStatusPollLatency() {
+        return statusPollLatency;
+    }
+
+    /**
+     * @return the duration of the intervals when the controller buffer was empty while there were commands left to stream
+     */
+    public LatencyHistogram getPlannerStarvation() {
+        return plannerStarvation;
+    }
+
+    /**
+     * @return the number of writes to the controller
+     */
+    public long getWrites() {
+        return writes.get();
+    }
+
+    /**
+     * @return the number of commands sent to the controller
+     */
+    public long getCommandsSent() {
+        return commandsSent.get();
+    }
+
+    /**
+     * Called when commands have been written to the controller in a single write.
+     *
+     * @param commands the number of commands in the write
+     */
+    public void commandsWritten(int commands) {
+        writes.incrementAndGet();
+        commandsSent.addAndGet(commands);
+    }
+
+    /**
+     * Sets the function used for sampling the number of events waiting to be dispatched to the listeners
+     *
+     * @param eventQueueDepth the function returning the number of queued events
+     */
+    public void setEventQueueDepth(IntSupplier eventQueueDepth) {
+        this.eventQueueDepth = eventQueueDepth;
+    }
+
+    /**
+     * Called when a status report is requested. If a previous request hasn't been answered it is
+     * still used as the start of the round trip.
+     */
+    public void statusPollSent() {
+        statusPollTime.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Called when a status report is received.
+     */
+    public void statusPollReceived() {
+        long sentTime = statusPollTime.getAndSet(0);
+        if (sentTime != 0) {
+            statusPollLatency.record(System.nanoTime() - sentTime);
+        }
+    }
+
+    /**
+     * Called when the controller buffer became empty while there are still commands to stream.
+     */
+    public void plannerStarved() {
+        starvationStartTime.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Called when commands have been written to the controller, ending any starvation interval.
+     */
+    public void plannerFed() {
+        long startTime = starvationStartTime.getAndSet(0);
+        if (startTime != 0) {
+            plannerStarvation.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Samples the number of bytes in the controller buffer and the event queue, unless a sample
+     * was taken within the sample interval.
+     *
+     * @param bytesInFlight the number of bytes sent to the controller without a response
+     */
+    public void sampleBytesInFlight(int bytesInFlight) {
+        long now = System.nanoTime();
+        synchronized (sampleTimes) {
+            if (sampleCount > 0 && now - lastSampleTime < SAMPLE_INTERVAL) {
+                return;
+            }
+            lastSampleTime = now;
+
+            int index = (sampleStart + sampleCount) % MAX_SAMPLES;
+            sampleTimes[index] = System.currentTimeMillis();
+            sampleBytesInFlight[index] = bytesInFlight;
+            sampleEventQueueDepth[index] = eventQueueDepth.getAsInt();
+            if (sampleCount < MAX_SAMPLES) {
+                sampleCount++;
+            } else {
+                sampleStart = (sampleStart + 1) % MAX_SAMPLES;
+            }
+        }
+    }
+
+    /**
+     * @return the samples of the bytes in flight and the event queue, with the oldest sample first
+     */
+    public List<Sample> getSamples() {
+        synchronized (sampleTimes) {
+            List<Sample> result = new ArrayList<>(sampleCount);
+            for (int i = 0; i < sampleCount; i++) {
+                int index = (sampleStart + i) % MAX_SAMPLES;
+                result.add(new Sample(sampleTimes[index], sampleBytesInFlight[index], sampleEventQueueDepth[index]));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return a copy of all metrics
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(commandLatency.getSummary(),
+                responseToSendLatency.getSummary(),
+                statusPollLatency.getSummary(),
+                plannerStarvation.getSummary(),
+                writes.get(),
+                commandsSent.get(),
+                getSamples());
+    }
+
+    /**
+     * Removes all recorded metrics, used when a new job is started
+     */
+    public void reset() {
+        commandLatency.reset();
+        responseToSendLatency.reset();
+        statusPollLatency.reset();
+        plannerStarvation.reset();
+        writes.set(0);
+        commandsSent.set(0);
+        statusPollTime.set(0);
+        starvationStartTime.set(0);
+        synchronized (sampleTimes) {
+            sampleStart = 0;
+            sampleCount = 0;
+        }
+    }
+
+    /**
+     * Writes a snapshot of all metrics as JSON
+     *
+     * @param writer the writer to write to
+     */
+    public void writeJson(Writer writer) {
+        new GsonBuilder().setPrettyPrinting().create().toJson(getSnapshot(), writer);
+    }
+
+    /**
+     * Writes the samples as CSV with a header row
+     *
+     * @param writer the writer to write to
+     * @throws IOException if the samples couldn't be written
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.RFC4180);
+        printer.printRecord("time", "bytesInFlight", "eventQueueDepth");
+        for (Sample sample : getSamples()) {
+            printer.printRecord(sample.time(), sample.bytesInFlight(), sample.eventQueueDepth());
+        }
+        printer.flush();
+    }
+
+    /**
+     * A sample of the communicator buffers
+     *
+     * @param time            the time of the sample in milliseconds since the epoch
+     * @param bytesInFlight   the number of bytes sent to the controller without a response
+     * @param eventQueueDepth the number of events waiting to be dispatched to the listeners
+     */
+    public record Sample(long time, int bytesInFlight, int eventQueueDepth) {
+    }
+
+    /**
+     * A copy of all metrics where the durations are in milliseconds
+     */
+    public record Snapshot(LatencyHistogram.Summary commandLatency,
+                           LatencyHistogram.Summary responseToSendLatency,
+                           LatencyHistogram.Summary statusPollLatency,
+                           LatencyHistogram.Summary plannerStarvation,
+                           long writes,
+                           long commandsSent,
+                           List<Sample> samples) {
+    }
+}
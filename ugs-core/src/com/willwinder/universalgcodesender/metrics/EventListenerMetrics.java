@@ -0,0 +1,100 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of an event listener that gets its events through a queue, showing if the listener keeps up
+ * with the events:
+ * <ul>
+ *     <li>the time from an event being queued until the listener has handled it</li>
+ *     <li>the number of events waiting in the queue</li>
+ *     <li>the number of events replaced by a newer event of the same kind before being delivered</li>
+ *     <li>the number of events dropped because the queue was full</li>
+ * </ul>
+ */
+public class EventListenerMetrics {
+    private final String listenerName;
+    private final IntSupplier queueDepth;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong conflatedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    /**
+     * @param listenerName the name of the listener
+     * @param queueDepth   the function returning the number of queued events
+     */
+    public EventListenerMetrics(String listenerName, IntSupplier queueDepth) {
+        this.listenerName = listenerName;
+        this.queueDepth = queueDepth;
+    }
+
+    public String getListenerName() {
+        return listenerName;
+    }
+
+    /**
+     * @return the time from events being queued until the listener had handled them
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the number of events currently waiting to be delivered
+     */
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * @return the number of events that were replaced by a newer event before being delivered
+     */
+    public long getConflatedEvents() {
+        return conflatedEvents.get();
+    }
+
+    /**
+     * @return the number of events that were dropped because the queue was full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public void eventConflated() {
+        conflatedEvents.incrementAndGet();
+    }
+
+    public void eventDropped() {
+        droppedEvents.incrementAndGet();
+    }
+
+    /**
+     * @return a copy of the metrics
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(listenerName, latency.getSummary(), getQueueDepth(), getConflatedEvents(), getDroppedEvents());
+    }
+
+    public record Snapshot(String listenerName, LatencyHistogram.Summary latency, int queueDepth,
+                           long conflatedEvents, long droppedEvents) {
+    }
+}
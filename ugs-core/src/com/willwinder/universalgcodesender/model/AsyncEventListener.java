@@ -0,0 +1,175 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Delivers the events to a listener in the order they were sent through its own queue, so that the thread
+ * sending the events doesn't have to wait for the listener. The queue is drained by a task on the given
+ * executor that delivers all queued events at once, which is only scheduled while there are queued events.
+ * <p>
+ * The queue is bounded by conflating the frequent events:
+ * <ul>
+ *     <li>{@link ControllerStatusEvent}s - only the latest status is kept, with the changes since the last
+ *     delivered status</li>
+ *     <li>{@link CommandEvent}s - are delivered in batches, the oldest command event is dropped if there
+ *     are more than the capacity queued</li>
+ *     <li>Other events - are always queued as they are rare and mostly change the state of the listener</li>
+ * </ul>
+ */
+class AsyncEventListener {
+    private final UGSEventListener listener;
+    private final int capacity;
+    private final Executor executor;
+    private final BiConsumer<UGSEventListener, UGSEvent> dispatcher;
+    private final EventListenerMetrics metrics;
+    private final ArrayDeque<QueuedEvent> queue = new ArrayDeque<>();
+
+    private QueuedEvent queuedStatusEvent;
+    private int queuedCommandEvents;
+    private boolean isDraining;
+    private volatile boolean isCancelled;
+
+    /**
+     * @param listener   the listener to deliver the events to
+     * @param capacity   the max number of command events to queue
+     * @param executor   the executor running the delivery
+     * @param dispatcher the function delivering an event to the listener
+     */
+    AsyncEventListener(UGSEventListener listener, int capacity, Executor executor, BiConsumer<UGSEventListener, UGSEvent> dispatcher) {
+        this.listener = listener;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.dispatcher = dispatcher;
+        this.metrics = new EventListenerMetrics(listener.getClass().getSimpleName(), this::getQueueDepth);
+    }
+
+    EventListenerMetrics getMetrics() {
+        return metrics;
+    }
+
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    void cancel() {
+        isCancelled = true;
+        synchronized (this) {
+            queue.clear();
+            queuedStatusEvent = null;
+            queuedCommandEvents = 0;
+        }
+    }
+
+    void send(UGSEvent event) {
+        if (isCancelled) {
+            return;
+        }
+
+        synchronized (this) {
+            if (event instanceof ControllerStatusEvent statusEvent) {
+                queueStatusEvent(statusEvent);
+            } else if (event instanceof CommandEvent) {
+                queueCommandEvent(event);
+            } else {
+                queue.add(new QueuedEvent(event, System.nanoTime()));
+            }
+
+            if (!isDraining) {
+                isDraining = true;
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void queueStatusEvent(ControllerStatusEvent event) {
+        if (queuedStatusEvent == null) {
+            queuedStatusEvent = new QueuedEvent(event, System.nanoTime());
+            queue.add(queuedStatusEvent);
+            return;
+        }
+
+        // Replace the queued status with the latest, keeping the time and changes since the last delivered status
+        ControllerStatusEvent previousEvent = (ControllerStatusEvent) queuedStatusEvent.event();
+        Set<ControllerStatusField> changes = ControllerStatusField.getChanges(previousEvent.getPreviousStatus(), event.getStatus());
+        queue.removeLastOccurrence(queuedStatusEvent);
+        queuedStatusEvent = new QueuedEvent(new ControllerStatusEvent(event.getStatus(), previousEvent.getPreviousStatus(), changes), queuedStatusEvent.time());
+        queue.add(queuedStatusEvent);
+        metrics.eventConflated();
+    }
+
+    private void queueCommandEvent(UGSEvent event) {
+        if (queuedCommandEvents >= capacity) {
+            Iterator<QueuedEvent> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().event() instanceof CommandEvent) {
+                    iterator.remove();
+                    queuedCommandEvents--;
+                    metrics.eventDropped();
+                    break;
+                }
+            }
+        }
+
+        queue.add(new QueuedEvent(event, System.nanoTime()));
+        queuedCommandEvents++;
+    }
+
+    private void drain() {
+        List<QueuedEvent> events = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                if (queue.isEmpty() || isCancelled) {
+                    isDraining = false;
+                    return;
+                }
+
+                events.addAll(queue);
+                queue.clear();
+                queuedStatusEvent = null;
+                queuedCommandEvents = 0;
+            }
+
+            for (QueuedEvent event : events) {
+                if (isCancelled) {
+                    break;
+                }
+                dispatcher.accept(listener, event.event());
+                metrics.getLatency().record(System.nanoTime() - event.time());
+            }
+            events.clear();
+        }
+    }
+
+    private record QueuedEvent(UGSEvent event, long time) {
+    }
+}
@@ -114,6 +114,15 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void removeCommandProcessor(CommandProcessor commandProcessor) throws Exception;
 
+    /**
+     * Sets the line in the loaded program to start the next stream from. The stream will be
+     * resumed with commands restoring the modal state of the skipped lines.
+     *
+     * @param lineNumber the line number in the gcode file to run from, starting at one. Zero or less will
+     *                   run the whole program.
+     */
+    void setRunFromLine(int lineNumber);
+
     /**
      * Process the currently loaded gcode file and export it to a file.
      * Intended primarily as "save and export" style preprocessor option.
@@ -208,6 +217,13 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void dispatchMessage(MessageType messageType, String message);
 
+    /**
+     * Dispatches an event to all registered UGS event listeners
+     *
+     * @param event the event to dispatch
+     */
+    void dispatchEvent(UGSEvent event);
+
     /**
      * Opens the door on the machine
      *
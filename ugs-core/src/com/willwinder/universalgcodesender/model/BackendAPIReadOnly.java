@@ -1,5 +1,5 @@
 /*
-    Copyright 2015-2018 Will Winder
+    Copyright 2015-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -20,9 +20,14 @@ package com.willwinder.universalgcodesender.model;
 
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.listeners.MessageListener;
+import com.willwinder.universalgcodesender.listeners.ProcessedGcodeListener;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
 import com.willwinder.universalgcodesender.utils.Settings;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.List;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 
 /**
@@ -40,6 +45,23 @@ public interface BackendAPIReadOnly {
      */
     void addUGSEventListener(UGSEventListener listener);
 
+    /**
+     * Adds a listener that will get the same events as with {@link #addUGSEventListener}, but
+     * asynchronously on a separate thread through a bounded queue of its own. Only the latest
+     * controller status is delivered if the listener falls behind.
+     *
+     * @param listener the listener to be added
+     */
+    void addAsyncUGSEventListener(UGSEventListener listener);
+
+    /**
+     * Returns the metrics of the asynchronous listeners, with the time it takes for them to handle
+     * the events and the number of events waiting for them.
+     *
+     * @return the metrics of the listeners added with {@link #addAsyncUGSEventListener}
+     */
+    List<EventListenerMetrics> getEventListenerMetrics();
+
     /**
      * Removes a UGSEvent listener
      *
@@ -47,6 +69,18 @@ public interface BackendAPIReadOnly {
      */
     void removeUGSEventListener(UGSEventListener listener);
 
+    /**
+     * Subscribes a listener to changes of the given controller status fields. The status events are
+     * coalesced to at most one every interval and delivered on a separate thread, and replace the status
+     * events that the listener would get if it's also added as a UGSEvent listener. The subscription is
+     * removed with {@link #removeUGSEventListener}.
+     *
+     * @param listener the listener to be added
+     * @param interval the minimum time between two status events to the listener
+     * @param fields   the status fields that the listener is interested in, or all fields if none are given
+     */
+    void addControllerStatusListener(UGSEventListener listener, Duration interval, ControllerStatusField... fields);
+
     /**
      * Adds a listener that will receive all messages that should be written to the console
      *
@@ -61,6 +95,20 @@ public interface BackendAPIReadOnly {
      */
     void removeMessageListener(MessageListener listener);
 
+    /**
+     * Adds a listener that will receive the parsed commands of the files that are preprocessed
+     *
+     * @param listener the listener to be added
+     */
+    void addProcessedGcodeListener(ProcessedGcodeListener listener);
+
+    /**
+     * Removes a listener for preprocessed files
+     *
+     * @param listener the listener to be removed
+     */
+    void removeProcessedGcodeListener(ProcessedGcodeListener listener);
+
     // Config options
     File getGcodeFile();
     File getProcessedGcodeFile();
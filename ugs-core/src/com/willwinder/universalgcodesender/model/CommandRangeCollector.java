@@ -0,0 +1,98 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+/**
+ * Collects the sent, completed and skipped commands until they are summarized as a {@link CommandRangeEvent}.
+ * Commands can be added and flushed from any thread.
+ */
+class CommandRangeCollector {
+    private int firstCommandNumber = -1;
+    private int lastCommandNumber = -1;
+    private int sentCount;
+    private int completedCount;
+    private int skippedCount;
+    private int errorCount;
+
+    /**
+     * Adds a command event
+     *
+     * @param type    the type of the event
+     * @param command the command of the event
+     * @return true if this is the first command since the last flush
+     */
+    synchronized boolean add(CommandEventType type, GcodeCommand command) {
+        boolean isFirst = isEmpty();
+        switch (type) {
+            case COMMAND_SENT -> sentCount++;
+            case COMMAND_COMPLETE -> {
+                completedCount++;
+                if (command.isError()) {
+                    errorCount++;
+                }
+                addCommandNumber(command);
+            }
+            case COMMAND_SKIPPED -> {
+                skippedCount++;
+                addCommandNumber(command);
+            }
+        }
+        return isFirst;
+    }
+
+    private void addCommandNumber(GcodeCommand command) {
+        int commandNumber = command.getCommandNumber();
+        if (command.isGenerated() || commandNumber < 0) {
+            return;
+        }
+
+        if (firstCommandNumber < 0 || commandNumber < firstCommandNumber) {
+            firstCommandNumber = commandNumber;
+        }
+        lastCommandNumber = Math.max(lastCommandNumber, commandNumber);
+    }
+
+    private boolean isEmpty() {
+        return sentCount == 0 && completedCount == 0 && skippedCount == 0;
+    }
+
+    /**
+     * Returns the collected commands as an event and starts collecting a new range
+     *
+     * @return the event or null if no commands were added since the last flush
+     */
+    synchronized CommandRangeEvent flush() {
+        if (isEmpty()) {
+            return null;
+        }
+
+        CommandRangeEvent event = new CommandRangeEvent(firstCommandNumber, lastCommandNumber, sentCount, completedCount, skippedCount, errorCount);
+        firstCommandNumber = -1;
+        lastCommandNumber = -1;
+        sentCount = 0;
+        completedCount = 0;
+        skippedCount = 0;
+        errorCount = 0;
+        return event;
+    }
+}
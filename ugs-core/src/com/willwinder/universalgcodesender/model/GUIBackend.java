@@ -1,5 +1,5 @@
 /*
-    Copyright 2015-2024 Will Winder
+    Copyright 2015-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -35,9 +35,12 @@ import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.MessageListener;
 import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.listeners.ProcessedGcodeListener;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
 import com.willwinder.universalgcodesender.services.BackendFileLoader;
@@ -49,8 +52,9 @@ import com.willwinder.universalgcodesender.utils.FirmwareUtils;
 import com.willwinder.universalgcodesender.utils.GcodeFileWriter;
 import com.willwinder.universalgcodesender.services.interceptor.CommandInterceptorService;
 import com.willwinder.universalgcodesender.services.interceptor.ToolChangeInterceptor;
-import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
@@ -62,10 +66,12 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -80,6 +86,7 @@ public class GUIBackend implements BackendAPI {
     private static final String NEW_LINE = "\n    ";
 
     private final MessageService messageService = new MessageService();
+    private final List<ProcessedGcodeListener> processedGcodeListeners = new CopyOnWriteArrayList<>();
     private final GcodeParser gcp = new GcodeParser();
     private final UGSEventDispatcher eventDispatcher;
     private IController controller = null;
@@ -93,7 +100,12 @@ public class GUIBackend implements BackendAPI {
     /**
      * A temporary pointer to the active gcode stream. This is needed to make sure it is closed
      */
-    private GcodeStreamReader gcodeStream;
+    private IGcodeStreamReader gcodeStream;
+
+    /**
+     * The line number to start the next stream from
+     */
+    private int runFromLine = 0;
 
     private final CommandInterceptorService interceptorService;
 
@@ -133,11 +145,26 @@ public class GUIBackend implements BackendAPI {
         eventDispatcher.addListener(listener);
     }
 
+    @Override
+    public void addAsyncUGSEventListener(UGSEventListener listener) {
+        eventDispatcher.addAsyncListener(listener);
+    }
+
+    @Override
+    public List<EventListenerMetrics> getEventListenerMetrics() {
+        return eventDispatcher.getListenerMetrics();
+    }
+
     @Override
     public void removeUGSEventListener(UGSEventListener listener) {
         eventDispatcher.removeListener(listener);
     }
 
+    @Override
+    public void addControllerStatusListener(UGSEventListener listener, Duration interval, ControllerStatusField... fields) {
+        eventDispatcher.addControllerStatusListener(listener, interval, fields);
+    }
+
     @Override
     public void addMessageListener(MessageListener listener) {
         this.messageService.addListener(listener);
@@ -148,6 +175,16 @@ public class GUIBackend implements BackendAPI {
         this.messageService.removeListener(listener);
     }
 
+    @Override
+    public void addProcessedGcodeListener(ProcessedGcodeListener listener) {
+        processedGcodeListeners.add(listener);
+    }
+
+    @Override
+    public void removeProcessedGcodeListener(ProcessedGcodeListener listener) {
+        processedGcodeListeners.remove(listener);
+    }
+
     @Override
     public void preprocessAndExportToFile(File f) throws Exception {
         try (IGcodeWriter gcw = new GcodeFileWriter(this.processedGcodeFile)) {
@@ -244,6 +281,7 @@ public class GUIBackend implements BackendAPI {
         logger.log(Level.INFO, "Applying settings.");
         this.settings = settings;
         this.settings.addSettingChangeListener(eventDispatcher);
+        eventDispatcher.setSettings(settings);
         if (this.controller != null) {
             applySettingsToController(this.settings, this.controller);
         }
@@ -404,7 +442,7 @@ public class GUIBackend implements BackendAPI {
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADING));
         initializeProcessedLines(true, this.gcodeFile, this.gcp);
         if (this.processedGcodeFile != null) {
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            gcodeStream = GcodeStreamReaderFactory.createReader(this.processedGcodeFile, getCommandCreator());
         }
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
     }
@@ -457,7 +495,7 @@ public class GUIBackend implements BackendAPI {
         File target = new File(applyDir, this.processedGcodeFile.getName() + ".apply.gcode");
         java.nio.file.Files.deleteIfExists(target.toPath());
 
-        // Using a GcodeFileWriter instead of a GcodeStreamWriter so that the user can review a standard gcode file.
+        // Using a GcodeFileWriter instead of a BinaryGcodeStreamWriter so that the user can review a standard gcode file.
         try (IGcodeWriter gcw = new GcodeFileWriter(target)) {
             preprocessAndExportToFile(parser, this.processedGcodeFile, gcw);
         }
@@ -484,6 +522,11 @@ public class GUIBackend implements BackendAPI {
         }
     }
 
+    @Override
+    public void setRunFromLine(int lineNumber) {
+        this.runFromLine = lineNumber;
+    }
+
     @Override
     public File getGcodeFile() {
         logger.log(Level.FINEST, "Getting gcode file.");
@@ -515,7 +558,10 @@ public class GUIBackend implements BackendAPI {
             if (gcodeStream != null) {
                 gcodeStream.close();
             }
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            gcodeStream = GcodeStreamReaderFactory.createReader(this.processedGcodeFile, getCommandCreator());
+            if (runFromLine > 0) {
+                gcodeStream.seekToCommandNumber(runFromLine);
+            }
 
             // This will throw an exception and prevent that other stuff from
             // happening (clearing the table before it is ready for clearing.
@@ -747,6 +793,11 @@ public class GUIBackend implements BackendAPI {
         messageService.dispatchMessage(messageType, message);
     }
 
+    @Override
+    public void dispatchEvent(UGSEvent event) {
+        eventDispatcher.sendUGSEvent(event);
+    }
+
     @Override
     public void openDoor() throws Exception {
         controller.openDoor();
@@ -821,7 +872,8 @@ public class GUIBackend implements BackendAPI {
                 }
 
                 this.processedGcodeFile = new File(this.getTempDir(), name + "_ugs_" + System.currentTimeMillis());
-                try (IGcodeWriter gcw = new GcodeStreamWriter(this.processedGcodeFile)) {
+                // The processed commands are parsed once while written, the listeners get the result
+                try (IGcodeWriter gcw = new BinaryGcodeStreamWriter(this.processedGcodeFile, processedGcodeListeners)) {
                     this.preprocessAndExportToFile(gcodeParser, startFile, gcw);
                 }
 
@@ -1,5 +1,5 @@
 /*
-    Copyright 2022 Will Winder
+    Copyright 2022-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -23,11 +23,14 @@ import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
 import com.willwinder.universalgcodesender.listeners.ControllerListener;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
 import com.willwinder.universalgcodesender.model.events.AlarmEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
 import com.willwinder.universalgcodesender.model.events.FirmwareSettingEvent;
@@ -37,22 +40,72 @@ import com.willwinder.universalgcodesender.model.events.StreamEvent;
 import com.willwinder.universalgcodesender.model.events.StreamEventType;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.SettingChangeListener;
+import com.willwinder.universalgcodesender.utils.Settings;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A class that is responsible for listening to various events from the controller and backend system and
  * dispatch them as UGS events.
+ * <p>
+ * Events are dispatched to the listeners on the thread that raised them, which for the controller status
+ * is the thread reading the responses from the controller. Listeners that only need some of the status
+ * fields, like a DRO, can instead subscribe to them with {@link #addControllerStatusListener}. Their status
+ * events are coalesced to a maximum rate and delivered on a separate thread, so that they can't delay the
+ * processing of the responses while streaming.
+ * <p>
+ * Listeners added with {@link #addAsyncListener} get all their events through a bounded queue of their own
+ * instead, which is delivered on a separate thread. See {@link AsyncEventListener} for how the queue is
+ * bounded by conflating the status and command events.
+ * <p>
+ * Besides a {@link CommandEvent} for every command, the commands within an interval are summarized as a
+ * {@link CommandRangeEvent}. Listeners that only need to know how far the program has been completed, like
+ * the visualizers, should use those as they are only sent a few times per second.
  *
  * @author Joacim Breiler
  */
 public class UGSEventDispatcher implements ControllerListener, IFirmwareSettingsListener, SettingChangeListener {
     private static final Logger LOGGER = Logger.getLogger(UGSEventDispatcher.class.getSimpleName());
 
+    /**
+     * The default max number of queued command events of an asynchronous listener
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * The default interval for summarizing the commands as {@link CommandRangeEvent}s
+     */
+    public static final Duration DEFAULT_COMMAND_RANGE_INTERVAL = Duration.ofMillis(100);
+
     private final List<UGSEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<UGSEventListener, AsyncEventListener> asyncListeners = new ConcurrentHashMap<>();
+    private final Map<UGSEventListener, StatusSubscription> statusSubscriptions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduledExecutor;
+    private ExecutorService asyncExecutor;
+    private final CommandRangeCollector commandRangeCollector = new CommandRangeCollector();
+
+    /**
+     * Held while a command range is flushed and sent, so that a range flushed by the scheduled executor can't
+     * be sent after the events of a completed or canceled stream
+     */
+    private final Object commandRangeLock = new Object();
+    private volatile Duration commandRangeInterval = DEFAULT_COMMAND_RANGE_INTERVAL;
+    private volatile Settings settings;
 
     /**
      * A cached instance of the controller status for preventing duplicate status events to be dispatched
@@ -61,14 +114,34 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
 
     public void sendUGSEvent(UGSEvent event) {
         LOGGER.log(Level.FINEST, "Sending event {0}.", event.getClass().getSimpleName());
+        boolean isStatusEvent = event instanceof ControllerStatusEvent;
         listeners.forEach(l -> {
-            try {
-                l.UGSEvent(event);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Could not dispatch the event {0} to the listener {1}",
-                        new String[]{event.getClass().getSimpleName(), l.getClass().getSimpleName()});
+            // Subscribed listeners get their status events from the subscription
+            if (isStatusEvent && statusSubscriptions.containsKey(l)) {
+                return;
+            }
+
+            AsyncEventListener asyncListener = asyncListeners.get(l);
+            if (asyncListener != null) {
+                asyncListener.send(event);
+            } else {
+                dispatch(l, event);
             }
         });
+
+        if (isStatusEvent) {
+            ControllerStatusEvent statusEvent = (ControllerStatusEvent) event;
+            statusSubscriptions.values().forEach(subscription -> subscription.onStatus(statusEvent));
+        }
+    }
+
+    private static void dispatch(UGSEventListener listener, UGSEvent event) {
+        try {
+            listener.UGSEvent(event);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Could not dispatch the event {0} to the listener {1}",
+                    new String[]{event.getClass().getSimpleName(), listener.getClass().getSimpleName()});
+        }
     }
 
     public void addListener(UGSEventListener listener) {
@@ -78,16 +151,167 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
         }
     }
 
+    /**
+     * Adds a listener that will get its events asynchronously through a queue with the
+     * {@link #DEFAULT_QUEUE_CAPACITY default capacity}, see {@link #addAsyncListener(UGSEventListener, int)}.
+     *
+     * @param listener the listener to add
+     */
+    public void addAsyncListener(UGSEventListener listener) {
+        addAsyncListener(listener, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Adds a listener that will get its events asynchronously through a queue of its own, so that the listener
+     * can't delay the thread sending the events or the other listeners. The events are delivered to the listener
+     * in order on a separate thread, except for the status events where only the latest is delivered. If the
+     * listener can't keep up, the oldest command events are dropped when the queue has reached its capacity.
+     * <p>
+     * If the listener was already added it will get its future events asynchronously.
+     *
+     * @param listener the listener to add
+     * @param capacity the max number of command events to queue
+     */
+    public void addAsyncListener(UGSEventListener listener, int capacity) {
+        LOGGER.log(Level.FINE, "Adding asynchronous UGSEvent listener: {0}", listener.getClass().getSimpleName());
+        AsyncEventListener previousListener = asyncListeners.put(listener,
+                new AsyncEventListener(listener, capacity, getAsyncExecutor(), UGSEventDispatcher::dispatch));
+        if (previousListener != null) {
+            previousListener.cancel();
+        }
+
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Returns the metrics of the listeners added with {@link #addAsyncListener}, showing if they keep up
+     * with the events.
+     *
+     * @return the metrics of the asynchronous listeners
+     */
+    public List<EventListenerMetrics> getListenerMetrics() {
+        return asyncListeners.values().stream()
+                .map(AsyncEventListener::getMetrics)
+                .toList();
+    }
+
     public void removeListener(UGSEventListener listener) {
         if (listeners.contains(listener)) {
             LOGGER.log(Level.FINE, "Removing UGSEvent listener: {0}", listener.getClass().getSimpleName());
             listeners.remove(listener);
         }
+
+        AsyncEventListener asyncListener = asyncListeners.remove(listener);
+        if (asyncListener != null) {
+            asyncListener.cancel();
+        }
+
+        StatusSubscription subscription = statusSubscriptions.remove(listener);
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Subscribes a listener to changes of the given controller status fields. The listener will get a
+     * {@link ControllerStatusEvent} at most once every interval if any of the fields have changed since the
+     * last event it got, which is also the previous status of the event. The events are delivered on a
+     * separate thread, a slow listener only delays its own subscription.
+     * <p>
+     * If the listener is also added with {@link #addListener} it will get all other events as usual, but
+     * its status events only through this subscription. An existing subscription of the listener is replaced.
+     *
+     * @param listener the listener to subscribe
+     * @param interval the minimum time between two status events to the listener
+     * @param fields   the status fields that the listener is interested in, or all fields if none are given
+     */
+    public void addControllerStatusListener(UGSEventListener listener, Duration interval, ControllerStatusField... fields) {
+        Set<ControllerStatusField> subscribedFields = fields.length == 0 ?
+                EnumSet.allOf(ControllerStatusField.class) :
+                EnumSet.copyOf(Arrays.asList(fields));
+
+        LOGGER.log(Level.FINE, "Adding controller status listener: {0}", listener.getClass().getSimpleName());
+        StatusSubscription subscription = new StatusSubscription(listener, interval.toNanos(), subscribedFields, controllerStatus);
+        StatusSubscription previousSubscription = statusSubscriptions.put(listener, subscription);
+        if (previousSubscription != null) {
+            previousSubscription.cancel();
+        }
+    }
+
+    /**
+     * Sets the interval for summarizing the commands as {@link CommandRangeEvent}s
+     *
+     * @param interval the time to collect commands before sending an event
+     */
+    public void setCommandRangeInterval(Duration interval) {
+        this.commandRangeInterval = interval;
+    }
+
+    /**
+     * Sets the settings to take the command range interval from. The interval is applied again whenever the
+     * settings notify this dispatcher that they have changed.
+     *
+     * @param settings the settings to use
+     */
+    public void setSettings(Settings settings) {
+        this.settings = settings;
+        applySettings();
+    }
+
+    private void applySettings() {
+        Settings currentSettings = settings;
+        if (currentSettings != null) {
+            setCommandRangeInterval(Duration.ofMillis(currentSettings.getCommandRangeUpdateRate()));
+        }
+    }
+
+    private void addCommand(CommandEventType type, GcodeCommand command) {
+        if (commandRangeCollector.add(type, command)) {
+            getScheduledExecutor().schedule(this::flushCommandRange, commandRangeInterval.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushCommandRange() {
+        synchronized (commandRangeLock) {
+            CommandRangeEvent event = commandRangeCollector.flush();
+            if (event != null) {
+                sendUGSEvent(event);
+            }
+        }
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            // Each listener or subscription is delivered by at most one thread at a time, a slow listener only occupies its own thread
+            AtomicInteger threadCount = new AtomicInteger();
+            asyncExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "event-listener-thread-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return asyncExecutor;
+    }
+
+    private synchronized ScheduledExecutorService getScheduledExecutor() {
+        if (scheduledExecutor == null) {
+            scheduledExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "event-dispatcher-thread");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduledExecutor;
     }
 
     @Override
     public void streamCanceled() {
-        sendUGSEvent(new StreamEvent(StreamEventType.STREAM_CANCELED));
+        synchronized (commandRangeLock) {
+            flushCommandRange();
+            sendUGSEvent(new StreamEvent(StreamEventType.STREAM_CANCELED));
+        }
     }
 
     @Override
@@ -107,8 +331,12 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
 
     @Override
     public void streamComplete() {
-        sendUGSEvent(new StreamEvent(StreamEventType.STREAM_COMPLETE));
-        sendUGSEvent(new FileStateEvent(FileState.FILE_STREAM_COMPLETE));
+        // Let the listeners know how far the stream got before it completed
+        synchronized (commandRangeLock) {
+            flushCommandRange();
+            sendUGSEvent(new StreamEvent(StreamEventType.STREAM_COMPLETE));
+            sendUGSEvent(new FileStateEvent(FileState.FILE_STREAM_COMPLETE));
+        }
     }
 
     @Override
@@ -119,16 +347,19 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
     @Override
     public void commandSkipped(GcodeCommand command) {
         sendUGSEvent(new CommandEvent(CommandEventType.COMMAND_SKIPPED, command));
+        addCommand(CommandEventType.COMMAND_SKIPPED, command);
     }
 
     @Override
     public void commandSent(GcodeCommand command) {
         sendUGSEvent(new CommandEvent(CommandEventType.COMMAND_SENT, command));
+        addCommand(CommandEventType.COMMAND_SENT, command);
     }
 
     @Override
     public void commandComplete(GcodeCommand command) {
         sendUGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+        addCommand(CommandEventType.COMMAND_COMPLETE, command);
     }
 
     @Override
@@ -145,8 +376,9 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
             sendUGSEvent(new ControllerStateEvent(status.getState(), oldStatus.getState()));
         }
 
-        if (!oldStatus.equals(status)) {
-            sendUGSEvent(new ControllerStatusEvent(status, oldStatus));
+        Set<ControllerStatusField> changes = ControllerStatusField.getChanges(oldStatus, status);
+        if (!changes.isEmpty()) {
+            sendUGSEvent(new ControllerStatusEvent(status, oldStatus, changes));
         }
     }
 
@@ -157,6 +389,78 @@ public class UGSEventDispatcher implements ControllerListener, IFirmwareSettings
 
     @Override
     public void settingChanged() {
+        applySettings();
         sendUGSEvent(new SettingChangedEvent());
     }
+
+    /**
+     * Coalesces the status events of a subscribed listener, only the latest status is delivered once the
+     * interval since the last delivery has passed. The scheduled executor only waits for the interval, the
+     * status is delivered by the async executor so that a slow listener can't delay the other subscriptions
+     * or the command range events.
+     */
+    private class StatusSubscription {
+        private final UGSEventListener listener;
+        private final long intervalNanos;
+        private final Set<ControllerStatusField> fields;
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+        private volatile ControllerStatus latestStatus;
+        private volatile boolean isCancelled;
+
+        /**
+         * The last status delivered to the listener, only accessed while delivering
+         */
+        private ControllerStatus deliveredStatus;
+        private volatile long deliveryTime;
+
+        private StatusSubscription(UGSEventListener listener, long intervalNanos, Set<ControllerStatusField> fields, ControllerStatus status) {
+            this.listener = listener;
+            this.intervalNanos = intervalNanos;
+            this.fields = fields;
+            this.latestStatus = status;
+            this.deliveredStatus = status;
+            this.deliveryTime = System.nanoTime() - intervalNanos;
+        }
+
+        private void onStatus(ControllerStatusEvent event) {
+            latestStatus = event.getStatus();
+            if (hasChangedFields(event.getChanges()) && isScheduled.compareAndSet(false, true)) {
+                long delay = Math.max(0, deliveryTime + intervalNanos - System.nanoTime());
+                getScheduledExecutor().schedule(() -> getAsyncExecutor().execute(this::deliver), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private synchronized void deliver() {
+            // Clear the flag before reading the status so that a newer status will schedule another delivery,
+            // which waits for this delivery to finish
+            isScheduled.set(false);
+            ControllerStatus status = latestStatus;
+            if (isCancelled || status == deliveredStatus) {
+                return;
+            }
+
+            Set<ControllerStatusField> changes = ControllerStatusField.getChanges(deliveredStatus, status);
+            if (!hasChangedFields(changes)) {
+                return;
+            }
+
+            ControllerStatus previousStatus = deliveredStatus;
+            deliveredStatus = status;
+            deliveryTime = System.nanoTime();
+            dispatch(listener, new ControllerStatusEvent(status, previousStatus, changes));
+        }
+
+        private boolean hasChangedFields(Set<ControllerStatusField> changes) {
+            for (ControllerStatusField field : fields) {
+                if (changes.contains(field)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void cancel() {
+            isCancelled = true;
+        }
+    }
 }
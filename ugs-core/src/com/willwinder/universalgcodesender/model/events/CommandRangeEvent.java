@@ -0,0 +1,90 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.model.UGSEvent;
+
+/**
+ * An event summarizing the {@link CommandEvent}s within an interval, for listeners that only need to
+ * know how far a program has been completed instead of handling every single command.
+ * <p>
+ * The range of command numbers only includes the commands from the program, not the commands
+ * generated by the controller or sent manually.
+ */
+public class CommandRangeEvent implements UGSEvent {
+    private final int firstCommandNumber;
+    private final int lastCommandNumber;
+    private final int sentCount;
+    private final int completedCount;
+    private final int skippedCount;
+    private final int errorCount;
+
+    public CommandRangeEvent(int firstCommandNumber, int lastCommandNumber, int sentCount, int completedCount, int skippedCount, int errorCount) {
+        this.firstCommandNumber = firstCommandNumber;
+        this.lastCommandNumber = lastCommandNumber;
+        this.sentCount = sentCount;
+        this.completedCount = completedCount;
+        this.skippedCount = skippedCount;
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * @return the first command number that was completed or skipped, or -1 if no command of the program was
+     */
+    public int getFirstCommandNumber() {
+        return firstCommandNumber;
+    }
+
+    /**
+     * @return the last command number that was completed or skipped, or -1 if no command of the program was
+     */
+    public int getLastCommandNumber() {
+        return lastCommandNumber;
+    }
+
+    /**
+     * @return true if any command of the program was completed or skipped
+     */
+    public boolean hasCommandNumbers() {
+        return lastCommandNumber >= 0;
+    }
+
+    public int getSentCount() {
+        return sentCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * @return the number of completed commands that the controller responded with an error to
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+}
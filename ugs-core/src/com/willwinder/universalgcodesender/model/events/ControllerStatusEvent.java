@@ -1,5 +1,5 @@
 /*
-    Copyright 2021 Will Winder
+    Copyright 2021-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -21,6 +21,9 @@ package com.willwinder.universalgcodesender.model.events;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * An event that will be dispatched when the controller status has changed.
  *
@@ -30,10 +33,16 @@ public class ControllerStatusEvent implements UGSEvent {
 
     private final ControllerStatus status;
     private final ControllerStatus previousStatus;
+    private final Set<ControllerStatusField> changes;
 
     public ControllerStatusEvent(ControllerStatus status, ControllerStatus previousStatus) {
+        this(status, previousStatus, ControllerStatusField.getChanges(previousStatus, status));
+    }
+
+    public ControllerStatusEvent(ControllerStatus status, ControllerStatus previousStatus, Set<ControllerStatusField> changes) {
         this.status = status;
         this.previousStatus = previousStatus;
+        this.changes = Collections.unmodifiableSet(changes);
     }
 
     public ControllerStatus getStatus() {
@@ -43,4 +52,28 @@ public class ControllerStatusEvent implements UGSEvent {
     public ControllerStatus getPreviousStatus() {
         return previousStatus;
     }
+
+    /**
+     * Returns the fields that are different in the status compared to the previous status
+     *
+     * @return the changed fields
+     */
+    public Set<ControllerStatusField> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns if any of the given fields has changed compared to the previous status
+     *
+     * @param fields the fields to check
+     * @return true if any of the fields has changed
+     */
+    public boolean hasChanged(ControllerStatusField... fields) {
+        for (ControllerStatusField field : fields) {
+            if (changes.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,90 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The fields of a {@link ControllerStatus} that can change between two status reports,
+ * used for only handling the status events with changes that a listener is interested in.
+ */
+public enum ControllerStatusField {
+    /**
+     * The controller state and sub state
+     */
+    STATE(ControllerStatus::getState, ControllerStatus::getSubState),
+    MACHINE_POSITION(ControllerStatus::getMachineCoord),
+    WORK_POSITION(ControllerStatus::getWorkCoord),
+    WORK_COORDINATE_OFFSET(ControllerStatus::getWorkCoordinateOffset),
+    FEED_SPEED(ControllerStatus::getFeedSpeed, ControllerStatus::getFeedSpeedUnits),
+    SPINDLE_SPEED(ControllerStatus::getSpindleSpeed),
+    OVERRIDES(ControllerStatus::getOverrides),
+    PINS(ControllerStatus::getEnabledPins),
+    ACCESSORY_STATES(ControllerStatus::getAccessoryStates);
+
+    private final Function<ControllerStatus, Object>[] getters;
+
+    @SafeVarargs
+    ControllerStatusField(Function<ControllerStatus, Object>... getters) {
+        this.getters = getters;
+    }
+
+    /**
+     * Returns if this field is different in the two statuses
+     *
+     * @param previousStatus the previous status
+     * @param status         the new status
+     * @return true if the field has changed
+     */
+    public boolean hasChanged(ControllerStatus previousStatus, ControllerStatus status) {
+        for (Function<ControllerStatus, Object> getter : getters) {
+            // The parsers reuse unchanged immutable values, making many comparisons a reference check
+            if (!Objects.equals(getter.apply(previousStatus), getter.apply(status))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the fields that are different in the two statuses
+     *
+     * @param previousStatus the previous status
+     * @param status         the new status
+     * @return the changed fields, which is empty if the statuses are equal
+     */
+    public static Set<ControllerStatusField> getChanges(ControllerStatus previousStatus, ControllerStatus status) {
+        Set<ControllerStatusField> changes = EnumSet.noneOf(ControllerStatusField.class);
+        if (previousStatus == status) {
+            return changes;
+        }
+
+        for (ControllerStatusField field : values()) {
+            if (previousStatus == null || status == null || field.hasChanged(previousStatus, status)) {
+                changes.add(field);
+            }
+        }
+        return changes;
+    }
+}
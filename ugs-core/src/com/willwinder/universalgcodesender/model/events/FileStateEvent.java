@@ -31,7 +31,7 @@ public class FileStateEvent implements UGSEvent {
      * Create a file state event
      * FILE_LOADING: This event provides a path to an unprocessed gcode file.
      * FILE_LOADED: This event provides a path to a processed gcode file which
-     * should be opened with a GcodeStreamReader.
+     * should be opened with the GcodeStreamReaderFactory.
      *
      * @param state the new file state.
      */
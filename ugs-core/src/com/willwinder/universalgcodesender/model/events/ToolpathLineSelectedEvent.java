@@ -0,0 +1,40 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.model.UGSEvent;
+
+/**
+ * An event that will be dispatched when a line of the toolpath is selected in a visualizer,
+ * so that an editor can move to the gcode line that created it.
+ */
+public class ToolpathLineSelectedEvent implements UGSEvent {
+    private final int lineNumber;
+
+    /**
+     * @param lineNumber the line number of the selected segment in the gcode file, starting with 1
+     */
+    public ToolpathLineSelectedEvent(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model.events;
+
+import com.willwinder.universalgcodesender.model.UGSEvent;
+
+import java.io.File;
+
+/**
+ * An event that will be dispatched while the toolpath of a gcode file is being loaded
+ * for a visualizer.
+ */
+public class ToolpathLoadEvent implements UGSEvent {
+    private final File file;
+    private final double progress;
+    private final int segmentCount;
+    private final boolean isComplete;
+
+    /**
+     * @param file         the file being loaded
+     * @param progress     the loaded part of the file between 0 and 1
+     * @param segmentCount the number of segments loaded so far
+     * @param isComplete   true if the whole file has been loaded
+     */
+    public ToolpathLoadEvent(File file, double progress, int segmentCount, boolean isComplete) {
+        this.file = file;
+        this.progress = progress;
+        this.segmentCount = segmentCount;
+        this.isComplete = isComplete;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public boolean isComplete() {
+        return isComplete;
+    }
+}
@@ -106,6 +106,13 @@ public class InterceptingGcodeStreamReader implements IGcodeStreamReader {
         return new GcodeCommand("", triggerCommand.getOriginalCommandString(), triggerCommand.getComment(), triggerCommand.getCommandNumber());
     }
 
+    @Override
+    public void seekToCommandNumber(int commandNumber) throws IOException {
+        pendingCommand = null;
+        pendingInterceptor = null;
+        delegate.seekToCommandNumber(commandNumber);
+    }
+
     public void ungate() {
         gated = false;
     }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -27,6 +27,7 @@ import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
 import com.willwinder.universalgcodesender.uielements.components.OverrideRadioButtons;
 import com.willwinder.universalgcodesender.uielements.components.OverrideSpeedSlider;
 import com.willwinder.universalgcodesender.uielements.components.OverrideToggleButtons;
@@ -36,6 +37,7 @@ import net.miginfocom.swing.MigLayout;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -46,6 +48,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author wwinder
  */
 public final class OverridesPanel extends JPanel implements UGSEventListener {
+    private static final Duration STATUS_INTERVAL = Duration.ofMillis(100);
+
     private final transient BackendAPI backend;
     private final JPanel overridesControlsPanel = new JPanel(new MigLayout("fillx, inset 0"));
     private final JLabel notConnectedLabel = new JLabel("Not connected", SwingConstants.CENTER);
@@ -59,6 +63,8 @@ public final class OverridesPanel extends JPanel implements UGSEventListener {
         this.backend = backend;
         if (backend != null) {
             backend.addUGSEventListener(this);
+            backend.addControllerStatusListener(this, STATUS_INTERVAL, ControllerStatusField.OVERRIDES,
+                    ControllerStatusField.ACCESSORY_STATES, ControllerStatusField.SPINDLE_SPEED);
         }
 
         setLayout(new MigLayout("fillx, hidemode 3"));
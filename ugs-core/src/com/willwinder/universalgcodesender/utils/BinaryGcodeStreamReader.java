@@ -0,0 +1,363 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_CHECKPOINT_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_INDEX_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_ROW_COUNT_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_SIZE;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_VERSION;
+
+/**
+ * Reads a binary "GcodeStream" file written by {@link BinaryGcodeStreamWriter}. The file
+ * is memory mapped and each row is decoded directly from the mapped buffer without any
+ * line splitting or number parsing.
+ * <p>
+ * Files larger than what can be mapped at once are mapped in windows of at most
+ * {@link #DEFAULT_WINDOW_SIZE} bytes, moving the window when a row outside of it is read.
+ * The rows and the row index are read through separate windows which start at a multiple
+ * of the window size, so that searching the index doesn't move the window of the rows and
+ * reading nearby offsets reuses the same mapping.
+ * <p>
+ * The row index and the state checkpoints in the file makes it possible to seek to any
+ * command number, only parsing the rows since the closest checkpoint.
+ */
+public class BinaryGcodeStreamReader implements IGcodeStreamReader {
+    /**
+     * The maximum number of bytes of the file that is mapped at once
+     */
+    static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private final ICommandCreator commandCreator;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowSize;
+    private final int totalRows;
+    private final long indexOffset;
+    private final List<GcodeStreamCheckpoint> checkpoints = new ArrayList<>();
+    private final Deque<GcodeCommand> preamble = new ArrayDeque<>();
+    private final Window rowWindow = new Window();
+    private final Window indexWindow = new Window();
+    private long position;
+    private int numRows;
+    private int numRowsRemaining;
+    private byte[] fieldBuffer = new byte[256];
+
+    public BinaryGcodeStreamReader(File file, ICommandCreator commandCreator) throws GcodeStreamReader.NotGcodeStreamFile, IOException {
+        this(file, commandCreator, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file           the file to read
+     * @param commandCreator the creator of the read commands
+     * @param windowSize     the maximum number of bytes to map at once
+     */
+    BinaryGcodeStreamReader(File file, ICommandCreator commandCreator, long windowSize) throws GcodeStreamReader.NotGcodeStreamFile, IOException {
+        this.commandCreator = commandCreator;
+        this.windowSize = windowSize;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            fileSize = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_SIZE);
+            if (fileSize < BINARY_HEADER_SIZE || channel.read(header, 0) < BINARY_HEADER_SIZE) {
+                throw new GcodeStreamReader.NotGcodeStreamFile();
+            }
+
+            if (!isBinaryGcodeStream(header) || header.getInt(BINARY_MAGIC.length) != BINARY_VERSION) {
+                throw new GcodeStreamReader.NotGcodeStreamFile();
+            }
+
+            totalRows = header.getInt(BINARY_HEADER_ROW_COUNT_OFFSET);
+            indexOffset = header.getLong(BINARY_HEADER_INDEX_OFFSET);
+            if (totalRows < 0 || indexOffset < BINARY_HEADER_SIZE || indexOffset + (long) totalRows * Long.BYTES > fileSize) {
+                throw new GcodeStreamReader.NotGcodeStreamFile();
+            }
+
+            readCheckpoints(header.getLong(BINARY_HEADER_CHECKPOINT_OFFSET));
+        } catch (GcodeStreamReader.NotGcodeStreamFile | IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        numRows = totalRows;
+        numRowsRemaining = totalRows;
+        position = BINARY_HEADER_SIZE;
+    }
+
+    private void readCheckpoints(long checkpointOffset) throws GcodeStreamReader.NotGcodeStreamFile, IOException {
+        if (checkpointOffset == 0) {
+            return;
+        }
+
+        if (checkpointOffset < BINARY_HEADER_SIZE || checkpointOffset > fileSize || fileSize - checkpointOffset > Integer.MAX_VALUE) {
+            throw new GcodeStreamReader.NotGcodeStreamFile();
+        }
+
+        try {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, checkpointOffset, fileSize - checkpointOffset);
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                checkpoints.add(GcodeStreamCheckpoint.read(buffer));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new GcodeStreamReader.NotGcodeStreamFile();
+        }
+    }
+
+    /**
+     * Checks if the given buffer starts with the binary gcode stream header
+     *
+     * @param header the first bytes of a file
+     * @return true if the header belongs to a binary gcode stream
+     */
+    static boolean isBinaryGcodeStream(ByteBuffer header) {
+        if (header.limit() < BINARY_MAGIC.length) {
+            return false;
+        }
+
+        for (int i = 0; i < BINARY_MAGIC.length; i++) {
+            if (header.get(i) != BINARY_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean ready() {
+        return getNumRowsRemaining() > 0;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumRowsRemaining() {
+        return numRowsRemaining;
+    }
+
+    @Override
+    public GcodeCommand getNextCommand() throws IOException {
+        if (numRowsRemaining == 0) return null;
+
+        if (!preamble.isEmpty()) {
+            numRowsRemaining--;
+            return preamble.poll();
+        }
+
+        try {
+            int commandNumber = readInt();
+            String original = readField();
+            String processed = readField();
+            String comment = readField();
+            numRowsRemaining--;
+            return commandCreator.createCommand(processed, original, comment, commandNumber);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt data found while processing gcode stream at offset " + position, e);
+        }
+    }
+
+    @Override
+    public void seekToCommandNumber(int commandNumber) throws IOException {
+        preamble.clear();
+        int row = findRow(commandNumber);
+        if (row >= totalRows) {
+            numRows = 0;
+            numRowsRemaining = 0;
+            return;
+        }
+
+        // Find the closest checkpoint and parse the rows after it to get the state before the row
+        GcodeState state = GcodeStreamCheckpoint.createInitialState();
+        double clearanceHeight = 0;
+        int stateRow = 0;
+        GcodeStreamCheckpoint checkpoint = findCheckpoint(row);
+        if (checkpoint != null) {
+            state = checkpoint.state;
+            clearanceHeight = checkpoint.clearanceHeight;
+            stateRow = checkpoint.row;
+        }
+
+        try {
+            position = getRowOffset(stateRow);
+            for (int i = stateRow; i < row; i++) {
+                int skippedCommandNumber = readInt();
+                readField();
+                state = GcodeStreamCheckpoint.applyCommand(state, readField(), skippedCommandNumber);
+                readField();
+                clearanceHeight = GcodeStreamCheckpoint.getClearanceHeight(clearanceHeight, state);
+            }
+
+            numRows = totalRows - row;
+            if (row > 0) {
+                int rowCommandNumber = readInt();
+                String original = readField();
+                String processed = readField();
+                String comment = readField();
+                preamble.addAll(GcodeStreamCheckpoint.createResumeCommands(commandCreator, state, clearanceHeight, processed, original, comment, rowCommandNumber));
+                numRows += preamble.size() - 1;
+            }
+            numRowsRemaining = numRows;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt data found while seeking in gcode stream at offset " + position, e);
+        }
+    }
+
+    /**
+     * Finds the first row with the given command number or higher
+     *
+     * @param commandNumber the command number to find
+     * @return the row or the total number of rows if not found
+     */
+    private int findRow(int commandNumber) throws IOException {
+        int low = 0;
+        int high = totalRows;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int index = rowWindow.getIndex(getRowOffset(middle), Integer.BYTES);
+            if (rowWindow.buffer.getInt(index) < commandNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private GcodeStreamCheckpoint findCheckpoint(int row) {
+        GcodeStreamCheckpoint result = null;
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            GcodeStreamCheckpoint checkpoint = checkpoints.get(middle);
+            if (checkpoint.row <= row) {
+                result = checkpoint;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return result;
+    }
+
+    private long getRowOffset(int row) throws IOException {
+        int index = indexWindow.getIndex(indexOffset + (long) row * Long.BYTES, Long.BYTES);
+        long rowOffset = indexWindow.buffer.getLong(index);
+        if (rowOffset < BINARY_HEADER_SIZE || rowOffset >= indexOffset) {
+            throw new BufferUnderflowException();
+        }
+        return rowOffset;
+    }
+
+    /**
+     * Returns the number of times a part of the file has been mapped by the row and index windows
+     *
+     * @return the number of mappings
+     */
+    int getMappingCount() {
+        return rowWindow.mappingCount + indexWindow.mappingCount;
+    }
+
+    private int readInt() throws IOException {
+        int index = rowWindow.getIndex(position, Integer.BYTES);
+        int value = rowWindow.buffer.getInt(index);
+        position += Integer.BYTES;
+        return value;
+    }
+
+    private String readField() throws IOException {
+        int length = readInt();
+        if (length == 0) {
+            return "";
+        } else if (length < 0) {
+            throw new BufferUnderflowException();
+        }
+
+        if (length > fieldBuffer.length) {
+            fieldBuffer = new byte[Math.max(length, fieldBuffer.length * 2)];
+        }
+        int index = rowWindow.getIndex(position, length);
+        rowWindow.buffer.get(index, fieldBuffer, 0, length);
+        position += length;
+        return new String(fieldBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        numRowsRemaining = 0;
+        preamble.clear();
+        rowWindow.buffer = null;
+        indexWindow.buffer = null;
+        channel.close();
+    }
+
+    /**
+     * A mapped part of the file
+     */
+    private class Window {
+        private MappedByteBuffer buffer;
+        private long offset;
+        private int mappingCount;
+
+        /**
+         * Makes sure that the given range of the file is mapped, moving the window if needed. The
+         * window starts at the multiple of the window size before the position and is extended if
+         * the range goes past its end.
+         *
+         * @param position the offset in the file
+         * @param length   the number of bytes to read
+         * @return the index of the position in the buffer, only valid until the window is moved again
+         */
+        private int getIndex(long position, int length) throws IOException {
+            if (position < 0 || length > fileSize - position) {
+                throw new BufferUnderflowException();
+            }
+
+            if (buffer == null || position < offset || position + length > offset + buffer.limit()) {
+                long start = position - position % windowSize;
+                long end = Math.min(fileSize, Math.max(start + windowSize, position + length));
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                offset = start;
+                mappingCount++;
+            }
+            return (int) (position - offset);
+        }
+    }
+}
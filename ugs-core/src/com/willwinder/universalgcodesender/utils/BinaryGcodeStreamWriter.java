@@ -0,0 +1,212 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.listeners.ProcessedGcodeListener;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_CHECKPOINT_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_INDEX_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_ROW_COUNT_OFFSET;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_SIZE;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_VERSION;
+
+/**
+ * Writes a binary "GcodeStream" file. Each row is stored as the command number followed
+ * by the length prefixed UTF-8 original command, processed command and comment. When the
+ * writer is closed a row offset index is appended and the header is updated with the row
+ * count and the position of the index, see {@link BinaryGcodeStreamReader}.
+ * <p>
+ * The modal state of the processed commands is tracked while writing and a snapshot of it is
+ * stored every {@link GcodeStreamCheckpoint#INTERVAL} rows, making it possible to resume the
+ * program from any line without processing the file again.
+ * <p>
+ * Each processed command is only parsed once, and the parsed motions and state are also handed
+ * to the given {@link ProcessedGcodeListener}s.
+ */
+public class BinaryGcodeStreamWriter implements IGcodeWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final DataOutputStream outputStream;
+    private final Collection<ProcessedGcodeListener> listeners;
+    private long position;
+    private long[] rowOffsets = new long[1024];
+    private int rowCount = 0;
+
+    private final List<GcodeStreamCheckpoint> checkpoints = new ArrayList<>();
+    private GcodeState state = GcodeStreamCheckpoint.createInitialState();
+    private double clearanceHeight = 0;
+
+    public BinaryGcodeStreamWriter(File f) throws FileNotFoundException {
+        this(f, Collections.emptyList());
+    }
+
+    /**
+     * @param f         the file to write
+     * @param listeners the listeners to hand the parsed commands to
+     * @throws FileNotFoundException if the file couldn't be created
+     */
+    public BinaryGcodeStreamWriter(File f, Collection<ProcessedGcodeListener> listeners) throws FileNotFoundException {
+        file = f;
+        this.listeners = listeners;
+        outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), BUFFER_SIZE));
+        try {
+            // Reserve space for the header, it is written when the file is closed
+            outputStream.write(new byte[BINARY_HEADER_SIZE]);
+            position = BINARY_HEADER_SIZE;
+        } catch (IOException e) {
+            throw new FileNotFoundException("Could not write gcode stream header: " + e.getMessage());
+        }
+        listeners.forEach(listener -> listener.onProcessingStarted(file));
+    }
+
+    private static String getString(String str) {
+        return str == null ? "" : str.trim();
+    }
+
+    @Override
+    public String getCanonicalPath() throws IOException {
+        return file.getCanonicalPath();
+    }
+
+    @Override
+    public void addLine(GcodeCommand command) {
+        addLine(command.getOriginalCommandString(), command.getCommandString(), command.getComment(), command.getCommandNumber());
+    }
+
+    @Override
+    public void addLine(String original, String processed, String comment, int commandNumber) {
+        String originalString = getString(original);
+        String processedString = getString(processed);
+        String commentString = getString(comment);
+        if (originalString.contains("\n") || processedString.contains("\n") || commentString.contains("\n")) {
+            throw new IllegalArgumentException("Cannot include newlines in gcode stream.");
+        }
+
+        if (rowCount == rowOffsets.length) {
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+        if (rowCount % GcodeStreamCheckpoint.INTERVAL == 0) {
+            checkpoints.add(new GcodeStreamCheckpoint(rowCount, state, clearanceHeight));
+        }
+        rowOffsets[rowCount++] = position;
+
+        try {
+            outputStream.writeInt(commandNumber);
+            position += Integer.BYTES;
+            writeField(originalString);
+            writeField(processedString);
+            writeField(commentString);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to gcode stream file", e);
+        }
+
+        List<GcodeMeta> points = parse(processedString, commandNumber);
+        clearanceHeight = GcodeStreamCheckpoint.getClearanceHeight(clearanceHeight, state);
+        for (ProcessedGcodeListener listener : listeners) {
+            listener.onCommandProcessed(commandNumber, points, state);
+        }
+    }
+
+    /**
+     * Updates the state with a processed command
+     *
+     * @return the motions of the command
+     */
+    private List<GcodeMeta> parse(String command, int commandNumber) {
+        List<GcodeMeta> metaList;
+        try {
+            metaList = GcodeParserUtils.processCommand(command, commandNumber, state, true);
+        } catch (GcodeParserException e) {
+            // The state is kept as it was, the error is reported when the command is sent
+            return Collections.emptyList();
+        }
+
+        if (metaList == null) {
+            return Collections.emptyList();
+        }
+
+        List<GcodeMeta> points = new ArrayList<>(1);
+        for (GcodeMeta meta : metaList) {
+            if (meta.point != null) {
+                points.add(meta);
+            }
+            if (meta.state != null) {
+                state = meta.state;
+            }
+        }
+        return points;
+    }
+
+    private void writeField(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+        position += Integer.BYTES + bytes.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long indexOffset = position;
+        for (int i = 0; i < rowCount; i++) {
+            outputStream.writeLong(rowOffsets[i]);
+        }
+
+        long checkpointOffset = indexOffset + (long) rowCount * Long.BYTES;
+        outputStream.writeInt(checkpoints.size());
+        for (GcodeStreamCheckpoint checkpoint : checkpoints) {
+            checkpoint.write(outputStream);
+        }
+        outputStream.close();
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(0);
+            raw.write(BINARY_MAGIC);
+            raw.writeInt(BINARY_VERSION);
+            raw.seek(BINARY_HEADER_ROW_COUNT_OFFSET);
+            raw.writeInt(rowCount);
+            raw.seek(BINARY_HEADER_INDEX_OFFSET);
+            raw.writeLong(indexOffset);
+            raw.seek(BINARY_HEADER_CHECKPOINT_OFFSET);
+            raw.writeLong(checkpointOffset);
+        }
+        listeners.forEach(listener -> listener.onProcessingFinished(file));
+    }
+}
@@ -39,4 +39,19 @@ public class GcodeStream {
     protected static final Pattern SPLIT_PATTERN = Pattern.compile(Pattern.quote(FIELD_SEPARATOR));
     protected static final String META_PREFIX = "gsw_meta:";
     protected static final String METADATA_RESERVED_SIZE = "                                                  ";
+
+    /**
+     * Marks the beginning of a binary (version 2) gcode stream file.
+     */
+    protected static final byte[] BINARY_MAGIC = {'U', 'G', 'S', 'B'};
+    protected static final int BINARY_VERSION = 2;
+
+    /**
+     * The binary header contains: magic (4 bytes), version (int), row count (int),
+     * reserved (int), row index offset (long) and the checkpoint table offset (long).
+     */
+    protected static final int BINARY_HEADER_SIZE = 32;
+    protected static final int BINARY_HEADER_ROW_COUNT_OFFSET = 8;
+    protected static final int BINARY_HEADER_INDEX_OFFSET = 16;
+    protected static final int BINARY_HEADER_CHECKPOINT_OFFSET = 24;
 }
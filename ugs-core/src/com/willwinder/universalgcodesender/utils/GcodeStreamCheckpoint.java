@@ -0,0 +1,220 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.gcode.util.Plane;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A snapshot of the modal gcode state before a given row in a binary gcode stream. The
+ * checkpoints are written periodically by the {@link BinaryGcodeStreamWriter} so that a
+ * {@link BinaryGcodeStreamReader} only needs to parse the rows between the closest checkpoint
+ * and the row it seeks to. The other streams parse all rows before the row they seek to.
+ */
+class GcodeStreamCheckpoint {
+    /**
+     * The number of rows between each checkpoint
+     */
+    static final int INTERVAL = 1000;
+
+    final int row;
+    final GcodeState state;
+    final double clearanceHeight;
+
+    GcodeStreamCheckpoint(int row, GcodeState state, double clearanceHeight) {
+        this.row = row;
+        this.state = state;
+        this.clearanceHeight = clearanceHeight;
+    }
+
+    /**
+     * Creates the state used before the first row in the stream, the same as a reset {@link GcodeParser}.
+     *
+     * @return a new initial state
+     */
+    static GcodeState createInitialState() {
+        GcodeState state = new GcodeState();
+        state.currentPoint = Position.INVALID;
+        state.commandNumber = -1;
+        return state;
+    }
+
+    /**
+     * Applies a processed command to the given state without modifying it.
+     *
+     * @param state         the state before the command
+     * @param command       the processed command
+     * @param commandNumber the command number of the processed command
+     * @return the state after the command, or the given state if the command couldn't be parsed
+     */
+    static GcodeState applyCommand(GcodeState state, String command, int commandNumber) {
+        try {
+            List<GcodeParser.GcodeMeta> metaList = GcodeParserUtils.processCommand(command, commandNumber, state, true);
+            if (metaList == null) {
+                return state;
+            }
+
+            GcodeState result = state;
+            for (GcodeParser.GcodeMeta meta : metaList) {
+                if (meta.state != null) {
+                    result = meta.state;
+                }
+            }
+            return result;
+        } catch (GcodeParserException e) {
+            return state;
+        }
+    }
+
+    /**
+     * Returns the clearance height to use after the given state has been reached, which is the
+     * highest Z position visited by the program.
+     */
+    static double getClearanceHeight(double clearanceHeight, GcodeState state) {
+        double z = state.currentPoint.z;
+        return Math.max(clearanceHeight, Double.isNaN(z) ? 0 : z);
+    }
+
+    /**
+     * Creates the commands for resuming a program at the given row. Only the last command is the resumed row,
+     * the commands restoring the state before it are generated and have no command number.
+     *
+     * @param commandCreator  the creator of the commands
+     * @param state           the state after the skipped rows
+     * @param clearanceHeight the height to use when moving to the start location
+     * @param processed       the processed command of the resumed row
+     * @param original        the original command of the resumed row
+     * @param comment         the comment of the resumed row
+     * @param commandNumber   the command number of the resumed row
+     * @return the commands to send before continuing with the row after the resumed row
+     */
+    static List<GcodeCommand> createResumeCommands(ICommandCreator commandCreator, GcodeState state, double clearanceHeight,
+                                                   String processed, String original, String comment, int commandNumber) {
+        List<String> commands = new ArrayList<>(RunFromProcessor.createResumeCommands(state, clearanceHeight, processed));
+
+        // An empty row is left out of the resume commands, it is still sent to keep the row count
+        String resumedCommand = StringUtils.isEmpty(processed) ? processed : commands.remove(commands.size() - 1);
+
+        List<GcodeCommand> result = new ArrayList<>(commands.size() + 1);
+        commands.forEach(command -> result.add(commandCreator.createCommand(command)));
+        result.add(commandCreator.createCommand(resumedCommand, original, comment, commandNumber));
+        return result;
+    }
+
+    void write(DataOutput output) throws IOException {
+        output.writeInt(row);
+        output.writeDouble(clearanceHeight);
+        writeCode(output, state.currentMotionMode);
+        writeString(output, state.plane == null ? "" : state.plane.name());
+        output.writeBoolean(state.inAbsoluteMode);
+        writeCode(output, state.distanceMode);
+        output.writeBoolean(state.inAbsoluteIJKMode);
+        writeCode(output, state.arcDistanceMode);
+        writeCode(output, state.feedMode);
+        output.writeDouble(state.feedRate);
+        output.writeBoolean(state.isMetric);
+        writeCode(output, state.units);
+        writeCode(output, state.offset);
+        writeCode(output, state.spindle);
+        writeCode(output, state.coolant);
+        output.writeInt(state.toolNumber);
+        output.writeDouble(state.spindleSpeed);
+        output.writeInt(state.commandNumber);
+
+        Position point = state.currentPoint;
+        output.writeDouble(point.x);
+        output.writeDouble(point.y);
+        output.writeDouble(point.z);
+        output.writeDouble(point.a);
+        output.writeDouble(point.b);
+        output.writeDouble(point.c);
+        writeString(output, point.getUnits().name());
+    }
+
+    static GcodeStreamCheckpoint read(ByteBuffer buffer) {
+        int row = buffer.getInt();
+        double clearanceHeight = buffer.getDouble();
+
+        GcodeState state = new GcodeState();
+        state.currentMotionMode = readCode(buffer);
+        String plane = readString(buffer);
+        state.plane = plane.isEmpty() ? null : Plane.valueOf(plane);
+        state.inAbsoluteMode = buffer.get() != 0;
+        state.distanceMode = readCode(buffer);
+        state.inAbsoluteIJKMode = buffer.get() != 0;
+        state.arcDistanceMode = readCode(buffer);
+        state.feedMode = readCode(buffer);
+        state.feedRate = buffer.getDouble();
+        state.isMetric = buffer.get() != 0;
+        state.units = readCode(buffer);
+        state.offset = readCode(buffer);
+        state.spindle = readCode(buffer);
+        state.coolant = readCode(buffer);
+        state.toolNumber = buffer.getInt();
+        state.spindleSpeed = buffer.getDouble();
+        state.commandNumber = buffer.getInt();
+
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double z = buffer.getDouble();
+        double a = buffer.getDouble();
+        double b = buffer.getDouble();
+        double c = buffer.getDouble();
+        state.currentPoint = new Position(x, y, z, a, b, c, UnitUtils.Units.valueOf(readString(buffer)));
+        return new GcodeStreamCheckpoint(row, state, clearanceHeight);
+    }
+
+    private static void writeCode(DataOutput output, Code code) throws IOException {
+        writeString(output, code == null ? "" : code.name());
+    }
+
+    private static Code readCode(ByteBuffer buffer) {
+        String code = readString(buffer);
+        return code.isEmpty() ? null : Code.valueOf(code);
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeUTF(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        // Matches the modified UTF-8 written by DataOutput.writeUTF which is plain ASCII for enum names
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2023 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -18,6 +18,7 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.gcode.ICommandCreator;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import org.apache.commons.lang3.StringUtils;
@@ -30,6 +31,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import static com.willwinder.universalgcodesender.utils.GcodeStream.COL_COMMAND_NUMBER;
 import static com.willwinder.universalgcodesender.utils.GcodeStream.COL_COMMENT;
@@ -47,14 +50,32 @@ import static com.willwinder.universalgcodesender.utils.GcodeStream.SPLIT_PATTER
  */
 public class GcodeStreamReader implements IGcodeStreamReader {
     private final ICommandCreator commandCreator;
-    private final BufferedReader reader;
-    private final int numRows;
+    private final File file;
+    private final Deque<GcodeCommand> preamble = new ArrayDeque<>();
+    private final int totalRows;
+    private BufferedReader reader;
+    private boolean isAtStart = true;
+    private int numRows;
     private int numRowsRemaining;
 
     public static class NotGcodeStreamFile extends Exception {}
 
     public GcodeStreamReader(InputStream inputStream, ICommandCreator commandCreator) throws NotGcodeStreamFile {
+        this(inputStream, null, commandCreator);
+    }
+
+    public GcodeStreamReader(File f, ICommandCreator commandCreator) throws NotGcodeStreamFile, FileNotFoundException {
+        this(new FileInputStream(f), f, commandCreator);
+    }
+
+    /**
+     * @param inputStream    the stream to read
+     * @param file           the file of the stream used for reopening it when seeking, or null if it can't be reopened
+     * @param commandCreator the creator of the read commands
+     */
+    private GcodeStreamReader(InputStream inputStream, File file, ICommandCreator commandCreator) throws NotGcodeStreamFile {
         this.commandCreator = commandCreator;
+        this.file = file;
 
         try {
             reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
@@ -64,16 +85,13 @@ public class GcodeStreamReader implements IGcodeStreamReader {
             }
 
             metadata = metadata.substring(META_PREFIX.length());
-            numRows = Integer.parseInt(metadata);
-            numRowsRemaining = numRows;
+            totalRows = Integer.parseInt(metadata);
+            numRows = totalRows;
+            numRowsRemaining = totalRows;
         } catch (IOException | NumberFormatException e) {
             throw new NotGcodeStreamFile();
         }
     }
-
-    public GcodeStreamReader(File f, ICommandCreator commandCreator) throws NotGcodeStreamFile, FileNotFoundException {
-        this(new FileInputStream(f), commandCreator);
-    }
     
     @Override
     public boolean ready() {
@@ -94,15 +112,30 @@ public class GcodeStreamReader implements IGcodeStreamReader {
         return SPLIT_PATTERN.split(line, -1);
     }
 
-    @Override
-    public GcodeCommand getNextCommand() throws IOException {
-        if (numRowsRemaining == 0) return null;
-
+    private String[] readRow() throws IOException {
+        isAtStart = false;
         String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Unexpected end of gcode stream");
+        }
+
         String[] nextLine = parseLine(line);
         if (nextLine.length != NUM_COLUMNS) {
             throw new IOException("Corrupt data found while processing gcode stream: " + line);
         }
+        return nextLine;
+    }
+
+    @Override
+    public GcodeCommand getNextCommand() throws IOException {
+        if (numRowsRemaining == 0) return null;
+
+        if (!preamble.isEmpty()) {
+            numRowsRemaining--;
+            return preamble.poll();
+        }
+
+        String[] nextLine = readRow();
         numRowsRemaining--;
         return commandCreator.createCommand(
                 nextLine[COL_PROCESSED_COMMAND],
@@ -111,9 +144,68 @@ public class GcodeStreamReader implements IGcodeStreamReader {
                 Integer.parseInt(nextLine[COL_COMMAND_NUMBER]));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The text format has no index, the file is reopened and the rows from the start are read and
+     * parsed until the command number is found. A reader created from an input stream can't be
+     * reopened and can only seek before any command has been read.
+     */
+    @Override
+    public void seekToCommandNumber(int commandNumber) throws IOException {
+        preamble.clear();
+        rewind();
+
+        GcodeState state = GcodeStreamCheckpoint.createInitialState();
+        double clearanceHeight = 0;
+        boolean isFirstRow = true;
+
+        while (numRowsRemaining > 0) {
+            String[] row = readRow();
+            numRowsRemaining--;
+
+            int rowCommandNumber = Integer.parseInt(row[COL_COMMAND_NUMBER]);
+            if (rowCommandNumber >= commandNumber) {
+                if (isFirstRow) {
+                    preamble.add(commandCreator.createCommand(row[COL_PROCESSED_COMMAND], row[COL_ORIGINAL_COMMAND], row[COL_COMMENT], rowCommandNumber));
+                } else {
+                    preamble.addAll(GcodeStreamCheckpoint.createResumeCommands(commandCreator, state, clearanceHeight,
+                            row[COL_PROCESSED_COMMAND], row[COL_ORIGINAL_COMMAND], row[COL_COMMENT], rowCommandNumber));
+                }
+                break;
+            }
+
+            state = GcodeStreamCheckpoint.applyCommand(state, row[COL_PROCESSED_COMMAND], rowCommandNumber);
+            clearanceHeight = GcodeStreamCheckpoint.getClearanceHeight(clearanceHeight, state);
+            isFirstRow = false;
+        }
+
+        numRowsRemaining += preamble.size();
+        numRows = numRowsRemaining;
+    }
+
+    private void rewind() throws IOException {
+        if (!isAtStart) {
+            if (file == null) {
+                throw new IOException("Could not seek in the gcode stream, it has already been read and is not a file");
+            }
+
+            reader.close();
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+
+            // Skips the metadata which was read when the stream was opened
+            reader.readLine();
+            isAtStart = true;
+        }
+
+        numRows = totalRows;
+        numRowsRemaining = totalRows;
+    }
+
     @Override
     public void close() throws IOException {
         numRowsRemaining = 0;
+        preamble.clear();
         reader.close();
     }
 }
@@ -0,0 +1,68 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+
+/**
+ * A factory for opening processed gcode stream files. The stream format is detected from
+ * the beginning of the file so that both the binary and the text format can be read.
+ */
+public class GcodeStreamReaderFactory {
+    private GcodeStreamReaderFactory() {
+    }
+
+    /**
+     * Opens a reader for the given gcode stream file using the format the file was written in.
+     *
+     * @param file           the processed gcode stream file
+     * @param commandCreator the command creator to use for the created commands
+     * @return a gcode stream reader
+     * @throws GcodeStreamReader.NotGcodeStreamFile if the file isn't a gcode stream file
+     * @throws IOException                          if the file couldn't be read
+     */
+    public static IGcodeStreamReader createReader(File file, ICommandCreator commandCreator) throws GcodeStreamReader.NotGcodeStreamFile, IOException {
+        if (isBinaryGcodeStream(file)) {
+            return new BinaryGcodeStreamReader(file, commandCreator);
+        }
+        return new GcodeStreamReader(file, commandCreator);
+    }
+
+    /**
+     * Checks if the given file is written in the binary gcode stream format
+     *
+     * @param file the file to check
+     * @return true if the file is a binary gcode stream
+     * @throws IOException if the file couldn't be read
+     */
+    public static boolean isBinaryGcodeStream(File file) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] header = inputStream.readNBytes(BINARY_MAGIC.length);
+            return BinaryGcodeStreamReader.isBinaryGcodeStream(ByteBuffer.wrap(header));
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2019 Will Winder
+    Copyright 2019-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -58,4 +58,18 @@ public interface IGcodeStreamReader extends Closeable {
      * @throws IOException if the stream can not be read
      */
     GcodeCommand getNextCommand() throws IOException;
+
+    /**
+     * Moves the stream to the first command with the given command number or higher. The command
+     * is searched for from the start of the stream, regardless of which commands have already been
+     * read or if the stream has been moved before.
+     * <p>
+     * If commands before it are skipped, the next commands returned will restore the modal state of
+     * the skipped commands and move to the start location before the command is returned. The number
+     * of rows is then the number of commands left to stream, including those resume commands.
+     *
+     * @param commandNumber the command number to continue the stream from
+     * @throws IOException if the stream can not be read
+     */
+    void seekToCommandNumber(int commandNumber) throws IOException;
 }
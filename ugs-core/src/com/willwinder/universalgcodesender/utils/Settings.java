@@ -1,5 +1,5 @@
 /*
-    Copyright 2014-2024 Will Winder
+    Copyright 2014-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -93,6 +93,8 @@ public class Settings {
     private boolean showSerialPortWarning = true;
     private boolean autoStartPendant = false;
     private int pendantPort = 8080;
+    private int pendantStatusUpdateRate = 100;
+    private int commandRangeUpdateRate = 100;
 
     private final AutoLevelSettings autoLevelSettings = new AutoLevelSettings();
 
@@ -570,6 +572,30 @@ public class Settings {
         changed();
     }
 
+    /**
+     * @return the minimum time in milliseconds between two status updates sent to each pendant client
+     */
+    public int getPendantStatusUpdateRate() {
+        return pendantStatusUpdateRate;
+    }
+
+    public void setPendantStatusUpdateRate(int pendantStatusUpdateRate) {
+        this.pendantStatusUpdateRate = pendantStatusUpdateRate;
+        changed();
+    }
+
+    /**
+     * @return the time in milliseconds that the progress of a program is collected before it is sent as a command range event
+     */
+    public int getCommandRangeUpdateRate() {
+        return commandRangeUpdateRate;
+    }
+
+    public void setCommandRangeUpdateRate(int commandRangeUpdateRate) {
+        this.commandRangeUpdateRate = commandRangeUpdateRate;
+        changed();
+    }
+
     public boolean isInvertMouseZoom() {
         return invertMouseZoom;
     }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2019-2023 Will Winder
+    Copyright 2019-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 
 import java.util.ArrayList;
@@ -33,6 +35,7 @@ import java.util.List;
 public class SimpleGcodeStreamReader implements IGcodeStreamReader {
 
     private final List<GcodeCommand> commands = new ArrayList<>();
+    private final List<GcodeCommand> rows = new ArrayList<>();
     private int currentLine;
 
     /**
@@ -44,6 +47,7 @@ public class SimpleGcodeStreamReader implements IGcodeStreamReader {
         for (int i = 0; i < gcodeLines.length; i++) {
             commands.add(new GcodeCommand(gcodeLines[i], i));
         }
+        rows.addAll(commands);
         currentLine = 0;
     }
 
@@ -54,41 +58,66 @@ public class SimpleGcodeStreamReader implements IGcodeStreamReader {
      */
     public SimpleGcodeStreamReader(GcodeCommand... commands) {
         this.commands.addAll(Arrays.asList(commands));
+        rows.addAll(this.commands);
         currentLine = 0;
     }
 
     public SimpleGcodeStreamReader(List<GcodeCommand> commands) {
         this.commands.addAll(commands);
+        rows.addAll(commands);
         currentLine = 0;
     }
 
     @Override
     public boolean ready() {
-        return currentLine <= commands.size();
+        return currentLine <= rows.size();
     }
 
     @Override
     public int getNumRows() {
-        return commands.size();
+        return rows.size();
     }
 
     @Override
     public int getNumRowsRemaining() {
-        return commands.size() - currentLine;
+        return rows.size() - currentLine;
     }
 
     @Override
     public GcodeCommand getNextCommand() {
-        if (currentLine >= commands.size()) {
+        if (currentLine >= rows.size()) {
             return null;
         }
 
-        return commands.get(currentLine++);
+        return rows.get(currentLine++);
+    }
+
+    @Override
+    public void seekToCommandNumber(int commandNumber) {
+        int line = 0;
+        GcodeState state = GcodeStreamCheckpoint.createInitialState();
+        double clearanceHeight = 0;
+        while (line < commands.size() && commands.get(line).getCommandNumber() < commandNumber) {
+            GcodeCommand skippedCommand = commands.get(line);
+            state = GcodeStreamCheckpoint.applyCommand(state, skippedCommand.getCommandString(), skippedCommand.getCommandNumber());
+            clearanceHeight = GcodeStreamCheckpoint.getClearanceHeight(clearanceHeight, state);
+            line++;
+        }
+
+        rows.clear();
+        rows.addAll(commands.subList(line, commands.size()));
+        if (line > 0 && !rows.isEmpty()) {
+            GcodeCommand command = rows.remove(0);
+            rows.addAll(0, GcodeStreamCheckpoint.createResumeCommands(new DefaultCommandCreator(), state, clearanceHeight,
+                    command.getCommandString(), command.getOriginalCommandString(), command.getComment(), command.getCommandNumber()));
+        }
+        currentLine = 0;
     }
 
     @Override
     public void close() {
         currentLine = 0;
         commands.clear();
+        rows.clear();
     }
 }
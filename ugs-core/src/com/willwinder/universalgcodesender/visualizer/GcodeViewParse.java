@@ -1,5 +1,5 @@
 /*
-    Copyright 2013-2023 Noah Levy, William Winder
+    Copyright 2013-2026 Noah Levy, William Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -22,8 +22,8 @@ package com.willwinder.universalgcodesender.visualizer;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
 import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
-import com.willwinder.universalgcodesender.gcode.processors.SimplifyProcessor;
 import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
@@ -53,14 +53,25 @@ public class GcodeViewParse {
         lines = new ArrayList<>();
     }
 
+    /**
+     * Creates a parser with the result of a previous parse, such as when the toolpath is read from a cache
+     */
+    GcodeViewParse(Position min, Position max, double maxSpindleSpeed, double maxFeedRate) {
+        this.min = min;
+        this.max = max;
+        this.maxSpindleSpeed = maxSpindleSpeed;
+        this.maxFeedRate = maxFeedRate;
+        lines = new ArrayList<>();
+    }
+
     /**
      * Create a gcode parser with required configuration.
      */
-    private static GcodeParser getParser(double minSegmentLength) {
-        GcodeParser gp = new GcodeParser();
+    private static GcodeParser getParser() {
+        // The statistics of the file are collected when it is preprocessed, there is no need to do it again
+        GcodeParser gp = new GcodeParser(false);
         gp.addCommandProcessor(new CommentProcessor());
         gp.addCommandProcessor(new WhitespaceProcessor());
-        gp.addCommandProcessor(new SimplifyProcessor(minSegmentLength));
         return gp;
     }
 
@@ -150,37 +161,92 @@ public class GcodeViewParse {
     private List<LineSegment> toObjFromReader(IGcodeStreamReader reader,
                                               double arcSegmentLength, double arcToleranceMM, double minSegmentLength) throws IOException, GcodeParserException {
         lines.clear();
-        GcodeParser gp = getParser(minSegmentLength);
+        parse(reader, arcSegmentLength, arcToleranceMM, minSegmentLength, (start, end, segment) -> lines.add(VisualizerUtils.createLineSegment(start, end, segment)));
+        return lines;
+    }
 
-        // Save the state
-        Position start = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, gp.getCurrentState().getUnits());
+    /**
+     * Same as {@link #toObjFromReaderWithArcTolerance(IGcodeStreamReader, double, double)} but stores the
+     * segments in a {@link ToolpathGeometry} instead of creating line segment objects.
+     *
+     * @param reader           a stream with commands to parse.
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     */
+    public ToolpathGeometry toGeometryFromReaderWithArcTolerance(IGcodeStreamReader reader,
+                                                                 double arcToleranceMM, double minSegmentLength) throws IOException, GcodeParserException {
+        return toGeometryFromReader(reader, 0, arcToleranceMM, minSegmentLength);
+    }
+
+    /**
+     * Same as {@link #toObjFromReader(IGcodeStreamReader, double, double)} but stores the segments
+     * in a {@link ToolpathGeometry} instead of creating line segment objects.
+     *
+     * @param reader           a stream with commands to parse.
+     * @param arcSegmentLength length of line segments when expanding an arc.
+     * @param minSegmentLength the minimum length before a line is split up.
+     */
+    public ToolpathGeometry toGeometryFromReader(IGcodeStreamReader reader,
+                                                 double arcSegmentLength, double minSegmentLength) throws IOException, GcodeParserException {
+        return toGeometryFromReader(reader, arcSegmentLength, 0, minSegmentLength);
+    }
 
-        while (reader.getNumRowsRemaining() > 0) {
+    private ToolpathGeometry toGeometryFromReader(IGcodeStreamReader reader,
+                                                  double arcSegmentLength, double arcToleranceMM, double minSegmentLength) throws IOException, GcodeParserException {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        parse(reader, arcSegmentLength, arcToleranceMM, minSegmentLength, geometry::add);
+        geometry.trimToSize();
+        return geometry;
+    }
+
+    /**
+     * Parses the commands and hands each line to a consumer as soon as it has been created, expanding arcs
+     * using a chord tolerance. Parsing stops early if the current thread is interrupted.
+     *
+     * @param reader           a stream with commands to parse.
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     * @param consumer         the consumer of the lines, the positions must be copied if they are kept.
+     */
+    public void parseWithArcTolerance(IGcodeStreamReader reader, double arcToleranceMM, double minSegmentLength,
+                                      LineSegmentConsumer consumer) throws IOException, GcodeParserException {
+        parse(reader, 0, arcToleranceMM, minSegmentLength, consumer);
+    }
+
+    /**
+     * Creates a parser for commands that have already been parsed, such as by the backend while a file
+     * is being preprocessed, which hands each line to a consumer as soon as it has been created. Arcs are
+     * expanded using a chord tolerance.
+     *
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length of a line, shorter lines are skipped.
+     * @param consumer         the consumer of the lines, the positions must be copied if they are kept.
+     * @return a new point parser
+     */
+    public PointParser createPointParser(double arcToleranceMM, double minSegmentLength, LineSegmentConsumer consumer) {
+        return new PointParser(0, arcToleranceMM, minSegmentLength, consumer);
+    }
+
+    private void parse(IGcodeStreamReader reader, double arcSegmentLength, double arcToleranceMM, double minSegmentLength,
+                       LineSegmentConsumer consumer) throws IOException, GcodeParserException {
+        CommandParser commandParser = new CommandParser(arcSegmentLength, arcToleranceMM, minSegmentLength, consumer);
+        while (reader.getNumRowsRemaining() > 0 && !Thread.currentThread().isInterrupted()) {
             GcodeCommand commandObject = reader.getNextCommand();
-            List<String> commands = gp.preprocessCommand(commandObject.getCommandString(), gp.getCurrentState());
-            for (String command : commands) {
-                List<GcodeMeta> points = gp.addCommand(command, commandObject.getCommandNumber());
-                for (GcodeMeta meta : points) {
-                    if (meta.point != null) {
-                        VisualizerUtils.addLinesFromPointSegment(start, meta.point, arcSegmentLength, arcToleranceMM, lines);
-                        start = meta.point.point();
-                    }
-                }
-            }
+            commandParser.addCommand(commandObject.getCommandString(), commandObject.getCommandNumber());
         }
-
-        recalculateBoundaries();
-        return lines;
     }
 
-    private void recalculateBoundaries() {
-        // Calculate the boundaries
-        lines.forEach(lineSegment -> {
-            testExtremes(lineSegment.getStart());
-            testExtremes(lineSegment.getEnd());
-            maxSpindleSpeed = Math.max(lineSegment.getSpindleSpeed(), maxSpindleSpeed);
-            maxFeedRate = Math.max(lineSegment.getFeedRate(), maxFeedRate);
-        });
+    /**
+     * Wraps a consumer so that the boundaries and the max speeds are updated with every line
+     */
+    private LineSegmentConsumer getBoundsConsumer(LineSegmentConsumer consumer) {
+        return (start, end, segment) -> {
+            testExtremes(start);
+            testExtremes(end);
+            maxSpindleSpeed = Math.max(segment.getSpindleSpeed(), maxSpindleSpeed);
+            maxFeedRate = Math.max(segment.getFeedRate(), maxFeedRate);
+            consumer.accept(start, end, segment);
+        };
     }
 
     /**
@@ -208,42 +274,143 @@ public class GcodeViewParse {
     }
 
     private List<LineSegment> toObjRedux(List<String> gcode, double arcSegmentLength, double arcToleranceMM, double minSegmentLength) throws GcodeParserException {
-        GcodeParser gp = getParser(minSegmentLength);
-
         lines.clear();
+        parse(gcode, arcSegmentLength, arcToleranceMM, minSegmentLength, (start, end, segment) -> lines.add(VisualizerUtils.createLineSegment(start, end, segment)));
+        return lines;
+    }
 
-        // Save the state
-        Position start = new Position(Double.NaN, Double.NaN, Double.NaN, gp.getCurrentState().getUnits());
+    /**
+     * Same as {@link #toObjReduxWithArcTolerance(List, double, double)} but stores the segments in a
+     * {@link ToolpathGeometry} instead of creating line segment objects.
+     *
+     * @param gcode            commands to visualize.
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     */
+    public ToolpathGeometry toGeometryWithArcTolerance(List<String> gcode, double arcToleranceMM, double minSegmentLength) throws GcodeParserException {
+        return toGeometry(gcode, 0, arcToleranceMM, minSegmentLength);
+    }
+
+    /**
+     * Same as {@link #toObjRedux(List, double, double)} but stores the segments in a
+     * {@link ToolpathGeometry} instead of creating line segment objects.
+     *
+     * @param gcode            commands to visualize.
+     * @param arcSegmentLength length of line segments when expanding an arc.
+     * @param minSegmentLength the minimum length before a line is split up.
+     */
+    public ToolpathGeometry toGeometry(List<String> gcode, double arcSegmentLength, double minSegmentLength) throws GcodeParserException {
+        return toGeometry(gcode, arcSegmentLength, 0, minSegmentLength);
+    }
+
+    private ToolpathGeometry toGeometry(List<String> gcode, double arcSegmentLength, double arcToleranceMM, double minSegmentLength) throws GcodeParserException {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        parse(gcode, arcSegmentLength, arcToleranceMM, minSegmentLength, geometry::add);
+        geometry.trimToSize();
+        return geometry;
+    }
+
+    /**
+     * Same as {@link #parseWithArcTolerance(IGcodeStreamReader, double, double, LineSegmentConsumer)} but
+     * with the commands in a list.
+     *
+     * @param gcode            commands to visualize.
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     * @param consumer         the consumer of the lines, the positions must be copied if they are kept.
+     */
+    public void parseWithArcTolerance(List<String> gcode, double arcToleranceMM, double minSegmentLength,
+                                      LineSegmentConsumer consumer) throws GcodeParserException {
+        parse(gcode, 0, arcToleranceMM, minSegmentLength, consumer);
+    }
 
+    private void parse(List<String> gcode, double arcSegmentLength, double arcToleranceMM, double minSegmentLength,
+                       LineSegmentConsumer consumer) throws GcodeParserException {
+        GcodeParser gp = getParser();
+        PointParser pointParser = new PointParser(arcSegmentLength, arcToleranceMM, minSegmentLength, consumer);
         for (String s : gcode) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+
             List<String> commands = gp.preprocessCommand(s, gp.getCurrentState());
             for (String command : commands) {
-                List<GcodeMeta> points = gp.addCommand(command);
-                for (GcodeMeta meta : points) {
-                    if (meta.point != null) {
-                        VisualizerUtils.addLinesFromPointSegment(start, meta.point, arcSegmentLength, arcToleranceMM, lines);
-
-                        // if the last set point is in a different or unknown unit, crate a new point-instance with the correct unit set
-                        if (start.getUnits() != UnitUtils.Units.MM && gp.getCurrentState().isMetric) {
-                            start = new Position(
-                                    meta.point.point().x,
-                                    meta.point.point().y,
-                                    meta.point.point().z,
-                                    meta.point.point().a,
-                                    meta.point.point().b,
-                                    meta.point.point().c,
-                                    gp.getCurrentState().isMetric ? UnitUtils.Units.MM : UnitUtils.Units.INCH
-                            );
-                        } else {
-                            // ...otherwise recycle the old instance and just update the x,y,z coords
-                            start.set(meta.point.point());
-                        }
-                    }
+                pointParser.addPoints(gp.addCommand(command));
+            }
+        }
+    }
+
+    /**
+     * Parses commands one at a time, updating the boundaries and max speeds of the parser that created it.
+     */
+    private class CommandParser {
+        private final GcodeParser gp;
+        private final PointParser pointParser;
+
+        private CommandParser(double arcSegmentLength, double arcToleranceMM, double minSegmentLength, LineSegmentConsumer consumer) {
+            this.gp = getParser();
+            this.pointParser = new PointParser(arcSegmentLength, arcToleranceMM, minSegmentLength, consumer);
+        }
+
+        /**
+         * Parses the next command of the program
+         *
+         * @param command    the command to parse
+         * @param lineNumber the line number of the command in the program
+         * @throws GcodeParserException if the command couldn't be parsed
+         */
+        private void addCommand(String command, int lineNumber) throws GcodeParserException {
+            List<String> commands = gp.preprocessCommand(command, gp.getCurrentState());
+            for (String processedCommand : commands) {
+                pointParser.addPoints(gp.addCommand(processedCommand, lineNumber));
+            }
+        }
+    }
+
+    /**
+     * Creates the lines of parsed commands, updating the boundaries and max speeds of the parser that created it.
+     * Lines and rapid moves shorter than the minimum segment length are skipped, the next line will then start
+     * where the previous line that was kept ended.
+     */
+    public class PointParser {
+        private final double arcSegmentLength;
+        private final double arcToleranceMM;
+        private final double minSegmentLength;
+        private final LineSegmentConsumer consumer;
+        private final Position start;
+
+        private PointParser(double arcSegmentLength, double arcToleranceMM, double minSegmentLength, LineSegmentConsumer consumer) {
+            this.arcSegmentLength = arcSegmentLength;
+            this.arcToleranceMM = arcToleranceMM;
+            this.minSegmentLength = minSegmentLength;
+            this.consumer = getBoundsConsumer(consumer);
+            this.start = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, UnitUtils.Units.MM);
+        }
+
+        /**
+         * Creates the lines of the next command of the program
+         *
+         * @param points the parsed motions of the command
+         * @throws GcodeParserException if the lines of an arc couldn't be created
+         */
+        public void addPoints(List<GcodeMeta> points) throws GcodeParserException {
+            for (GcodeMeta meta : points) {
+                if (meta.point == null || isTooShort(meta)) {
+                    continue;
                 }
+
+                VisualizerUtils.addLinesFromPointSegment(start, meta.point, arcSegmentLength, arcToleranceMM, consumer);
+                start.set(meta.point.point());
             }
         }
 
-        recalculateBoundaries();
-        return lines;
+        private boolean isTooShort(GcodeMeta meta) {
+            if (minSegmentLength <= 0 || (meta.code != Code.G0 && meta.code != Code.G1)) {
+                return false;
+            }
+
+            // The length is unknown if the start position isn't, such lines are always kept
+            return start.distanceXYZ(meta.point.point()) < minSegmentLength;
+        }
     }
 }
@@ -0,0 +1,38 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.types.PointSegment;
+
+/**
+ * Receives the lines created when a point segment is expanded by
+ * {@link VisualizerUtils#addLinesFromPointSegment(Position, PointSegment, double, double, LineSegmentConsumer)}.
+ * The positions may be reused by the caller and must be copied if they are kept.
+ */
+@FunctionalInterface
+public interface LineSegmentConsumer {
+
+    /**
+     * @param start   the start of the line
+     * @param end     the end of the line
+     * @param segment the point segment the line was created from
+     */
+    void accept(Position start, Position end, PointSegment segment);
+}
@@ -0,0 +1,186 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+/**
+ * Divides the segments of a {@link ToolpathGeometry} into chunks of consecutive segments with
+ * precomputed bounding boxes. Consecutive segments of a toolpath are usually close to each other,
+ * which makes the bounds tight enough to skip drawing the chunks that are outside the view, and
+ * each chunk is a contiguous range in the vertex buffers.
+ */
+public class ToolpathChunks {
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final int size;
+    private final int chunkSize;
+    private final int chunkCount;
+
+    /**
+     * The bounds of each chunk as min x, y, z followed by max x, y, z
+     */
+    private final float[] bounds;
+
+    public ToolpathChunks(ToolpathGeometry geometry) {
+        this(geometry, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates the chunks of a geometry, no segments may be added to the geometry after this
+     *
+     * @param geometry  the geometry to divide
+     * @param chunkSize the number of segments in each chunk
+     */
+    public ToolpathChunks(ToolpathGeometry geometry, int chunkSize) {
+        this.size = geometry.size();
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.chunkCount = (size + this.chunkSize - 1) / this.chunkSize;
+        this.bounds = new float[chunkCount * 6];
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            float minX = Float.POSITIVE_INFINITY;
+            float minY = Float.POSITIVE_INFINITY;
+            float minZ = Float.POSITIVE_INFINITY;
+            float maxX = Float.NEGATIVE_INFINITY;
+            float maxY = Float.NEGATIVE_INFINITY;
+            float maxZ = Float.NEGATIVE_INFINITY;
+            for (int i = getStart(chunk); i < getEnd(chunk); i++) {
+                minX = min(minX, geometry.getStartX(i), geometry.getEndX(i));
+                minY = min(minY, geometry.getStartY(i), geometry.getEndY(i));
+                minZ = min(minZ, geometry.getStartZ(i), geometry.getEndZ(i));
+                maxX = max(maxX, geometry.getStartX(i), geometry.getEndX(i));
+                maxY = max(maxY, geometry.getStartY(i), geometry.getEndY(i));
+                maxZ = max(maxZ, geometry.getStartZ(i), geometry.getEndZ(i));
+            }
+
+            int offset = chunk * 6;
+            bounds[offset] = minX;
+            bounds[offset + 1] = minY;
+            bounds[offset + 2] = minZ;
+            bounds[offset + 3] = maxX;
+            bounds[offset + 4] = maxY;
+            bounds[offset + 5] = maxZ;
+        }
+    }
+
+    /**
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @param chunk the chunk index
+     * @return the index of the first segment in the chunk
+     */
+    public int getStart(int chunk) {
+        return chunk * chunkSize;
+    }
+
+    /**
+     * @param chunk the chunk index
+     * @return the index after the last segment in the chunk
+     */
+    public int getEnd(int chunk) {
+        return Math.min((chunk + 1) * chunkSize, size);
+    }
+
+    /**
+     * Returns the bounds of a chunk. Coordinates that were never defined in the program make the
+     * bounds infinite as they are drawn at the current machine position.
+     *
+     * @param chunk the chunk index
+     * @return the bounds as min x, y, z followed by max x, y, z
+     */
+    public float[] getBounds(int chunk) {
+        float[] result = new float[6];
+        System.arraycopy(bounds, chunk * 6, result, 0, 6);
+        return result;
+    }
+
+    /**
+     * Checks if any part of the bounds of a chunk may be inside the view volume
+     *
+     * @param chunk                    the chunk index
+     * @param modelViewProjectionMatrix the combined model view and projection matrix in column-major order
+     * @return false if the chunk is completely outside the view volume
+     */
+    public boolean isVisible(int chunk, float[] modelViewProjectionMatrix) {
+        int offset = chunk * 6;
+        if (Float.isInfinite(bounds[offset]) || Float.isInfinite(bounds[offset + 3])) {
+            return true;
+        }
+
+        // Count the corners of the bounding box on the outside of each clip plane
+        float[] m = modelViewProjectionMatrix;
+        int left = 0, right = 0, bottom = 0, top = 0, near = 0, far = 0;
+        for (int corner = 0; corner < 8; corner++) {
+            float x = bounds[offset + ((corner & 1) == 0 ? 0 : 3)];
+            float y = bounds[offset + ((corner & 2) == 0 ? 1 : 4)];
+            float z = bounds[offset + ((corner & 4) == 0 ? 2 : 5)];
+
+            float clipX = m[0] * x + m[4] * y + m[8] * z + m[12];
+            float clipY = m[1] * x + m[5] * y + m[9] * z + m[13];
+            float clipZ = m[2] * x + m[6] * y + m[10] * z + m[14];
+            float clipW = m[3] * x + m[7] * y + m[11] * z + m[15];
+
+            if (clipX < -clipW) left++;
+            if (clipX > clipW) right++;
+            if (clipY < -clipW) bottom++;
+            if (clipY > clipW) top++;
+            if (clipZ < -clipW) near++;
+            if (clipZ > clipW) far++;
+        }
+
+        return left < 8 && right < 8 && bottom < 8 && top < 8 && near < 8 && far < 8;
+    }
+
+    /**
+     * Multiplies two 4x4 matrices in column-major order, as returned by OpenGL
+     *
+     * @param a the left matrix, such as the projection matrix
+     * @param b the right matrix, such as the model view matrix
+     * @return the product of the matrices
+     */
+    public static float[] multiply(float[] a, float[] b) {
+        float[] result = new float[16];
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                float value = 0;
+                for (int i = 0; i < 4; i++) {
+                    value += a[i * 4 + row] * b[column * 4 + i];
+                }
+                result[column * 4 + row] = value;
+            }
+        }
+        return result;
+    }
+
+    private static float min(float current, float start, float end) {
+        return Math.min(current, Math.min(toBound(start, Float.NEGATIVE_INFINITY), toBound(end, Float.NEGATIVE_INFINITY)));
+    }
+
+    private static float max(float current, float start, float end) {
+        return Math.max(current, Math.max(toBound(start, Float.POSITIVE_INFINITY), toBound(end, Float.POSITIVE_INFINITY)));
+    }
+
+    private static float toBound(float value, float undefinedValue) {
+        return Float.isNaN(value) ? undefinedValue : value;
+    }
+}
@@ -0,0 +1,370 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.types.PointSegment;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The line segments of a toolpath stored in primitive arrays, one entry per segment, instead of
+ * as {@link LineSegment} objects. The coordinates are cartesian, any rotations have already been
+ * applied, and in millimeters. Coordinates that were never defined in the program are NaN.
+ * <p>
+ * A program with millions of segments only needs a few bytes per segment this way, which is
+ * what allows large programs to be loaded into the visualizers and editor.
+ */
+public class ToolpathGeometry {
+    public static final byte FLAG_ARC = 1;
+    public static final byte FLAG_FAST_TRAVERSE = 1 << 1;
+    public static final byte FLAG_Z_MOVEMENT = 1 << 2;
+    public static final byte FLAG_ROTATION = 1 << 3;
+
+    private static final int COORDINATES_PER_SEGMENT = 6;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private float[] coordinates;
+    private int[] lineNumbers;
+    private float[] feedRates;
+    private float[] spindleSpeeds;
+    private byte[] flags;
+    private int size;
+    private boolean isLineNumbersAscending = true;
+
+    public ToolpathGeometry() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ToolpathGeometry(int capacity) {
+        capacity = Math.max(capacity, 1);
+        coordinates = new float[capacity * COORDINATES_PER_SEGMENT];
+        lineNumbers = new int[capacity];
+        feedRates = new float[capacity];
+        spindleSpeeds = new float[capacity];
+        flags = new byte[capacity];
+    }
+
+    /**
+     * Creates a geometry using the given arrays as storage, such as when it is read from a cache
+     */
+    ToolpathGeometry(float[] coordinates, int[] lineNumbers, float[] feedRates, float[] spindleSpeeds, byte[] flags, boolean isLineNumbersAscending) {
+        this.coordinates = coordinates;
+        this.lineNumbers = lineNumbers;
+        this.feedRates = feedRates;
+        this.spindleSpeeds = spindleSpeeds;
+        this.flags = flags;
+        this.size = lineNumbers.length;
+        this.isLineNumbersAscending = isLineNumbersAscending;
+    }
+
+    /**
+     * Adds a segment between two positions with the properties of the point segment it was created from.
+     * Positions with rotations are converted to cartesian coordinates.
+     *
+     * @param start   the start of the segment
+     * @param end     the end of the segment
+     * @param segment the point segment the line was created from
+     */
+    public void add(Position start, Position end, PointSegment segment) {
+        if (start.hasRotation() || end.hasRotation()) {
+            start = start.getCartesian();
+            end = end.getCartesian();
+        }
+
+        add(start.x, start.y, start.z, end.x, end.y, end.z, segment.getLineNumber(), segment.getFeedRate(),
+                segment.getSpindleSpeed(), getFlags(segment.isArc(), segment.isFastTraverse(), segment.isZMovement(), segment.isRotation()));
+    }
+
+    /**
+     * Adds a line segment, positions with rotations are converted to cartesian coordinates.
+     *
+     * @param lineSegment the line segment to add
+     */
+    public void add(LineSegment lineSegment) {
+        Position start = lineSegment.getStart();
+        Position end = lineSegment.getEnd();
+        if (start.hasRotation() || end.hasRotation()) {
+            start = start.getCartesian();
+            end = end.getCartesian();
+        }
+
+        add(start.x, start.y, start.z, end.x, end.y, end.z, lineSegment.getLineNumber(), lineSegment.getFeedRate(),
+                lineSegment.getSpindleSpeed(), getFlags(lineSegment.isArc(), lineSegment.isFastTraverse(), lineSegment.isZMovement(), lineSegment.isRotation()));
+    }
+
+    /**
+     * Adds a segment
+     *
+     * @param flags a combination of the FLAG_* constants
+     */
+    public void add(double startX, double startY, double startZ, double endX, double endY, double endZ, int lineNumber, double feedRate, double spindleSpeed, byte flags) {
+        ensureCapacity(size + 1);
+
+        int offset = size * COORDINATES_PER_SEGMENT;
+        coordinates[offset] = (float) startX;
+        coordinates[offset + 1] = (float) startY;
+        coordinates[offset + 2] = (float) startZ;
+        coordinates[offset + 3] = (float) endX;
+        coordinates[offset + 4] = (float) endY;
+        coordinates[offset + 5] = (float) endZ;
+        if (size > 0 && lineNumber < lineNumbers[size - 1]) {
+            isLineNumbersAscending = false;
+        }
+        lineNumbers[size] = lineNumber;
+        feedRates[size] = (float) feedRate;
+        spindleSpeeds[size] = (float) spindleSpeed;
+        this.flags[size] = flags;
+        size++;
+    }
+
+    /**
+     * Adds all segments of another geometry to the end of this one
+     *
+     * @param other the geometry with the segments to add
+     */
+    public void append(ToolpathGeometry other) {
+        append(other, 0, other.size);
+    }
+
+    /**
+     * Adds a range of segments of another geometry to the end of this one
+     *
+     * @param other the geometry with the segments to add
+     * @param start the index of the first segment to add
+     * @param end   the index after the last segment to add
+     */
+    public void append(ToolpathGeometry other, int start, int end) {
+        int count = end - start;
+        if (count <= 0) {
+            return;
+        }
+
+        ensureCapacity(size + count);
+        if (!other.isLineNumbersAscending || (size > 0 && other.lineNumbers[start] < lineNumbers[size - 1])) {
+            isLineNumbersAscending = false;
+        }
+        System.arraycopy(other.coordinates, start * COORDINATES_PER_SEGMENT, coordinates, size * COORDINATES_PER_SEGMENT, count * COORDINATES_PER_SEGMENT);
+        System.arraycopy(other.lineNumbers, start, lineNumbers, size, count);
+        System.arraycopy(other.feedRates, start, feedRates, size, count);
+        System.arraycopy(other.spindleSpeeds, start, spindleSpeeds, size, count);
+        System.arraycopy(other.flags, start, flags, size, count);
+        size += count;
+    }
+
+    /**
+     * @return the number of segments
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float getStartX(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT];
+    }
+
+    public float getStartY(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 1];
+    }
+
+    public float getStartZ(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 2];
+    }
+
+    public float getEndX(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 3];
+    }
+
+    public float getEndY(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 4];
+    }
+
+    public float getEndZ(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 5];
+    }
+
+    public int getLineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    public float getFeedRate(int index) {
+        return feedRates[index];
+    }
+
+    public float getSpindleSpeed(int index) {
+        return spindleSpeeds[index];
+    }
+
+    public byte getFlags(int index) {
+        return flags[index];
+    }
+
+    public boolean isArc(int index) {
+        return (flags[index] & FLAG_ARC) != 0;
+    }
+
+    public boolean isFastTraverse(int index) {
+        return (flags[index] & FLAG_FAST_TRAVERSE) != 0;
+    }
+
+    public boolean isZMovement(int index) {
+        return (flags[index] & FLAG_Z_MOVEMENT) != 0;
+    }
+
+    public boolean isRotation(int index) {
+        return (flags[index] & FLAG_ROTATION) != 0;
+    }
+
+    /**
+     * @return true if the line numbers of the segments never decrease
+     */
+    public boolean isLineNumbersAscending() {
+        return isLineNumbersAscending;
+    }
+
+    /**
+     * Finds the index of the first segment with a line number equal to or greater than the given
+     * line number. The line numbers need to be ascending.
+     *
+     * @param lineNumber the line number to search for
+     * @return the index of the segment or the size if all segments have a lower line number
+     */
+    public int findFirstSegment(int lineNumber) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lineNumbers[middle] < lineNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creates a line segment object with the values of the segment at the given index
+     *
+     * @param index the index of the segment
+     * @return a new line segment
+     */
+    public LineSegment getLineSegment(int index) {
+        LineSegment lineSegment = new LineSegment(
+                new Position(getStartX(index), getStartY(index), getStartZ(index)),
+                new Position(getEndX(index), getEndY(index), getEndZ(index)),
+                getLineNumber(index));
+        lineSegment.setIsArc(isArc(index));
+        lineSegment.setIsFastTraverse(isFastTraverse(index));
+        lineSegment.setIsZMovement(isZMovement(index));
+        lineSegment.setIsRotation(isRotation(index));
+        lineSegment.setFeedRate(getFeedRate(index));
+        lineSegment.setSpindleSpeed(getSpindleSpeed(index));
+        return lineSegment;
+    }
+
+    /**
+     * Returns a read only list view of the segments, where a line segment is created each time
+     * an element is fetched.
+     *
+     * @return a list with the segments
+     */
+    public List<LineSegment> asLineSegments() {
+        return new AbstractList<>() {
+            @Override
+            public LineSegment get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return getLineSegment(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Releases any unused capacity once all segments have been added
+     */
+    public void trimToSize() {
+        if (size < lineNumbers.length) {
+            resize(size);
+        }
+    }
+
+    float[] getCoordinates() {
+        return coordinates;
+    }
+
+    int[] getLineNumbers() {
+        return lineNumbers;
+    }
+
+    float[] getFeedRates() {
+        return feedRates;
+    }
+
+    float[] getSpindleSpeeds() {
+        return spindleSpeeds;
+    }
+
+    byte[] getFlags() {
+        return flags;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > lineNumbers.length) {
+            resize(Math.max(capacity, lineNumbers.length + (lineNumbers.length >> 1)));
+        }
+    }
+
+    private void resize(int capacity) {
+        coordinates = Arrays.copyOf(coordinates, capacity * COORDINATES_PER_SEGMENT);
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        feedRates = Arrays.copyOf(feedRates, capacity);
+        spindleSpeeds = Arrays.copyOf(spindleSpeeds, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    private static byte getFlags(boolean isArc, boolean isFastTraverse, boolean isZMovement, boolean isRotation) {
+        int result = 0;
+        if (isArc) {
+            result |= FLAG_ARC;
+        }
+        if (isFastTraverse) {
+            result |= FLAG_FAST_TRAVERSE;
+        }
+        if (isZMovement) {
+            result |= FLAG_Z_MOVEMENT;
+        }
+        if (isRotation) {
+            result |= FLAG_ROTATION;
+        }
+        return (byte) result;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.utils.SettingsFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A cache of parsed toolpaths on disk so that reopening a file doesn't have to parse it again.
+ * <p>
+ * The entries are keyed by a hash of the contents of the processed gcode file, which changes with
+ * both the source file and the configuration of the command processors, together with the settings
+ * used when parsing it. Each entry stores the boundaries and max speeds of the toolpath followed by
+ * the segment arrays of the {@link ToolpathGeometry}. The arrays are written and read in bulk, and
+ * copied into the arrays of the geometry when read, as the renderers need them on the heap.
+ * <p>
+ * When the entries exceed the maximum size the least recently used entries are removed.
+ */
+public class ToolpathGeometryCache {
+    public static final long DEFAULT_MAX_SIZE = 1024L * 1024L * 1024L;
+    private static final Logger LOGGER = Logger.getLogger(ToolpathGeometryCache.class.getName());
+    private static final String CACHE_DIRECTORY_NAME = "toolpath_cache";
+    private static final String ENTRY_SUFFIX = ".toolpath";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final long TEMPORARY_FILE_MAX_AGE = 60L * 60L * 1000L;
+
+    private static final int MAGIC = 0x55475354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + 14 * Double.BYTES;
+    private static final int BYTES_PER_SEGMENT = 6 * Float.BYTES + Integer.BYTES + 2 * Float.BYTES + Byte.BYTES;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    private static ToolpathGeometryCache defaultCache;
+
+    private final File directory;
+    private final long maxSize;
+
+    /**
+     * A cached toolpath
+     *
+     * @param geometry all segments of the toolpath
+     * @param parser   a parser with the boundaries and max speeds of the toolpath
+     */
+    public record Entry(ToolpathGeometry geometry, GcodeViewParse parser) {
+    }
+
+    /**
+     * @param directory the directory to store the entries in, it is created when needed
+     * @param maxSize   the maximum total size of the entries in bytes
+     */
+    public ToolpathGeometryCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the cache stored in the settings directory
+     */
+    public static synchronized ToolpathGeometryCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new ToolpathGeometryCache(new File(SettingsFactory.getSettingsDirectory(), CACHE_DIRECTORY_NAME), DEFAULT_MAX_SIZE);
+        }
+        return defaultCache;
+    }
+
+    /**
+     * Creates the key of a file parsed with the given settings. This reads the whole file, which
+     * is still a lot faster than parsing it.
+     *
+     * @param file             the gcode file to parse
+     * @param arcToleranceMM   the arc tolerance used when parsing
+     * @param minSegmentLength the minimum segment length used when parsing
+     * @return the key of the entry
+     * @throws IOException if the file couldn't be read
+     */
+    public String getKey(File file, double arcToleranceMM, double minSegmentLength) throws IOException {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putInt(VERSION)
+                .putDouble(arcToleranceMM)
+                .putDouble(minSegmentLength);
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                hasher.putBytes(buffer, 0, read);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Reads an entry from the cache
+     *
+     * @param key the key of the entry
+     * @return the entry or empty if it isn't cached or couldn't be read
+     */
+    public Optional<Entry> read(String key) {
+        File file = getEntryFile(key);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            Entry entry = readEntry(buffer);
+
+            // Touch the file to keep track of the least recently used entries
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                LOGGER.log(Level.FINE, "Could not update the last modified time of " + file);
+            }
+            return Optional.of(entry);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not read the cached toolpath " + file + ", removing it", e);
+            deleteFile(file);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param key the key of the entry
+     * @return true if there is an entry with the key in the cache
+     */
+    public boolean contains(String key) {
+        return getEntryFile(key).isFile();
+    }
+
+    /**
+     * Writes an entry to the cache and removes the least recently used entries if the cache has grown
+     * too large. Errors are logged as the toolpath can always be parsed again.
+     *
+     * @param key      the key of the entry
+     * @param geometry all segments of the toolpath
+     * @param parser   the parser with the boundaries and max speeds of the toolpath
+     */
+    public void write(String key, ToolpathGeometry geometry, GcodeViewParse parser) {
+        long size = HEADER_SIZE + (long) geometry.size() * BYTES_PER_SEGMENT;
+        if (size > maxSize || size > Integer.MAX_VALUE) {
+            return;
+        }
+
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            temporaryFile = Files.createTempFile(directory.toPath(), key, TEMPORARY_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeEntry(channel, geometry, parser);
+            }
+            Files.move(temporaryFile, getEntryFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write the toolpath to the cache", e);
+            if (temporaryFile != null) {
+                deleteFile(temporaryFile.toFile());
+            }
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits within the max size, as well as
+     * temporary files left behind by entries that were never completed.
+     */
+    private synchronized void evict() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long totalSize = 0;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        for (File file : files) {
+            if (file.getName().endsWith(TEMPORARY_SUFFIX)) {
+                if (now - file.lastModified() > TEMPORARY_FILE_MAX_AGE) {
+                    deleteFile(file);
+                }
+            } else if (file.getName().endsWith(ENTRY_SUFFIX)) {
+                totalSize += file.length();
+                if (totalSize > maxSize) {
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    private File getEntryFile(String key) {
+        return new File(directory, key + ENTRY_SUFFIX);
+    }
+
+    private static Entry readEntry(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Unknown toolpath cache format");
+        }
+
+        int size = buffer.getInt();
+        boolean isLineNumbersAscending = buffer.getInt() != 0;
+        Position min = readPosition(buffer);
+        Position max = readPosition(buffer);
+        double maxSpindleSpeed = buffer.getDouble();
+        double maxFeedRate = buffer.getDouble();
+        if (buffer.remaining() != (long) size * BYTES_PER_SEGMENT) {
+            throw new IOException("The cached toolpath is incomplete");
+        }
+
+        float[] coordinates = new float[size * 6];
+        int[] lineNumbers = new int[size];
+        float[] feedRates = new float[size];
+        float[] spindleSpeeds = new float[size];
+        byte[] flags = new byte[size];
+        buffer.asFloatBuffer().get(coordinates);
+        buffer.position(buffer.position() + coordinates.length * Float.BYTES);
+        buffer.asIntBuffer().get(lineNumbers);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        buffer.asFloatBuffer().get(feedRates);
+        buffer.position(buffer.position() + size * Float.BYTES);
+        buffer.asFloatBuffer().get(spindleSpeeds);
+        buffer.position(buffer.position() + size * Float.BYTES);
+        buffer.get(flags);
+
+        ToolpathGeometry geometry = new ToolpathGeometry(coordinates, lineNumbers, feedRates, spindleSpeeds, flags, isLineNumbersAscending);
+        return new Entry(geometry, new GcodeViewParse(min, max, maxSpindleSpeed, maxFeedRate));
+    }
+
+    private static void writeEntry(FileChannel channel, ToolpathGeometry geometry, GcodeViewParse parser) throws IOException {
+        int size = geometry.size();
+        Position min = parser.getMinimumExtremes();
+        Position max = parser.getMaximumExtremes();
+
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(size)
+                .putInt(geometry.isLineNumbersAscending() ? 1 : 0);
+        writePosition(buffer, min);
+        writePosition(buffer, max);
+        buffer.putDouble(parser.getMaxSpindleSpeed())
+                .putDouble(parser.getMaxFeedRate());
+
+        writeFloats(channel, buffer, geometry.getCoordinates(), size * 6);
+        writeInts(channel, buffer, geometry.getLineNumbers(), size);
+        writeFloats(channel, buffer, geometry.getFeedRates(), size);
+        writeFloats(channel, buffer, geometry.getSpindleSpeeds(), size);
+        writeBytes(channel, buffer, geometry.getFlags(), size);
+        flush(channel, buffer);
+    }
+
+    private static Position readPosition(ByteBuffer buffer) {
+        return new Position(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), UnitUtils.Units.MM);
+    }
+
+    private static void writePosition(ByteBuffer buffer, Position position) {
+        buffer.putDouble(position.x).putDouble(position.y).putDouble(position.z)
+                .putDouble(position.a).putDouble(position.b).putDouble(position.c);
+    }
+
+    private static void writeFloats(FileChannel channel, ByteBuffer buffer, float[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ensureRemaining(channel, buffer, Float.BYTES);
+            int count = Math.min(buffer.remaining() / Float.BYTES, length - offset);
+            buffer.asFloatBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Float.BYTES);
+            offset += count;
+        }
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ensureRemaining(channel, buffer, Integer.BYTES);
+            int count = Math.min(buffer.remaining() / Integer.BYTES, length - offset);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    private static void writeBytes(FileChannel channel, ByteBuffer buffer, byte[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ensureRemaining(channel, buffer, Byte.BYTES);
+            int count = Math.min(buffer.remaining(), length - offset);
+            buffer.put(values, offset, count);
+            offset += count;
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void deleteFile(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            // Mapped files can't be removed on some platforms until they are unmapped
+            LOGGER.log(Level.FINE, "Could not remove " + file, e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import java.util.Arrays;
+
+/**
+ * A simplified version of a toolpath for when it is displayed zoomed out. Runs of connected segments
+ * of the same kind which all stay within a tolerance from the start of the run are merged into a single
+ * line, so that segments smaller than a pixel aren't drawn one by one.
+ * <p>
+ * The simplified toolpath is stored as pairs of vertex indexes into the vertex buffers of the full
+ * toolpath, where vertex {@code 2 * i} is the start and {@code 2 * i + 1} the end of segment {@code i}.
+ * This means that the colors of the full toolpath are used, and that the runs never span two chunks
+ * so that the chunks can still be culled.
+ */
+public class ToolpathLevelOfDetail {
+    private final float tolerance;
+    private final int[] vertexIndexes;
+    private final int[] chunkOffsets;
+
+    /**
+     * Simplifies the toolpath
+     *
+     * @param geometry  the geometry to simplify
+     * @param chunks    the chunks of the geometry
+     * @param tolerance the maximum distance from the start of a run for a segment to be merged into it
+     */
+    public ToolpathLevelOfDetail(ToolpathGeometry geometry, ToolpathChunks chunks, float tolerance) {
+        this.tolerance = tolerance;
+        float squaredTolerance = tolerance * tolerance;
+        int[] indexes = new int[Math.min(geometry.size(), 1024) * 2];
+        int length = 0;
+
+        chunkOffsets = new int[chunks.getChunkCount() + 1];
+        for (int chunk = 0; chunk < chunks.getChunkCount(); chunk++) {
+            chunkOffsets[chunk] = length;
+            int runStart = chunks.getStart(chunk);
+            int end = chunks.getEnd(chunk);
+            while (runStart < end) {
+                // A segment longer than the tolerance can't be merged with anything
+                int runEnd = runStart;
+                if (isWithinTolerance(geometry, runStart, runStart, squaredTolerance)) {
+                    while (runEnd + 1 < end && isMergeable(geometry, runStart, runEnd, runEnd + 1, squaredTolerance)) {
+                        runEnd++;
+                    }
+                }
+
+                if (length + 2 > indexes.length) {
+                    indexes = Arrays.copyOf(indexes, Math.max(indexes.length * 2, 2));
+                }
+                indexes[length++] = runStart * 2;
+                indexes[length++] = runEnd * 2 + 1;
+                runStart = runEnd + 1;
+            }
+        }
+        chunkOffsets[chunks.getChunkCount()] = length;
+        vertexIndexes = Arrays.copyOf(indexes, length);
+    }
+
+    /**
+     * Checks if a segment may be merged into the run of segments before it
+     */
+    private static boolean isMergeable(ToolpathGeometry geometry, int runStart, int previous, int segment, float squaredTolerance) {
+        if (geometry.getFlags(segment) != geometry.getFlags(runStart)) {
+            return false;
+        }
+
+        // Only connected segments can be merged, which also excludes undefined coordinates
+        if (geometry.getStartX(segment) != geometry.getEndX(previous) ||
+                geometry.getStartY(segment) != geometry.getEndY(previous) ||
+                geometry.getStartZ(segment) != geometry.getEndZ(previous)) {
+            return false;
+        }
+
+        return isWithinTolerance(geometry, runStart, segment, squaredTolerance);
+    }
+
+    /**
+     * Checks if the end of a segment is within the tolerance from the start of the run
+     */
+    private static boolean isWithinTolerance(ToolpathGeometry geometry, int runStart, int segment, float squaredTolerance) {
+        float deltaX = geometry.getEndX(segment) - geometry.getStartX(runStart);
+        float deltaY = geometry.getEndY(segment) - geometry.getStartY(runStart);
+        float deltaZ = geometry.getEndZ(segment) - geometry.getStartZ(runStart);
+        return deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ <= squaredTolerance;
+    }
+
+    /**
+     * @return the tolerance the toolpath was simplified with
+     */
+    public float getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @return the vertex index pairs of the lines of the simplified toolpath
+     */
+    public int[] getVertexIndexes() {
+        return vertexIndexes;
+    }
+
+    /**
+     * @return the number of vertex indexes
+     */
+    public int size() {
+        return vertexIndexes.length;
+    }
+
+    /**
+     * @param chunk the chunk index
+     * @return the position of the first vertex index of the chunk
+     */
+    public int getChunkStart(int chunk) {
+        return chunkOffsets[chunk];
+    }
+
+    /**
+     * @param chunk the chunk index
+     * @return the position after the last vertex index of the chunk
+     */
+    public int getChunkEnd(int chunk) {
+        return chunkOffsets[chunk + 1];
+    }
+}
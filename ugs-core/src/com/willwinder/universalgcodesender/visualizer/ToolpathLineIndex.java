@@ -0,0 +1,155 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import java.util.Arrays;
+
+/**
+ * An index from gcode line numbers to the segments of a {@link ToolpathGeometry} created from them.
+ * <p>
+ * The segments are ordered by line number, and by their order in the geometry for segments on the
+ * same line. The segments of a range of lines are found with a binary search and are then iterated
+ * using their position in the index:
+ * <pre>
+ * for (int i = index.findFirst(startLine); i &lt; index.findFirst(endLine + 1); i++) {
+ *     int segmentIndex = index.getSegmentIndex(i);
+ * }
+ * </pre>
+ * If the line numbers of the geometry are ascending, which they are for normal programs, the position
+ * in the index is the same as the segment index and no extra memory is needed.
+ */
+public class ToolpathLineIndex {
+    private final ToolpathGeometry geometry;
+
+    /**
+     * The segment indexes sorted by line number or null if the geometry already is sorted
+     */
+    private final int[] segmentIndexes;
+
+    /**
+     * The line numbers of the sorted segments or null if the geometry already is sorted
+     */
+    private final int[] lineNumbers;
+
+    /**
+     * Creates an index for the geometry, no segments may be added to the geometry after this
+     *
+     * @param geometry the geometry to index
+     */
+    public ToolpathLineIndex(ToolpathGeometry geometry) {
+        this.geometry = geometry;
+        if (geometry.isLineNumbersAscending()) {
+            segmentIndexes = null;
+            lineNumbers = null;
+            return;
+        }
+
+        // Sort on line number and segment index packed into a long, which keeps the segments of a line in order
+        int size = geometry.size();
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) geometry.getLineNumber(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        segmentIndexes = new int[size];
+        lineNumbers = new int[size];
+        for (int i = 0; i < size; i++) {
+            segmentIndexes[i] = (int) keys[i];
+            lineNumbers[i] = (int) (keys[i] >> 32);
+        }
+    }
+
+    /**
+     * @return the indexed geometry
+     */
+    public ToolpathGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @return the number of indexed segments
+     */
+    public int size() {
+        return geometry.size();
+    }
+
+    /**
+     * @return true if the segments of each line number are a contiguous range in the geometry
+     * and the position in the index is the segment index
+     */
+    public boolean isContiguous() {
+        return segmentIndexes == null;
+    }
+
+    /**
+     * Finds the position in the index of the first segment with a line number equal to or
+     * greater than the given line number.
+     *
+     * @param lineNumber the line number to search for
+     * @return the position in the index or the size if all segments have a lower line number
+     */
+    public int findFirst(int lineNumber) {
+        if (lineNumbers == null) {
+            return geometry.findFirstSegment(lineNumber);
+        }
+
+        int low = 0;
+        int high = lineNumbers.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lineNumbers[middle] < lineNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first segment created from the given line number
+     *
+     * @param lineNumber the line number to search for
+     * @return the segment index or -1 if no segment was created from the line
+     */
+    public int findSegment(int lineNumber) {
+        int position = findFirst(lineNumber);
+        if (position >= size() || getLineNumber(position) != lineNumber) {
+            return -1;
+        }
+        return getSegmentIndex(position);
+    }
+
+    /**
+     * @param position the position in the index
+     * @return the index of the segment in the geometry
+     */
+    public int getSegmentIndex(int position) {
+        return segmentIndexes == null ? position : segmentIndexes[position];
+    }
+
+    /**
+     * @param position the position in the index
+     * @return the line number of the segment
+     */
+    public int getLineNumber(int position) {
+        return lineNumbers == null ? geometry.getLineNumber(position) : lineNumbers[position];
+    }
+}
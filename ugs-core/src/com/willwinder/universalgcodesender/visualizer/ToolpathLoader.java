@@ -0,0 +1,382 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.listeners.ProcessedGcodeListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.events.ToolpathLoadEvent;
+import com.willwinder.universalgcodesender.types.PointSegment;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the toolpath geometry of a gcode file on a background thread. The segments are handed
+ * to a listener in chunks while the file is being parsed so that the toolpath can be displayed
+ * progressively, and the progress is dispatched as {@link ToolpathLoadEvent}s.
+ * <p>
+ * The loader listens for the files preprocessed by the backend and creates their toolpath from the
+ * commands parsed by the backend, using the settings of the previous load or those given with
+ * {@link #setParseSettings}. Loading the processed file afterwards with the same settings hands that
+ * toolpath to the listener instead of parsing the file again.
+ * <p>
+ * If a {@link ToolpathGeometryCache} is given, a file that has been loaded before with the same
+ * settings is read from the cache instead of being parsed again.
+ * <p>
+ * Starting a new load cancels the previous one. Once {@link #load} or {@link #cancel()} has
+ * returned the listener of a previous load will not get any more callbacks.
+ */
+public class ToolpathLoader {
+    public static final int DEFAULT_CHUNK_SIZE = 50_000;
+    private static final Logger LOGGER = Logger.getLogger(ToolpathLoader.class.getName());
+
+    private final BackendAPI backend;
+    private final int chunkSize;
+    private final ToolpathGeometryCache cache;
+    private final ProcessedToolpathBuilder processedToolpathBuilder = new ProcessedToolpathBuilder();
+    private volatile ParseSettings parseSettings;
+    private volatile ProcessedToolpath processedToolpath;
+    private Future<?> task;
+    private int generation;
+
+    /**
+     * Receives the result of a load, all methods are called on the loader thread.
+     */
+    public interface Listener {
+        /**
+         * Called with the segments that have been parsed since the previous call
+         *
+         * @param segments the new segments
+         */
+        void onSegmentsLoaded(ToolpathGeometry segments);
+
+        /**
+         * Called when the whole file has been loaded
+         *
+         * @param geometry all segments of the file
+         * @param parser   the parser with the boundaries and max speeds of the toolpath
+         */
+        void onLoaded(ToolpathGeometry geometry, GcodeViewParse parser);
+
+        /**
+         * Called if the file could not be loaded
+         *
+         * @param exception the cause
+         */
+        void onError(Exception exception);
+    }
+
+    public ToolpathLoader(BackendAPI backend) {
+        this(backend, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ToolpathLoader(BackendAPI backend, int chunkSize) {
+        this(backend, chunkSize, null);
+    }
+
+    public ToolpathLoader(BackendAPI backend, ToolpathGeometryCache cache) {
+        this(backend, DEFAULT_CHUNK_SIZE, cache);
+    }
+
+    /**
+     * @param backend   the backend to dispatch the load events through
+     * @param chunkSize the number of segments to hand to the listener at a time
+     * @param cache     the cache of previously loaded toolpaths or null to always parse the file
+     */
+    public ToolpathLoader(BackendAPI backend, int chunkSize, ToolpathGeometryCache cache) {
+        this.backend = backend;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.cache = cache;
+        backend.addProcessedGcodeListener(processedToolpathBuilder);
+    }
+
+    /**
+     * Sets the settings to create the toolpath of the files preprocessed by the backend with, before
+     * the first file is loaded.
+     *
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     */
+    public void setParseSettings(double arcToleranceMM, double minSegmentLength) {
+        parseSettings = new ParseSettings(arcToleranceMM, minSegmentLength);
+    }
+
+    /**
+     * Starts loading the file in the background, cancelling any previous load
+     *
+     * @param file             the gcode file to load
+     * @param arcToleranceMM   the maximum allowed deviation between the chord and the arc, in millimeters.
+     * @param minSegmentLength the minimum length before a line is split up.
+     * @param listener         the listener to receive the segments
+     */
+    public synchronized void load(File file, double arcToleranceMM, double minSegmentLength, Listener listener) {
+        cancel();
+        setParseSettings(arcToleranceMM, minSegmentLength);
+        int loadGeneration = generation;
+        task = ThreadHelper.invokeLater(() -> run(file, arcToleranceMM, minSegmentLength, listener, loadGeneration));
+    }
+
+    /**
+     * Cancels the current load, if any
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (task != null) {
+            task.cancel(true);
+            task = null;
+        }
+    }
+
+    /**
+     * Cancels the current load and stops listening for preprocessed files
+     */
+    public void dispose() {
+        cancel();
+        backend.removeProcessedGcodeListener(processedToolpathBuilder);
+        processedToolpath = null;
+    }
+
+    private void run(File file, double arcToleranceMM, double minSegmentLength, Listener listener, int loadGeneration) {
+        GcodeViewParse parser = new GcodeViewParse();
+        ChunkConsumer consumer = new ChunkConsumer(file, listener, loadGeneration);
+        try {
+            ProcessedToolpath processed = processedToolpath;
+            if (processed != null && processed.matches(file, arcToleranceMM, minSegmentLength)) {
+                loadCached(file, processed.entry(), listener, loadGeneration);
+                return;
+            }
+
+            String key = null;
+            if (cache != null) {
+                key = cache.getKey(file, arcToleranceMM, minSegmentLength);
+                Optional<ToolpathGeometryCache.Entry> entry = cache.read(key);
+                if (entry.isPresent()) {
+                    loadCached(file, entry.get(), listener, loadGeneration);
+                    return;
+                }
+            }
+
+            try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(file, new DefaultCommandCreator())) {
+                consumer.totalLines = reader.getNumRows();
+                parser.parseWithArcTolerance(reader, arcToleranceMM, minSegmentLength, consumer);
+            } catch (GcodeStreamReader.NotGcodeStreamFile e) {
+                List<String> lines = VisualizerUtils.readFiletoArrayList(file.getAbsolutePath());
+                consumer.totalLines = lines.size();
+                parser.parseWithArcTolerance(lines, arcToleranceMM, minSegmentLength, consumer);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            consumer.flush(false);
+            consumer.geometry.trimToSize();
+            if (deliver(loadGeneration, () -> listener.onLoaded(consumer.geometry, parser))) {
+                backend.dispatchEvent(new ToolpathLoadEvent(file, 1, consumer.geometry.size(), true));
+            }
+
+            if (key != null && !Thread.currentThread().isInterrupted()) {
+                cache.write(key, consumer.geometry, parser);
+            }
+        } catch (Exception e) {
+            deliver(loadGeneration, () -> {
+                LOGGER.log(Level.WARNING, "Could not load the toolpath of " + file, e);
+                listener.onError(e);
+            });
+        }
+    }
+
+    /**
+     * Hands a cached toolpath to the listener in the same chunks as if it had been parsed
+     */
+    private void loadCached(File file, ToolpathGeometryCache.Entry entry, Listener listener, int loadGeneration) {
+        ToolpathGeometry geometry = entry.geometry();
+        for (int start = 0; start < geometry.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, geometry.size());
+            ToolpathGeometry segments = new ToolpathGeometry(end - start);
+            segments.append(geometry, start, end);
+            if (!deliver(loadGeneration, () -> listener.onSegmentsLoaded(segments))) {
+                return;
+            }
+
+            if (end - start == chunkSize) {
+                backend.dispatchEvent(new ToolpathLoadEvent(file, (double) end / geometry.size(), end, false));
+            }
+        }
+
+        if (deliver(loadGeneration, () -> listener.onLoaded(geometry, entry.parser()))) {
+            backend.dispatchEvent(new ToolpathLoadEvent(file, 1, geometry.size(), true));
+        }
+    }
+
+    /**
+     * Runs the callback if the load hasn't been cancelled, while holding the lock so that a load can't
+     * be cancelled in the middle of a callback.
+     *
+     * @return true if the callback was run
+     */
+    private synchronized boolean deliver(int loadGeneration, Runnable callback) {
+        if (loadGeneration != generation) {
+            return false;
+        }
+        callback.run();
+        return true;
+    }
+
+    /**
+     * Collects the lines in chunks and hands each full chunk to the listener
+     */
+    private class ChunkConsumer implements LineSegmentConsumer {
+        private final File file;
+        private final Listener listener;
+        private final int loadGeneration;
+        private final ToolpathGeometry geometry = new ToolpathGeometry();
+        private ToolpathGeometry chunk = new ToolpathGeometry(chunkSize);
+        private int totalLines;
+        private int lineNumber;
+
+        private ChunkConsumer(File file, Listener listener, int loadGeneration) {
+            this.file = file;
+            this.listener = listener;
+            this.loadGeneration = loadGeneration;
+        }
+
+        @Override
+        public void accept(Position start, Position end, PointSegment segment) {
+            chunk.add(start, end, segment);
+            lineNumber = segment.getLineNumber();
+            if (chunk.size() >= chunkSize) {
+                flush(true);
+            }
+        }
+
+        private void flush(boolean dispatchProgress) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            ToolpathGeometry segments = chunk;
+            chunk = new ToolpathGeometry(chunkSize);
+            geometry.append(segments);
+            if (deliver(loadGeneration, () -> listener.onSegmentsLoaded(segments)) && dispatchProgress) {
+                double progress = totalLines > 0 ? Math.min(1, (double) lineNumber / totalLines) : 0;
+                backend.dispatchEvent(new ToolpathLoadEvent(file, progress, geometry.size(), false));
+            }
+        }
+    }
+
+    /**
+     * The settings a toolpath is parsed with
+     */
+    private record ParseSettings(double arcToleranceMM, double minSegmentLength) {
+    }
+
+    /**
+     * The toolpath of the last file preprocessed by the backend
+     */
+    private record ProcessedToolpath(File file, ParseSettings settings, ToolpathGeometryCache.Entry entry) {
+        private boolean matches(File file, double arcToleranceMM, double minSegmentLength) throws IOException {
+            return this.file.equals(file.getCanonicalFile()) && settings.equals(new ParseSettings(arcToleranceMM, minSegmentLength));
+        }
+    }
+
+    /**
+     * Creates the toolpath of a file from the commands parsed by the backend while it is preprocessed
+     */
+    private class ProcessedToolpathBuilder implements ProcessedGcodeListener {
+        private ParseSettings settings;
+        private GcodeViewParse parser;
+        private ToolpathGeometry geometry;
+        private GcodeViewParse.PointParser pointParser;
+
+        @Override
+        public void onProcessingStarted(File file) {
+            processedToolpath = null;
+            settings = parseSettings;
+            if (settings == null) {
+                pointParser = null;
+                return;
+            }
+
+            parser = new GcodeViewParse();
+            geometry = new ToolpathGeometry();
+            pointParser = parser.createPointParser(settings.arcToleranceMM(), settings.minSegmentLength(), geometry::add);
+        }
+
+        @Override
+        public void onCommandProcessed(int commandNumber, List<GcodeMeta> points, GcodeState state) {
+            if (pointParser == null) {
+                return;
+            }
+
+            try {
+                pointParser.addPoints(points);
+            } catch (GcodeParserException e) {
+                // The toolpath will be parsed from the file instead, which reports the error
+                LOGGER.log(Level.FINE, "Could not create the toolpath while preprocessing", e);
+                pointParser = null;
+            }
+        }
+
+        @Override
+        public void onProcessingFinished(File file) {
+            if (pointParser == null) {
+                return;
+            }
+
+            pointParser = null;
+            geometry.trimToSize();
+            try {
+                ProcessedToolpath processed = new ProcessedToolpath(file.getCanonicalFile(), settings, new ToolpathGeometryCache.Entry(geometry, parser));
+                processedToolpath = processed;
+                if (cache != null) {
+                    ThreadHelper.invokeLater(() -> writeToCache(processed));
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not resolve the processed file " + file, e);
+            }
+        }
+
+        private void writeToCache(ProcessedToolpath processed) {
+            try {
+                ParseSettings settings = processed.settings();
+                String key = cache.getKey(processed.file(), settings.arcToleranceMM(), settings.minSegmentLength());
+                if (!cache.contains(key)) {
+                    cache.write(key, processed.entry().geometry(), processed.entry().parser());
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not write the toolpath of " + processed.file() + " to the cache", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import java.util.Arrays;
+
+/**
+ * A spatial index for finding the segment of a {@link ToolpathGeometry} closest to a point in the
+ * XY plane, such as the position of the mouse in a visualizer.
+ * <p>
+ * The index is a bounding volume hierarchy where each node has the bounds of a contiguous range of
+ * the sorted segment indexes, which is split in the middle along its longest side until there are
+ * only a few segments left. Unlike a {@link com.willwinder.universalgcodesender.utils.KDTree} of
+ * points it handles long segments without duplicating them, and it is stored in primitive arrays
+ * to keep it small for files with millions of segments.
+ * <p>
+ * Segments with coordinates that were never defined in the program can't be found.
+ */
+public class ToolpathSpatialIndex {
+    private static final int LEAF_SIZE = 8;
+
+    private final ToolpathGeometry geometry;
+
+    /**
+     * The indexes of the segments, ordered so that each node covers a contiguous range
+     */
+    private final int[] segments;
+
+    /**
+     * The bounds of each node as min x, y followed by max x, y
+     */
+    private final float[] nodeBounds;
+
+    /**
+     * The range of segments of each node as start and end
+     */
+    private final int[] nodeRanges;
+
+    /**
+     * The index of the first child of each node, the second child follows it, or -1 for leaves
+     */
+    private final int[] nodeChildren;
+    private int nodeCount;
+
+    /**
+     * Creates an index for the geometry, no segments may be added to the geometry after this
+     *
+     * @param geometry the geometry to index
+     */
+    public ToolpathSpatialIndex(ToolpathGeometry geometry) {
+        this.geometry = geometry;
+
+        int size = geometry.size();
+        int[] definedSegments = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (isDefined(i)) {
+                definedSegments[count++] = i;
+            }
+        }
+        segments = Arrays.copyOf(definedSegments, count);
+
+        int maxNodeCount = Math.max(1, 2 * ((count + LEAF_SIZE - 1) / LEAF_SIZE) * 2);
+        nodeBounds = new float[maxNodeCount * 4];
+        nodeRanges = new int[maxNodeCount * 2];
+        nodeChildren = new int[maxNodeCount];
+        if (count > 0) {
+            nodeCount = 1;
+            build(0, 0, count);
+        }
+    }
+
+    private boolean isDefined(int segment) {
+        return !Float.isNaN(geometry.getStartX(segment)) && !Float.isNaN(geometry.getStartY(segment)) &&
+                !Float.isNaN(geometry.getEndX(segment)) && !Float.isNaN(geometry.getEndY(segment));
+    }
+
+    private void build(int node, int start, int end) {
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            int segment = segments[i];
+            minX = Math.min(minX, Math.min(geometry.getStartX(segment), geometry.getEndX(segment)));
+            minY = Math.min(minY, Math.min(geometry.getStartY(segment), geometry.getEndY(segment)));
+            maxX = Math.max(maxX, Math.max(geometry.getStartX(segment), geometry.getEndX(segment)));
+            maxY = Math.max(maxY, Math.max(geometry.getStartY(segment), geometry.getEndY(segment)));
+        }
+
+        nodeBounds[node * 4] = minX;
+        nodeBounds[node * 4 + 1] = minY;
+        nodeBounds[node * 4 + 2] = maxX;
+        nodeBounds[node * 4 + 3] = maxY;
+        nodeRanges[node * 2] = start;
+        nodeRanges[node * 2 + 1] = end;
+        nodeChildren[node] = -1;
+        if (end - start <= LEAF_SIZE) {
+            return;
+        }
+
+        // Split the segments in the middle by the center of the segments along the longest side
+        boolean splitOnX = maxX - minX >= maxY - minY;
+        int middle = (start + end) >>> 1;
+        select(start, end, middle, splitOnX);
+
+        int firstChild = nodeCount;
+        nodeCount += 2;
+        nodeChildren[node] = firstChild;
+        build(firstChild, start, middle);
+        build(firstChild + 1, middle, end);
+    }
+
+    /**
+     * Partially sorts the range of segments so that the segment at the given position is the one that
+     * would be there if the range was sorted, with smaller segments before and larger after it.
+     */
+    private void select(int start, int end, int position, boolean onX) {
+        int low = start;
+        int high = end - 1;
+        while (low < high) {
+            float pivot = getCenter(segments[(low + high) >>> 1], onX);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (getCenter(segments[i], onX) < pivot) i++;
+                while (getCenter(segments[j], onX) > pivot) j--;
+                if (i <= j) {
+                    int swap = segments[i];
+                    segments[i] = segments[j];
+                    segments[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+
+            if (position <= j) {
+                high = j;
+            } else if (position >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private float getCenter(int segment, boolean onX) {
+        return onX ? geometry.getStartX(segment) + geometry.getEndX(segment) : geometry.getStartY(segment) + geometry.getEndY(segment);
+    }
+
+    /**
+     * @return the indexed geometry
+     */
+    public ToolpathGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Finds the segment closest to a point in the XY plane. If several segments are equally close,
+     * such as a plunge and the segment after it, the one first in the geometry is returned.
+     *
+     * @param x           the x coordinate of the point
+     * @param y           the y coordinate of the point
+     * @param maxDistance the maximum distance from the point to the segment
+     * @return the index of the closest segment or -1 if there are no segments within the distance
+     */
+    public int findNearestSegment(double x, double y, double maxDistance) {
+        if (nodeCount == 0) {
+            return -1;
+        }
+
+        double bestDistance = maxDistance * maxDistance;
+        int bestSegment = -1;
+
+        // The depth is logarithmic as the nodes are split in the middle
+        int[] stack = new int[128];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            if (getDistanceToNode(node, x, y) > bestDistance) {
+                continue;
+            }
+
+            int firstChild = nodeChildren[node];
+            if (firstChild < 0) {
+                for (int i = nodeRanges[node * 2]; i < nodeRanges[node * 2 + 1]; i++) {
+                    int segment = segments[i];
+                    double distance = getDistanceToSegment(segment, x, y);
+                    if (distance < bestDistance || (distance == bestDistance && (bestSegment < 0 || segment < bestSegment))) {
+                        bestDistance = distance;
+                        bestSegment = segment;
+                    }
+                }
+                continue;
+            }
+
+            // Visit the closest child first to narrow down the search quickly
+            if (getDistanceToNode(firstChild, x, y) <= getDistanceToNode(firstChild + 1, x, y)) {
+                stack[stackSize++] = firstChild + 1;
+                stack[stackSize++] = firstChild;
+            } else {
+                stack[stackSize++] = firstChild;
+                stack[stackSize++] = firstChild + 1;
+            }
+        }
+        return bestSegment;
+    }
+
+    /**
+     * @return the squared distance from the point to the bounds of the node
+     */
+    private double getDistanceToNode(int node, double x, double y) {
+        int offset = node * 4;
+        double deltaX = Math.max(0, Math.max(nodeBounds[offset] - x, x - nodeBounds[offset + 2]));
+        double deltaY = Math.max(0, Math.max(nodeBounds[offset + 1] - y, y - nodeBounds[offset + 3]));
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+
+    /**
+     * @return the squared distance from the point to the segment
+     */
+    private double getDistanceToSegment(int segment, double x, double y) {
+        double startX = geometry.getStartX(segment);
+        double startY = geometry.getStartY(segment);
+        double segmentX = geometry.getEndX(segment) - startX;
+        double segmentY = geometry.getEndY(segment) - startY;
+        double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((x - startX) * segmentX + (y - startY) * segmentY) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+
+        double deltaX = startX + t * segmentX - x;
+        double deltaY = startY + t * segmentY - y;
+        return deltaX * deltaX + deltaY * deltaY;
+    }
+}
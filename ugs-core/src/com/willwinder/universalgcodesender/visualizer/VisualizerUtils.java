@@ -119,7 +119,7 @@ public class VisualizerUtils {
     /**
      * Helper to create a line segment with flags initialized.
      */
-    private static LineSegment createLineSegment(Position a, Position b, PointSegment meta) {
+    static LineSegment createLineSegment(Position a, Position b, PointSegment meta) {
         LineSegment ls = new LineSegment(a, b, meta.getLineNumber());
         ls.setIsArc(meta.isArc());
         ls.setIsFastTraverse(meta.isFastTraverse());
@@ -141,6 +141,16 @@ public class VisualizerUtils {
      * @throws GcodeParserException if the lines could not be expanded
      */
     public static void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, double arcToleranceMM, List<LineSegment> ret) throws GcodeParserException {
+        addLinesFromPointSegment(start, endSegment, arcSegmentLength, arcToleranceMM, (a, b, meta) -> ret.add(createLineSegment(a, b, meta)));
+    }
+
+    /**
+     * Same as {@link #addLinesFromPointSegment(Position, PointSegment, double, double, List)} but hands
+     * each line to a consumer instead of creating line segment objects.
+     *
+     * @throws GcodeParserException if the lines could not be expanded
+     */
+    public static void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, double arcToleranceMM, LineSegmentConsumer ret) throws GcodeParserException {
         // For a line segment list ALL arcs must be converted to lines.
         double minArcLength = 0;
         endSegment.convertToMetric();
@@ -155,7 +165,7 @@ public class VisualizerUtils {
                     expandRotationalLineSegment(start, endSegment, ret);
                 } else {
                     // Line
-                    ret.add(createLineSegment(start, endSegment.point(), endSegment));
+                    ret.accept(start, endSegment.point(), endSegment);
                 }
             }
         } catch (Exception e) {
@@ -164,7 +174,7 @@ public class VisualizerUtils {
         }
     }
 
-    private static void expandArc(Position start, PointSegment endSegment, double arcSegmentLength, double arcToleranceMM, List<LineSegment> ret, double minArcLength) {
+    private static void expandArc(Position start, PointSegment endSegment, double arcSegmentLength, double arcToleranceMM, LineSegmentConsumer ret, double minArcLength) {
         PlaneFormatter plane = new PlaneFormatter(endSegment.getPlaneState());
         List<Position> points;
         if (arcToleranceMM > 0) {
@@ -180,13 +190,17 @@ public class VisualizerUtils {
         if (!points.isEmpty()) {
             Position startPoint = start;
             for (Position nextPoint : points) {
-                ret.add(createLineSegment(startPoint, nextPoint, endSegment));
+                ret.accept(startPoint, nextPoint, endSegment);
                 startPoint = nextPoint;
             }
         }
     }
 
     public static void expandRotationalLineSegment(Position start, PointSegment endSegment, List<LineSegment> ret) {
+        expandRotationalLineSegment(start, endSegment, (a, b, meta) -> ret.add(createLineSegment(a, b, meta)));
+    }
+
+    public static void expandRotationalLineSegment(Position start, PointSegment endSegment, LineSegmentConsumer ret) {
         double maxDegreesPerStep = 5;
         double deltaX = defaultZero(endSegment.point().x) - defaultZero(start.x);
         double deltaY = defaultZero(endSegment.point().y) - defaultZero(start.y);
@@ -217,11 +231,11 @@ public class VisualizerUtils {
             if (deltaC != 0) {
                 end.setC(defaultZero(start.c) + ((deltaC / steps) * i));
             }
-            ret.add(createLineSegment(startPoint, end, endSegment));
+            ret.accept(startPoint, end, endSegment);
             startPoint = end;
         }
 
-        ret.add(createLineSegment(startPoint, endSegment.point(), endSegment));
+        ret.accept(startPoint, endSegment.point(), endSegment);
     }
 
     /**
@@ -1,5 +1,5 @@
 /*
-    Copyright 2015-2024 Will Winder
+    Copyright 2015-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -37,14 +37,20 @@ import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
-import org.mockito.ArgumentCaptor;
-import static org.mockito.Mockito.doNothing;
+import org.easymock.IArgumentMatcher;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -112,8 +118,8 @@ public class BufferedCommunicatorTest {
 
         // Check events and connection:
         // console message, connection stream, sent event
-        mockConnection.sendStringToComm(input + "\n");
-        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        expectSendBytesToComm(input + "\n" + input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall()).once();
         mockScl.commandSent(EasyMock.anyObject(GcodeCommand.class));
         EasyMock.expect(EasyMock.expectLastCall()).times(2);
 
@@ -131,10 +137,10 @@ public class BufferedCommunicatorTest {
     public void testSimpleStreamStream() throws Exception {
         String[] inputs = {"input1", "input2"};
 
-        for (String i : inputs) {
-            mockConnection.sendStringToComm(i + "\n");
-            EasyMock.expect(EasyMock.expectLastCall());
+        expectSendBytesToComm("input1\ninput2\n");
+        EasyMock.expect(EasyMock.expectLastCall());
 
+        for (String i : inputs) {
             mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
             EasyMock.expect(EasyMock.expectLastCall());
         }
@@ -169,8 +175,8 @@ public class BufferedCommunicatorTest {
         String input = "input";
 
         // Setup 2 active commands.
-        mockConnection.sendStringToComm(input + "\n");
-        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        expectSendBytesToComm(input + "\n" + input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall()).once();
 
         mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
         EasyMock.expect(EasyMock.expectLastCall()).times(2);
@@ -218,10 +224,10 @@ public class BufferedCommunicatorTest {
         System.out.println("pauseSend");
 
         String input = "123456789";
-        for (int i = 0; i < 11; i++) {
-            mockConnection.sendStringToComm(input + "\n");
-            EasyMock.expect(EasyMock.expectLastCall());
-        }
+        expectSendBytesToComm((input + "\n").repeat(10));
+        EasyMock.expect(EasyMock.expectLastCall());
+        expectSendBytesToComm(input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall());
         EasyMock.replay(mockConnection);
 
         // Send the first 10 commands, pause 11th
@@ -371,9 +377,7 @@ public class BufferedCommunicatorTest {
         byte b = 10;
 
         String tenChar = "123456789";
-        for (int i = 0; i < 10; i++) {
-            mockConnection.sendStringToComm(tenChar + "\n");
-        }
+        expectSendBytesToComm((tenChar + "\n").repeat(10));
         mockConnection.sendByteImmediately(b);
 
         EasyMock.replay(mockConnection);
@@ -396,8 +400,7 @@ public class BufferedCommunicatorTest {
         Connection connection = mock(Connection.class);
         instance.setConnection(connection);
 
-        ArgumentCaptor<String> commandCaptor = ArgumentCaptor.forClass(String.class);
-        doNothing().when(connection).sendStringToComm(commandCaptor.capture());
+        List<String> writes = captureSendBytesToComm(connection);
 
         // Create a gcode file stream
         File gcodeFile = new File(tempDir,"gcodeFile");
@@ -412,9 +415,126 @@ public class BufferedCommunicatorTest {
         instance.streamCommands();
 
         // Then
-        assertEquals(2, commandCaptor.getAllValues().size());
-        assertEquals("The first command processed should be the string command", "G1\n", commandCaptor.getAllValues().get(0));
-        assertEquals("The second command should be from the stream", "G0\n", commandCaptor.getAllValues().get(1));
+        assertEquals("The commands should be sent in one write", 1, writes.size());
+        assertEquals("The string command should be sent before the stream", "G1\nG0\n", writes.get(0));
+    }
+
+    @Test
+    public void streamCommandsShouldWriteAllCommandsThatFitInTheBufferAtOnce() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+        ICommunicatorListener listener = mock(ICommunicatorListener.class);
+        instance.addListener(listener);
+        List<String> writes = captureSendBytesToComm(connection);
+
+        for (int i = 0; i < 20; i++) {
+            instance.queueCommand(new GcodeCommand("G1 X" + i));
+        }
+
+        // When
+        instance.streamCommands();
+
+        // Then the commands should fit in a buffer of 101 bytes
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 15; i++) {
+            expected.append("G1 X").append(i).append("\n");
+        }
+        assertEquals(List.of(expected.toString()), writes);
+        assertEquals(15, asl.size());
+        verify(listener, times(15)).commandSent(any(GcodeCommand.class));
+
+        // When one command is done the next one should be written by itself
+        instance.handleResponseMessage("ok");
+        assertEquals(List.of(expected.toString(), "G1 X15\n"), writes);
+    }
+
+    @Test
+    public void streamCommandsShouldNotStreamConcurrentlyButMakeAnotherPass() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+        List<String> writes = new ArrayList<>();
+        doAnswer(invocation -> {
+            writes.add(new String(invocation.<byte[]>getArgument(0), 0, invocation.<Integer>getArgument(2), StandardCharsets.UTF_8));
+            if (writes.size() == 1) {
+                // Request streaming while already streaming
+                instance.queueCommand(new GcodeCommand("G1"));
+                instance.streamCommands();
+                assertEquals("The command should not be written while streaming", 1, writes.size());
+            }
+            return null;
+        }).when(connection).sendBytesToComm(any(), anyInt(), anyInt());
+
+        instance.queueCommand(new GcodeCommand("G0"));
+
+        // When
+        instance.streamCommands();
+
+        // Then
+        assertEquals(List.of("G0\n", "G1\n"), writes);
+        assertEquals(2, instance.getMetrics().getWrites());
+        assertEquals(2, instance.getMetrics().getCommandsSent());
+    }
+
+    @Test
+    public void streamCommandsShouldMeasureTheTimeFromResponseToNextWrite() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+        captureSendBytesToComm(connection);
+        for (int i = 0; i < 11; i++) {
+            instance.queueCommand(new GcodeCommand("123456789"));
+        }
+        instance.streamCommands();
+        assertEquals(0, instance.getMetrics().getResponseToSendLatency().getCount());
+
+        // When
+        instance.handleResponseMessage("ok");
+
+        // Then
+        assertEquals(2, instance.getMetrics().getWrites());
+        assertEquals(11, instance.getMetrics().getCommandsSent());
+        assertEquals(1, instance.getMetrics().getResponseToSendLatency().getCount());
+        assertTrue(instance.getMetrics().getResponseToSendLatency().getMax() > 0);
+    }
+
+    @Test
+    public void handleResponseMessageShouldRecordTheCommandLatency() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+        captureSendBytesToComm(connection);
+        instance.queueCommand(new GcodeCommand("G0"));
+        instance.queueCommand(new GcodeCommand("G1"));
+        instance.streamCommands();
+
+        // When
+        instance.handleResponseMessage("ok");
+        instance.handleResponseMessage("ok");
+
+        // Then
+        assertEquals(2, instance.getMetrics().getCommandLatency().getCount());
+        assertEquals(1, instance.getMetrics().getSamples().size());
+        assertEquals(6, instance.getMetrics().getSamples().get(0).bytesInFlight());
+    }
+
+    @Test
+    public void streamCommandsShouldEncodeNonAsciiCommands() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+        List<String> writes = captureSendBytesToComm(connection);
+
+        instance.queueCommand(new GcodeCommand("G0"));
+        instance.queueCommand(new GcodeCommand("(Fräs)"));
+        instance.queueCommand(new GcodeCommand("G1"));
+
+        // When
+        instance.streamCommands();
+
+        // Then
+        assertEquals(List.of("G0\n(Fräs)\nG1\n"), writes);
     }
 
     @Test
@@ -608,4 +728,35 @@ public class BufferedCommunicatorTest {
         public void sendingCommand(String command) {
         }
     }
+
+    private static void expectSendBytesToComm(String data) throws Exception {
+        byte[] expected = data.getBytes(StandardCharsets.UTF_8);
+        mockConnection.sendBytesToComm(startsWith(expected), EasyMock.eq(0), EasyMock.eq(expected.length));
+    }
+
+    private static byte[] startsWith(byte[] expected) {
+        EasyMock.reportMatcher(new IArgumentMatcher() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof byte[] bytes && bytes.length >= expected.length &&
+                        Arrays.equals(bytes, 0, expected.length, expected, 0, expected.length);
+            }
+
+            @Override
+            public void appendTo(StringBuffer buffer) {
+                buffer.append("startsWith(\"").append(new String(expected, StandardCharsets.UTF_8)).append("\")");
+            }
+        });
+        return null;
+    }
+
+    /**
+     * Records the data of each write as the send buffer is reused between writes
+     */
+    private static List<String> captureSendBytesToComm(Connection connection) throws Exception {
+        List<String> writes = new ArrayList<>();
+        doAnswer(invocation -> writes.add(new String(invocation.<byte[]>getArgument(0), invocation.<Integer>getArgument(1), invocation.<Integer>getArgument(2), StandardCharsets.UTF_8)))
+                .when(connection).sendBytesToComm(any(), anyInt(), anyInt());
+        return writes;
+    }
 }
@@ -0,0 +1,60 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.communicator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LongRingBufferTest {
+
+    @Test
+    public void pollShouldReturnTheValuesInOrderWhenGrowing() {
+        LongRingBuffer buffer = new LongRingBuffer(4);
+        buffer.add(1);
+        buffer.add(2);
+        buffer.add(3);
+        assertEquals(1, buffer.poll());
+        assertEquals(2, buffer.poll());
+
+        // Wrap around and grow
+        for (long i = 4; i <= 10; i++) {
+            buffer.add(i);
+        }
+
+        assertEquals(8, buffer.size());
+        for (long i = 3; i <= 10; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertEquals(0, buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void clearShouldRemoveAllValues() {
+        LongRingBuffer buffer = new LongRingBuffer(2);
+        buffer.add(1);
+        buffer.add(2);
+
+        buffer.clear();
+
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.poll());
+    }
+}
@@ -3,11 +3,15 @@ package com.willwinder.universalgcodesender.connection;
 import com.fazecast.jSerialComm.SerialPort;
 import com.fazecast.jSerialComm.SerialPortEvent;
 import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 public class JSerialCommConnectionTest {
 
@@ -51,4 +55,48 @@ public class JSerialCommConnectionTest {
         verifyNoMoreInteractions(listener);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void serialEvent_shouldDispatchReceivedLines() {
+        SerialPort serialPort = mock(SerialPort.class);
+        JSerialCommConnection connection = new JSerialCommConnection(serialPort);
+        IConnectionListener listener = mock(IConnectionListener.class);
+        connection.addListener(listener);
+
+        byte[] response = "ok\r\n".getBytes();
+        when(serialPort.bytesAvailable()).thenReturn(response.length);
+        when(serialPort.readBytes(any(byte[].class), eq(response.length))).thenAnswer(invocation -> {
+            byte[] buffer = invocation.getArgument(0);
+            System.arraycopy(response, 0, buffer, 0, response.length);
+            return response.length;
+        });
+
+        connection.serialEvent(new SerialPortEvent(serialPort, SerialPort.LISTENING_EVENT_DATA_AVAILABLE));
+        connection.serialEvent(new SerialPortEvent(serialPort, SerialPort.LISTENING_EVENT_DATA_AVAILABLE));
+
+        verify(listener, times(2)).handleResponseMessage("ok");
+    }
+
+    @Test
+    public void serialEvent_shouldNotReadWhenNoBytesAreAvailable() {
+        SerialPort serialPort = mock(SerialPort.class);
+        JSerialCommConnection connection = new JSerialCommConnection(serialPort);
+        when(serialPort.bytesAvailable()).thenReturn(-1);
+
+        connection.serialEvent(new SerialPortEvent(serialPort, SerialPort.LISTENING_EVENT_DATA_AVAILABLE));
+
+        verify(serialPort, times(1)).bytesAvailable();
+        verifyNoMoreInteractions(serialPort);
+    }
+
+    @Test
+    public void sendBytesToComm_shouldWriteTheBytesInOneCall() throws Exception {
+        SerialPort serialPort = mock(SerialPort.class);
+        JSerialCommConnection connection = new JSerialCommConnection(serialPort);
+        byte[] bytes = "G0\nG1\n".getBytes();
+
+        connection.sendBytesToComm(bytes, 0, bytes.length);
+
+        verify(serialPort, times(1)).writeBytes(bytes, bytes.length, 0);
+        verifyNoMoreInteractions(serialPort);
+    }
+}
@@ -22,6 +22,11 @@ import com.willwinder.universalgcodesender.communicator.AbstractCommunicator;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -129,4 +134,68 @@ public class ResponseMessageHandlerTest {
         verify(communicator, times(1)).handleResponseMessage(" test2 ");
         verify(communicator, times(1)).handleResponseMessage("test3");
     }
+
+    @Test
+    public void responseWithLineEndingSplitBetweenResponsesShouldDispatchMessage() {
+        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        responseMessageHandler.addListener(communicator);
+
+        byte[] response = "xxok\r".getBytes();
+        responseMessageHandler.handleResponse(response, 2, 3);
+        response = "\nxx".getBytes();
+        responseMessageHandler.handleResponse(response, 0, 1);
+
+        verify(communicator, times(1)).handleResponseMessage("ok");
+    }
+
+    @Test
+    public void responseWithCarriageReturnsInTheLineShouldRemoveThem() {
+        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        responseMessageHandler.addListener(communicator);
+
+        String response = "te\rst\r\r\n";
+        responseMessageHandler.handleResponse(response.getBytes(), 0, response.length());
+
+        verify(communicator, times(1)).handleResponseMessage("test");
+    }
+
+    @Test
+    public void responseWithMultiByteCharacterSplitBetweenResponsesShouldDecodeTheCharacter() {
+        List<String> lines = new ArrayList<>();
+        ResponseLineFramer lineFramer = new ResponseLineFramer(StandardCharsets.UTF_8, new ConnectionStatistics(), lines::add);
+
+        byte[] response = "[MSG:Temperature 25°C]\n".getBytes(StandardCharsets.UTF_8);
+        int split = "[MSG:Temperature 25".length() + 1;
+        lineFramer.append(response, 0, split);
+        lineFramer.append(response, split, response.length - split);
+
+        assertThat(lines).containsExactly("[MSG:Temperature 25°C]");
+    }
+
+    @Test
+    public void responseWithLongLineShouldDispatchMessage() {
+        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        responseMessageHandler.addListener(communicator);
+
+        String line = "x".repeat(1000);
+        for (int i = 0; i < line.length(); i += 100) {
+            String response = line.substring(i, i + 100);
+            responseMessageHandler.handleResponse(response.getBytes(), 0, response.length());
+        }
+        responseMessageHandler.handleResponse("\r\n".getBytes(), 0, 2);
+
+        verify(communicator, times(1)).handleResponseMessage(line);
+    }
+
+    @Test
+    public void handleResponseShouldCountReceivedData() {
+        String response = "ok\r\nok\r\n<Idle|MPos:0.000,0.000,0.000|FS:0,0>";
+        responseMessageHandler.handleResponse(response.getBytes(), 0, response.length());
+
+        ConnectionStatistics statistics = responseMessageHandler.getStatistics();
+        assertThat(statistics.getBytesReceived()).isEqualTo(response.length());
+        assertThat(statistics.getLinesReceived()).isEqualTo(2);
+        assertThat(statistics.getAllocations()).isEqualTo(2);
+        assertThat(statistics.sample().linesPerSecond()).isPositive();
+    }
 }
@@ -0,0 +1,116 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware.grbl;
+
+import com.willwinder.universalgcodesender.listeners.AccessoryStates;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.OverridePercents;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GrblStatusParserTest {
+
+    @Test
+    public void parseShouldReadAllFields() {
+        String status = "<Hold:1|MPos:1.000,-2.500,3.25,90,-45.5,0.001|Bf:15,128|FS:1000,12000|Ov:110,50,90|A:SFM|Pn:XZ1P|WCO:0.500,0.000,-1.000,0,0,0>";
+
+        ControllerStatus controllerStatus = GrblStatusParser.parse(null, status, UnitUtils.Units.MM);
+
+        assertThat(controllerStatus.getState()).isEqualTo(ControllerState.HOLD);
+        assertThat(controllerStatus.getSubState()).isEqualTo("1");
+        assertThat(controllerStatus.getMachineCoord()).isEqualTo(new Position(1, -2.5, 3.25, 90, -45.5, 0.001, UnitUtils.Units.MM));
+        assertThat(controllerStatus.getWorkCoordinateOffset()).isEqualTo(new Position(0.5, 0, -1, 0, 0, 0, UnitUtils.Units.MM));
+        assertThat(controllerStatus.getWorkCoord()).isEqualTo(new Position(0.5, -2.5, 4.25, 90, -45.5, 0.001, UnitUtils.Units.MM));
+        assertThat(controllerStatus.getFeedSpeed()).isEqualTo(1000);
+        assertThat(controllerStatus.getSpindleSpeed()).isEqualTo(12000);
+        assertThat(controllerStatus.getOverrides()).isEqualTo(new OverridePercents(110, 50, 90));
+        assertThat(controllerStatus.getAccessoryStates()).isEqualTo(new AccessoryStates(true, true, true));
+        assertThat(controllerStatus.getEnabledPins().x()).isTrue();
+        assertThat(controllerStatus.getEnabledPins().z()).isTrue();
+        assertThat(controllerStatus.getEnabledPins().z1()).isTrue();
+        assertThat(controllerStatus.getEnabledPins().z0()).isFalse();
+        assertThat(controllerStatus.getEnabledPins().probe()).isTrue();
+        assertThat(controllerStatus.getEnabledPins().y()).isFalse();
+    }
+
+    @Test
+    public void parseShouldReuseUnchangedImmutableValuesOfTheLastStatus() {
+        ControllerStatus lastStatus = GrblStatusParser.parse(null, "<Idle|MPos:1.000,2.000,3.000|FS:0,0|Ov:100,100,100|A:S|Pn:P|WCO:1.000,1.000,1.000>", UnitUtils.Units.MM);
+
+        ControllerStatus controllerStatus = GrblStatusParser.parse(lastStatus, "<Idle|MPos:1.000,2.000,3.000|FS:0,0|Ov:100,100,100|A:S|Pn:P>", UnitUtils.Units.MM);
+        assertThat(controllerStatus.getMachineCoord()).isEqualTo(lastStatus.getMachineCoord()).isNotSameAs(lastStatus.getMachineCoord());
+        assertThat(controllerStatus.getWorkCoord()).isEqualTo(lastStatus.getWorkCoord()).isNotSameAs(lastStatus.getWorkCoord());
+        assertThat(controllerStatus.getWorkCoordinateOffset()).isEqualTo(lastStatus.getWorkCoordinateOffset());
+        assertThat(controllerStatus.getFeedSpeed()).isSameAs(lastStatus.getFeedSpeed());
+        assertThat(controllerStatus.getOverrides()).isSameAs(lastStatus.getOverrides());
+        assertThat(controllerStatus.getAccessoryStates()).isSameAs(lastStatus.getAccessoryStates());
+        assertThat(controllerStatus.getEnabledPins()).isSameAs(lastStatus.getEnabledPins());
+
+        controllerStatus = GrblStatusParser.parse(lastStatus, "<Run|MPos:1.000,2.000,4.000|FS:100,0>", UnitUtils.Units.MM);
+        assertThat(controllerStatus.getMachineCoord()).isEqualTo(new Position(1, 2, 4, UnitUtils.Units.MM));
+        assertThat(controllerStatus.getWorkCoord()).isEqualTo(new Position(0, 1, 3, Double.NaN, Double.NaN, Double.NaN, UnitUtils.Units.MM));
+        assertThat(controllerStatus.getFeedSpeed()).isEqualTo(100);
+        assertThat(controllerStatus.getSpindleSpeed()).isSameAs(lastStatus.getSpindleSpeed());
+
+        controllerStatus = GrblStatusParser.parse(lastStatus, "<Idle|MPos:1.000,2.000,3.000|FS:0,0>", UnitUtils.Units.INCH);
+        assertThat(controllerStatus.getMachineCoord()).isNotSameAs(lastStatus.getMachineCoord());
+        assertThat(controllerStatus.getMachineCoord().getUnits()).isEqualTo(UnitUtils.Units.INCH);
+    }
+
+    @Test
+    public void parseShouldReadTheFeedSpeedWithoutSpindle() {
+        assertThat(GrblStatusParser.parse(null, "<Run|WPos:1,2,3|F:500.5>", UnitUtils.Units.MM).getFeedSpeed()).isEqualTo(500.5);
+        assertThat(GrblStatusParser.parse(null, "<Run|WPos:1,2,3|F:3000.0,100.0,100.0>", UnitUtils.Units.MM).getFeedSpeed()).isEqualTo(3000);
+        assertThat(GrblStatusParser.parse(null, "<Run|WPos:1,2,3|F:3000.0,100.0>", UnitUtils.Units.MM).getFeedSpeed()).isEqualTo(0);
+    }
+
+    @Test
+    public void parseShouldHandleUnknownStatesAndFields() {
+        ControllerStatus controllerStatus = GrblStatusParser.parse(null, "<Foo|WPos:1,2,3|Ln:99|Bf:1,2>", UnitUtils.Units.MM);
+
+        assertThat(controllerStatus.getState()).isEqualTo(ControllerState.UNKNOWN);
+        assertThat(controllerStatus.getSubState()).isEmpty();
+        assertThat(controllerStatus.getMachineCoord()).isEqualTo(new Position(1, 2, 3, Double.NaN, Double.NaN, Double.NaN, UnitUtils.Units.MM));
+        assertThat(GrblStatusParser.parse(null, "<ALARM:1>", UnitUtils.Units.MM).getState()).isEqualTo(ControllerState.ALARM);
+    }
+
+    @Test
+    public void parseShouldReadTheSameNumbersAsParseDouble() {
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            String x = String.format(Locale.ROOT, "%." + random.nextInt(6) + "f", (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8)));
+            String y = BigDecimal.valueOf((random.nextDouble() - 0.5) * 1000).toPlainString();
+            String z = Long.toString(random.nextLong() % 100000);
+
+            Position position = GrblStatusParser.parse(null, "<Idle|MPos:" + x + "," + y + "," + z + ">", UnitUtils.Units.MM).getMachineCoord();
+
+            assertThat(position.x).isEqualTo(Double.parseDouble(x));
+            assertThat(position.y).isEqualTo(Double.parseDouble(y));
+            assertThat(position.z).isEqualTo(Double.parseDouble(z));
+        }
+    }
+}
@@ -184,6 +184,40 @@ public class GcodeParserTest {
         assertTrue(state.inAbsoluteMode);
     }
 
+    @Test
+    public void addCommand_shouldNotModifyThePreviousState() throws Exception {
+        GcodeParser instance = new GcodeParser();
+        instance.addCommand("G0 X10 F100");
+        GcodeState previousState = instance.getCurrentState();
+        Position previousPoint = previousState.currentPoint;
+
+        instance.addCommand("G20 G1 X2 F200");
+        instance.addCommand("");
+
+        assertThat(previousState.commandNumber).isEqualTo(0);
+        assertThat(previousState.currentMotionMode).isEqualTo(Code.G0);
+        assertThat(previousState.feedRate).isEqualTo(100);
+        assertThat(previousState.units).isEqualTo(Code.G21);
+        assertThat(previousState.currentPoint).isSameAs(previousPoint);
+        assertThat(previousPoint.x).isEqualTo(10);
+        assertThat(instance.getCurrentState().commandNumber).isEqualTo(2);
+        assertThat(instance.getCurrentState().currentPoint.x).isEqualTo(2);
+    }
+
+    @Test
+    public void processCommand_shouldCreateAStateForEachCode() throws Exception {
+        GcodeState initialState = new GcodeState();
+        initialState.currentPoint = new Position(0, 0, 0, MM);
+
+        List<GcodeMeta> results = GcodeParserUtils.processCommand("G91 G0 X1", 1, initialState);
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).state).isNotSameAs(results.get(1).state);
+        assertThat(results.get(0).state.currentPoint.x).isEqualTo(0);
+        assertThat(results.get(1).state.currentPoint.x).isEqualTo(1);
+        assertThat(initialState.inAbsoluteMode).isTrue();
+    }
+
     @Test
     public void addCommand_shouldParseToolNumber() throws Exception {
         GcodeParser instance = new GcodeParser();
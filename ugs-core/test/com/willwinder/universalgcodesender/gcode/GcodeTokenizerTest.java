@@ -0,0 +1,141 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GcodeTokenizerTest {
+
+    @Test
+    public void tokenizeShouldSplitWords() {
+        GcodeTokenizer tokenizer = new GcodeTokenizer().tokenize("G01 X 1.5y-2 (comment (nested)) M3 S1000 ; line comment");
+
+        assertThat(getWords(tokenizer)).containsExactly("G01", "X1.5", "y-2", "(comment (nested))", "M3", "S1000", "; line comment");
+        assertThat(tokenizer.getLetter(2)).isEqualTo('Y');
+        assertThat(tokenizer.getValue(1)).isEqualTo(1.5);
+        assertThat(tokenizer.getValue(2)).isEqualTo(-2);
+        assertThat(tokenizer.getValue(3)).isNaN();
+        assertThat(tokenizer.getCode(0)).isEqualTo(Code.G1);
+        assertThat(tokenizer.getCode(4)).isEqualTo(Code.M3);
+        assertThat(tokenizer.getCode(5)).isNull();
+    }
+
+    @Test
+    public void tokenizeShouldReplacePreviousWords() {
+        GcodeTokenizer tokenizer = new GcodeTokenizer();
+        tokenizer.tokenize("G0 X1 Y2 Z3 A4 B5 C6 F100 S200 T1 M3 M8 G21 G90 G17 G54 G94 X7");
+        tokenizer.tokenize("G1X10");
+
+        assertThat(getWords(tokenizer)).containsExactly("G1", "X10");
+        assertThat(tokenizer.getCommand()).isEqualTo("G1X10");
+    }
+
+    @Test
+    public void tokenizeShouldNotSplitSystemCommands() {
+        GcodeTokenizer tokenizer = new GcodeTokenizer().tokenize("$J=G91 X10 F100");
+
+        assertThat(getWords(tokenizer)).containsExactly("$J=G91 X10 F100");
+        assertThat(tokenizer.getValue(0)).isNaN();
+        assertThat(tokenizer.hasAxisWords()).isFalse();
+    }
+
+    @Test
+    public void tokenizeShouldHandleUnusualCommands() {
+        assertThat(getWords(new GcodeTokenizer().tokenize(""))).isEmpty();
+        assertThat(getWords(new GcodeTokenizer().tokenize("   "))).isEmpty();
+        assertThat(getWords(new GcodeTokenizer().tokenize("g1 x1.2 y-.5 f200"))).containsExactly("g1", "x1.2", "y-.5", "f200");
+        assertThat(getWords(new GcodeTokenizer().tokenize("X1--2"))).containsExactly("X1", "-2");
+        assertThat(getWords(new GcodeTokenizer().tokenize("G1 X1.2.3"))).containsExactly("G1", "X1.2.3");
+        assertThat(getWords(new GcodeTokenizer().tokenize("G0 (a) X1 (b) ; c (d)"))).containsExactly("G0", "(a)", "X1", "(b)", "; c (d)");
+        assertThat(getWords(new GcodeTokenizer().tokenize("G1 X+1 Y#2 Z[3]"))).containsExactly("G1", "X1", "Y2", "Z3");
+        assertThat(getWords(new GcodeTokenizer().tokenize("M3S1000"))).containsExactly("M3", "S1000");
+        assertThat(getWords(new GcodeTokenizer().tokenize("X"))).containsExactly("X");
+        assertThat(getWords(new GcodeTokenizer().tokenize("G1 X10 (unterminated comment"))).containsExactly("G1", "X10", "(unterminated comment");
+    }
+
+    @Test
+    public void getCoordinateShouldReturnTheFirstMatchingWord() {
+        GcodeTokenizer tokenizer = new GcodeTokenizer().tokenize("G1 X1 X2 Y Z1.2.3");
+
+        assertThat(tokenizer.getCoordinate('x')).isEqualTo(1);
+        assertThat(tokenizer.getCoordinate('Y')).isNaN();
+        assertThat(tokenizer.getCoordinate('Z')).isNaN();
+        assertThat(tokenizer.getCoordinate('A')).isNaN();
+        assertThat(tokenizer.count('X')).isEqualTo(2);
+        assertThat(tokenizer.hasAxisWords()).isTrue();
+    }
+
+    @Test
+    public void getCodeShouldFindTheSameCodesAsLookupCode() {
+        List<String> words = new ArrayList<>();
+        for (Code code : Code.values()) {
+            words.add(code.toString());
+        }
+        words.addAll(List.of("G00", "G01", "G038.2", "G1.0", "G0.5", "G00.5", "G", "G-1", "G1.", "G1.25", "G999", "G99999999999",
+                "M03", "M0", "M999", "g1", "m3"));
+
+        for (String word : words) {
+            if (word.equals(Code.UNKNOWN.toString())) {
+                continue;
+            }
+
+            GcodeTokenizer tokenizer = new GcodeTokenizer().tokenize(word);
+            assertThat(tokenizer.size()).as(word).isEqualTo(1);
+            assertThat(tokenizer.getCode(0)).as(word).isEqualTo(Code.lookupCode(word));
+        }
+    }
+
+    @Test
+    public void parseDoubleShouldReturnTheSameValueAsDoubleParseDouble() {
+        Random random = new Random(1);
+        List<String> values = new ArrayList<>(List.of("0", "-0", "1", "-1", ".5", "5.", "-.5", "0.1", "0.3", "123456789.123456789",
+                "9007199254740993", "0.00000000000000000000000001", "1.2.3", "-", ".", "", "1-2", "00001.10000"));
+        for (int i = 0; i < 10000; i++) {
+            values.add(Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(10))));
+            values.add(String.format("%.4f", (random.nextDouble() - 0.5) * 1000).replace(',', '.'));
+        }
+
+        for (String value : values) {
+            double expected;
+            try {
+                expected = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                expected = Double.NaN;
+            }
+
+            char[] chars = value.toCharArray();
+            assertThat(Double.valueOf(GcodeTokenizer.parseDouble(chars, 0, chars.length))).as(value).isEqualTo(Double.valueOf(expected));
+        }
+    }
+
+    private static List<String> getWords(GcodeTokenizer tokenizer) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < tokenizer.size(); i++) {
+            result.add(tokenizer.getWord(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.BacklashCompensator;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.TranslateProcessor;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GcodePreprocessorPipelineTest {
+    private ForkJoinPool pool;
+    private ForkJoinPool sequentialPool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        sequentialPool = new ForkJoinPool(1);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        sequentialPool.shutdownNow();
+    }
+
+    @Test
+    public void parallelProcessingShouldWriteTheSameLinesAsSequentialProcessing() throws Exception {
+        List<String> program = createProgram(500);
+
+        List<String> sequential = process(createParser(), sequentialPool, program);
+        List<String> parallel = process(createParser(), pool, program);
+
+        assertThat(parallel).hasSizeGreaterThan(program.size());
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    public void parallelProcessingShouldLeaveTheParserInTheSameState() throws Exception {
+        List<String> program = createProgram(100);
+
+        GcodeParser sequentialParser = createParser();
+        process(sequentialParser, sequentialPool, program);
+        GcodeParser parallelParser = createParser();
+        process(parallelParser, pool, program);
+
+        assertThat(parallelParser.getCurrentState()).usingRecursiveComparison().ignoringFields("currentPoint").isEqualTo(sequentialParser.getCurrentState());
+        assertThat(parallelParser.getCurrentState().currentPoint).isEqualTo(sequentialParser.getCurrentState().currentPoint);
+        assertThat(parallelParser.getCurrentState().commandNumber).isEqualTo(program.size() - 1);
+    }
+
+    @Test
+    public void statefulProcessorsShouldBeProcessedInSequence() {
+        GcodeParser gcp = createParser();
+        gcp.addCommandProcessor(new BacklashCompensator(new Position(0.1, 0.1, 0, UnitUtils.Units.MM), 0.5));
+
+        try (GcodePreprocessorPipeline pipeline = new GcodePreprocessorPipeline(gcp, new LineWriter(), pool, 10)) {
+            assertThat(pipeline.isParallel()).isFalse();
+        }
+    }
+
+    @Test
+    public void processorExceptionShouldBeThrownAfterThePreviousLinesHaveBeenWritten() {
+        GcodeParser gcp = new GcodeParser();
+        gcp.addCommandProcessor(new FailingProcessor("G0X5"));
+        LineWriter writer = new LineWriter();
+
+        try (GcodePreprocessorPipeline pipeline = new GcodePreprocessorPipeline(gcp, writer, pool, 3)) {
+            assertThat(pipeline.isParallel()).isTrue();
+            assertThatThrownBy(() -> {
+                for (int i = 0; i < 10; i++) {
+                    pipeline.addLine("G0X" + i, "", i + 1);
+                }
+                pipeline.finish();
+            }).isInstanceOf(GcodeParserException.class);
+        }
+
+        assertThat(writer.lines).containsExactly("G0X0", "G0X1", "G0X2", "G0X3", "G0X4");
+    }
+
+    private static List<String> process(GcodeParser gcp, ForkJoinPool pool, List<String> program) throws Exception {
+        LineWriter writer = new LineWriter();
+        try (GcodePreprocessorPipeline pipeline = new GcodePreprocessorPipeline(gcp, writer, pool, 7)) {
+            for (int i = 0; i < program.size(); i++) {
+                pipeline.addLine(program.get(i), "", i + 1);
+            }
+            pipeline.finish();
+        }
+        return writer.lines;
+    }
+
+    private static GcodeParser createParser() {
+        GcodeParser gcp = new GcodeParser();
+        gcp.addCommandProcessor(new ArcExpander(true, 0.5));
+        gcp.addCommandProcessor(new TranslateProcessor(new Position(1.5, -2.25, 0, UnitUtils.Units.MM)));
+        gcp.addCommandProcessor(new DecimalProcessor(4));
+        return gcp;
+    }
+
+    private static List<String> createProgram(int size) {
+        List<String> program = new ArrayList<>();
+        program.add("G21 G90 G17");
+        program.add("G0 X0 Y0 Z1");
+        for (int i = 0; i < size; i++) {
+            switch (i % 6) {
+                case 0 -> program.add("G1 X" + (i % 10) + ".12345 Y" + (i % 7) + " F200");
+                case 1 -> program.add("G2 X" + (i % 10 + 2) + " Y" + (i % 7) + " I1 J0");
+                case 2 -> program.add("G91");
+                case 3 -> program.add("G1 X0.5 Y0.25");
+                case 4 -> program.add("G90");
+                default -> program.add("G3 X" + (i % 10) + " Y" + (i % 7 + 2) + " R2");
+            }
+        }
+        return program;
+    }
+
+    private static class LineWriter implements IGcodeWriter {
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public String getCanonicalPath() {
+            return "";
+        }
+
+        @Override
+        public void addLine(GcodeCommand command) {
+            addLine(command.getOriginalCommandString(), command.getCommandString(), command.getComment(), command.getCommandNumber());
+        }
+
+        @Override
+        public void addLine(String original, String processed, String comment, int commandNumber) {
+            lines.add(processed);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private record FailingProcessor(String failingCommand) implements CommandProcessor {
+        @Override
+        public List<String> processCommand(String command, GcodeState state) throws GcodeParserException {
+            if (command.equals(failingCommand)) {
+                throw new GcodeParserException("Could not process " + command);
+            }
+            return Collections.singletonList(command);
+        }
+
+        @Override
+        public String getHelp() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CommunicatorMetricsTest {
+
+    @Test
+    public void sampleBytesInFlightShouldOnlySampleOncePerInterval() {
+        CommunicatorMetrics metrics = new CommunicatorMetrics();
+        metrics.setEventQueueDepth(() -> 3);
+
+        metrics.sampleBytesInFlight(10);
+        metrics.sampleBytesInFlight(20);
+
+        assertThat(metrics.getSamples()).hasSize(1);
+        assertThat(metrics.getSamples().get(0).bytesInFlight()).isEqualTo(10);
+        assertThat(metrics.getSamples().get(0).eventQueueDepth()).isEqualTo(3);
+    }
+
+    @Test
+    public void statusPollShouldMeasureFromTheFirstUnansweredPoll() {
+        CommunicatorMetrics metrics = new CommunicatorMetrics();
+
+        metrics.statusPollReceived();
+        assertThat(metrics.getStatusPollLatency().getCount()).isEqualTo(0);
+
+        metrics.statusPollSent();
+        metrics.statusPollSent();
+        metrics.statusPollReceived();
+        metrics.statusPollReceived();
+        assertThat(metrics.getStatusPollLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void plannerFedShouldRecordTheStarvationInterval() {
+        CommunicatorMetrics metrics = new CommunicatorMetrics();
+
+        metrics.plannerFed();
+        assertThat(metrics.getPlannerStarvation().getCount()).isEqualTo(0);
+
+        metrics.plannerStarved();
+        metrics.plannerFed();
+        metrics.plannerFed();
+        assertThat(metrics.getPlannerStarvation().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void resetShouldRemoveAllMetrics() {
+        CommunicatorMetrics metrics = new CommunicatorMetrics();
+        metrics.getCommandLatency().record(100);
+        metrics.commandsWritten(2);
+        metrics.sampleBytesInFlight(10);
+
+        metrics.reset();
+
+        assertThat(metrics.getCommandLatency().getCount()).isEqualTo(0);
+        assertThat(metrics.getWrites()).isEqualTo(0);
+        assertThat(metrics.getCommandsSent()).isEqualTo(0);
+        assertThat(metrics.getSamples()).isEmpty();
+    }
+
+    @Test
+    public void writeShouldDumpTheMetrics() throws IOException {
+        CommunicatorMetrics metrics = new CommunicatorMetrics();
+        metrics.getCommandLatency().record(2_000_000);
+        metrics.sampleBytesInFlight(42);
+
+        StringWriter json = new StringWriter();
+        metrics.writeJson(json);
+        JsonObject object = JsonParser.parseString(json.toString()).getAsJsonObject();
+        assertThat(object.getAsJsonObject("commandLatency").get("count").getAsLong()).isEqualTo(1);
+        assertThat(object.getAsJsonObject("commandLatency").get("max").getAsDouble()).isEqualTo(2.0);
+        assertThat(object.getAsJsonArray("samples").get(0).getAsJsonObject().get("bytesInFlight").getAsInt()).isEqualTo(42);
+
+        StringWriter csv = new StringWriter();
+        metrics.writeCsv(csv);
+        String[] rows = csv.toString().split("\r\n");
+        assertThat(rows).hasSize(2);
+        assertThat(rows[0]).isEqualTo("time,bytesInFlight,eventQueueDepth");
+        assertThat(rows[1]).endsWith(",42,0");
+    }
+}
@@ -0,0 +1,82 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getBucketIndexShouldMapValuesToBucketsContainingThem() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int index = LatencyHistogram.getBucketIndex(value);
+
+            assertThat(LatencyHistogram.getBucketUpperValue(index)).as("value %d", value).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.getBucketUpperValue(index - 1)).as("value %d", value).isLessThan(value);
+            }
+        }
+
+        assertThat(LatencyHistogram.getBucketIndex(0)).isEqualTo(0);
+        assertThat(LatencyHistogram.getBucketUpperValue(LatencyHistogram.getBucketIndex(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void getValueAtPercentileShouldBeWithinThePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(1000);
+        assertThat(histogram.getMax()).isEqualTo(1_000_000_000L);
+        assertThat(histogram.getMean()).isEqualTo(500_500_000L);
+        assertThat(histogram.getValueAtPercentile(50)).isCloseTo(500_000_000L, within(500_000_000L * 4 / 100));
+        assertThat(histogram.getValueAtPercentile(99)).isCloseTo(990_000_000L, within(990_000_000L * 4 / 100));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000_000_000L);
+
+        LatencyHistogram.Summary summary = histogram.getSummary();
+        assertThat(summary.count()).isEqualTo(1000);
+        assertThat(summary.mean()).isEqualTo(500.5);
+        assertThat(summary.max()).isEqualTo(1000);
+    }
+
+    @Test
+    public void resetShouldRemoveAllValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(-10);
+
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+
+        histogram.reset();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMax()).isEqualTo(0);
+        assertThat(histogram.getMean()).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncEventListenerTest {
+    private List<Runnable> tasks;
+    private List<UGSEvent> events;
+    private AsyncEventListener asyncListener;
+
+    @Before
+    public void setUp() {
+        tasks = new ArrayList<>();
+        events = new ArrayList<>();
+        asyncListener = new AsyncEventListener(events::add, 2, tasks::add, (listener, event) -> listener.UGSEvent(event));
+    }
+
+    @Test
+    public void sendShouldDeliverTheQueuedEventsInOrder() {
+        UGSEvent stateEvent = new ControllerStateEvent(ControllerState.RUN, ControllerState.IDLE);
+        UGSEvent commandEvent = createCommandEvent(1);
+        asyncListener.send(stateEvent);
+        asyncListener.send(commandEvent);
+
+        assertThat(tasks).hasSize(1);
+        assertThat(events).isEmpty();
+        assertThat(asyncListener.getMetrics().getQueueDepth()).isEqualTo(2);
+
+        runTasks();
+        assertThat(events).containsExactly(stateEvent, commandEvent);
+        assertThat(asyncListener.getMetrics().getQueueDepth()).isZero();
+        assertThat(asyncListener.getMetrics().getLatency().getCount()).isEqualTo(2);
+
+        // A new delivery is scheduled once the queue has been drained
+        asyncListener.send(stateEvent);
+        assertThat(tasks).hasSize(1);
+    }
+
+    @Test
+    public void sendShouldOnlyDeliverTheLatestStatus() {
+        ControllerStatus firstStatus = createStatus(0);
+        ControllerStatus secondStatus = createStatus(1);
+        ControllerStatus thirdStatus = createStatus(1);
+        UGSEvent stateEvent = new ControllerStateEvent(ControllerState.RUN, ControllerState.IDLE);
+
+        asyncListener.send(new ControllerStatusEvent(secondStatus, firstStatus));
+        asyncListener.send(stateEvent);
+        asyncListener.send(new ControllerStatusEvent(thirdStatus, secondStatus));
+        runTasks();
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(0)).isSameAs(stateEvent);
+        ControllerStatusEvent statusEvent = (ControllerStatusEvent) events.get(1);
+        assertThat(statusEvent.getStatus()).isSameAs(thirdStatus);
+        assertThat(statusEvent.getPreviousStatus()).isSameAs(firstStatus);
+        assertThat(statusEvent.getChanges()).containsExactly(ControllerStatusField.MACHINE_POSITION);
+        assertThat(asyncListener.getMetrics().getConflatedEvents()).isEqualTo(1);
+    }
+
+    @Test
+    public void sendShouldDropTheOldestCommandEventsWhenTheQueueIsFull() {
+        UGSEvent stateEvent = new ControllerStateEvent(ControllerState.RUN, ControllerState.IDLE);
+        asyncListener.send(stateEvent);
+        for (int i = 0; i < 5; i++) {
+            asyncListener.send(createCommandEvent(i));
+        }
+        runTasks();
+
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0)).isSameAs(stateEvent);
+        assertThat(((CommandEvent) events.get(1)).getCommand().getCommandNumber()).isEqualTo(3);
+        assertThat(((CommandEvent) events.get(2)).getCommand().getCommandNumber()).isEqualTo(4);
+        assertThat(asyncListener.getMetrics().getDroppedEvents()).isEqualTo(3);
+    }
+
+    @Test
+    public void cancelShouldStopTheDelivery() {
+        asyncListener.send(createCommandEvent(1));
+        asyncListener.cancel();
+        asyncListener.send(createCommandEvent(2));
+        runTasks();
+
+        assertThat(events).isEmpty();
+    }
+
+    private void runTasks() {
+        List<Runnable> tasksToRun = new ArrayList<>(tasks);
+        tasks.clear();
+        tasksToRun.forEach(Runnable::run);
+    }
+
+    private static CommandEvent createCommandEvent(int commandNumber) {
+        return new CommandEvent(CommandEventType.COMMAND_COMPLETE, new GcodeCommand("G0 X" + commandNumber, commandNumber));
+    }
+
+    private static ControllerStatus createStatus(double x) {
+        return ControllerStatusBuilder.newInstance()
+                .setState(ControllerState.RUN)
+                .setMachineCoord(new Position(x, 0, 0, UnitUtils.Units.MM))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CommandRangeCollectorTest {
+
+    @Test
+    public void flushShouldSummarizeTheAddedCommands() {
+        CommandRangeCollector collector = new CommandRangeCollector();
+        assertThat(collector.flush()).isNull();
+
+        assertThat(collector.add(CommandEventType.COMMAND_SENT, createProgramCommand("G0 X1", 10))).isTrue();
+        assertThat(collector.add(CommandEventType.COMMAND_SENT, createProgramCommand("G0 X2", 11))).isFalse();
+        collector.add(CommandEventType.COMMAND_COMPLETE, createProgramCommand("G0 X1", 10));
+        collector.add(CommandEventType.COMMAND_SKIPPED, createProgramCommand("(comment)", 12));
+
+        GcodeCommand errorCommand = createProgramCommand("G0 X2", 11);
+        errorCommand.setError(true);
+        collector.add(CommandEventType.COMMAND_COMPLETE, errorCommand);
+
+        CommandRangeEvent event = collector.flush();
+        assertThat(event.getFirstCommandNumber()).isEqualTo(10);
+        assertThat(event.getLastCommandNumber()).isEqualTo(12);
+        assertThat(event.getSentCount()).isEqualTo(2);
+        assertThat(event.getCompletedCount()).isEqualTo(2);
+        assertThat(event.getSkippedCount()).isEqualTo(1);
+        assertThat(event.getErrorCount()).isEqualTo(1);
+        assertThat(event.hasErrors()).isTrue();
+        assertThat(collector.flush()).isNull();
+    }
+
+    @Test
+    public void flushShouldIgnoreTheNumbersOfCommandsOutsideOfTheProgram() {
+        CommandRangeCollector collector = new CommandRangeCollector();
+        collector.add(CommandEventType.COMMAND_COMPLETE, new GcodeCommand("$J=G91 X1 F100"));
+        collector.add(CommandEventType.COMMAND_COMPLETE, new GcodeCommand("G0 X1", 10));
+
+        CommandRangeEvent event = collector.flush();
+        assertThat(event.getCompletedCount()).isEqualTo(2);
+        assertThat(event.hasCommandNumbers()).isFalse();
+        assertThat(event.getFirstCommandNumber()).isEqualTo(-1);
+    }
+
+    private static GcodeCommand createProgramCommand(String command, int commandNumber) {
+        return new GcodeCommand(command, command, "", commandNumber);
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -33,7 +33,7 @@ import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.ControllerSettings;
 import com.willwinder.universalgcodesender.utils.FirmwareUtils;
-import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.Settings;
 import org.apache.commons.io.FileUtils;
@@ -62,6 +62,7 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -756,7 +757,7 @@ public class GUIBackendTest {
     }
 
     private String readFirstProcessedCommand() throws Exception {
-        try (IGcodeStreamReader reader = new GcodeStreamReader(instance.getProcessedGcodeFile(), new DefaultCommandCreator())) {
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(instance.getProcessedGcodeFile(), new DefaultCommandCreator())) {
             return reader.getNextCommand().getCommandString();
         }
     }
@@ -782,6 +783,23 @@ public class GUIBackendTest {
         return firmwareConfig;
     }
 
+    @Test
+    public void applySettingsShouldSetTheCommandRangeIntervalFromTheSettings() throws Exception {
+        UGSEventDispatcher eventDispatcher = spy(new UGSEventDispatcher());
+        Settings commandRangeSettings = new Settings();
+        commandRangeSettings.setCommandRangeUpdateRate(200);
+
+        GUIBackend backend = new GUIBackend(eventDispatcher);
+        backend.applySettings(commandRangeSettings);
+        verify(eventDispatcher).setCommandRangeInterval(Duration.ofMillis(200));
+
+        // Applying the same settings again should not add more listeners
+        backend.applySettings(commandRangeSettings);
+        backend.applySettings(commandRangeSettings);
+        commandRangeSettings.setCommandRangeUpdateRate(500);
+        verify(eventDispatcher, times(1)).setCommandRangeInterval(Duration.ofMillis(500));
+    }
+
     private void setProcessorEnabled(ControllerSettings firmwareConfig, String processorName, boolean enabled) {
         firmwareConfig.getProcessorConfigs().End.stream()
                 .filter(processor -> processor.name.equals(processorName))
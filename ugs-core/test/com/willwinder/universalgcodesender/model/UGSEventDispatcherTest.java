@@ -0,0 +1,282 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UGSEventDispatcherTest {
+    private UGSEventDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new UGSEventDispatcher();
+    }
+
+    @Test
+    public void statusStringListenerShouldSendTheChangedFields() {
+        List<UGSEvent> events = new ArrayList<>();
+        dispatcher.addListener(events::add);
+
+        ControllerStatus status = createStatus(ControllerState.IDLE, 0);
+        dispatcher.statusStringListener(status);
+        dispatcher.statusStringListener(ControllerStatusBuilder.newInstance(status).build());
+        dispatcher.statusStringListener(createStatus(ControllerState.IDLE, 1));
+
+        List<ControllerStatusEvent> statusEvents = events.stream()
+                .filter(ControllerStatusEvent.class::isInstance)
+                .map(ControllerStatusEvent.class::cast)
+                .toList();
+        assertThat(statusEvents).hasSize(2);
+        assertThat(statusEvents.get(1).getChanges()).containsExactlyInAnyOrder(ControllerStatusField.MACHINE_POSITION, ControllerStatusField.WORK_POSITION);
+        assertThat(statusEvents.get(1).hasChanged(ControllerStatusField.STATE, ControllerStatusField.WORK_POSITION)).isTrue();
+        assertThat(statusEvents.get(1).hasChanged(ControllerStatusField.STATE, ControllerStatusField.PINS)).isFalse();
+    }
+
+    @Test
+    public void controllerStatusListenerShouldOnlyGetStatusesWithChangedFields() throws InterruptedException {
+        QueueListener listener = new QueueListener();
+        dispatcher.addListener(listener);
+        dispatcher.addControllerStatusListener(listener, Duration.ZERO, ControllerStatusField.STATE);
+
+        ControllerStatus status = createStatus(ControllerState.RUN, 0);
+        dispatcher.statusStringListener(status);
+        assertThat(listener.events.poll(1, TimeUnit.SECONDS)).isInstanceOf(ControllerStateEvent.class);
+        ControllerStatusEvent event = (ControllerStatusEvent) listener.events.poll(1, TimeUnit.SECONDS);
+        assertThat(event.getStatus()).isSameAs(status);
+
+        // Only the position changes
+        dispatcher.statusStringListener(createStatus(ControllerState.RUN, 1));
+        dispatcher.sendUGSEvent(new SettingChangedEvent());
+        assertThat(listener.events.poll(1, TimeUnit.SECONDS)).isInstanceOf(SettingChangedEvent.class);
+        assertThat(listener.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+        ControllerStatus holdStatus = createStatus(ControllerState.HOLD, 2);
+        dispatcher.statusStringListener(holdStatus);
+        assertThat(listener.events.poll(1, TimeUnit.SECONDS)).isInstanceOf(ControllerStateEvent.class);
+        event = (ControllerStatusEvent) listener.events.poll(1, TimeUnit.SECONDS);
+        assertThat(event.getStatus()).isSameAs(holdStatus);
+        assertThat(event.getPreviousStatus()).isSameAs(status);
+        assertThat(event.getChanges()).contains(ControllerStatusField.STATE, ControllerStatusField.MACHINE_POSITION);
+    }
+
+    @Test
+    public void controllerStatusListenerShouldCoalesceStatusesWithinTheInterval() throws InterruptedException {
+        QueueListener listener = new QueueListener();
+        dispatcher.addControllerStatusListener(listener, Duration.ofMillis(500));
+
+        dispatcher.statusStringListener(createStatus(ControllerState.RUN, 0));
+        assertThat(listener.events.poll(1, TimeUnit.SECONDS)).isInstanceOf(ControllerStatusEvent.class);
+
+        ControllerStatus status = null;
+        for (int i = 1; i <= 10; i++) {
+            status = createStatus(ControllerState.RUN, i);
+            dispatcher.statusStringListener(status);
+        }
+
+        ControllerStatusEvent event = (ControllerStatusEvent) listener.events.poll(2, TimeUnit.SECONDS);
+        assertThat(event.getStatus()).isSameAs(status);
+        assertThat(listener.events.poll(700, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void slowControllerStatusListenerShouldNotDelayTheOtherEvents() throws InterruptedException {
+        CountDownLatch releaseSlowListener = new CountDownLatch(1);
+        BlockingQueue<ControllerStatus> slowStatuses = new LinkedBlockingQueue<>();
+        dispatcher.addControllerStatusListener(event -> {
+            slowStatuses.add(((ControllerStatusEvent) event).getStatus());
+            awaitUninterruptibly(releaseSlowListener);
+        }, Duration.ZERO);
+        QueueListener listener = new QueueListener();
+        dispatcher.addControllerStatusListener(listener, Duration.ZERO);
+        dispatcher.addListener(listener);
+        dispatcher.setCommandRangeInterval(Duration.ofMillis(10));
+
+        ControllerStatus status = createStatus(ControllerState.RUN, 0);
+        dispatcher.statusStringListener(status);
+        assertThat(slowStatuses.poll(1, TimeUnit.SECONDS)).isSameAs(status);
+        assertThat(listener.events.poll(1, TimeUnit.SECONDS)).isInstanceOf(ControllerStateEvent.class);
+        assertThat(((ControllerStatusEvent) listener.events.poll(1, TimeUnit.SECONDS)).getStatus()).isSameAs(status);
+
+        // The slow listener is still handling the first status
+        ControllerStatus nextStatus = createStatus(ControllerState.RUN, 1);
+        dispatcher.statusStringListener(nextStatus);
+        dispatcher.commandComplete(new GcodeCommand("G0 X1", "G0 X1", "", 1));
+        List<UGSEvent> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            events.add(listener.events.poll(1, TimeUnit.SECONDS));
+        }
+        assertThat(events).hasAtLeastOneElementOfType(CommandEvent.class);
+        assertThat(events).hasAtLeastOneElementOfType(CommandRangeEvent.class);
+        assertThat(events.stream()
+                .filter(ControllerStatusEvent.class::isInstance)
+                .map(event -> ((ControllerStatusEvent) event).getStatus()))
+                .containsExactly(nextStatus);
+
+        releaseSlowListener.countDown();
+        assertThat(slowStatuses.poll(1, TimeUnit.SECONDS)).isSameAs(nextStatus);
+    }
+
+    @Test
+    public void removeListenerShouldRemoveTheStatusSubscription() throws InterruptedException {
+        QueueListener listener = new QueueListener();
+        dispatcher.addListener(listener);
+        dispatcher.addControllerStatusListener(listener, Duration.ZERO, ControllerStatusField.MACHINE_POSITION);
+        dispatcher.removeListener(listener);
+
+        dispatcher.statusStringListener(createStatus(ControllerState.RUN, 1));
+        assertThat(listener.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void asyncListenerShouldGetTheEventsOnAnotherThread() throws InterruptedException {
+        BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+        UGSEventListener listener = event -> threads.add(Thread.currentThread());
+        dispatcher.addAsyncListener(listener);
+
+        dispatcher.sendUGSEvent(new SettingChangedEvent());
+
+        Thread thread = threads.poll(1, TimeUnit.SECONDS);
+        assertThat(thread).isNotNull().isNotSameAs(Thread.currentThread());
+        assertThat(dispatcher.getListenerMetrics()).hasSize(1);
+
+        dispatcher.removeListener(listener);
+        dispatcher.sendUGSEvent(new SettingChangedEvent());
+        assertThat(threads.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(dispatcher.getListenerMetrics()).isEmpty();
+    }
+
+    @Test
+    public void streamCompleteShouldSendTheRangeOfCompletedCommandsFirst() {
+        List<UGSEvent> events = new ArrayList<>();
+        dispatcher.addListener(events::add);
+        dispatcher.setCommandRangeInterval(Duration.ofMinutes(1));
+
+        GcodeCommand command = new GcodeCommand("G0 X1", "G0 X1", "", 1);
+        dispatcher.commandSent(command);
+        dispatcher.commandComplete(command);
+        dispatcher.streamComplete();
+
+        assertThat(events).hasSize(5);
+        assertThat(events.get(0)).isInstanceOf(CommandEvent.class);
+        assertThat(events.get(1)).isInstanceOf(CommandEvent.class);
+        CommandRangeEvent rangeEvent = (CommandRangeEvent) events.get(2);
+        assertThat(rangeEvent.getLastCommandNumber()).isEqualTo(1);
+        assertThat(rangeEvent.getSentCount()).isEqualTo(1);
+        assertThat(rangeEvent.getCompletedCount()).isEqualTo(1);
+        assertThat(events.get(3)).isInstanceOf(StreamEvent.class);
+    }
+
+    @Test
+    public void streamCompleteShouldWaitForAScheduledRangeBeingSent() throws InterruptedException {
+        CountDownLatch rangeReceived = new CountDownLatch(1);
+        CountDownLatch releaseRange = new CountDownLatch(1);
+        List<UGSEvent> events = new CopyOnWriteArrayList<>();
+        dispatcher.addListener(event -> {
+            if (event instanceof CommandRangeEvent) {
+                // Simulates a scheduled flush that has taken the range but not yet delivered it
+                rangeReceived.countDown();
+                awaitUninterruptibly(releaseRange);
+            }
+            events.add(event);
+        });
+        dispatcher.setCommandRangeInterval(Duration.ofMillis(10));
+
+        dispatcher.commandComplete(new GcodeCommand("G0 X1", "G0 X1", "", 1));
+        assertThat(rangeReceived.await(1, TimeUnit.SECONDS)).isTrue();
+
+        Thread streamThread = new Thread(dispatcher::streamComplete);
+        streamThread.start();
+        long timeout = System.currentTimeMillis() + 1000;
+        while (streamThread.getState() != Thread.State.BLOCKED && streamThread.isAlive() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(1);
+        }
+        releaseRange.countDown();
+        streamThread.join(1000);
+
+        assertThat(events).hasSize(4);
+        assertThat(events.get(0)).isInstanceOf(CommandEvent.class);
+        assertThat(events.get(1)).isInstanceOf(CommandRangeEvent.class);
+        assertThat(events.get(2)).isInstanceOf(StreamEvent.class);
+        assertThat(events.get(3)).isInstanceOf(FileStateEvent.class);
+    }
+
+    @Test
+    public void commandCompleteShouldSendTheRangeOfCompletedCommandsAfterTheInterval() throws InterruptedException {
+        QueueListener listener = new QueueListener();
+        dispatcher.addListener(listener);
+        dispatcher.setCommandRangeInterval(Duration.ofMillis(10));
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.commandComplete(new GcodeCommand("G0 X" + i, "G0 X" + i, "", i));
+        }
+
+        UGSEvent event;
+        do {
+            event = listener.events.poll(1, TimeUnit.SECONDS);
+        } while (event instanceof CommandEvent);
+
+        CommandRangeEvent rangeEvent = (CommandRangeEvent) event;
+        assertThat(rangeEvent.getFirstCommandNumber()).isEqualTo(0);
+        assertThat(rangeEvent.getLastCommandNumber()).isEqualTo(2);
+        assertThat(rangeEvent.getCompletedCount()).isEqualTo(3);
+    }
+
+    private static ControllerStatus createStatus(ControllerState state, double x) {
+        return ControllerStatusBuilder.newInstance()
+                .setState(state)
+                .setMachineCoord(new Position(x, 0, 0, UnitUtils.Units.MM))
+                .setWorkCoord(new Position(x, 0, 0, UnitUtils.Units.MM))
+                .build();
+    }
+
+    private static class QueueListener implements UGSEventListener {
+        private final BlockingQueue<UGSEvent> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void UGSEvent(UGSEvent evt) {
+            events.add(evt);
+        }
+    }
+}
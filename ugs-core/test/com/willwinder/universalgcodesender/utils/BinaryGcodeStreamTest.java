@@ -0,0 +1,269 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryGcodeStreamTest {
+    private File tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("binarygcodestream").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void writeAndReadShouldReturnAllRows() throws Exception {
+        int rows = 100000;
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            for (int i = 0; i < rows; i++) {
+                gsw.addLine("Line " + i + " before", "Line " + i + " after", i % 2 == 0 ? "comment åäö" : null, i);
+            }
+        }
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            assertEquals(rows, gsr.getNumRows());
+
+            int count = 0;
+            while (gsr.getNumRowsRemaining() > 0) {
+                GcodeCommand gc = gsr.getNextCommand();
+                assertEquals("Line " + count + " before", gc.getOriginalCommandString());
+                assertEquals("Line " + count + " after", gc.getCommandString());
+                assertEquals(count % 2 == 0 ? "comment åäö" : "", gc.getComment());
+                assertEquals(count, gc.getCommandNumber());
+                count++;
+                assertEquals(rows - count, gsr.getNumRowsRemaining());
+            }
+
+            assertEquals(rows, count);
+            assertNull(gsr.getNextCommand());
+        }
+    }
+
+    @Test
+    public void readingWithSmallWindowShouldMoveTheWindow() throws Exception {
+        int rows = 1000;
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            for (int i = 0; i < rows; i++) {
+                gsw.addLine("G1X" + i, "G1X" + i, "comment " + i, i);
+            }
+        }
+
+        // A window smaller than some of the rows, forcing the window to be moved and grown
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator(), 24)) {
+            for (int i = 0; i < rows; i++) {
+                GcodeCommand gc = gsr.getNextCommand();
+                assertEquals("G1X" + i, gc.getCommandString());
+                assertEquals("comment " + i, gc.getComment());
+            }
+            assertNull(gsr.getNextCommand());
+
+            gsr.seekToCommandNumber(500);
+            List<String> commands = readCommands(gsr);
+            assertTrue(commands.get(commands.size() - 500).endsWith("G1X500"));
+            assertEquals("G1X999", commands.get(commands.size() - 1));
+        }
+    }
+
+    @Test
+    public void writingEmptyStreamShouldReturnNoRows() throws Exception {
+        File f = new File(tempDir, "gcodeFile");
+        new BinaryGcodeStreamWriter(f).close();
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            assertEquals(0, gsr.getNumRows());
+            assertFalse(gsr.ready());
+            assertNull(gsr.getNextCommand());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addingLineWithNewLineShouldThrowException() throws Exception {
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            gsw.addLine("G0 X1", "G0\nX1", "", 1);
+        }
+    }
+
+    @Test(expected = GcodeStreamReader.NotGcodeStreamFile.class)
+    public void readingTextFileShouldThrowNotGcodeStreamFile() throws Exception {
+        File f = new File(tempDir, "gcodeFile");
+        Files.writeString(f.toPath(), "G0 X10 Y10\nG1 X20 Y20 F100\n", StandardCharsets.UTF_8);
+        new BinaryGcodeStreamReader(f, new DefaultCommandCreator());
+    }
+
+    @Test
+    public void factoryShouldDetectStreamFormat() throws Exception {
+        File binaryFile = new File(tempDir, "binaryFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(binaryFile)) {
+            gsw.addLine("G0 X1", "G0X1", "", 1);
+        }
+
+        File textFile = new File(tempDir, "textFile");
+        try (GcodeStreamWriter gsw = new GcodeStreamWriter(textFile)) {
+            gsw.addLine("G0 X1", "G0X1", "", 1);
+        }
+
+        assertTrue(GcodeStreamReaderFactory.isBinaryGcodeStream(binaryFile));
+        assertFalse(GcodeStreamReaderFactory.isBinaryGcodeStream(textFile));
+
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(binaryFile, new DefaultCommandCreator())) {
+            assertTrue(gsr instanceof BinaryGcodeStreamReader);
+            assertEquals("G0X1", gsr.getNextCommand().getCommandString());
+        }
+
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(textFile, new DefaultCommandCreator())) {
+            assertTrue(gsr instanceof GcodeStreamReader);
+            assertEquals("G0X1", gsr.getNextCommand().getCommandString());
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberShouldRestoreStateOfSkippedRows() throws Exception {
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            gsw.addLine("G0X10Z0F100", "G0X10Z0F100", "", 0);
+            gsw.addLine("G0Y10S1000", "G0Y10S1000", "", 1);
+            gsw.addLine("G0Y11", "G0Y11", "", 2);
+            gsw.addLine("G1X5", "G1X5", "", 3);
+        }
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            gsr.seekToCommandNumber(2);
+            assertEquals(7, gsr.getNumRows());
+            assertEquals(List.of("G21G90G91.1G94G54G17", "G0Z0.0", "G0X10.0Y10.0", "S1000.0F100.0", "G1Z0.0", "F100.0S1000.0G0Y11", "G1X5"), readCommands(gsr));
+        }
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            gsr.seekToCommandNumber(2);
+
+            // Only the resumed row should have its command number
+            for (int i = 0; i < 5; i++) {
+                GcodeCommand command = gsr.getNextCommand();
+                assertTrue(command.isGenerated());
+                assertEquals(-1, command.getCommandNumber());
+            }
+
+            GcodeCommand command = gsr.getNextCommand();
+            assertFalse(command.isGenerated());
+            assertEquals(2, command.getCommandNumber());
+            assertEquals("G0Y11", command.getOriginalCommandString());
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberShouldReturnSameCommandsAsRunFromProcessor() throws Exception {
+        int rows = GcodeStreamCheckpoint.INTERVAL * 3 + 10;
+        int runFromLine = GcodeStreamCheckpoint.INTERVAL * 2 + 5;
+
+        RunFromProcessor processor = new RunFromProcessor(runFromLine);
+        GcodeState state = new GcodeState();
+        List<String> expected = new ArrayList<>();
+
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            for (int i = 0; i < rows; i++) {
+                String command = "G1X" + i + "Y" + (i % 7) + "Z" + (i % 13 - 10) + "F" + (100 + i % 5) + (i == 10 ? "M3S1000" : "");
+                gsw.addLine(command, command, "", i);
+
+                state.commandNumber = i;
+                expected.addAll(processor.processCommand(command, state));
+            }
+        }
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            gsr.seekToCommandNumber(runFromLine);
+            assertEquals(expected.size(), gsr.getNumRows());
+            assertEquals(expected, readCommands(gsr));
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberShouldNotMoveTheWindowsWhenSearchingTheIndex() throws Exception {
+        int rows = 10000;
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            for (int i = 0; i < rows; i++) {
+                gsw.addLine("G1X" + i, "G1X" + i, "", i);
+            }
+        }
+
+        // The whole file fits in a window, the rows and the index should only be mapped once each
+        try (BinaryGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            gsr.seekToCommandNumber(rows / 4);
+            List<String> commands = readCommands(gsr);
+            assertEquals("G1X" + (rows - 1), commands.get(commands.size() - 1));
+
+            gsr.seekToCommandNumber(rows / 2);
+            readCommands(gsr);
+            assertEquals(2, gsr.getMappingCount());
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberOutsideOfStreamShouldReturnNoRows() throws Exception {
+        File f = new File(tempDir, "gcodeFile");
+        try (BinaryGcodeStreamWriter gsw = new BinaryGcodeStreamWriter(f)) {
+            gsw.addLine("G0X10", "G0X10", "", 1);
+        }
+
+        try (IGcodeStreamReader gsr = new BinaryGcodeStreamReader(f, new DefaultCommandCreator())) {
+            gsr.seekToCommandNumber(2);
+            assertEquals(0, gsr.getNumRows());
+            assertNull(gsr.getNextCommand());
+
+            gsr.seekToCommandNumber(1);
+            assertEquals(List.of("G0X10"), readCommands(gsr));
+        }
+    }
+
+    private static List<String> readCommands(IGcodeStreamReader reader) throws IOException {
+        List<String> result = new ArrayList<>();
+        while (reader.getNumRowsRemaining() > 0) {
+            result.add(reader.getNextCommand().getCommandString());
+        }
+        return result;
+    }
+}
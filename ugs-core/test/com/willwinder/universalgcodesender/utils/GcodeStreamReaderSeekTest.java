@@ -0,0 +1,195 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Verifies that all stream readers seek to a command number the same way, searching from the
+ * start of the stream regardless of what has already been read.
+ */
+@RunWith(Parameterized.class)
+public class GcodeStreamReaderSeekTest {
+    private static final int ROWS = GcodeStreamCheckpoint.INTERVAL * 3 + 10;
+    private static final List<String> COMMANDS = createCommands();
+
+    private final ReaderFactory readerFactory;
+    private File tempDir;
+
+    public GcodeStreamReaderSeekTest(String name, ReaderFactory readerFactory) {
+        this.readerFactory = readerFactory;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> readers() {
+        return List.of(
+                new Object[]{"binary", (ReaderFactory) GcodeStreamReaderSeekTest::createBinaryReader},
+                new Object[]{"text", (ReaderFactory) GcodeStreamReaderSeekTest::createTextReader},
+                new Object[]{"simple", (ReaderFactory) directory -> createSimpleReader()});
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("gcodestreamreaderseek").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void seekToCommandNumberShouldReturnSameCommandsAsRunFromProcessor() throws Exception {
+        int runFromLine = GcodeStreamCheckpoint.INTERVAL * 2 + 5;
+        try (IGcodeStreamReader reader = readerFactory.create(tempDir)) {
+            reader.seekToCommandNumber(runFromLine);
+            assertCommands(getExpectedCommands(runFromLine), reader);
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberShouldSearchFromTheStartAfterReadingCommands() throws Exception {
+        int runFromLine = GcodeStreamCheckpoint.INTERVAL + 5;
+        try (IGcodeStreamReader reader = readerFactory.create(tempDir)) {
+            for (int i = 0; i < runFromLine + 10; i++) {
+                reader.getNextCommand();
+            }
+
+            reader.seekToCommandNumber(runFromLine);
+            assertCommands(getExpectedCommands(runFromLine), reader);
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberShouldSearchFromTheStartAfterSeeking() throws Exception {
+        try (IGcodeStreamReader reader = readerFactory.create(tempDir)) {
+            reader.seekToCommandNumber(GcodeStreamCheckpoint.INTERVAL * 2 + 5);
+            reader.getNextCommand();
+
+            reader.seekToCommandNumber(5);
+            assertCommands(getExpectedCommands(5), reader);
+        }
+    }
+
+    @Test
+    public void seekToFirstCommandNumberShouldReturnAllCommands() throws Exception {
+        try (IGcodeStreamReader reader = readerFactory.create(tempDir)) {
+            while (reader.getNumRowsRemaining() > 0) {
+                reader.getNextCommand();
+            }
+
+            reader.seekToCommandNumber(0);
+            assertCommands(COMMANDS, reader);
+        }
+    }
+
+    @Test
+    public void seekToCommandNumberOutsideOfStreamShouldReturnNoRows() throws Exception {
+        try (IGcodeStreamReader reader = readerFactory.create(tempDir)) {
+            reader.seekToCommandNumber(ROWS);
+            assertEquals(0, reader.getNumRows());
+            assertEquals(0, reader.getNumRowsRemaining());
+            assertNull(reader.getNextCommand());
+
+            reader.seekToCommandNumber(ROWS - 1);
+            assertCommands(getExpectedCommands(ROWS - 1), reader);
+        }
+    }
+
+    private static void assertCommands(List<String> expected, IGcodeStreamReader reader) throws IOException {
+        assertEquals(expected.size(), reader.getNumRows());
+        assertEquals(expected.size(), reader.getNumRowsRemaining());
+
+        List<String> result = new ArrayList<>();
+        while (reader.getNumRowsRemaining() > 0) {
+            result.add(reader.getNextCommand().getCommandString());
+        }
+        assertEquals(expected, result);
+    }
+
+    private static List<String> getExpectedCommands(int runFromLine) throws GcodeParserException {
+        RunFromProcessor processor = new RunFromProcessor(runFromLine);
+        GcodeState state = new GcodeState();
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < COMMANDS.size(); i++) {
+            state.commandNumber = i;
+            result.addAll(processor.processCommand(COMMANDS.get(i), state));
+        }
+        return result;
+    }
+
+    private static List<String> createCommands() {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            result.add("G1X" + i + "Y" + (i % 7) + "Z" + (i % 13 - 10) + "F" + (100 + i % 5) + (i == 10 ? "M3S1000" : ""));
+        }
+        return result;
+    }
+
+    private static IGcodeStreamReader createBinaryReader(File directory) throws Exception {
+        File file = new File(directory, "binary");
+        try (BinaryGcodeStreamWriter writer = new BinaryGcodeStreamWriter(file)) {
+            for (int i = 0; i < COMMANDS.size(); i++) {
+                writer.addLine(COMMANDS.get(i), COMMANDS.get(i), "", i);
+            }
+        }
+        return new BinaryGcodeStreamReader(file, new DefaultCommandCreator());
+    }
+
+    private static IGcodeStreamReader createTextReader(File directory) throws Exception {
+        File file = new File(directory, "text");
+        try (GcodeStreamWriter writer = new GcodeStreamWriter(file)) {
+            for (int i = 0; i < COMMANDS.size(); i++) {
+                writer.addLine(COMMANDS.get(i), COMMANDS.get(i), "", i);
+            }
+        }
+        return new GcodeStreamReader(file, new DefaultCommandCreator());
+    }
+
+    private static IGcodeStreamReader createSimpleReader() {
+        List<GcodeCommand> commands = new ArrayList<>();
+        for (int i = 0; i < COMMANDS.size(); i++) {
+            commands.add(new GcodeCommand(COMMANDS.get(i), COMMANDS.get(i), "", i));
+        }
+        return new SimpleGcodeStreamReader(commands);
+    }
+
+    private interface ReaderFactory {
+        IGcodeStreamReader create(File directory) throws Exception;
+    }
+}
@@ -8,9 +8,13 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class GcodeStreamReaderTest {
 
@@ -46,4 +50,61 @@ public class GcodeStreamReaderTest {
         assertEquals(1, gcodeStreamReader.getNumRows());
         assertEquals(0, gcodeStreamReader.getNumRowsRemaining());
     }
+
+    @Test
+    public void seekToCommandNumberShouldRestoreStateOfSkippedRows() throws Exception {
+        GcodeStreamReader gcodeStreamReader = new GcodeStreamReader(stringToStream(createStream("G0X10Z0F100", "G0Y10S1000", "G0Y11", "G1X5")), new DefaultCommandCreator());
+        gcodeStreamReader.seekToCommandNumber(2);
+        assertEquals(7, gcodeStreamReader.getNumRows());
+
+        List<GcodeCommand> commands = readCommands(gcodeStreamReader);
+        assertEquals(List.of("G21G90G91.1G94G54G17", "G0Z0.0", "G0X10.0Y10.0", "S1000.0F100.0", "G1Z0.0", "F100.0S1000.0G0Y11", "G1X5"),
+                commands.stream().map(GcodeCommand::getCommandString).toList());
+
+        // Only the resumed row should have its command number
+        commands.subList(0, 5).forEach(command -> {
+            assertTrue(command.isGenerated());
+            assertEquals(-1, command.getCommandNumber());
+        });
+        assertFalse(commands.get(5).isGenerated());
+        assertEquals(2, commands.get(5).getCommandNumber());
+        assertEquals("G0Y11", commands.get(5).getOriginalCommandString());
+        assertEquals(3, commands.get(6).getCommandNumber());
+    }
+
+    @Test
+    public void seekToFirstCommandNumberShouldNotAddResumeCommands() throws Exception {
+        GcodeStreamReader gcodeStreamReader = new GcodeStreamReader(stringToStream(createStream("G0X10", "G0X11")), new DefaultCommandCreator());
+        gcodeStreamReader.seekToCommandNumber(0);
+        assertEquals(2, gcodeStreamReader.getNumRows());
+        assertEquals(List.of("G0X10", "G0X11"), readCommands(gcodeStreamReader).stream().map(GcodeCommand::getCommandString).toList());
+    }
+
+    @Test
+    public void seekToCommandNumberOutsideOfStreamShouldReturnNoRows() throws Exception {
+        GcodeStreamReader gcodeStreamReader = new GcodeStreamReader(stringToStream(createStream("G0X10", "G0X11")), new DefaultCommandCreator());
+        gcodeStreamReader.seekToCommandNumber(2);
+        assertEquals(0, gcodeStreamReader.getNumRows());
+        assertEquals(0, gcodeStreamReader.getNumRowsRemaining());
+        assertNull(gcodeStreamReader.getNextCommand());
+    }
+
+    private static String createStream(String... commands) {
+        StringBuilder result = new StringBuilder("gsw_meta:" + commands.length + "\n");
+        for (int i = 0; i < commands.length; i++) {
+            result.append(commands[i]).append(GcodeStream.FIELD_SEPARATOR)
+                    .append(commands[i]).append(GcodeStream.FIELD_SEPARATOR)
+                    .append(i).append(GcodeStream.FIELD_SEPARATOR)
+                    .append("\n");
+        }
+        return result.toString();
+    }
+
+    private static List<GcodeCommand> readCommands(IGcodeStreamReader reader) throws IOException {
+        List<GcodeCommand> result = new ArrayList<>();
+        while (reader.getNumRowsRemaining() > 0) {
+            result.add(reader.getNextCommand());
+        }
+        return result;
+    }
 }
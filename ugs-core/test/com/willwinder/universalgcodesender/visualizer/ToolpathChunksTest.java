@@ -0,0 +1,95 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ToolpathChunksTest {
+
+    private static final float[] IDENTITY = {
+            1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1};
+
+    @Test
+    public void chunksShouldContainRangesOfSegmentsWithBounds() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 1, 2, 3, 1, 0, 0, (byte) 0);
+        geometry.add(1, 2, 3, -1, 0, 0, 2, 0, 0, (byte) 0);
+        geometry.add(5, 5, 5, 6, 6, 6, 3, 0, 0, (byte) 0);
+
+        ToolpathChunks chunks = new ToolpathChunks(geometry, 2);
+
+        assertThat(chunks.getChunkCount()).isEqualTo(2);
+        assertThat(chunks.getStart(1)).isEqualTo(2);
+        assertThat(chunks.getEnd(0)).isEqualTo(2);
+        assertThat(chunks.getEnd(1)).isEqualTo(3);
+        assertThat(chunks.getBounds(0)).containsExactly(-1, 0, 0, 1, 2, 3);
+        assertThat(chunks.getBounds(1)).containsExactly(5, 5, 5, 6, 6, 6);
+    }
+
+    @Test
+    public void chunksWithUndefinedCoordinatesShouldAlwaysBeVisible() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(Double.NaN, 100, 100, 100, 100, 100, 1, 0, 0, (byte) 0);
+
+        ToolpathChunks chunks = new ToolpathChunks(geometry);
+
+        assertThat(chunks.getBounds(0)[0]).isEqualTo(Float.NEGATIVE_INFINITY);
+        assertThat(chunks.isVisible(0, IDENTITY)).isTrue();
+    }
+
+    @Test
+    public void isVisibleShouldReturnFalseForChunksOutsideTheView() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 0.5, 0.5, 0, 1, 0, 0, (byte) 0);
+        geometry.add(2, 2, 0, 3, 3, 0, 2, 0, 0, (byte) 0);
+        geometry.add(-2, 0, 0, 2, 0, 0, 3, 0, 0, (byte) 0);
+
+        ToolpathChunks chunks = new ToolpathChunks(geometry, 1);
+
+        assertThat(chunks.isVisible(0, IDENTITY)).isTrue();
+        assertThat(chunks.isVisible(1, IDENTITY)).isFalse();
+        assertThat(chunks.isVisible(2, IDENTITY)).isTrue();
+
+        // Translate the view so that the second segment is inside it
+        float[] translation = IDENTITY.clone();
+        translation[12] = -2.5f;
+        translation[13] = -2.5f;
+        float[] matrix = ToolpathChunks.multiply(IDENTITY, translation);
+        assertThat(chunks.isVisible(0, matrix)).isFalse();
+        assertThat(chunks.isVisible(1, matrix)).isTrue();
+    }
+
+    @Test
+    public void multiplyShouldMultiplyColumnMajorMatrices() {
+        float[] scale = IDENTITY.clone();
+        scale[0] = 2;
+        float[] translation = IDENTITY.clone();
+        translation[12] = 3;
+
+        // Translating and then scaling should scale the translation
+        float[] result = ToolpathChunks.multiply(scale, translation);
+        assertThat(result[0]).isEqualTo(2);
+        assertThat(result[12]).isEqualTo(6);
+    }
+}
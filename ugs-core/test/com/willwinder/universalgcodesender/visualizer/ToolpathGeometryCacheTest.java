@@ -0,0 +1,145 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ToolpathGeometryCacheTest {
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("toolpath_cache").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void readShouldReturnTheWrittenToolpath() {
+        ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, ToolpathGeometryCache.DEFAULT_MAX_SIZE);
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(Double.NaN, 0, 1, 2, 3, 4, 5, 100, 1000, ToolpathGeometry.FLAG_ARC);
+        geometry.add(2, 3, 4, -1, -2, -3, 2, 200, 0, ToolpathGeometry.FLAG_FAST_TRAVERSE);
+        GcodeViewParse parser = new GcodeViewParse(new Position(-1, -2, -3, UnitUtils.Units.MM), new Position(2, 3, 4, UnitUtils.Units.MM), 1000, 200);
+
+        cache.write("key", geometry, parser);
+        Optional<ToolpathGeometryCache.Entry> entry = cache.read("key");
+
+        assertThat(entry).isPresent();
+        ToolpathGeometry result = entry.get().geometry();
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.getStartX(0)).isNaN();
+        assertThat(result.getEndZ(0)).isEqualTo(4);
+        assertThat(result.getLineNumber(0)).isEqualTo(5);
+        assertThat(result.getFeedRate(0)).isEqualTo(100);
+        assertThat(result.getSpindleSpeed(0)).isEqualTo(1000);
+        assertThat(result.isArc(0)).isTrue();
+        assertThat(result.getEndX(1)).isEqualTo(-1);
+        assertThat(result.isFastTraverse(1)).isTrue();
+        assertThat(result.isLineNumbersAscending()).isFalse();
+
+        GcodeViewParse resultParser = entry.get().parser();
+        assertThat(resultParser.getMinimumExtremes()).isEqualTo(parser.getMinimumExtremes());
+        assertThat(resultParser.getMaximumExtremes()).isEqualTo(parser.getMaximumExtremes());
+        assertThat(resultParser.getMaxSpindleSpeed()).isEqualTo(1000);
+        assertThat(resultParser.getMaxFeedRate()).isEqualTo(200);
+    }
+
+    @Test
+    public void readShouldReturnToolpathsLargerThanTheWriteBuffer() {
+        ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, ToolpathGeometryCache.DEFAULT_MAX_SIZE);
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        for (int i = 0; i < 100_000; i++) {
+            geometry.add(i, 0, 0, i + 1, i % 10, 0, i, i % 100, i % 1000, (byte) (i % 3));
+        }
+        geometry.trimToSize();
+
+        cache.write("key", geometry, new GcodeViewParse());
+        ToolpathGeometry result = cache.read("key").orElseThrow().geometry();
+
+        assertThat(result.size()).isEqualTo(geometry.size());
+        assertThat(result.getCoordinates()).isEqualTo(geometry.getCoordinates());
+        assertThat(result.getLineNumbers()).isEqualTo(geometry.getLineNumbers());
+        assertThat(result.getFeedRates()).isEqualTo(geometry.getFeedRates());
+        assertThat(result.getSpindleSpeeds()).isEqualTo(geometry.getSpindleSpeeds());
+        assertThat(result.getFlags()).isEqualTo(geometry.getFlags());
+    }
+
+    @Test
+    public void readShouldRemoveInvalidEntries() throws IOException {
+        ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, ToolpathGeometryCache.DEFAULT_MAX_SIZE);
+        File file = new File(directory, "key.toolpath");
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+
+        assertThat(cache.read("key")).isEmpty();
+        assertThat(cache.read("missing")).isEmpty();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void getKeyShouldDependOnTheFileAndSettings() throws IOException {
+        ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, ToolpathGeometryCache.DEFAULT_MAX_SIZE);
+        File file = new File(directory, "file.gcode");
+        Files.write(file.toPath(), List.of("G0 X0", "G1 X10"));
+        String key = cache.getKey(file, 0.01, 0);
+
+        assertThat(cache.getKey(file, 0.01, 0)).isEqualTo(key);
+        assertThat(cache.getKey(file, 0.02, 0)).isNotEqualTo(key);
+        assertThat(cache.getKey(file, 0.01, 1)).isNotEqualTo(key);
+
+        Files.write(file.toPath(), List.of("G0 X0", "G1 X20"));
+        assertThat(cache.getKey(file, 0.01, 0)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void writeShouldRemoveTheLeastRecentlyUsedEntries() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        for (int i = 0; i < 100; i++) {
+            geometry.add(i, 0, 0, i + 1, 0, 0, i, 0, 0, (byte) 0);
+        }
+        GcodeViewParse parser = new GcodeViewParse();
+        ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, 8000);
+
+        cache.write("first", geometry, parser);
+        cache.write("second", geometry, parser);
+        new File(directory, "first.toolpath").setLastModified(System.currentTimeMillis() + 10_000);
+        new File(directory, "second.toolpath").setLastModified(System.currentTimeMillis() - 10_000);
+        cache.write("third", geometry, parser);
+
+        assertThat(cache.read("first")).isPresent();
+        assertThat(cache.read("second")).isEmpty();
+        assertThat(cache.read("third")).isPresent();
+    }
+}
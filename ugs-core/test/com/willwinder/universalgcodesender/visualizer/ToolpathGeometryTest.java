@@ -0,0 +1,153 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ToolpathGeometryTest {
+
+    @Test
+    public void addShouldStoreTheSegmentProperties() {
+        ToolpathGeometry geometry = new ToolpathGeometry(1);
+        geometry.add(createLineSegment(new Position(1, 2, 3, UnitUtils.Units.MM), new Position(4, 5, 6, UnitUtils.Units.MM), 7, true));
+        geometry.add(0, 0, Double.NaN, 1, 1, 1, 8, 100, 1000, (byte) (ToolpathGeometry.FLAG_ARC | ToolpathGeometry.FLAG_Z_MOVEMENT));
+
+        assertThat(geometry.size()).isEqualTo(2);
+        assertThat(geometry.getStartX(0)).isEqualTo(1);
+        assertThat(geometry.getStartY(0)).isEqualTo(2);
+        assertThat(geometry.getStartZ(0)).isEqualTo(3);
+        assertThat(geometry.getEndX(0)).isEqualTo(4);
+        assertThat(geometry.getEndY(0)).isEqualTo(5);
+        assertThat(geometry.getEndZ(0)).isEqualTo(6);
+        assertThat(geometry.getLineNumber(0)).isEqualTo(7);
+        assertThat(geometry.getFeedRate(0)).isEqualTo(500);
+        assertThat(geometry.getSpindleSpeed(0)).isEqualTo(12000);
+        assertThat(geometry.isFastTraverse(0)).isTrue();
+        assertThat(geometry.isArc(0)).isFalse();
+
+        assertThat(geometry.getStartZ(1)).isNaN();
+        assertThat(geometry.isArc(1)).isTrue();
+        assertThat(geometry.isZMovement(1)).isTrue();
+        assertThat(geometry.isFastTraverse(1)).isFalse();
+        assertThat(geometry.isRotation(1)).isFalse();
+    }
+
+    @Test
+    public void addShouldConvertRotationsToCartesianCoordinates() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(createLineSegment(new Position(10, 0, 10, 0, 0, 0, UnitUtils.Units.MM), new Position(10, 10, 10, 180, 0, 0, UnitUtils.Units.MM), 1, false));
+
+        assertThat(geometry.getStartY(0)).isEqualTo(0);
+        assertThat(geometry.getEndY(0)).isCloseTo(-10, within(0.001f));
+        assertThat(geometry.getEndZ(0)).isCloseTo(-10, within(0.001f));
+    }
+
+    @Test
+    public void findFirstSegmentShouldReturnTheFirstSegmentWithTheLineNumber() {
+        ToolpathGeometry geometry = new ToolpathGeometry(2);
+        for (int lineNumber : new int[]{1, 2, 2, 2, 5}) {
+            geometry.add(0, 0, 0, 1, 1, 1, lineNumber, 0, 0, (byte) 0);
+        }
+
+        assertThat(geometry.isLineNumbersAscending()).isTrue();
+        assertThat(geometry.findFirstSegment(0)).isEqualTo(0);
+        assertThat(geometry.findFirstSegment(2)).isEqualTo(1);
+        assertThat(geometry.findFirstSegment(3)).isEqualTo(4);
+        assertThat(geometry.findFirstSegment(6)).isEqualTo(5);
+
+        geometry.add(0, 0, 0, 1, 1, 1, 3, 0, 0, (byte) 0);
+        assertThat(geometry.isLineNumbersAscending()).isFalse();
+    }
+
+    @Test
+    public void appendShouldAddTheSegmentsOfAnotherGeometry() {
+        ToolpathGeometry geometry = new ToolpathGeometry(1);
+        geometry.add(0, 0, 0, 1, 1, 1, 2, 100, 0, (byte) 0);
+        ToolpathGeometry other = new ToolpathGeometry();
+        other.add(1, 1, 1, 2, 2, 2, 3, 200, 10, ToolpathGeometry.FLAG_ARC);
+        other.add(2, 2, 2, 3, 3, 3, 4, 300, 20, (byte) 0);
+
+        geometry.append(other);
+        geometry.append(new ToolpathGeometry());
+
+        assertThat(geometry.size()).isEqualTo(3);
+        assertThat(geometry.getStartX(1)).isEqualTo(1);
+        assertThat(geometry.getEndZ(2)).isEqualTo(3);
+        assertThat(geometry.getLineNumber(2)).isEqualTo(4);
+        assertThat(geometry.getFeedRate(1)).isEqualTo(200);
+        assertThat(geometry.getSpindleSpeed(2)).isEqualTo(20);
+        assertThat(geometry.isArc(1)).isTrue();
+        assertThat(geometry.isLineNumbersAscending()).isTrue();
+
+        geometry.append(other);
+        assertThat(geometry.isLineNumbersAscending()).isFalse();
+    }
+
+    @Test
+    public void toGeometryShouldCreateTheSameSegmentsAsToObjRedux() throws Exception {
+        List<String> gcode = List.of("G21 G90", "G0 X0 Y0 Z5", "G1 Z-1 F100 S1000", "G1 X10 F500", "G2 X20 Y0 I5 J0",
+                "G20", "G1 X1 Y1", "G0 A90", "G1 X0 Y0 A0");
+
+        GcodeViewParse objParser = new GcodeViewParse();
+        List<LineSegment> expected = objParser.toObjRedux(gcode, 0.5, 0);
+        GcodeViewParse geometryParser = new GcodeViewParse();
+        ToolpathGeometry geometry = geometryParser.toGeometry(gcode, 0.5, 0);
+
+        assertThat(geometry.size()).isEqualTo(expected.size());
+        assertThat(geometryParser.getMinimumExtremes()).isEqualTo(objParser.getMinimumExtremes());
+        assertThat(geometryParser.getMaximumExtremes()).isEqualTo(objParser.getMaximumExtremes());
+        assertThat(geometryParser.getMaxFeedRate()).isEqualTo(objParser.getMaxFeedRate());
+        assertThat(geometryParser.getMaxSpindleSpeed()).isEqualTo(objParser.getMaxSpindleSpeed());
+
+        for (int i = 0; i < expected.size(); i++) {
+            LineSegment cartesian = VisualizerUtils.toCartesian(expected.get(i));
+            LineSegment actual = geometry.asLineSegments().get(i);
+            assertPosition(cartesian.getStart(), actual.getStart());
+            assertPosition(cartesian.getEnd(), actual.getEnd());
+            assertThat(actual.getLineNumber()).isEqualTo(cartesian.getLineNumber());
+            assertThat(actual.isArc()).isEqualTo(expected.get(i).isArc());
+            assertThat(actual.isFastTraverse()).isEqualTo(expected.get(i).isFastTraverse());
+            assertThat(actual.isZMovement()).isEqualTo(expected.get(i).isZMovement());
+            assertThat(actual.isRotation()).isEqualTo(expected.get(i).isRotation());
+            assertThat(actual.getFeedRate()).isEqualTo(expected.get(i).getFeedRate());
+            assertThat(actual.getSpindleSpeed()).isEqualTo(expected.get(i).getSpindleSpeed());
+        }
+    }
+
+    private static void assertPosition(Position expected, Position actual) {
+        assertThat(actual.x).isCloseTo(expected.x, within(0.0001));
+        assertThat(actual.y).isCloseTo(expected.y, within(0.0001));
+        assertThat(actual.z).isCloseTo(expected.z, within(0.0001));
+    }
+
+    private static LineSegment createLineSegment(Position start, Position end, int lineNumber, boolean isFastTraverse) {
+        LineSegment lineSegment = new LineSegment(start, end, lineNumber);
+        lineSegment.setIsFastTraverse(isFastTraverse);
+        lineSegment.setFeedRate(500);
+        lineSegment.setSpindleSpeed(12000);
+        return lineSegment;
+    }
+}
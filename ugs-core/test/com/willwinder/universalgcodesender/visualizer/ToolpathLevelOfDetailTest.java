@@ -0,0 +1,80 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ToolpathLevelOfDetailTest {
+
+    @Test
+    public void connectedSegmentsWithinTheToleranceShouldBeMerged() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 0.1, 0, 0, 1, 0, 0, (byte) 0);
+        geometry.add(0.1, 0, 0, 0.2, 0.1, 0, 2, 0, 0, (byte) 0);
+        geometry.add(0.2, 0.1, 0, 0.3, 0.1, 0, 3, 0, 0, (byte) 0);
+        geometry.add(0.3, 0.1, 0, 5, 0.1, 0, 4, 0, 0, (byte) 0);
+
+        ToolpathLevelOfDetail levelOfDetail = new ToolpathLevelOfDetail(geometry, new ToolpathChunks(geometry), 0.5f);
+
+        assertThat(levelOfDetail.getVertexIndexes()).containsExactly(0, 5, 6, 7);
+        assertThat(levelOfDetail.getChunkStart(0)).isEqualTo(0);
+        assertThat(levelOfDetail.getChunkEnd(0)).isEqualTo(4);
+    }
+
+    @Test
+    public void segmentsShouldNotBeMergedWithLongerSegments() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 5, 0, 0, 1, 0, 0, (byte) 0);
+        geometry.add(5, 0, 0, 0.1, 0, 0, 2, 0, 0, (byte) 0);
+
+        ToolpathLevelOfDetail levelOfDetail = new ToolpathLevelOfDetail(geometry, new ToolpathChunks(geometry), 0.5f);
+
+        assertThat(levelOfDetail.getVertexIndexes()).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    public void disconnectedSegmentsOrSegmentsOfDifferentKindsShouldNotBeMerged() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 0.1, 0, 0, 1, 0, 0, (byte) 0);
+        geometry.add(0.2, 0, 0, 0.3, 0, 0, 2, 0, 0, (byte) 0);
+        geometry.add(0.3, 0, 0, 0.4, 0, 0, 3, 0, 0, ToolpathGeometry.FLAG_FAST_TRAVERSE);
+        geometry.add(0.4, 0, 0, 0.5, 0, Double.NaN, 4, 0, 0, ToolpathGeometry.FLAG_FAST_TRAVERSE);
+        geometry.add(0.5, 0, Double.NaN, 0.6, 0, 0, 5, 0, 0, ToolpathGeometry.FLAG_FAST_TRAVERSE);
+
+        ToolpathLevelOfDetail levelOfDetail = new ToolpathLevelOfDetail(geometry, new ToolpathChunks(geometry), 1f);
+
+        assertThat(levelOfDetail.size()).isEqualTo(10);
+    }
+
+    @Test
+    public void segmentsShouldNotBeMergedAcrossChunks() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        for (int i = 0; i < 4; i++) {
+            geometry.add(i * 0.1, 0, 0, (i + 1) * 0.1, 0, 0, i + 1, 0, 0, (byte) 0);
+        }
+
+        ToolpathLevelOfDetail levelOfDetail = new ToolpathLevelOfDetail(geometry, new ToolpathChunks(geometry, 2), 1f);
+
+        assertThat(levelOfDetail.getVertexIndexes()).containsExactly(0, 3, 4, 7);
+        assertThat(levelOfDetail.getChunkStart(1)).isEqualTo(2);
+        assertThat(levelOfDetail.getChunkEnd(1)).isEqualTo(4);
+    }
+}
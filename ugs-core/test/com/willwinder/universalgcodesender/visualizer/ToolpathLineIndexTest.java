@@ -0,0 +1,76 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ToolpathLineIndexTest {
+
+    @Test
+    public void indexWithAscendingLineNumbersShouldUseTheSegmentIndexes() {
+        ToolpathLineIndex index = new ToolpathLineIndex(createGeometry(1, 2, 2, 2, 5));
+
+        assertThat(index.isContiguous()).isTrue();
+        assertThat(index.findFirst(2)).isEqualTo(1);
+        assertThat(index.findFirst(3)).isEqualTo(4);
+        assertThat(index.getSegmentIndex(3)).isEqualTo(3);
+        assertThat(index.findSegment(5)).isEqualTo(4);
+        assertThat(index.findSegment(3)).isEqualTo(-1);
+        assertThat(index.findSegment(6)).isEqualTo(-1);
+    }
+
+    @Test
+    public void indexWithUnorderedLineNumbersShouldSortTheSegments() {
+        ToolpathLineIndex index = new ToolpathLineIndex(createGeometry(3, 1, 3, 2, 1));
+
+        assertThat(index.isContiguous()).isFalse();
+        assertThat(index.findFirst(1)).isEqualTo(0);
+        assertThat(index.findFirst(3)).isEqualTo(3);
+        assertThat(index.findFirst(4)).isEqualTo(5);
+
+        // The segments of a line should be in geometry order
+        assertThat(index.getSegmentIndex(0)).isEqualTo(1);
+        assertThat(index.getSegmentIndex(1)).isEqualTo(4);
+        assertThat(index.getSegmentIndex(2)).isEqualTo(3);
+        assertThat(index.getSegmentIndex(3)).isEqualTo(0);
+        assertThat(index.getSegmentIndex(4)).isEqualTo(2);
+        assertThat(index.getLineNumber(4)).isEqualTo(3);
+        assertThat(index.findSegment(3)).isEqualTo(0);
+        assertThat(index.findSegment(0)).isEqualTo(-1);
+    }
+
+    @Test
+    public void indexOfEmptyGeometryShouldNotFindAnySegments() {
+        ToolpathLineIndex index = new ToolpathLineIndex(new ToolpathGeometry(0));
+
+        assertThat(index.size()).isEqualTo(0);
+        assertThat(index.findFirst(1)).isEqualTo(0);
+        assertThat(index.findSegment(1)).isEqualTo(-1);
+    }
+
+    private static ToolpathGeometry createGeometry(int... lineNumbers) {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        for (int lineNumber : lineNumbers) {
+            geometry.add(0, 0, 0, 1, 1, 1, lineNumber, 0, 0, (byte) 0);
+        }
+        return geometry;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.listeners.ProcessedGcodeListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.events.ToolpathLoadEvent;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class ToolpathLoaderTest {
+    private BackendAPI backend;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        backend = mock(BackendAPI.class);
+
+        List<String> lines = new ArrayList<>(List.of("G21 G90", "G0 X0 Y0 Z0", "G1 F100"));
+        for (int i = 1; i <= 1000; i++) {
+            lines.add("G1 X" + i + " Y" + (i % 2));
+        }
+        file = File.createTempFile("toolpath", ".gcode");
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines);
+    }
+
+    @Test
+    public void loadShouldDeliverTheSegmentsInChunks() throws Exception {
+        ToolpathLoader loader = new ToolpathLoader(backend, 100);
+        RecordingListener listener = new RecordingListener();
+
+        loader.load(file, 0.01, 0, listener);
+
+        assertThat(listener.loaded.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.error).isNull();
+        assertThat(listener.geometry.size()).isEqualTo(1001);
+        assertThat(listener.chunks).hasSize(11);
+        assertThat(listener.chunks.stream().mapToInt(ToolpathGeometry::size).sum()).isEqualTo(1001);
+        assertThat(listener.chunks.get(0).getEndX(99)).isEqualTo(listener.geometry.getEndX(99));
+
+        ArgumentCaptor<ToolpathLoadEvent> eventCaptor = ArgumentCaptor.forClass(ToolpathLoadEvent.class);
+        verify(backend, timeout(1000).times(11)).dispatchEvent(eventCaptor.capture());
+        List<ToolpathLoadEvent> events = eventCaptor.getAllValues();
+        assertThat(events).hasSize(11);
+        assertThat(events.get(0).isComplete()).isFalse();
+        assertThat(events.get(0).getProgress()).isBetween(0d, 1d);
+        assertThat(events.get(10).isComplete()).isTrue();
+        assertThat(events.get(10).getSegmentCount()).isEqualTo(1001);
+        assertThat(events.get(10).getFile()).isEqualTo(file);
+    }
+
+    @Test
+    public void loadShouldReadTheToolpathFromTheCacheWhenLoadedBefore() throws Exception {
+        File directory = Files.createTempDirectory("toolpath_cache").toFile();
+        try {
+            ToolpathGeometryCache cache = new ToolpathGeometryCache(directory, ToolpathGeometryCache.DEFAULT_MAX_SIZE);
+            RecordingListener parsed = new RecordingListener();
+            new ToolpathLoader(backend, 100, cache).load(file, 0.01, 0, parsed);
+            assertThat(parsed.loaded.await(10, TimeUnit.SECONDS)).isTrue();
+            verify(backend, timeout(1000).times(11)).dispatchEvent(any(ToolpathLoadEvent.class));
+            assertThat(directory.listFiles()).hasSize(1);
+
+            RecordingListener cached = new RecordingListener();
+            new ToolpathLoader(backend, 100, cache).load(file, 0.01, 0, cached);
+            assertThat(cached.loaded.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(cached.chunks).hasSize(11);
+            assertThat(cached.geometry.size()).isEqualTo(1001);
+            assertThat(cached.geometry.getEndX(1000)).isEqualTo(parsed.geometry.getEndX(1000));
+            assertThat(cached.parser.getMaximumExtremes()).isEqualTo(parsed.parser.getMaximumExtremes());
+            verify(backend, timeout(1000).times(22)).dispatchEvent(any(ToolpathLoadEvent.class));
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void loadShouldUseTheToolpathCreatedWhileTheFileWasPreprocessed() throws Exception {
+        ToolpathLoader loader = new ToolpathLoader(backend, 100);
+        ArgumentCaptor<ProcessedGcodeListener> listenerCaptor = ArgumentCaptor.forClass(ProcessedGcodeListener.class);
+        verify(backend).addProcessedGcodeListener(listenerCaptor.capture());
+        loader.setParseSettings(0.01, 0);
+
+        File processedFile = File.createTempFile("toolpath", ".processed");
+        processedFile.deleteOnExit();
+        try (BinaryGcodeStreamWriter writer = new BinaryGcodeStreamWriter(processedFile, List.of(listenerCaptor.getValue()))) {
+            List<String> lines = Files.readAllLines(file.toPath());
+            for (int i = 0; i < lines.size(); i++) {
+                writer.addLine(lines.get(i), lines.get(i), "", i);
+            }
+        }
+
+        ToolpathGeometry expected;
+        GcodeViewParse expectedParser = new GcodeViewParse();
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.createReader(processedFile, new DefaultCommandCreator())) {
+            expected = expectedParser.toGeometryFromReaderWithArcTolerance(reader, 0.01, 0);
+        }
+
+        // The processed file is not read again
+        Files.write(processedFile.toPath(), new byte[0]);
+        RecordingListener listener = new RecordingListener();
+        loader.load(processedFile, 0.01, 0, listener);
+
+        assertThat(listener.loaded.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.error).isNull();
+        assertThat(listener.chunks).hasSize(11);
+        assertThat(listener.geometry.size()).isEqualTo(expected.size()).isEqualTo(1001);
+        assertThat(listener.geometry.getCoordinates()).isEqualTo(expected.getCoordinates());
+        assertThat(listener.geometry.getLineNumbers()).isEqualTo(expected.getLineNumbers());
+        assertThat(listener.geometry.getFeedRates()).isEqualTo(expected.getFeedRates());
+        assertThat(listener.parser.getMaximumExtremes()).isEqualTo(expectedParser.getMaximumExtremes());
+
+        loader.dispose();
+        verify(backend).removeProcessedGcodeListener(listenerCaptor.getValue());
+    }
+
+    @Test
+    public void cancelShouldStopAllCallbacks() throws Exception {
+        ToolpathLoader loader = new ToolpathLoader(backend, 1);
+        RecordingListener listener = new RecordingListener();
+
+        loader.load(file, 0.01, 0, listener);
+        assertThat(listener.firstChunk.await(10, TimeUnit.SECONDS)).isTrue();
+        loader.cancel();
+
+        int callbacks = listener.callbacks.get();
+        Thread.sleep(100);
+        assertThat(listener.callbacks.get()).isEqualTo(callbacks);
+    }
+
+    @Test
+    public void loadShouldReportErrors() throws Exception {
+        ToolpathLoader loader = new ToolpathLoader(backend);
+        RecordingListener listener = new RecordingListener();
+
+        loader.load(new File(file.getParentFile(), "missing-" + file.getName()), 0.01, 0, listener);
+
+        assertThat(listener.failed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(listener.error).isNotNull();
+    }
+
+    private static class RecordingListener implements ToolpathLoader.Listener {
+        private final List<ToolpathGeometry> chunks = new ArrayList<>();
+        private final CountDownLatch firstChunk = new CountDownLatch(1);
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private final AtomicInteger callbacks = new AtomicInteger();
+        private volatile ToolpathGeometry geometry;
+        private volatile GcodeViewParse parser;
+        private volatile Exception error;
+
+        @Override
+        public void onSegmentsLoaded(ToolpathGeometry segments) {
+            callbacks.incrementAndGet();
+            chunks.add(segments);
+            firstChunk.countDown();
+        }
+
+        @Override
+        public void onLoaded(ToolpathGeometry geometry, GcodeViewParse parser) {
+            callbacks.incrementAndGet();
+            this.geometry = geometry;
+            this.parser = parser;
+            loaded.countDown();
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            callbacks.incrementAndGet();
+            this.error = exception;
+            failed.countDown();
+        }
+    }
+}
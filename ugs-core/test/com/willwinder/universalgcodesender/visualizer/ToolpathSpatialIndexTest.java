@@ -0,0 +1,108 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ToolpathSpatialIndexTest {
+
+    @Test
+    public void findNearestSegmentShouldReturnTheClosestSegment() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 10, 0, 0, 1, 0, 0, (byte) 0);
+        geometry.add(10, 0, 0, 10, 10, 0, 2, 0, 0, (byte) 0);
+        geometry.add(10, 10, 0, 0, 10, 0, 3, 0, 0, (byte) 0);
+        ToolpathSpatialIndex index = new ToolpathSpatialIndex(geometry);
+
+        assertThat(index.findNearestSegment(5, 1, 2)).isEqualTo(0);
+        assertThat(index.findNearestSegment(9, 5, 2)).isEqualTo(1);
+        assertThat(index.findNearestSegment(5, 9, 2)).isEqualTo(2);
+        assertThat(index.findNearestSegment(5, 5, 2)).isEqualTo(-1);
+    }
+
+    @Test
+    public void findNearestSegmentShouldReturnTheFirstOfEquallyCloseSegments() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(0, 0, 0, 10, 0, 0, 1, 0, 0, (byte) 0);
+        geometry.add(10, 0, 0, 10, 0, -1, 2, 0, 0, (byte) 0);
+        geometry.add(10, 0, -1, 0, 0, -1, 3, 0, 0, (byte) 0);
+        ToolpathSpatialIndex index = new ToolpathSpatialIndex(geometry);
+
+        assertThat(index.findNearestSegment(10, 0, 1)).isEqualTo(0);
+        assertThat(index.findNearestSegment(11, 0, 2)).isEqualTo(0);
+    }
+
+    @Test
+    public void findNearestSegmentShouldIgnoreUndefinedCoordinates() {
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        geometry.add(Float.NaN, Float.NaN, 0, 1, 1, 0, 1, 0, 0, (byte) 0);
+        geometry.add(1, 1, 0, 5, 1, 0, 2, 0, 0, (byte) 0);
+        ToolpathSpatialIndex index = new ToolpathSpatialIndex(geometry);
+
+        assertThat(index.findNearestSegment(0, 0, 10)).isEqualTo(1);
+        assertThat(new ToolpathSpatialIndex(new ToolpathGeometry(0)).findNearestSegment(0, 0, 10)).isEqualTo(-1);
+    }
+
+    @Test
+    public void findNearestSegmentShouldFindTheSameSegmentAsALinearSearch() {
+        Random random = new Random(1);
+        ToolpathGeometry geometry = new ToolpathGeometry();
+        float x = 0;
+        float y = 0;
+        for (int i = 0; i < 5000; i++) {
+            float nextX = x + random.nextFloat() * 4 - 2;
+            float nextY = y + random.nextFloat() * 4 - 2;
+            geometry.add(x, y, 0, nextX, nextY, 0, i, 0, 0, (byte) 0);
+            x = nextX;
+            y = nextY;
+        }
+        ToolpathSpatialIndex index = new ToolpathSpatialIndex(geometry);
+
+        for (int i = 0; i < 200; i++) {
+            double pointX = random.nextDouble() * 100 - 50;
+            double pointY = random.nextDouble() * 100 - 50;
+            assertThat(index.findNearestSegment(pointX, pointY, 5)).isEqualTo(findNearestSegment(geometry, pointX, pointY, 5));
+        }
+    }
+
+    private static int findNearestSegment(ToolpathGeometry geometry, double x, double y, double maxDistance) {
+        int result = -1;
+        double bestDistance = maxDistance * maxDistance;
+        for (int i = 0; i < geometry.size(); i++) {
+            double startX = geometry.getStartX(i);
+            double startY = geometry.getStartY(i);
+            double segmentX = geometry.getEndX(i) - startX;
+            double segmentY = geometry.getEndY(i) - startY;
+            double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, ((x - startX) * segmentX + (y - startY) * segmentY) / lengthSquared)) : 0;
+            double deltaX = startX + t * segmentX - x;
+            double deltaY = startY + t * segmentY - y;
+            double distance = deltaX * deltaX + deltaY * deltaY;
+            if (distance < bestDistance || (distance == bestDistance && result < 0)) {
+                bestDistance = distance;
+                result = i;
+            }
+        }
+        return result;
+    }
+}
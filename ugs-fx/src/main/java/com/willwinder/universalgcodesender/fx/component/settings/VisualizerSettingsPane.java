@@ -77,9 +77,12 @@ public class VisualizerSettingsPane extends BorderPane {
     private void addColorSettings() {
         SwitchButton showGcode = new SwitchButton();
         showGcode.selectedProperty().bindBidirectional(VisualizerSettings.getInstance().showGcodeModelProperty());
+        SwitchButton simplifyGcode = new SwitchButton();
+        simplifyGcode.selectedProperty().bindBidirectional(VisualizerSettings.getInstance().simplifyGcodeModelProperty());
         settingsGroup.getChildren().add(new BorderedTitledPane(Localization.getString("platform.visualizer.gcodeModel"),
                 new VBox(10,
                         new SettingsRow(Localization.getString("platform.visualizer.model"), showGcode),
+                        new SettingsRow(Localization.getString("platform.visualizer.gcodeModel.simplify"), Localization.getString("platform.visualizer.gcodeModel.simplify.tooltip"), simplifyGcode),
                         createFloatSetting(Localization.getString("platform.visualizer.gcodeModel.lineWidth"), VisualizerSettings.getInstance().lineWidthProperty()),
                         createColorSetting(Localization.getString("platform.visualizer.color.background"), VisualizerSettings.getInstance().colorBackgroundProperty()),
                         createColorSetting(Localization.getString("platform.visualizer.color.rapid"), VisualizerSettings.getInstance().colorRapidProperty()),
@@ -27,8 +27,10 @@ import com.willwinder.universalgcodesender.fx.component.visualizer.models.Ruler;
 import com.willwinder.universalgcodesender.fx.component.visualizer.models.Tool;
 import com.willwinder.universalgcodesender.fx.model.WorkspaceBounds;
 import com.willwinder.universalgcodesender.fx.service.VisualizerService;
+import com.willwinder.universalgcodesender.fx.service.VisualizerService.ToolpathPick;
 import com.willwinder.universalgcodesender.fx.service.WorkspaceManager;
 import com.willwinder.universalgcodesender.fx.settings.VisualizerSettings;
+import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
@@ -50,6 +52,7 @@ import javafx.scene.SpotLight;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.SubScene;
+import javafx.scene.control.Label;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
@@ -58,12 +61,16 @@ import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Translate;
 import javafx.util.Duration;
 
+import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
 public class Visualizer extends Pane {
+    // The distance in pixels from the mouse within which a toolpath segment is picked
+    private static final double TOOLPATH_PICK_PIXELS = 8;
+    private static final DecimalFormat FORMATTER = new DecimalFormat("#.##");
     private final PerspectiveCamera perspectiveCamera;
     private final ParallelCamera parallelCamera;
     private Camera camera;
@@ -86,6 +93,7 @@ public class Visualizer extends Pane {
     private final Translate cameraTranslate = new Translate(0, 0, -500); // initial zoom
     private final SubScene subScene;
     private final Group root3D;
+    private final Label toolpathPickLabel = new Label();
 
     // The id of the workspace the view was last auto-centered on, so a load only recenters once.
     private volatile UUID lastCenteredWorkspaceId;
@@ -155,7 +163,14 @@ public class Visualizer extends Pane {
         toolButton.layoutXProperty().set(20);
         toolButton.layoutYProperty().bind(heightProperty().subtract(toolButton.heightProperty()).subtract(20));
 
-        getChildren().addAll(subScene, orientationCube, orientationToolbar, toolbar, toolButton);
+        // The gcode line under the mouse in the bottom-right corner
+        toolpathPickLabel.getStyleClass().add("toolpath-pick-label");
+        toolpathPickLabel.setMouseTransparent(true);
+        toolpathPickLabel.setVisible(false);
+        toolpathPickLabel.layoutXProperty().bind(widthProperty().subtract(toolpathPickLabel.widthProperty()).subtract(20));
+        toolpathPickLabel.layoutYProperty().bind(heightProperty().subtract(toolpathPickLabel.heightProperty()).subtract(20));
+
+        getChildren().addAll(subScene, orientationCube, orientationToolbar, toolbar, toolButton, toolpathPickLabel);
 
         // Add new models added through the visualizer service
         VisualizerService.getInstance().getModels().addListener((ListChangeListener<Model>) change -> {
@@ -398,6 +413,9 @@ public class Visualizer extends Pane {
             VisualizerService.getInstance().fireBackgroundClick(event);
         });
 
+        subScene.addEventHandler(MouseEvent.MOUSE_MOVED, event -> updateToolpathPick(event.getX(), event.getY()));
+        subScene.addEventHandler(MouseEvent.MOUSE_EXITED, event -> toolpathPickLabel.setVisible(false));
+
         // Handle mouse dragged event to implement panning, rotating, and control dragging
         subScene.setOnMouseDragged((MouseEvent event) -> {
             if (activeDragHandler != null && isPrimaryDragActive(event)) {
@@ -498,6 +516,23 @@ public class Visualizer extends Pane {
         });
     }
 
+    /**
+     * Shows the gcode line, feed rate and spindle speed of the toolpath segment under the mouse
+     */
+    private void updateToolpathPick(double pixelX, double pixelY) {
+        Point2D point = toDesignerPoint(pixelX, pixelY);
+        ToolpathPick pick = point == null ? null : VisualizerService.getInstance()
+                .pickToolpath(point.getX(), point.getY(), getWorldUnitsPerPixel() * TOOLPATH_PICK_PIXELS);
+        if (pick == null) {
+            toolpathPickLabel.setVisible(false);
+            return;
+        }
+
+        toolpathPickLabel.setText(String.format(Localization.getString("platform.visualizer.mouseover.line"),
+                pick.lineNumber(), FORMATTER.format(pick.feedRate()), FORMATTER.format(pick.spindleSpeed())));
+        toolpathPickLabel.setVisible(true);
+    }
+
     /**
      * Converts a 1-pixel mouse movement into world units, based on the current projection.
      */
@@ -114,6 +114,7 @@ public class WorkspaceScene extends Model {
     public void setWorkspace(WorkspaceContext workspace) {
         getChildren().clear();
         gcodeModel = null;
+        VisualizerService.getInstance().setToolpathPicker(null);
 
         if (controlsNode != null) {
             controlsNode.dispose();
@@ -260,12 +261,15 @@ public class WorkspaceScene extends Model {
         gcodeModel = new GcodeModel(file);
         gcodeModel.visibleProperty().bind(VisualizerSettings.getInstance().showGcodeModelProperty());
         getChildren().add(gcodeModel);
+        VisualizerService.getInstance().setToolpathPicker(gcodeModel::pick);
     }
 
     private void removeGcodeModel() {
         if (gcodeModel != null) {
             getChildren().remove(gcodeModel);
+            gcodeModel.dispose();
             gcodeModel = null;
+            VisualizerService.getInstance().setToolpathPicker(null);
         }
     }
 
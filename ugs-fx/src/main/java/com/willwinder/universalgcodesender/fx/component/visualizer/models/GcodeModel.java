@@ -22,44 +22,48 @@ import com.willwinder.universalgcodesender.fx.component.visualizer.DepthLayers;
 import com.willwinder.universalgcodesender.services.LookupService;
 import static com.willwinder.universalgcodesender.fx.helper.Colors.blend;
 import static com.willwinder.universalgcodesender.fx.helper.Colors.interpolate;
+import com.willwinder.universalgcodesender.fx.service.VisualizerService.ToolpathPick;
 import com.willwinder.universalgcodesender.fx.settings.VisualizerSettings;
-import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
-import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
-import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UGSEvent;
-import com.willwinder.universalgcodesender.model.UnitUtils;
-import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.model.events.StreamEvent;
 import com.willwinder.universalgcodesender.model.events.StreamEventType;
-import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
-import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometryCache;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLoader;
+import com.willwinder.universalgcodesender.visualizer.ToolpathSpatialIndex;
+import javafx.application.Platform;
 import javafx.scene.DepthTest;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.CullFace;
 import javafx.scene.shape.MeshView;
-import javafx.scene.shape.TriangleMesh;
-import org.fxyz3d.geometry.Point3D;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Renders the toolpath of a gcode file. The file is loaded in the background and every chunk of
+ * loaded segments is added as its own mesh so that the toolpath is displayed progressively.
+ */
 public class GcodeModel extends Model {
     private static final Logger LOGGER = Logger.getLogger(GcodeModel.class.getName());
     public static final double ARC_TOLERANCE = 0.02;
-    private final GcodeViewParse gcvp;
-    private final MeshView meshView;
+    private final BackendAPI backendAPI;
+    private final ToolpathLoader loader;
+    private final UGSEventListener eventListener = this::onEvent;
+    private final List<MeshChunk> chunks = new CopyOnWriteArrayList<>();
+    private volatile ToolpathSpatialIndex spatialIndex = new ToolpathSpatialIndex(new ToolpathGeometry(0));
     private float lineWidth;
-
-    private GcodeModelMaterial material = new GcodeModelMaterial(0);
+    private boolean simplify;
+    private double maxFeedRate;
+    private double maxSpindleSpeed;
 
     private Color rapidColor;
     private Color arcColor;
@@ -70,32 +74,35 @@ public class GcodeModel extends Model {
     private Color spindleMaxColor;
     private Color completedColor;
 
-    private List<LineSegment> loadModel(GcodeViewParse gcvp, String gcodeFile) throws IOException, GcodeParserException {
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile), new DefaultCommandCreator())) {
-            return gcvp.toObjFromReaderWithArcTolerance(gsr, ARC_TOLERANCE, 0);
-        } catch (GcodeStreamReader.NotGcodeStreamFile e) {
-            List<String> linesInFile;
-            linesInFile = VisualizerUtils.readFiletoArrayList(gcodeFile);
-            return gcvp.toObjReduxWithArcTolerance(linesInFile, ARC_TOLERANCE, 0);
-        }
+    /**
+     * A part of the toolpath with its own mesh and material
+     *
+     * @param meshView the view with the mesh of the segments
+     * @param material the material with the colors of the segments
+     * @param offset   the index of the first segment in the toolpath
+     * @param size     the number of segments
+     */
+    private record MeshChunk(MeshView meshView, GcodeModelMaterial material, int offset, int size) {
     }
 
     public GcodeModel(File file) {
-        meshView = new MeshView();
-        meshView.setCullFace(CullFace.NONE);
-        meshView.setMouseTransparent(true);
-        meshView.setDepthTest(DepthTest.ENABLE);
-        meshView.setTranslateZ(DepthLayers.GCODE_Z_OFFSET);
-
-        getChildren().add(meshView);
-        BackendAPI backendAPI = LookupService.lookup(BackendAPI.class);
-        gcvp = new GcodeViewParse();
-        backendAPI.addUGSEventListener(this::onEvent);
+        backendAPI = LookupService.lookup(BackendAPI.class);
+        loader = new ToolpathLoader(backendAPI, ToolpathGeometryCache.getDefault());
+        backendAPI.addUGSEventListener(eventListener);
         VisualizerSettings.getInstance().lineWidthProperty().addListener((s, o, n) -> loadModel(file));
+        VisualizerSettings.getInstance().simplifyGcodeModelProperty().addListener((s, o, n) -> loadModel(file));
         addSettingListeners();
         loadModel(file);
     }
 
+    /**
+     * Stops loading the model and stops listening for events, should be called when the model is removed
+     */
+    public void dispose() {
+        loader.dispose();
+        backendAPI.removeUGSEventListener(eventListener);
+    }
+
     private void addSettingListeners() {
         VisualizerSettings.getInstance().colorRapidProperty().map(Color::web).addListener((s, o, n) -> rapidColor = n);
         rapidColor = VisualizerSettings.getInstance().colorRapidProperty().map(Color::web).getValue();
@@ -125,118 +132,133 @@ public class GcodeModel extends Model {
     private void onEvent(UGSEvent event) {
         if (event instanceof StreamEvent streamEvent) {
             if (streamEvent.getType() == StreamEventType.STREAM_COMPLETE || streamEvent.getType() == StreamEventType.STREAM_CANCELED) {
-                material.reset();
+                chunks.forEach(chunk -> chunk.material().reset());
             }
-        } else if (event instanceof CommandEvent commandEvent) {
-            if (commandEvent.getCommand().isDone()) {
-                material.updateLineColor(commandEvent.getCommand().getCommandNumber(), completedColor);
+        } else if (event instanceof CommandRangeEvent commandRangeEvent) {
+            if (commandRangeEvent.hasCommandNumbers()) {
+                updateLineColors(commandRangeEvent.getFirstCommandNumber(), commandRangeEvent.getLastCommandNumber(), completedColor);
             }
         } else if (event instanceof SettingChangedEvent) {
             addSettingListeners();
         }
     }
 
-    private void loadModel(File file) {
-        lineWidth = VisualizerSettings.getInstance().lineWidthProperty().getValue();
-        ThreadHelper.invokeLater(() -> {
-            try {
-                List<LineSegment> lineSegments = loadModel(gcvp, file.getAbsolutePath());
-                TriangleMesh mesh = pointsToMesh(lineSegments);
-                meshView.setMesh(mesh);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Could not load model", e);
+    private void updateLineColors(int firstLineIndex, int lastLineIndex, Color color) {
+        for (MeshChunk chunk : chunks) {
+            int start = Math.max(firstLineIndex, chunk.offset());
+            int end = Math.min(lastLineIndex, chunk.offset() + chunk.size() - 1);
+            for (int lineIndex = start; lineIndex <= end; lineIndex++) {
+                chunk.material().updateLineColor(lineIndex - chunk.offset(), color);
             }
-        });
-    }
-
-    private TriangleMesh pointsToMesh(List<LineSegment> lineSegments) {
-        TriangleMesh mesh = new TriangleMesh();
-
-        material = new GcodeModelMaterial(lineSegments.size());
-        meshView.setMaterial(material);
-        meshView.setCullFace(CullFace.NONE);
-        meshView.setMouseTransparent(true);
-
-        for (int i = 0; i < lineSegments.size(); i++) {
-            float[] uv = material.getTextureUV(i);
-            mesh.getTexCoords().addAll(uv[0], uv[1]);
         }
+    }
 
-        float r = lineWidth;
-
-        for (int i = 0; i < lineSegments.size(); i++) {
-            LineSegment segment = VisualizerUtils.toCartesian(lineSegments.get(i));
-
-            Point3D p1 = toPoint(segment.getStart().getPositionIn(UnitUtils.Units.MM));
-            Point3D p2 = toPoint(segment.getEnd().getPositionIn(UnitUtils.Units.MM));
-
-            Point3D dir = p2.substract(p1).normalize();
-
-            // Pick a stable reference vector
-            Point3D ref = Math.abs(dir.getZ()) > 0.9
-                    ? new Point3D(1, 0, 0)
-                    : new Point3D(0, 0, 1);
-
-            Point3D normal = dir.crossProduct(ref).normalize();
-            Point3D binormal = dir.crossProduct(normal).normalize();
-
-            // Triangle cross-section (120° apart)
-            Point3D[] offsets = new Point3D[]{
-                    normal.multiply(r),
-                    normal.multiply(-0.5f * r).add(binormal.multiply((float) Math.sqrt(3) * 0.5f * r)),
-                    normal.multiply(-0.5f * r).substract(binormal.multiply((float) Math.sqrt(3) * 0.5f * r))
-            };
-
-            int base = mesh.getPoints().size() / 3;
+    private void loadModel(File file) {
+        lineWidth = VisualizerSettings.getInstance().lineWidthProperty().getValue();
+        simplify = VisualizerSettings.getInstance().simplifyGcodeModelProperty().getValue();
+        maxFeedRate = 0;
+        maxSpindleSpeed = 0;
+        spatialIndex = new ToolpathSpatialIndex(new ToolpathGeometry(0));
+        List<MeshChunk> previousChunks = List.copyOf(chunks);
+        chunks.clear();
+        runOnFxThread(() -> previousChunks.forEach(chunk -> getChildren().remove(chunk.meshView())));
+
+        loader.load(file, ARC_TOLERANCE, 0, new ToolpathLoader.Listener() {
+            private int offset;
+
+            @Override
+            public void onSegmentsLoaded(ToolpathGeometry segments) {
+                MeshChunk chunk = createChunk(segments, offset);
+                offset += segments.size();
+                chunks.add(chunk);
+                runOnFxThread(() -> getChildren().add(chunk.meshView()));
+            }
 
-            // Add vertices
-            for (Point3D o : offsets) {
-                Point3D a = p1.add(o);
-                mesh.getPoints().addAll(a.getX(), a.getY(), a.getZ());
+            @Override
+            public void onLoaded(ToolpathGeometry geometry, GcodeViewParse parser) {
+                // The colors depends on the max feed rate and spindle speed which are known first now
+                maxFeedRate = parser.getMaxFeedRate();
+                maxSpindleSpeed = parser.getMaxSpindleSpeed();
+                for (MeshChunk chunk : chunks) {
+                    chunk.material().setLineColors(getColors(geometry, chunk.offset(), chunk.size()));
+                }
+                spatialIndex = new ToolpathSpatialIndex(geometry);
             }
 
-            for (Point3D o : offsets) {
-                Point3D b = p2.add(o);
-                mesh.getPoints().addAll(b.getX(), b.getY(), b.getZ());
+            @Override
+            public void onError(Exception exception) {
+                LOGGER.log(Level.SEVERE, "Could not load model", exception);
             }
+        });
+    }
 
-            material.setLineColor(i, getColor(segment));
+    /**
+     * Finds the segment closest to a position in the XY plane
+     *
+     * @param x           the x coordinate
+     * @param y           the y coordinate
+     * @param maxDistance the maximum distance to the segment
+     * @return the picked line or null if there is no segment within the distance
+     */
+    public ToolpathPick pick(double x, double y, double maxDistance) {
+        ToolpathSpatialIndex index = spatialIndex;
+        int segment = index.findNearestSegment(x, y, maxDistance);
+        if (segment < 0) {
+            return null;
+        }
 
-            // Side faces (6 triangles)
-            for (int j = 0; j < 3; j++) {
-                int a0 = base + j;
-                int a1 = base + (j + 1) % 3;
-                int b0 = base + j + 3;
-                int b1 = base + (j + 1) % 3 + 3;
+        ToolpathGeometry geometry = index.getGeometry();
+        return new ToolpathPick(geometry.getLineNumber(segment), geometry.getFeedRate(segment), geometry.getSpindleSpeed(segment));
+    }
 
-                mesh.getFaces().addAll(
-                        a0, i, b0, i, a1, i,
-                        a1, i, b0, i, b1, i
-                );
-            }
+    private static void runOnFxThread(Runnable runnable) {
+        if (Platform.isFxApplicationThread()) {
+            runnable.run();
+        } else {
+            Platform.runLater(runnable);
         }
+    }
 
-        material.reset();
-        return mesh;
+    private MeshChunk createChunk(ToolpathGeometry geometry, int offset) {
+        GcodeModelMaterial material = new GcodeModelMaterial(geometry.size());
+        MeshView meshView = new MeshView();
+        meshView.setCullFace(CullFace.NONE);
+        meshView.setMouseTransparent(true);
+        meshView.setDepthTest(DepthTest.ENABLE);
+        meshView.setTranslateZ(DepthLayers.GCODE_Z_OFFSET);
+        ToolpathMeshBuilder builder = new ToolpathMeshBuilder(geometry, lineWidth);
+        if (simplify) {
+            builder.simplify();
+        }
+        meshView.setMesh(builder.build(material));
+        material.setLineColors(getColors(geometry, 0, geometry.size()));
+        meshView.setMaterial(material);
+        return new MeshChunk(meshView, material, offset, geometry.size());
+    }
+
+    private int[] getColors(ToolpathGeometry geometry, int offset, int size) {
+        int[] colors = new int[size];
+        for (int i = 0; i < size; i++) {
+            colors[i] = GcodeModelMaterial.toArgb(getColor(geometry, offset + i));
+        }
+        return colors;
     }
 
-    private Color getColor(LineSegment lineSegment) {
-        if (lineSegment.isArc()) {
+    private Color getColor(ToolpathGeometry geometry, int index) {
+        if (geometry.isArc(index)) {
             return arcColor;
-        } else if (lineSegment.isFastTraverse()) {
+        } else if (geometry.isFastTraverse(index)) {
             return rapidColor;
-        } else if (lineSegment.isZMovement()) {
+        } else if (geometry.isZMovement(index)) {
             return plungeColor;
         } else {
-            return getFeedColor(lineSegment.getFeedRate(), lineSegment.getSpindleSpeed());
+            return getFeedColor(geometry.getFeedRate(index), geometry.getSpindleSpeed(index));
         }
     }
 
     private Color getFeedColor(double feedRate, double spindleSpeed) {
         double currentSpindleSpeed = Math.max(spindleSpeed, 0.1);
         double currentFeedRate = Math.max(feedRate, 0.1);
-        double maxFeedRate = gcvp.getMaxFeedRate();
-        double maxSpindleSpeed = gcvp.getMaxSpindleSpeed();
 
         double feedRatePercent = currentFeedRate / maxFeedRate;
 
@@ -247,14 +269,6 @@ public class GcodeModel extends Model {
         return blend(speedColor, feedColor);
     }
 
-    private Point3D toPoint(Position pos) {
-        return new Point3D(zeroIfNaN(pos.getX()), zeroIfNaN(pos.getY()), zeroIfNaN(pos.getZ()));
-    }
-
-    private static double zeroIfNaN(double value) {
-        return Double.isNaN(value) ? 0 : value;
-    }
-
     @Override
     public void onZoomChange(double zoomFactor) {
 
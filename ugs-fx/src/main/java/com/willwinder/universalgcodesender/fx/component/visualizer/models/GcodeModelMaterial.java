@@ -18,27 +18,48 @@
  */
 package com.willwinder.universalgcodesender.fx.component.visualizer.models;
 
+import javafx.application.Platform;
 import javafx.scene.image.PixelFormat;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.PhongMaterial;
 
 import java.awt.Point;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
+/**
+ * A material with a texture where each line has its own pixel. Changes to the pixels are collected
+ * in a range of dirty rows and written to the texture in one bulk operation on the JavaFX thread, as
+ * every write causes the texture to be uploaded again.
+ */
 public class GcodeModelMaterial extends PhongMaterial {
     private static final Logger LOGGER = Logger.getLogger(GcodeModelMaterial.class.getSimpleName());
     private static final int MAX_TEXTURE_WIDTH = 8192;
+    private static final int BLACK = 0xFF000000;
 
     private final int numberOfLines;
     private final int textureWidth;
     private final int textureHeight;
 
-    private final WritableImage originalTexture;
+    /**
+     * The initial line colors as ARGB, which the texture is reset to
+     */
+    private final int[] originalPixels;
+
+    /**
+     * The current line colors as ARGB, which are written to the texture when flushed
+     */
+    private final int[] pixels;
     private final WritableImage texture;
 
+    /**
+     * The range of rows changed since the texture was last flushed, guarded by the pixels
+     */
+    private int dirtyStartRow = Integer.MAX_VALUE;
+    private int dirtyEndRow = -1;
+    private boolean flushScheduled;
+
     public GcodeModelMaterial(int numberOfLines) {
         super();
         this.numberOfLines = Math.max(numberOfLines, 1);
@@ -46,18 +67,14 @@ public class GcodeModelMaterial extends PhongMaterial {
         textureHeight = Math.max(1, (int) Math.ceil((double) numberOfLines / (double) textureWidth));
         LOGGER.info(String.format("Generated Gcode texture: %sx%s for %d lines", textureWidth, textureHeight, numberOfLines));
 
-        originalTexture = new WritableImage(textureWidth, textureHeight);
-        texture = new WritableImage(textureWidth, textureHeight);
-
         // Initialize all pixels to BLACK (including unused padding pixels)
-        PixelWriter writer = originalTexture.getPixelWriter();
-        for (int y = 0; y < textureHeight; y++) {
-            for (int x = 0; x < textureWidth; x++) {
-                writer.setColor(x, y, Color.BLACK);
-            }
-        }
+        originalPixels = new int[textureWidth * textureHeight];
+        Arrays.fill(originalPixels, BLACK);
+        pixels = originalPixels.clone();
 
-        copyTexture(originalTexture, texture);
+        // The texture isn't displayed yet and can be written directly
+        texture = new WritableImage(textureWidth, textureHeight);
+        texture.getPixelWriter().setPixels(0, 0, textureWidth, textureHeight, PixelFormat.getIntArgbInstance(), pixels, 0, textureWidth);
         setDiffuseMap(texture);
     }
 
@@ -68,9 +85,25 @@ public class GcodeModelMaterial extends PhongMaterial {
      * @param color     the color to set
      */
     public void setLineColor(int lineIndex, Color color) {
-        Point pixel = getTexturePosition(lineIndex);
-        originalTexture.getPixelWriter().setColor(pixel.x, pixel.y, color);
-        texture.getPixelWriter().setColor(pixel.x, pixel.y, color);
+        int index = getPixelIndex(lineIndex);
+        int argb = toArgb(color);
+        synchronized (pixels) {
+            originalPixels[index] = argb;
+            pixels[index] = argb;
+            markDirty(index / textureWidth, index / textureWidth);
+        }
+    }
+
+    /**
+     * Sets the initial colors of all lines at once
+     *
+     * @param colors the ARGB colors of the lines, see {@link #toArgb(Color)}
+     */
+    public void setLineColors(int[] colors) {
+        synchronized (pixels) {
+            System.arraycopy(colors, 0, originalPixels, 0, Math.min(colors.length, numberOfLines));
+        }
+        reset();
     }
 
     /**
@@ -80,15 +113,60 @@ public class GcodeModelMaterial extends PhongMaterial {
      * @param color     the color to temporarily use
      */
     public void updateLineColor(int lineIndex, Color color) {
-        Point pixel = getTexturePosition(lineIndex);
-        texture.getPixelWriter().setColor(pixel.x, pixel.y, color);
+        int index = getPixelIndex(lineIndex);
+        int argb = toArgb(color);
+        synchronized (pixels) {
+            if (pixels[index] != argb) {
+                pixels[index] = argb;
+                markDirty(index / textureWidth, index / textureWidth);
+            }
+        }
     }
 
     /**
      * Resets all line colors back to the initial color
      */
     public void reset() {
-        copyTexture(originalTexture, texture);
+        synchronized (pixels) {
+            System.arraycopy(originalPixels, 0, pixels, 0, pixels.length);
+            markDirty(0, textureHeight - 1);
+        }
+    }
+
+    /**
+     * Adds rows to the dirty range and schedules a flush unless one already is pending
+     */
+    private void markDirty(int startRow, int endRow) {
+        dirtyStartRow = Math.min(dirtyStartRow, startRow);
+        dirtyEndRow = Math.max(dirtyEndRow, endRow);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Platform.runLater(this::flush);
+        }
+    }
+
+    /**
+     * Writes the dirty rows to the texture with a single bulk operation
+     */
+    private void flush() {
+        synchronized (pixels) {
+            flushScheduled = false;
+            if (dirtyEndRow < dirtyStartRow) {
+                return;
+            }
+
+            int rows = dirtyEndRow - dirtyStartRow + 1;
+            texture.getPixelWriter().setPixels(0, dirtyStartRow, textureWidth, rows, PixelFormat.getIntArgbInstance(), pixels, dirtyStartRow * textureWidth, textureWidth);
+            dirtyStartRow = Integer.MAX_VALUE;
+            dirtyEndRow = -1;
+        }
+    }
+
+    private int getPixelIndex(int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= numberOfLines) {
+            return 0;
+        }
+        return lineIndex;
     }
 
     public Point getTexturePosition(int lineIndex) {
@@ -100,18 +178,6 @@ public class GcodeModelMaterial extends PhongMaterial {
         return new Point(x, y);
     }
 
-    private void copyTexture(WritableImage source, WritableImage destination) {
-        PixelReader reader = source.getPixelReader();
-        PixelWriter writer = destination.getPixelWriter();
-
-        int width = (int) source.getWidth();
-        int height = (int) source.getHeight();
-
-        byte[] buffer = new byte[width * height * 4]; // BGRA format (4 bytes per pixel)
-        reader.getPixels(0, 0, width, height, PixelFormat.getByteBgraInstance(), buffer, 0, width * 4);
-        writer.setPixels(0, 0, width, height, PixelFormat.getByteBgraInstance(), buffer, 0, width * 4);
-    }
-
     /**
      * UV coordinate for the *center* of the cell, to avoid sampling borders.
      */
@@ -123,4 +189,30 @@ public class GcodeModelMaterial extends PhongMaterial {
 
         return new float[]{u, v};
     }
+
+    /**
+     * Writes the UV coordinate for the center of the cell of a line into an array
+     *
+     * @param lineIndex the line
+     * @param uv        the array to write the coordinate to
+     * @param offset    the position in the array to write the coordinate to
+     */
+    public void getTextureUV(int lineIndex, float[] uv, int offset) {
+        int index = lineIndex < 0 || lineIndex >= numberOfLines ? 0 : lineIndex;
+        uv[offset] = (float) (index % textureWidth + 0.5) / (float) textureWidth;
+        uv[offset + 1] = (float) (index / textureWidth + 0.5) / (float) textureHeight;
+    }
+
+    /**
+     * Converts a color to the ARGB format used by {@link #setLineColors(int[])}
+     *
+     * @param color the color to convert
+     * @return the color as ARGB
+     */
+    public static int toArgb(Color color) {
+        return ((int) Math.round(color.getOpacity() * 255) << 24) |
+                ((int) Math.round(color.getRed() * 255) << 16) |
+                ((int) Math.round(color.getGreen() * 255) << 8) |
+                (int) Math.round(color.getBlue() * 255);
+    }
 }
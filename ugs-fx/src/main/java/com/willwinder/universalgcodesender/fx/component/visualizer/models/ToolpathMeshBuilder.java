@@ -0,0 +1,206 @@
+/*
+    Copyright 2026 Joacim Breiler
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.fx.component.visualizer.models;
+
+import com.willwinder.universalgcodesender.visualizer.ToolpathChunks;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLevelOfDetail;
+import javafx.scene.shape.TriangleMesh;
+
+import java.util.stream.IntStream;
+
+/**
+ * Builds the mesh of a toolpath where each line is a prism with a triangular cross-section. The
+ * points, texture coordinates and faces are computed into primitive arrays, in parallel blocks of
+ * lines, and set on the mesh at once instead of growing its observable arrays one line at a time.
+ * <p>
+ * Each segment has a texture coordinate pointing to its cell in a {@link GcodeModelMaterial}. When
+ * simplified, runs of short segments are drawn as a single prism using the color of the first
+ * segment in the run.
+ */
+public class ToolpathMeshBuilder {
+    private static final int POINTS_PER_LINE = 6 * 3;
+    private static final int FACES_PER_LINE = 6 * 6;
+    private static final int BLOCK_SIZE = 4096;
+    private static final float SIN_120 = (float) (Math.sqrt(3) * 0.5);
+
+    private final ToolpathGeometry geometry;
+    private final float lineWidth;
+
+    /**
+     * The segment index pairs of the start and end of each line, or null if each segment is a line
+     */
+    private int[] lines;
+
+    /**
+     * @param geometry  the segments to build the mesh from
+     * @param lineWidth the radius of the lines
+     */
+    public ToolpathMeshBuilder(ToolpathGeometry geometry, float lineWidth) {
+        this.geometry = geometry;
+        this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Merges runs of connected segments which stay within the line width from the start of the run,
+     * which are too short to be distinguished from a single line anyway.
+     *
+     * @return this builder
+     */
+    public ToolpathMeshBuilder simplify() {
+        ToolpathChunks chunks = new ToolpathChunks(geometry, Math.max(geometry.size(), 1));
+        int[] vertexIndexes = new ToolpathLevelOfDetail(geometry, chunks, lineWidth).getVertexIndexes();
+        lines = new int[vertexIndexes.length];
+        for (int i = 0; i < vertexIndexes.length; i += 2) {
+            lines[i] = vertexIndexes[i] / 2;
+            lines[i + 1] = (vertexIndexes[i + 1] - 1) / 2;
+        }
+        return this;
+    }
+
+    /**
+     * @return the number of lines in the mesh
+     */
+    public int getLineCount() {
+        return lines == null ? geometry.size() : lines.length / 2;
+    }
+
+    /**
+     * Creates the mesh, this may be done outside the JavaFX thread as long as the mesh isn't displayed
+     *
+     * @param material the material with the texture cells of the segments
+     * @return a new mesh
+     */
+    public TriangleMesh build(GcodeModelMaterial material) {
+        int lineCount = getLineCount();
+        float[] points = new float[lineCount * POINTS_PER_LINE];
+        int[] faces = new int[lineCount * FACES_PER_LINE];
+        float[] texCoords = new float[geometry.size() * 2];
+
+        int blockCount = (lineCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, blockCount).parallel().forEach(block -> {
+            int end = Math.min((block + 1) * BLOCK_SIZE, lineCount);
+            for (int line = block * BLOCK_SIZE; line < end; line++) {
+                addLine(line, points, faces);
+            }
+        });
+
+        for (int i = 0; i < geometry.size(); i++) {
+            material.getTextureUV(i, texCoords, i * 2);
+        }
+
+        TriangleMesh mesh = new TriangleMesh();
+        mesh.getPoints().setAll(points);
+        mesh.getTexCoords().setAll(texCoords);
+        mesh.getFaces().setAll(faces);
+        return mesh;
+    }
+
+    private void addLine(int line, float[] points, int[] faces) {
+        int startSegment = lines == null ? line : lines[line * 2];
+        int endSegment = lines == null ? line : lines[line * 2 + 1];
+
+        float x1 = zeroIfNaN(geometry.getStartX(startSegment));
+        float y1 = zeroIfNaN(geometry.getStartY(startSegment));
+        float z1 = zeroIfNaN(geometry.getStartZ(startSegment));
+        float x2 = zeroIfNaN(geometry.getEndX(endSegment));
+        float y2 = zeroIfNaN(geometry.getEndY(endSegment));
+        float z2 = zeroIfNaN(geometry.getEndZ(endSegment));
+
+        float dirX = x2 - x1;
+        float dirY = y2 - y1;
+        float dirZ = z2 - z1;
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+        if (length == 0) {
+            // Any direction will do for a line without length
+            dirX = 1;
+            length = 1;
+        }
+        dirX /= length;
+        dirY /= length;
+        dirZ /= length;
+
+        // Pick a stable reference vector, normal = dir x ref
+        float normalX, normalY, normalZ;
+        if (Math.abs(dirZ) > 0.9) {
+            normalX = 0;
+            normalY = dirZ;
+            normalZ = -dirY;
+        } else {
+            normalX = dirY;
+            normalY = -dirX;
+            normalZ = 0;
+        }
+        float normalLength = (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+        normalX /= normalLength;
+        normalY /= normalLength;
+        normalZ /= normalLength;
+
+        // binormal = dir x normal, which already is a unit vector
+        float binormalX = dirY * normalZ - dirZ * normalY;
+        float binormalY = dirZ * normalX - dirX * normalZ;
+        float binormalZ = dirX * normalY - dirY * normalX;
+
+        // Triangle cross-section (120° apart)
+        float r = lineWidth;
+        float[] offsets = {
+                normalX * r, normalY * r, normalZ * r,
+                (-0.5f * normalX + SIN_120 * binormalX) * r, (-0.5f * normalY + SIN_120 * binormalY) * r, (-0.5f * normalZ + SIN_120 * binormalZ) * r,
+                (-0.5f * normalX - SIN_120 * binormalX) * r, (-0.5f * normalY - SIN_120 * binormalY) * r, (-0.5f * normalZ - SIN_120 * binormalZ) * r
+        };
+
+        int offset = line * POINTS_PER_LINE;
+        for (int j = 0; j < 9; j += 3) {
+            points[offset + j] = x1 + offsets[j];
+            points[offset + j + 1] = y1 + offsets[j + 1];
+            points[offset + j + 2] = z1 + offsets[j + 2];
+            points[offset + j + 9] = x2 + offsets[j];
+            points[offset + j + 10] = y2 + offsets[j + 1];
+            points[offset + j + 11] = z2 + offsets[j + 2];
+        }
+
+        // Side faces (6 triangles) as point and texture coordinate index pairs
+        int base = line * 6;
+        int texCoord = startSegment;
+        int face = line * FACES_PER_LINE;
+        for (int j = 0; j < 3; j++) {
+            int a0 = base + j;
+            int a1 = base + (j + 1) % 3;
+            int b0 = base + j + 3;
+            int b1 = base + (j + 1) % 3 + 3;
+
+            faces[face++] = a0;
+            faces[face++] = texCoord;
+            faces[face++] = b0;
+            faces[face++] = texCoord;
+            faces[face++] = a1;
+            faces[face++] = texCoord;
+            faces[face++] = a1;
+            faces[face++] = texCoord;
+            faces[face++] = b0;
+            faces[face++] = texCoord;
+            faces[face++] = b1;
+            faces[face++] = texCoord;
+        }
+    }
+
+    private static float zeroIfNaN(float value) {
+        return Float.isNaN(value) ? 0 : value;
+    }
+}
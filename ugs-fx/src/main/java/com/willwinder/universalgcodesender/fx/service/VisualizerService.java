@@ -37,6 +37,7 @@ public class VisualizerService {
     private final List<Consumer<MouseEvent>> backgroundClickHandlers = new CopyOnWriteArrayList<>();
     private volatile DrawGestureProvider drawGestureProvider;
     private volatile Consumer<WorkspaceBounds> centerOnBoundsHandler;
+    private volatile ToolpathPicker toolpathPicker;
 
     public static VisualizerService getInstance() {
         return INSTANCE;
@@ -117,8 +118,36 @@ public class VisualizerService {
         return provider == null ? null : provider.beginGesture(designerX, designerY);
     }
 
+    /**
+     * Registers the picker that finds the toolpath segment closest to a position. Pass null to
+     * unregister. Registered by the scene holding the gcode model.
+     */
+    public void setToolpathPicker(ToolpathPicker picker) {
+        this.toolpathPicker = picker;
+    }
+
+    /**
+     * Finds the toolpath segment closest to the given designer (model mm) coordinates.
+     * Returns null when there is no toolpath or no segment within the distance.
+     */
+    public ToolpathPick pickToolpath(double designerX, double designerY, double maxDistance) {
+        ToolpathPicker picker = toolpathPicker;
+        return picker == null ? null : picker.pick(designerX, designerY, maxDistance);
+    }
+
     @FunctionalInterface
     public interface DrawGestureProvider {
         DragHandler beginGesture(double designerX, double designerY);
     }
+
+    @FunctionalInterface
+    public interface ToolpathPicker {
+        ToolpathPick pick(double designerX, double designerY, double maxDistance);
+    }
+
+    /**
+     * The gcode line of a picked toolpath segment
+     */
+    public record ToolpathPick(int lineNumber, double feedRate, double spindleSpeed) {
+    }
 }
@@ -58,6 +58,7 @@ public class VisualizerSettings {
     private static final String MOUSE_PRIMARY_MODIFIER = "mouse.primary.modifier";
     private static final String USE_PARALLEL_CAMERA = "useParallelCamera";
     private static final String SHOW_GCODE_MODEL = "showGcodeModel";
+    private static final String SIMPLIFY_GCODE_MODEL = "simplifyGcodeModel";
     private static final String SHOW_RULER = "showRuler";
     private static final String SHOW_GRID = "showGrid";
     private static final String SHOW_AXES = "showAxes";
@@ -108,6 +109,7 @@ public class VisualizerSettings {
     private final FloatProperty lineWidth = new SimpleFloatProperty(loadFloat(LINE_WIDTH, 0.1f));
     private final BooleanProperty useParallelCamera = new SimpleBooleanProperty(loadBoolean(USE_PARALLEL_CAMERA, false));
     private final BooleanProperty showGcodeModel = new SimpleBooleanProperty(loadBoolean(SHOW_GCODE_MODEL, true));
+    private final BooleanProperty simplifyGcodeModel = new SimpleBooleanProperty(loadBoolean(SIMPLIFY_GCODE_MODEL, false));
     private final BooleanProperty showRuler = new SimpleBooleanProperty(loadBoolean(SHOW_RULER, true));
     private final BooleanProperty showGrid = new SimpleBooleanProperty(loadBoolean(SHOW_GRID, true));
     private final BooleanProperty showAxes = new SimpleBooleanProperty(loadBoolean(SHOW_AXES, true));
@@ -143,6 +145,7 @@ public class VisualizerSettings {
         useParallelCamera.addListener((obs, oldVal, newVal) -> saveBoolean(USE_PARALLEL_CAMERA, newVal));
         lineWidth.addListener((obs, oldVal, newVal) -> saveFloat(LINE_WIDTH, newVal.floatValue()));
         showGcodeModel.addListener((obs, oldVal, newVal) -> saveBoolean(SHOW_GCODE_MODEL, newVal));
+        simplifyGcodeModel.addListener((obs, oldVal, newVal) -> saveBoolean(SIMPLIFY_GCODE_MODEL, newVal));
         showRuler.addListener((obs, oldVal, newVal) -> saveBoolean(SHOW_RULER, newVal));
         showGrid.addListener((obs, oldVal, newVal) -> saveBoolean(SHOW_GRID, newVal));
         showAxes.addListener((obs, oldVal, newVal) -> saveBoolean(SHOW_AXES, newVal));
@@ -270,6 +273,10 @@ public class VisualizerSettings {
         return showGcodeModel;
     }
 
+    public BooleanProperty simplifyGcodeModelProperty() {
+        return simplifyGcodeModel;
+    }
+
     public BooleanProperty showRulerProperty() {
         return showRuler;
     }
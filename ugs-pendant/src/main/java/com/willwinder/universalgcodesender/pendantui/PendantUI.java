@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2023 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -26,6 +26,7 @@ import com.willwinder.universalgcodesender.pendantui.html.StaticConfig;
 import com.willwinder.universalgcodesender.pendantui.v1.AppV1Config;
 import com.willwinder.universalgcodesender.pendantui.v1.ws.EventsSocket;
 import com.willwinder.universalgcodesender.services.JogService;
+import jakarta.websocket.server.ServerEndpointConfig;
 import jakarta.ws.rs.core.UriBuilder;
 import net.glxn.qrgen.QRCode;
 import net.glxn.qrgen.image.ImageType;
@@ -61,6 +62,7 @@ public class PendantUI implements UGSEventListener {
     private final BackendAPI backendAPI;
     private int port = 8080;
     private Server server;
+    private EventsSocket eventsSocket;
 
     public PendantUI(BackendAPI backendAPI) {
         this.backendAPI = backendAPI;
@@ -76,6 +78,8 @@ public class PendantUI implements UGSEventListener {
      */
     public List<PendantURLBean> start() {
         port = backendAPI.getSettings().getPendantPort();
+        eventsSocket = new EventsSocket(backendAPI);
+        backendAPI.addAsyncUGSEventListener(eventsSocket);
         URI baseUri = UriBuilder.fromUri("http://0.0.0.0/").port(port).build();
 
         server = JettyHttpContainerFactory.createServer(baseUri, false);
@@ -83,7 +87,7 @@ public class PendantUI implements UGSEventListener {
         server.setHandler(contextHandlerCollection);
 
         contextHandlerCollection.addHandler(createResourceConfigHandler(new StaticConfig(), ""));
-        contextHandlerCollection.addHandler(createResourceConfigHandler(new AppV1Config(backendAPI, jogService), API_CONTEXT_PATH));
+        contextHandlerCollection.addHandler(createResourceConfigHandler(new AppV1Config(backendAPI, jogService, eventsSocket), API_CONTEXT_PATH));
         contextHandlerCollection.addHandler(createResourceConfigHandler(new StaticConfig(), "/*"));
         contextHandlerCollection.addHandler(createWebSocketHandler(WEBSOCKET_CONTEXT_PATH));
 
@@ -110,11 +114,27 @@ public class PendantUI implements UGSEventListener {
         context.setContextPath(contextPath);
         JakartaWebSocketServletContainerInitializer.configure(context, (servletContext, wsContainer) -> {
             wsContainer.setDefaultMaxTextMessageBufferSize(65535);
-            wsContainer.addEndpoint(EventsSocket.class);
+            wsContainer.addEndpoint(createEventsSocketConfig());
         });
         return context;
     }
 
+    /**
+     * Creates an endpoint config sharing the events socket between all sessions instead of creating
+     * an endpoint instance for each session.
+     */
+    private ServerEndpointConfig createEventsSocketConfig() {
+        EventsSocket endpoint = eventsSocket;
+        return ServerEndpointConfig.Builder.create(EventsSocket.class, "/events")
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(endpoint);
+                    }
+                })
+                .build();
+    }
+
     /**
      * Unfortunately, this is not as simple as it seems... since you can have multiple addresses and some of those may not be available via wireless
      *
@@ -153,6 +173,12 @@ public class PendantUI implements UGSEventListener {
             if (server != null) {
                 server.stop();
             }
+
+            if (eventsSocket != null) {
+                backendAPI.removeUGSEventListener(eventsSocket);
+                eventsSocket.close();
+                eventsSocket = null;
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
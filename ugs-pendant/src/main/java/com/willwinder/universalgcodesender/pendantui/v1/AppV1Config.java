@@ -1,5 +1,5 @@
 /*
-    Copyright 2023 Will Winder
+    Copyright 2023-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -25,9 +25,11 @@ import com.willwinder.universalgcodesender.pendantui.v1.resources.CustomOpenApiR
 import com.willwinder.universalgcodesender.pendantui.v1.resources.FilesResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.MachineResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.MacrosResource;
+import com.willwinder.universalgcodesender.pendantui.v1.resources.MetricsResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.SettingsResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.StatusResource;
 import com.willwinder.universalgcodesender.pendantui.v1.resources.TextResource;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.EventsSocket;
 import com.willwinder.universalgcodesender.services.JogService;
 import org.glassfish.jersey.internal.inject.AbstractBinder;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
@@ -35,7 +37,7 @@ import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.server.wadl.WadlFeature;
 
 public class AppV1Config extends ResourceConfig {
-    public AppV1Config(BackendAPI backendAPI, JogService jogService) {
+    public AppV1Config(BackendAPI backendAPI, JogService jogService, EventsSocket eventsSocket) {
 
         register(StatusResource.class);
         register(MachineResource.class);
@@ -43,6 +45,7 @@ public class AppV1Config extends ResourceConfig {
         register(MacrosResource.class);
         register(SettingsResource.class);
         register(FilesResource.class);
+        register(MetricsResource.class);
         register(MultiPartFeature.class);
         register(WadlFeature.class);
         register(StaticResource.class);
@@ -54,6 +57,7 @@ public class AppV1Config extends ResourceConfig {
             protected void configure() {
                 bind(backendAPI).to(BackendAPI.class);
                 bind(jogService).to(JogService.class);
+                bind(eventsSocket).to(EventsSocket.class);
             }
         });
     }
@@ -0,0 +1,81 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.resources;
+
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.EventsSocket;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+@Tag(name = "Metrics", description = "Endpoints for getting the communicator and event session metrics")
+@Path("/metrics")
+public class MetricsResource {
+
+    @Inject
+    private BackendAPI backendAPI;
+
+    @Inject
+    private EventsSocket eventsSocket;
+
+    @GET
+    @Path("getMetrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public CommunicatorMetrics.Snapshot getMetrics() {
+        return getCommunicatorMetrics().getSnapshot();
+    }
+
+    @GET
+    @Path("getSamples")
+    @Produces("text/csv")
+    public String getSamples() throws IOException {
+        StringWriter writer = new StringWriter();
+        getCommunicatorMetrics().writeCsv(writer);
+        return writer.toString();
+    }
+
+    @GET
+    @Path("getEventSessions")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<EventListenerMetrics.Snapshot> getEventSessions() {
+        return eventsSocket.getSessionMetrics().stream()
+                .map(EventListenerMetrics::getSnapshot)
+                .toList();
+    }
+
+    private CommunicatorMetrics getCommunicatorMetrics() {
+        IController controller = backendAPI.getController();
+        ICommunicator communicator = controller != null ? controller.getCommunicator() : null;
+        if (communicator == null) {
+            return new CommunicatorMetrics();
+        }
+        return communicator.getMetrics();
+    }
+}
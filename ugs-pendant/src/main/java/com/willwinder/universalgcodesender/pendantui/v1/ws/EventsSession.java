@@ -0,0 +1,188 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The outbound queue of a web socket session, sending one message at a time without blocking the caller.
+ * <p>
+ * Messages are sent in order and the oldest message is dropped if the client can not keep up. Only the
+ * latest status message is kept and it is sent at most once per status interval, after the queued messages.
+ */
+class EventsSession {
+    private static final Logger LOGGER = Logger.getLogger(EventsSession.class.getSimpleName());
+
+    private final Session session;
+    private final int capacity;
+    private final ScheduledExecutorService scheduler;
+    private final Runnable onSendFailed;
+    private final EventListenerMetrics metrics;
+    private final Deque<Message> messages = new ArrayDeque<>();
+    private Message pendingStatus;
+    private Duration statusInterval = Duration.ZERO;
+    private long lastStatusTime;
+    private boolean isSending;
+    private boolean isStatusScheduled;
+    private boolean isClosed;
+
+    /**
+     * @param session      the web socket session to send the messages to
+     * @param capacity     the maximum number of queued messages
+     * @param scheduler    the executor for sending throttled status messages
+     * @param onSendFailed called when a message couldn't be sent, after the session has been closed
+     */
+    EventsSession(Session session, int capacity, ScheduledExecutorService scheduler, Runnable onSendFailed) {
+        this.session = session;
+        this.capacity = capacity;
+        this.scheduler = scheduler;
+        this.onSendFailed = onSendFailed;
+        this.metrics = new EventListenerMetrics("pendant-session-" + session.getId(), this::getQueueDepth);
+        this.lastStatusTime = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    }
+
+    /**
+     * Queues a message to be sent to the client
+     *
+     * @param text the message
+     */
+    void send(String text) {
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+
+            if (messages.size() >= capacity) {
+                messages.poll();
+                metrics.eventDropped();
+            }
+            messages.add(new Message(text, System.nanoTime()));
+        }
+        sendNext();
+    }
+
+    /**
+     * Queues a status message, replacing any status message that has not been sent yet
+     *
+     * @param text     the status message
+     * @param interval the minimum time between two status messages
+     */
+    void sendStatus(String text, Duration interval) {
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+
+            if (pendingStatus != null) {
+                metrics.eventConflated();
+            }
+            pendingStatus = new Message(text, System.nanoTime());
+            statusInterval = interval;
+        }
+        sendNext();
+    }
+
+    /**
+     * Stops sending messages and discards the queued ones
+     */
+    synchronized void close() {
+        isClosed = true;
+        messages.clear();
+        pendingStatus = null;
+    }
+
+    EventListenerMetrics getMetrics() {
+        return metrics;
+    }
+
+    private synchronized int getQueueDepth() {
+        return messages.size() + (pendingStatus != null ? 1 : 0);
+    }
+
+    private void sendNext() {
+        Message message = pollNextMessage();
+        if (message == null) {
+            return;
+        }
+
+        try {
+            session.getAsyncRemote().sendText(message.text(), result -> onSent(message, result));
+        } catch (RuntimeException e) {
+            onSent(message, new SendResult(e));
+        }
+    }
+
+    private synchronized Message pollNextMessage() {
+        if (isSending || isClosed) {
+            return null;
+        }
+
+        Message message = messages.poll();
+        if (message == null && pendingStatus != null) {
+            long now = System.nanoTime();
+            long remaining = statusInterval.toNanos() - (now - lastStatusTime);
+            if (remaining <= 0) {
+                message = pendingStatus;
+                pendingStatus = null;
+                lastStatusTime = now;
+            } else if (!isStatusScheduled) {
+                isStatusScheduled = true;
+                scheduler.schedule(this::sendScheduledStatus, remaining, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        isSending = message != null;
+        return message;
+    }
+
+    private void sendScheduledStatus() {
+        synchronized (this) {
+            isStatusScheduled = false;
+        }
+        sendNext();
+    }
+
+    private void onSent(Message message, SendResult result) {
+        synchronized (this) {
+            isSending = false;
+        }
+
+        if (result.isOK()) {
+            metrics.getLatency().record(System.nanoTime() - message.queuedTime());
+            sendNext();
+        } else {
+            LOGGER.log(Level.FINE, result.getException(), () -> "Could not send event to session " + session.getId());
+            close();
+            onSendFailed.run();
+        }
+    }
+
+    private record Message(String text, long queuedTime) {
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2023 Will Winder
+    Copyright 2023-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -21,13 +21,20 @@ package com.willwinder.universalgcodesender.pendantui.v1.ws;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.EventListenerMetrics;
+import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
-import com.willwinder.universalgcodesender.pendantui.BackendProvider;
 import com.willwinder.universalgcodesender.pendantui.v1.model.Event;
 import com.willwinder.universalgcodesender.utils.Settings;
 import jakarta.websocket.ClientEndpoint;
@@ -38,24 +45,73 @@ import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * A web socket endpoint broadcasting the events from the backend to all connected clients.
+ * <p>
+ * A single instance is shared by all sessions so that each event is only serialized once. The messages are
+ * sent asynchronously through a queue per session, so that a slow client does not stall the other clients
+ * or the event dispatcher. Status events are throttled per client to the pendant status update rate.
+ */
 @ClientEndpoint
 @ServerEndpoint(value = "/events")
 public class EventsSocket implements UGSEventListener {
 
     private static final Logger LOGGER = Logger.getLogger(EventsSocket.class.getSimpleName());
-    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
-    private final Gson gson;
 
-    public EventsSocket() {
-        gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
-        if (BackendProvider.getBackendAPI() != null) {
-            BackendProvider.getBackendAPI().addUGSEventListener(this);
+    /**
+     * The maximum number of messages queued for each session before the oldest ones are dropped
+     */
+    private static final int SESSION_QUEUE_CAPACITY = 100;
+
+    /**
+     * Writes NaN numbers as null as they are not valid JSON, and reads null back as NaN
+     */
+    private static final TypeAdapter<Double> DOUBLE_ADAPTER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Double value) throws IOException {
+            if (value == null || value.isNaN()) {
+                out.jsonValue("null");
+            } else {
+                out.value(value);
+            }
         }
+
+        @Override
+        public Double read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return Double.NaN;
+            }
+            return in.nextDouble();
+        }
+    };
+
+    private final Map<String, EventsSession> sessions = new ConcurrentHashMap<>();
+    private final BackendAPI backendAPI;
+    private final ScheduledExecutorService scheduler;
+    private final Gson gson;
+
+    public EventsSocket(BackendAPI backendAPI) {
+        this.backendAPI = backendAPI;
+        gson = new GsonBuilder()
+                .serializeSpecialFloatingPointValues()
+                .registerTypeAdapter(Double.class, DOUBLE_ADAPTER)
+                .registerTypeAdapter(double.class, DOUBLE_ADAPTER)
+                .create();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pendant-events-thread");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     private static ControllerStatus convertToPreferredUnits(ControllerStatus controllerStatusEvent, UnitUtils.Units units) {
@@ -67,46 +123,89 @@ public class EventsSocket implements UGSEventListener {
 
     @OnOpen
     public void onWebSocketConnect(Session session) {
-        sessions.put(session.getId(), session);
+        sessions.put(session.getId(), new EventsSession(session, SESSION_QUEUE_CAPACITY, scheduler, () -> closeSession(session)));
         LOGGER.info("WebSocket Connected: " + session.getId());
     }
 
     @OnClose
     public void onWebSocketClose(Session session) {
-        sessions.remove(session.getId());
+        closeSession(session);
         LOGGER.info("WebSocket Closed: " + session.getId());
     }
 
     @OnError
     public void onWebSocketError(Session session, Throwable cause) {
-        sessions.remove(session.getId());
+        closeSession(session);
         LOGGER.log(Level.WARNING, cause, () -> "WebSocket Closed: " + session.getId());
     }
 
+    private void closeSession(Session session) {
+        EventsSession eventsSession = sessions.remove(session.getId());
+        if (eventsSession != null) {
+            eventsSession.close();
+        }
+    }
+
+    /**
+     * Stops sending events to the connected sessions
+     */
+    public void close() {
+        sessions.values().forEach(EventsSession::close);
+        sessions.clear();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the metrics of the connected sessions, with the number of queued messages and the time
+     * it takes to send them.
+     *
+     * @return the metrics of each session
+     */
+    public List<EventListenerMetrics> getSessionMetrics() {
+        return sessions.values().stream()
+                .map(EventsSession::getMetrics)
+                .toList();
+    }
+
     @Override
     public void UGSEvent(UGSEvent evt) {
+        if (sessions.isEmpty() || isSummarizedCommandEvent(evt)) {
+            return;
+        }
+
         try {
             String data = getEventAsJsonString(evt);
-            sessions.values().forEach(session -> {
-                try {
-                    session.getBasicRemote().sendText(data);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
+            if (evt instanceof ControllerStatusEvent) {
+                Duration statusInterval = Duration.ofMillis(backendAPI.getSettings().getPendantStatusUpdateRate());
+                sessions.values().forEach(session -> session.sendStatus(data, statusInterval));
+            } else {
+                sessions.values().forEach(session -> session.send(data));
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            LOGGER.log(Level.WARNING, e, () -> "Could not send event " + evt.getClass().getSimpleName());
         }
     }
 
+    /**
+     * The progress of a program is sent as command range events instead of every command, only the
+     * commands that failed are sent so that their errors can be shown in the console.
+     */
+    private boolean isSummarizedCommandEvent(UGSEvent evt) {
+        if (!(evt instanceof CommandEvent commandEvent) || !backendAPI.isSendingFile()) {
+            return false;
+        }
+
+        return commandEvent.getCommandEventType() != CommandEventType.COMMAND_COMPLETE || !commandEvent.getCommand().isError();
+    }
+
     private String getEventAsJsonString(UGSEvent evt) {
         if (evt instanceof ControllerStatusEvent controllerStatusEvent) {
-            Settings settings = BackendProvider.getBackendAPI().getSettings();
+            Settings settings = backendAPI.getSettings();
             ControllerStatus currentStatus = convertToPreferredUnits(controllerStatusEvent.getStatus(), settings.getPreferredUnits());
             ControllerStatus previousStatus = convertToPreferredUnits(controllerStatusEvent.getPreviousStatus(), settings.getPreferredUnits());
-            return gson.toJson(new Event(new ControllerStatusEvent(currentStatus, previousStatus))).replace(":NaN", ":null");
+            return gson.toJson(new Event(new ControllerStatusEvent(currentStatus, previousStatus, controllerStatusEvent.getChanges())));
         }
 
         return gson.toJson(new Event(evt));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+export type CommandRangeEvent = {
+    firstCommandNumber: number,
+    lastCommandNumber: number,
+    sentCount: number,
+    completedCount: number,
+    skippedCount: number,
+    errorCount: number
+};
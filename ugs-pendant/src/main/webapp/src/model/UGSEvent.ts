@@ -2,6 +2,7 @@ import { ControllerStateEvent } from "./ControllerStateEvent";
 import { ControllerStatusEvent } from "./ControllerStatusEvent";
 import { FileStateEvent } from "./FileStateEvent";
 import {CommandEvent} from "./CommandEvent.ts";
+import {CommandRangeEvent} from "./CommandRangeEvent.ts";
 
 type UGSControllerStatusEvent = {
   eventType: "ControllerStatusEvent",
@@ -13,6 +14,11 @@ type UGSCommandEvent = {
   event: CommandEvent;
 };
 
+type UGSCommandRangeEvent = {
+  eventType: "CommandRangeEvent";
+  event: CommandRangeEvent;
+};
+
 type UGSControllerStateEvent = {
   eventType: "ControllerStateEvent";
   event: ControllerStateEvent;
@@ -25,4 +31,4 @@ type UGSFileStateEvent = {
 
 export type UGSEvent = {
   eventType:  "SettingChangedEvent";
-} | UGSCommandEvent | UGSControllerStatusEvent | UGSControllerStateEvent | UGSFileStateEvent;
+} | UGSCommandEvent | UGSCommandRangeEvent | UGSControllerStatusEvent | UGSControllerStateEvent | UGSFileStateEvent;
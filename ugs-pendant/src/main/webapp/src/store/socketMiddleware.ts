@@ -76,6 +76,8 @@ export const socketMiddleware: ThunkMiddleware<RootState, Action, void> =
                 store.dispatch(fetchFileStatus());
             } else if (ugsEvent.eventType === "SettingChangedEvent") {
                 fetchSettingsDebounce(store);
+            } else if (ugsEvent.eventType === "CommandRangeEvent") {
+                store.dispatch(fetchFileStatus());
             } else if (ugsEvent.eventType === "CommandEvent") {
                 store.dispatch(fetchFileStatus());
                 const commandEvent: CommandEvent = ugsEvent.event;
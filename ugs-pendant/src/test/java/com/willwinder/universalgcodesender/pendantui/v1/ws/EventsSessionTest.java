@@ -0,0 +1,198 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventsSessionTest {
+    private final List<String> sentTexts = new ArrayList<>();
+    private final List<SendHandler> sendHandlers = new ArrayList<>();
+    private Session session;
+    private ScheduledExecutorService scheduler;
+    private Runnable onSendFailed;
+
+    @Before
+    public void setUp() {
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        doAnswer(invocation -> {
+            synchronized (sentTexts) {
+                sentTexts.add(invocation.getArgument(0));
+                sendHandlers.add(invocation.getArgument(1));
+            }
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        session = mock(Session.class);
+        when(session.getId()).thenReturn("1");
+        when(session.getAsyncRemote()).thenReturn(remote);
+        scheduler = mock(ScheduledExecutorService.class);
+        onSendFailed = mock(Runnable.class);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void sendShouldSendOneMessageAtATime() {
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+
+        eventsSession.send("first");
+        eventsSession.send("second");
+        assertThat(sentTexts).containsExactly("first");
+        assertThat(eventsSession.getMetrics().getQueueDepth()).isEqualTo(1);
+
+        completeLastSend();
+        assertThat(sentTexts).containsExactly("first", "second");
+
+        completeLastSend();
+        assertThat(eventsSession.getMetrics().getQueueDepth()).isZero();
+        assertThat(eventsSession.getMetrics().getLatency().getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void sendShouldDropTheOldestMessageWhenTheQueueIsFull() {
+        EventsSession eventsSession = new EventsSession(session, 2, scheduler, onSendFailed);
+
+        eventsSession.send("first");
+        eventsSession.send("second");
+        eventsSession.send("third");
+        eventsSession.send("fourth");
+        assertThat(eventsSession.getMetrics().getDroppedEvents()).isEqualTo(1);
+        assertThat(eventsSession.getMetrics().getQueueDepth()).isEqualTo(2);
+
+        completeLastSend();
+        completeLastSend();
+        completeLastSend();
+        assertThat(sentTexts).containsExactly("first", "third", "fourth");
+    }
+
+    @Test
+    public void sendStatusShouldOnlySendTheLatestStatus() {
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+
+        eventsSession.send("message");
+        eventsSession.sendStatus("status1", Duration.ZERO);
+        eventsSession.sendStatus("status2", Duration.ZERO);
+        assertThat(eventsSession.getMetrics().getConflatedEvents()).isEqualTo(1);
+
+        completeLastSend();
+        completeLastSend();
+        assertThat(sentTexts).containsExactly("message", "status2");
+    }
+
+    @Test
+    public void sendStatusShouldBeSentAfterTheQueuedMessages() {
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+
+        eventsSession.send("first");
+        eventsSession.sendStatus("status", Duration.ZERO);
+        eventsSession.send("second");
+
+        completeLastSend();
+        completeLastSend();
+        assertThat(sentTexts).containsExactly("first", "second", "status");
+    }
+
+    @Test
+    public void sendStatusShouldBeThrottledToTheInterval() {
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+        Duration interval = Duration.ofSeconds(10);
+
+        eventsSession.sendStatus("status1", interval);
+        completeLastSend();
+        eventsSession.sendStatus("status2", interval);
+        eventsSession.sendStatus("status3", interval);
+
+        // The next status is scheduled once for when the interval has passed
+        assertThat(sentTexts).containsExactly("status1");
+        verify(scheduler).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.NANOSECONDS));
+        assertThat(eventsSession.getMetrics().getConflatedEvents()).isEqualTo(1);
+        assertThat(eventsSession.getMetrics().getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    public void sendStatusShouldSendTheThrottledStatusWhenTheIntervalHasPassed() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+        RemoteEndpoint.Async remote = session.getAsyncRemote();
+        Duration interval = Duration.ofMillis(200);
+
+        eventsSession.sendStatus("status1", interval);
+        completeLastSend();
+        eventsSession.sendStatus("status2", interval);
+        verify(remote, never()).sendText(eq("status2"), any(SendHandler.class));
+
+        verify(remote, timeout(2000)).sendText(eq("status2"), any(SendHandler.class));
+    }
+
+    @Test
+    public void sendShouldCloseTheSessionIfAMessageCouldNotBeSent() {
+        EventsSession eventsSession = new EventsSession(session, 10, scheduler, onSendFailed);
+
+        eventsSession.send("first");
+        eventsSession.send("second");
+        completeLastSend(new SendResult(new IOException("Connection lost")));
+        verify(onSendFailed).run();
+
+        eventsSession.send("third");
+        eventsSession.sendStatus("status", Duration.ZERO);
+        assertThat(sentTexts).containsExactly("first");
+        assertThat(eventsSession.getMetrics().getQueueDepth()).isZero();
+    }
+
+    private void completeLastSend() {
+        completeLastSend(new SendResult());
+    }
+
+    private void completeLastSend(SendResult result) {
+        SendHandler handler;
+        synchronized (sentTexts) {
+            handler = sendHandlers.get(sendHandlers.size() - 1);
+        }
+        handler.onResult(result);
+    }
+}
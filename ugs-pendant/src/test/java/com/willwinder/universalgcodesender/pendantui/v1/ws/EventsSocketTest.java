@@ -0,0 +1,116 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EventsSocketTest {
+    private final List<String> sentTexts = new ArrayList<>();
+    private SendResult sendResult;
+    private BackendAPI backendAPI;
+    private Session session;
+    private EventsSocket eventsSocket;
+
+    @Before
+    public void setUp() {
+        sendResult = new SendResult();
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        doAnswer(invocation -> {
+            sentTexts.add(invocation.getArgument(0));
+            invocation.<SendHandler>getArgument(1).onResult(sendResult);
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        session = mock(Session.class);
+        when(session.getId()).thenReturn("1");
+        when(session.getAsyncRemote()).thenReturn(remote);
+
+        backendAPI = mock(BackendAPI.class);
+        eventsSocket = new EventsSocket(backendAPI);
+        eventsSocket.onWebSocketConnect(session);
+    }
+
+    @After
+    public void tearDown() {
+        eventsSocket.close();
+    }
+
+    @Test
+    public void eventsShouldBeSentToTheConnectedSessions() {
+        eventsSocket.UGSEvent(new SettingChangedEvent());
+
+        assertThat(sentTexts).hasSize(1);
+        assertThat(sentTexts.get(0)).contains("\"eventType\":\"SettingChangedEvent\"");
+    }
+
+    @Test
+    public void sessionShouldBeRemovedIfAnEventCouldNotBeSent() {
+        sendResult = new SendResult(new IOException("Connection lost"));
+        eventsSocket.UGSEvent(new SettingChangedEvent());
+        assertThat(eventsSocket.getSessionMetrics()).isEmpty();
+
+        eventsSocket.UGSEvent(new SettingChangedEvent());
+        assertThat(sentTexts).hasSize(1);
+    }
+
+    @Test
+    public void onlyFailedCommandsShouldBeSentWhileSendingAFile() {
+        when(backendAPI.isSendingFile()).thenReturn(true);
+        GcodeCommand command = new GcodeCommand("G0 X1");
+        eventsSocket.UGSEvent(new CommandEvent(CommandEventType.COMMAND_SENT, command));
+        eventsSocket.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+        assertThat(sentTexts).isEmpty();
+
+        command.setError(true);
+        eventsSocket.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+        assertThat(sentTexts).hasSize(1);
+        assertThat(sentTexts.get(0)).contains("\"eventType\":\"CommandEvent\"");
+    }
+
+    @Test
+    public void commandsShouldBeSentWhenNotSendingAFile() {
+        GcodeCommand command = new GcodeCommand("G0 X1");
+        eventsSocket.UGSEvent(new CommandEvent(CommandEventType.COMMAND_SENT, command));
+        eventsSocket.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, command));
+
+        assertThat(sentTexts).hasSize(2);
+    }
+}
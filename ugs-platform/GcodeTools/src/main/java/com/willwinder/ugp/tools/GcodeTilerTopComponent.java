@@ -35,6 +35,7 @@ import com.willwinder.universalgcodesender.services.LookupService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.SwingHelpers;
@@ -258,7 +259,7 @@ public final class GcodeTilerTopComponent extends TopComponent {
     try {
       File file = new File(gcodeFile);
       try {
-          try (IGcodeStreamReader gsr = new GcodeStreamReader(file, backend.getCommandCreator())) {
+          try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(file, backend.getCommandCreator())) {
             while (gsr.getNumRowsRemaining() > 0) {
               GcodeCommand next = gsr.getNextCommand();
               applyTranslation(next.getCommandString(), parser, output);
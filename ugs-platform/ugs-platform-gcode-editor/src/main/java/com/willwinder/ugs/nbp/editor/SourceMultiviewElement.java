@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2023 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -25,13 +25,16 @@ import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ToolpathLineSelectedEvent;
 import com.willwinder.universalgcodesender.services.LookupService;
 import org.netbeans.core.spi.multiview.MultiViewElement;
 import org.netbeans.core.spi.multiview.text.MultiViewEditorElement;
 import org.netbeans.editor.EditorUI;
 import org.netbeans.editor.Utilities;
+import org.openide.cookies.EditorCookie;
+import org.openide.text.Line;
 import org.openide.util.Lookup;
 import org.openide.windows.TopComponent;
 
@@ -120,15 +123,41 @@ public class SourceMultiviewElement extends MultiViewEditorElement implements UG
 
     @Override
     public void UGSEvent(UGSEvent ugsEvent) {
+        // The current line is updated from the command range events instead
+        if (ugsEvent instanceof CommandEvent) {
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
             if (ugsEvent instanceof ControllerStateEvent) {
                 setEditable();
-            } else if (ugsEvent instanceof CommandEvent && ((CommandEvent) ugsEvent).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
-                followLineUpdater.updateCurrentLine(obj, ((CommandEvent) ugsEvent).getCommand().getCommandNumber());             
+            } else if (ugsEvent instanceof CommandRangeEvent commandRangeEvent && commandRangeEvent.hasCommandNumbers()) {
+                followLineUpdater.updateCurrentLine(obj, commandRangeEvent.getLastCommandNumber());
+            } else if (ugsEvent instanceof ToolpathLineSelectedEvent lineSelectedEvent) {
+                showLine(lineSelectedEvent.getLineNumber());
             }
         });
     }
 
+    /**
+     * Moves the cursor to a line selected in the visualizer
+     *
+     * @param lineNumber the line number starting with 1
+     */
+    private void showLine(int lineNumber) {
+        EditorCookie editorCookie = obj.getCookie(EditorCookie.class);
+        if (editorCookie == null || lineNumber <= 0) {
+            return;
+        }
+
+        Line.Set lineSet = editorCookie.getLineSet();
+        try {
+            lineSet.getCurrent(lineNumber - 1).show(Line.ShowOpenType.NONE, Line.ShowVisibilityType.FOCUS);
+        } catch (IndexOutOfBoundsException e) {
+            LOGGER.fine("The selected line " + lineNumber + " is not in the editor");
+        }
+    }
+
     private void setEditable() {
         // Disable the editor if not idle or disconnected
         ControllerState state = backend.getControllerState();
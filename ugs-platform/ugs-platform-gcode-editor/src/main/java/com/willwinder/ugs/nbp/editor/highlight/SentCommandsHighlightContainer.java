@@ -1,5 +1,5 @@
 /*
-    Copyright 2022 Will Winder
+    Copyright 2022-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -23,8 +23,7 @@ import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.services.LookupService;
 import org.netbeans.api.editor.mimelookup.MimeLookup;
@@ -59,7 +58,9 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
         FontColorSettings fontColorSettings = MimeLookup.getLookup(GcodeLanguageConfig.MIME_TYPE).lookup(FontColorSettings.class);
         highlightAttributes = fontColorSettings.getTokenFontColors(FONT_STYLE);
         backend = LookupService.lookup(BackendAPI.class);
-        backend.addUGSEventListener(this);
+
+        // Highlighting is too slow to do on the thread reading the controller responses
+        backend.addAsyncUGSEventListener(this);
 
         bag = new OffsetsBag(doc);
         weakDocument = new WeakReference<>(doc);
@@ -110,8 +111,8 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
 
     @Override
     public void UGSEvent(UGSEvent event) {
-        if (event instanceof CommandEvent && backend.isSendingFile()) {
-            handleCommandEvent((CommandEvent) event);
+        if (event instanceof CommandRangeEvent commandRangeEvent && backend.isSendingFile()) {
+            handleCommandRangeEvent(commandRangeEvent);
         } else if (event instanceof ControllerStateEvent) {
             handleControllerStateEvent((ControllerStateEvent) event);
         }
@@ -123,11 +124,10 @@ public class SentCommandsHighlightContainer extends AbstractHighlightsContainer
         }
     }
 
-    private void handleCommandEvent(CommandEvent event) {
+    private void handleCommandRangeEvent(CommandRangeEvent event) {
         try {
-            int lineNumber = event.getCommand().getCommandNumber();
-            if (event.getCommandEventType() == CommandEventType.COMMAND_COMPLETE && lineNumber >= 0) {
-                updateHighlight(lineNumber);
+            if (event.hasCommandNumbers()) {
+                updateHighlight(event.getLastCommandNumber());
             }
         } catch (Exception e) {
             LOGGER.log(Level.FINE,"Could not update the highlighted lines, removing the listener to prevent further problems.");
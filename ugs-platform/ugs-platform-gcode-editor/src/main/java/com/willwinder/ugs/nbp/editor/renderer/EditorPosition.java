@@ -27,6 +27,8 @@ import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUAL
 import com.willwinder.ugs.nbm.visualizer.renderables.GcodeModel;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLineIndex;
 
 import java.awt.Color;
 
@@ -87,9 +89,12 @@ public class EditorPosition extends Renderable {
             return;
         }
 
-        model.getLineList().stream()
-                .filter(lineSegment -> lineSegment.getLineNumber() == lineNumber + 1)
-                .findFirst()
-                .ifPresent(lineSegment -> position = lineSegment.getEnd());
+        // Segment line numbers start on one while the editor lines start on zero
+        ToolpathLineIndex lineIndex = model.getLineIndex();
+        int segmentIndex = lineIndex.findSegment(lineNumber + 1);
+        if (segmentIndex >= 0) {
+            ToolpathGeometry geometry = lineIndex.getGeometry();
+            position = new Position(geometry.getEndX(segmentIndex), geometry.getEndY(segmentIndex), geometry.getEndZ(segmentIndex));
+        }
     }
 }
@@ -18,25 +18,25 @@
  */
 package com.willwinder.ugs.nbp.editor.renderer;
 
+import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GLAutoDrawable;
+import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_HIGHLIGHT;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_HIGHLIGHT_COLOR;
 import com.willwinder.ugs.nbm.visualizer.renderables.GcodeModel;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
-import static com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils.getAngle;
-import com.willwinder.universalgcodesender.gcode.util.Plane;
-import com.willwinder.universalgcodesender.gcode.util.PlaneFormatter;
-import com.willwinder.universalgcodesender.model.CNCPoint;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLineIndex;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Stream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 
 /**
  * Highlights the selected lines in the editor. It will attempt to buffer the lines with quads to make them more visible
@@ -47,15 +47,26 @@ import java.util.stream.Stream;
 public class Highlight extends Renderable {
 
     public static final double LINE_WIDTH = 0.004d;
+    private static final float Z_OFFSET = 0.01f;
+    private static final int VALUES_PER_SEGMENT = 8;
 
     private final GcodeModel model;
-    private final List<CNCPoint> points = Collections.synchronizedList(new ArrayList<>());
 
     // Preferences
     private Color highlightColor = Color.YELLOW;
+    private volatile int startLine = 0;
+    private volatile int endLine = 0;
+
+    // The state the segments and vertices were generated for, only used by the GL thread
+    private ToolpathLineIndex lineIndex;
+    private int generatedStartLine = -1;
+    private int generatedEndLine = -1;
     private double scaleFactor = 0.1;
-    private int startLine = 0;
-    private int endLine = 0;
+
+    // The start, end and unit offset perpendicular to the line in XY of each highlighted segment
+    private float[] segmentData = new float[0];
+    private int segmentCount = 0;
+    private FloatBuffer vertexBuffer = null;
 
     public Highlight(GcodeModel model, String title) {
         super(9, title, VISUALIZER_OPTION_HIGHLIGHT);
@@ -91,54 +102,114 @@ public class Highlight extends Renderable {
 
     @Override
     public void draw(GLAutoDrawable drawable, boolean idle, Position machineCoord, Position workCoord, Position focusMin, Position focusMax, double scaleFactor, Position mouseCoordinates, Position rotation) {
-        if (points.isEmpty() && startLine > 0 && endLine > 0) {
+        // The selection or model was changed since last render, find the highlighted segments
+        ToolpathLineIndex currentLineIndex = model.getLineIndex();
+        int currentStartLine = startLine;
+        int currentEndLine = endLine;
+        boolean isSegmentsChanged = currentLineIndex != lineIndex || currentStartLine != generatedStartLine || currentEndLine != generatedEndLine;
+        if (isSegmentsChanged) {
+            lineIndex = currentLineIndex;
+            generatedStartLine = currentStartLine;
+            generatedEndLine = currentEndLine;
+            generateSegments();
+        }
+
+        if (segmentCount == 0) {
             return;
         }
 
-        // Scale was changed since last render, regenerate points
-        if (this.scaleFactor != scaleFactor) {
+        // Scale was changed since last render, regenerate vertices
+        if (isSegmentsChanged || this.scaleFactor != scaleFactor) {
             this.scaleFactor = scaleFactor;
-            generateBufferedLines();
+            generateVertices();
         }
 
         float[] c = VisualizerOptions.colorToFloatArray(highlightColor);
         GL2 gl = drawable.getGL().getGL2();
-        gl.glBegin(GL2ES3.GL_QUADS);
-            gl.glColor4fv(c, 0);
-            points.forEach(point -> gl.glVertex3d(point.x, point.y, point.z));
-        gl.glEnd();
+        gl.glColor4fv(c, 0);
+        gl.glEnableClientState(GL_VERTEX_ARRAY);
+        gl.glVertexPointer(3, GL.GL_FLOAT, 0, vertexBuffer);
+        gl.glDrawArrays(GL2ES3.GL_QUADS, 0, segmentCount * 4);
+        gl.glDisableClientState(GL_VERTEX_ARRAY);
     }
 
 
     public void setHighlightedLines(int startLine, int endLine) {
-        if( this.startLine == startLine && this.endLine == endLine) {
-            return;
-        }
-
         this.startLine = startLine;
         this.endLine = endLine;
-        generateBufferedLines();
     }
 
-    private void generateBufferedLines() {
-        points.clear();
-        double offset = LINE_WIDTH / scaleFactor / 2d;
-        double halfPI = Math.PI / 2d;
-        List<CNCPoint> newPoints = model.getLineList().stream()
-                .filter(ls -> ls.getLineNumber() > startLine && ls.getLineNumber() - 1 <= endLine)
-                .flatMap(lineSegment -> {
-                    double angle = getAngle(lineSegment.getStart(), lineSegment.getEnd(), new PlaneFormatter(Plane.XY));
-                    Position xyOffset = new Position(offset * Math.cos(angle - halfPI), offset * Math.sin(angle - halfPI), 0.0);
-                    Position zOffset = new Position(0, 0, 0.01);
-
-                    CNCPoint aPoint = new Position(lineSegment.getStart()).sub(xyOffset).add(zOffset);
-                    CNCPoint bPoint = new Position(lineSegment.getEnd()).sub(xyOffset).add(zOffset);
-                    CNCPoint cPoint = new Position(lineSegment.getEnd()).add(xyOffset).add(zOffset);
-                    CNCPoint dPoint = new Position(lineSegment.getStart()).add(xyOffset).add(zOffset);
-                    return Stream.of(aPoint, bPoint, cPoint, dPoint);
-                })
-                .toList();
-
-        points.addAll(newPoints);
+    /**
+     * Finds the segments of the highlighted lines using the line index of the model
+     */
+    private void generateSegments() {
+        // Segment line numbers start on one while the editor lines start on zero
+        int from = lineIndex.findFirst(generatedStartLine + 1);
+        int to = lineIndex.findFirst(generatedEndLine + 2);
+        segmentCount = Math.max(to - from, 0);
+        if (segmentData.length < segmentCount * VALUES_PER_SEGMENT) {
+            segmentData = new float[segmentCount * VALUES_PER_SEGMENT];
+        }
+
+        ToolpathGeometry geometry = lineIndex.getGeometry();
+        int dataIndex = 0;
+        for (int position = from; position < to; position++) {
+            int i = lineIndex.getSegmentIndex(position);
+            float startX = geometry.getStartX(i);
+            float startY = geometry.getStartY(i);
+            float endX = geometry.getEndX(i);
+            float endY = geometry.getEndY(i);
+
+            // The offset direction is perpendicular to the line in the XY plane
+            double angle = getAngle(endX - startX, endY - startY);
+            segmentData[dataIndex++] = startX;
+            segmentData[dataIndex++] = startY;
+            segmentData[dataIndex++] = geometry.getStartZ(i) + Z_OFFSET;
+            segmentData[dataIndex++] = endX;
+            segmentData[dataIndex++] = endY;
+            segmentData[dataIndex++] = geometry.getEndZ(i) + Z_OFFSET;
+            segmentData[dataIndex++] = (float) Math.sin(angle);
+            segmentData[dataIndex++] = (float) -Math.cos(angle);
+        }
+    }
+
+    /**
+     * Buffers the highlighted segments with quads with a width depending on the scale
+     */
+    private void generateVertices() {
+        int length = segmentCount * 12;
+        if (vertexBuffer == null || vertexBuffer.capacity() < length) {
+            vertexBuffer = ByteBuffer.allocateDirect(length * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+
+        float offset = (float) (LINE_WIDTH / scaleFactor / 2d);
+        ((Buffer) vertexBuffer).clear();
+        for (int dataIndex = 0; dataIndex < segmentCount * VALUES_PER_SEGMENT; dataIndex += VALUES_PER_SEGMENT) {
+            float startX = segmentData[dataIndex];
+            float startY = segmentData[dataIndex + 1];
+            float startZ = segmentData[dataIndex + 2];
+            float endX = segmentData[dataIndex + 3];
+            float endY = segmentData[dataIndex + 4];
+            float endZ = segmentData[dataIndex + 5];
+            float offsetX = segmentData[dataIndex + 6] * offset;
+            float offsetY = segmentData[dataIndex + 7] * offset;
+
+            vertexBuffer.put(startX - offsetX).put(startY - offsetY).put(startZ);
+            vertexBuffer.put(endX - offsetX).put(endY - offsetY).put(endZ);
+            vertexBuffer.put(endX + offsetX).put(endY + offsetY).put(endZ);
+            vertexBuffer.put(startX + offsetX).put(startY + offsetY).put(startZ);
+        }
+        ((Buffer) vertexBuffer).flip();
+    }
+
+    /**
+     * Same as {@link com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils#getAngle} in the XY plane
+     */
+    private static double getAngle(double deltaX, double deltaY) {
+        double angle = Math.atan2(deltaY, deltaX);
+        if (deltaX == 0 && deltaY <= 0) {
+            return Math.PI * 3.0 / 2.0;
+        }
+        return angle < 0 ? angle + Math.PI * 2 : angle;
     }
 }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -35,6 +35,7 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusField;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.uielements.components.PopupEditor;
 import com.willwinder.universalgcodesender.uielements.components.RoundedPanel;
@@ -51,6 +52,7 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GraphicsEnvironment;
 import java.text.DecimalFormat;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumMap;
@@ -66,6 +68,7 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
     private static final Logger LOGGER = Logger.getLogger(MachineStatusPanel.class.getName());
     private static final int COMMON_RADIUS = 7;
     public static final String PANEL_CONSTRAINTS = "growx";
+    private static final Duration STATUS_INTERVAL = Duration.ofMillis(50);
 
     private final RoundedPanel activeStatePanel = new RoundedPanel(COMMON_RADIUS);
     private final JLabel activeStateValueLabel = new JLabel(" ");
@@ -92,6 +95,9 @@ public class MachineStatusPanel extends JPanel implements UGSEventListener, Axis
         this.backend = backend;
         if (this.backend != null) {
             this.backend.addUGSEventListener(this);
+            this.backend.addControllerStatusListener(this, STATUS_INTERVAL, ControllerStatusField.STATE,
+                    ControllerStatusField.MACHINE_POSITION, ControllerStatusField.WORK_POSITION,
+                    ControllerStatusField.FEED_SPEED, ControllerStatusField.SPINDLE_SPEED, ControllerStatusField.PINS);
         }
 
         initFonts();
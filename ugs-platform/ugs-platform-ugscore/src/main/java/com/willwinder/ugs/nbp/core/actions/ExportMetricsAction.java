@@ -0,0 +1,111 @@
+/*
+    Copyright 2026 Will Winder
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.core.actions;
+
+import com.willwinder.ugs.nbp.lib.services.LocalizingService;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.services.LookupService;
+import com.willwinder.universalgcodesender.utils.GUIHelpers;
+import org.apache.commons.lang3.StringUtils;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.windows.WindowManager;
+
+import javax.swing.AbstractAction;
+import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exports the metrics of the communicator, like the command latencies and bytes in flight, to a
+ * JSON or CSV file for analysing how well the controller was kept fed during a job.
+ */
+@ActionID(
+        category = LocalizingService.CATEGORY_TOOLS,
+        id = "com.willwinder.ugs.nbp.core.actions.ExportMetricsAction")
+@ActionRegistration(
+        displayName = "resources/MessagesBundle#platform.action.exportMetrics",
+        lazy = false)
+@ActionReferences({
+        @ActionReference(
+                path = LocalizingService.MENU_TOOLS,
+                position = 2110)
+})
+public class ExportMetricsAction extends AbstractAction {
+    private static final Logger LOGGER = Logger.getLogger(ExportMetricsAction.class.getName());
+    private static final FileNameExtensionFilter JSON_FILTER = new FileNameExtensionFilter("JSON (*.json)", "json");
+    private static final FileNameExtensionFilter CSV_FILTER = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+
+    private final BackendAPI backend;
+
+    public ExportMetricsAction() {
+        this.backend = LookupService.lookup(BackendAPI.class);
+        putValue(NAME, Localization.getString("platform.action.exportMetrics"));
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent actionEvent) {
+        IController controller = backend.getController();
+        if (controller == null || controller.getCommunicator() == null) {
+            GUIHelpers.displayErrorDialog(Localization.getString("controller.log.notconnected"));
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(JSON_FILTER);
+        chooser.addChoosableFileFilter(CSV_FILTER);
+        chooser.setFileFilter(JSON_FILTER);
+        chooser.setSelectedFile(new File("metrics.json"));
+        if (chooser.showSaveDialog(WindowManager.getDefault().getMainWindow()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        boolean isCsv = chooser.getFileFilter() == CSV_FILTER;
+        File file = chooser.getSelectedFile();
+        String extension = isCsv ? ".csv" : ".json";
+        if (!StringUtils.endsWithIgnoreCase(file.getName(), extension)) {
+            file = new File(file.getParentFile(), file.getName() + extension);
+        }
+
+        CommunicatorMetrics metrics = controller.getCommunicator().getMetrics();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            if (isCsv) {
+                metrics.writeCsv(writer);
+            } else {
+                metrics.writeJson(writer);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not export the metrics to " + file, e);
+            GUIHelpers.displayErrorDialog(e.getLocalizedMessage());
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
-    Copyright 2020-2023 Will Winder
+    Copyright 2020-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -36,13 +36,13 @@ import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.uielements.helpers.LoaderDialogHelper;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.MathUtils;
 import com.willwinder.universalgcodesender.utils.SimpleGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
-import com.willwinder.universalgcodesender.visualizer.LineSegmentToPartialPositionMapper;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 import org.openide.awt.ActionID;
 import org.openide.awt.ActionReference;
@@ -55,7 +55,9 @@ import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -132,14 +134,18 @@ public final class OutlineAction extends ProgramAction implements UGSEventListen
     }
 
     public List<GcodeCommand> generateOutlineCommands(File gcodeFile) throws IOException, GcodeParserException {
-        List<LineSegment> gcodeLineList = parseGcodeLinesFromFile(gcodeFile);
+        ToolpathGeometry geometry = parseGcodeLinesFromFile(gcodeFile);
 
         // We only care about carving motion, filter those commands out
-        List<PartialPosition> pointList = gcodeLineList.parallelStream()
-                .filter(lineSegment -> !lineSegment.isFastTraverse())
-                .flatMap(new LineSegmentToPartialPositionMapper())
+        Set<PartialPosition> points = new LinkedHashSet<>();
+        for (int i = 0; i < geometry.size(); i++) {
+            if (!geometry.isFastTraverse(i)) {
+                points.add(new PartialPosition((double) geometry.getStartX(i), (double) geometry.getStartY(i), UnitUtils.Units.MM));
+                points.add(new PartialPosition((double) geometry.getEndX(i), (double) geometry.getEndY(i), UnitUtils.Units.MM));
+            }
+        }
+        List<PartialPosition> pointList = points.stream()
                 .filter(partialPosition -> partialPosition.hasX() && partialPosition.hasY())
-                .distinct()
                 .toList();
 
         return generateConvexHullCommands(pointList);
@@ -158,15 +164,15 @@ public final class OutlineAction extends ProgramAction implements UGSEventListen
         return backend.getSettings().getJogFeedRate() * UnitUtils.scaleUnits(preferredUnits, UnitUtils.Units.MM);
     }
 
-    private List<LineSegment> parseGcodeLinesFromFile(File gcodeFile) throws IOException, GcodeParserException {
-        List<LineSegment> result;
+    private ToolpathGeometry parseGcodeLinesFromFile(File gcodeFile) throws IOException, GcodeParserException {
+        ToolpathGeometry result;
 
         GcodeViewParse gcvp = new GcodeViewParse();
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(gcodeFile, backend.getCommandCreator())) {
-            result = gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH, 0);
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.createReader(gcodeFile, backend.getCommandCreator())) {
+            result = gcvp.toGeometryFromReader(gsr, ARC_SEGMENT_LENGTH, 0);
         } catch (GcodeStreamReader.NotGcodeStreamFile e) {
             List<String> linesInFile = VisualizerUtils.readFiletoArrayList(gcodeFile.getAbsolutePath());
-            result = gcvp.toObjRedux(linesInFile, ARC_SEGMENT_LENGTH, 0);
+            result = gcvp.toGeometry(linesInFile, ARC_SEGMENT_LENGTH, 0);
         }
 
         return result;
@@ -1,5 +1,5 @@
 /*
-    Copyright 2017 Will Winder
+    Copyright 2017-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -24,6 +24,8 @@ import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.communicator.ICommunicator;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.metrics.CommunicatorMetrics;
+import com.willwinder.universalgcodesender.metrics.LatencyHistogram;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.services.LookupService;
@@ -41,6 +43,8 @@ import javax.swing.SwingConstants;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -104,6 +108,15 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
         this.labels.put("communicator:isPaused", new JLabel(EMPTY_VALUE));
         this.labels.put("communicator:getSingleStepMode", new JLabel(EMPTY_VALUE));
 
+        this.labels.put("metrics:commandLatency", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:responseToSendLatency", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:statusPollLatency", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:plannerStarvation", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:writes", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:commandsSent", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:bytesInFlight", new JLabel(EMPTY_VALUE));
+        this.labels.put("metrics:eventQueueDepth", new JLabel(EMPTY_VALUE));
+
         this.labels.put("settings:isHomingEnabled", new JLabel(EMPTY_VALUE));
         this.labels.put("settings:getReportingUnits", new JLabel(EMPTY_VALUE));
         setLayout(new BorderLayout());
@@ -173,6 +186,7 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
                     labels.get("communicator:numActiveCommands").setText(String.valueOf(communicator.numActiveCommands()));
                     labels.get("communicator:isPaused").setText(String.valueOf(communicator.isPaused()));
                     labels.get("communicator:getSingleStepMode").setText(String.valueOf(communicator.getSingleStepMode()));
+                    refreshMetrics(communicator.getMetrics().getSnapshot());
                 }
             }
         } catch (Exception e) {
@@ -180,6 +194,34 @@ public final class DiagnosticsTopComponent extends TopComponent implements UGSEv
         }
     }
 
+    private void refreshMetrics(CommunicatorMetrics.Snapshot snapshot) {
+        labels.get("metrics:commandLatency").setText(toString(snapshot.commandLatency()));
+        labels.get("metrics:responseToSendLatency").setText(toString(snapshot.responseToSendLatency()));
+        labels.get("metrics:statusPollLatency").setText(toString(snapshot.statusPollLatency()));
+        labels.get("metrics:plannerStarvation").setText(toString(snapshot.plannerStarvation()));
+        labels.get("metrics:writes").setText(String.valueOf(snapshot.writes()));
+        labels.get("metrics:commandsSent").setText(String.valueOf(snapshot.commandsSent()));
+
+        List<CommunicatorMetrics.Sample> samples = snapshot.samples();
+        if (samples.isEmpty()) {
+            labels.get("metrics:bytesInFlight").setText(EMPTY_VALUE);
+            labels.get("metrics:eventQueueDepth").setText(EMPTY_VALUE);
+        } else {
+            CommunicatorMetrics.Sample sample = samples.get(samples.size() - 1);
+            labels.get("metrics:bytesInFlight").setText(String.valueOf(sample.bytesInFlight()));
+            labels.get("metrics:eventQueueDepth").setText(String.valueOf(sample.eventQueueDepth()));
+        }
+    }
+
+    private static String toString(LatencyHistogram.Summary summary) {
+        if (summary.count() == 0) {
+            return EMPTY_VALUE;
+        }
+
+        return String.format(Locale.ENGLISH, "<html>count: %d<br/>mean: %.2f ms<br/>p50: %.2f ms<br/>p90: %.2f ms<br/>p99: %.2f ms<br/>max: %.2f ms</html>",
+                summary.count(), summary.mean(), summary.p50(), summary.p90(), summary.p99(), summary.max());
+    }
+
     @Override
     public void UGSEvent(UGSEvent evt) {
         refreshValues();
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -20,6 +20,8 @@ package com.willwinder.ugs.nbm.visualizer;
 
 import com.jogamp.opengl.util.AnimatorBase;
 import com.jogamp.opengl.util.FPSAnimator;
+import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
+import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_RENDER_ON_DEMAND;
 import com.willwinder.ugs.nbm.visualizer.renderables.GcodeModel;
 import com.willwinder.ugs.nbm.visualizer.renderables.Selection;
 import com.willwinder.ugs.nbm.visualizer.renderables.SizeDisplay;
@@ -30,14 +32,17 @@ import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.UnitUtils.Units;
-import com.willwinder.universalgcodesender.model.events.CommandEvent;
-import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.CommandRangeEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.ToolpathLineSelectedEvent;
+import com.willwinder.universalgcodesender.model.events.ToolpathLoadEvent;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
 
 import javax.swing.SwingUtilities;
+import java.awt.Component;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
 import java.awt.Point;
@@ -51,6 +56,7 @@ import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.awt.event.WindowListener;
 import java.awt.geom.AffineTransform;
+import java.util.Objects;
 import java.util.prefs.PreferenceChangeEvent;
 import java.util.prefs.PreferenceChangeListener;
 
@@ -66,6 +72,7 @@ public class RendererInputHandler implements
     private final int lowFps;
     private final GcodeRenderer gcodeRenderer;
     private final AnimatorBase animator;
+    private final Component glComponent;
     private final BackendAPI backend;
     private final GcodeModel gcodeModel;
     private final SizeDisplay sizeDisplay;
@@ -74,10 +81,15 @@ public class RendererInputHandler implements
     private boolean selecting = false;
     private Position selectionStart = null;
     private Position selectionEnd = null;
+    private volatile String gcodeFile = null;
+    private volatile boolean renderOnDemand = false;
+    private Position lastMachineCoord = null;
+    private Position lastWorkCoord = null;
 
-    public RendererInputHandler(GcodeRenderer gr, AnimatorBase a, BackendAPI backend, int lowFps, int highFps) {
+    public RendererInputHandler(GcodeRenderer gr, AnimatorBase a, Component glComponent, BackendAPI backend, int lowFps, int highFps) {
         gcodeRenderer = gr;
         animator = a;
+        this.glComponent = glComponent;
         this.backend = backend;
         settings = backend.getSettings();
         this.highFps = highFps;
@@ -106,6 +118,10 @@ public class RendererInputHandler implements
     }
 
     private void setFPS(int fps) {
+        if (renderOnDemand) {
+            return;
+        }
+
         if (animator instanceof FPSAnimator fpsAnimator) {
             fpsAnimator.stop();
             fpsAnimator.setFPS(fps);
@@ -113,15 +129,58 @@ public class RendererInputHandler implements
         }
     }
 
+    /**
+     * Starts the animator, it is paused directly if it should only render on changes
+     */
+    public void startAnimator() {
+        animator.start();
+        updateRenderMode();
+    }
+
+    private void updateRenderMode() {
+        renderOnDemand = VisualizerOptions.getBooleanOption(VISUALIZER_OPTION_RENDER_ON_DEMAND, false);
+        if (renderOnDemand) {
+            animator.pause();
+            requestRender();
+        } else {
+            animator.resume();
+        }
+    }
+
+    private void resumeAnimator() {
+        if (renderOnDemand) {
+            requestRender();
+        } else {
+            animator.resume();
+        }
+    }
+
+    /**
+     * Renders a new frame if it should only render on changes, otherwise the animator will render it
+     */
+    private void requestRender() {
+        if (renderOnDemand) {
+            glComponent.repaint();
+        }
+    }
+
     @Override
     public void preferenceChange(PreferenceChangeEvent evt) {
         gcodeRenderer.reloadPreferences();
+        updateRenderMode();
     }
 
+    /**
+     * Starts loading the file in the background, the object size and bounds are updated
+     * once it has been loaded.
+     */
     public void setGcodeFile(String file) {
+        gcodeFile = file;
         gcodeModel.setGcodeFile(file);
-        gcodeRenderer.setObjectSize(gcodeModel.getMin(), gcodeModel.getMax());
+    }
 
+    private void onToolpathLoaded() {
+        gcodeRenderer.setObjectSize(gcodeModel.getMin(), gcodeModel.getMax());
         updateBounds(gcodeModel.getMin(), gcodeModel.getMax());
     }
 
@@ -155,13 +214,26 @@ public class RendererInputHandler implements
                     break;
             }
 
-            animator.resume();
+            resumeAnimator();
+        } else if (cse instanceof ToolpathLoadEvent loadEvent) {
+            if (loadEvent.isComplete() && loadEvent.getFile().getAbsolutePath().equals(gcodeFile)) {
+                onToolpathLoaded();
+            }
+            requestRender();
         } else if (cse instanceof ControllerStatusEvent controllerStatusEvent) {
-            gcodeRenderer.setMachineCoordinate(controllerStatusEvent.getStatus().getMachineCoord());
-            gcodeRenderer.setWorkCoordinate(controllerStatusEvent.getStatus().getWorkCoord());
-        } else if (cse instanceof CommandEvent commandEvent) {
-            if (commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE && !commandEvent.getCommand().isGenerated()) {
-                gcodeModel.setCurrentCommandNumber(commandEvent.getCommand().getCommandNumber());
+            Position machineCoord = controllerStatusEvent.getStatus().getMachineCoord();
+            Position workCoord = controllerStatusEvent.getStatus().getWorkCoord();
+            gcodeRenderer.setMachineCoordinate(machineCoord);
+            gcodeRenderer.setWorkCoordinate(workCoord);
+            if (!Objects.equals(machineCoord, lastMachineCoord) || !Objects.equals(workCoord, lastWorkCoord)) {
+                lastMachineCoord = machineCoord;
+                lastWorkCoord = workCoord;
+                requestRender();
+            }
+        } else if (cse instanceof CommandRangeEvent commandRangeEvent) {
+            if (commandRangeEvent.hasCommandNumbers()) {
+                gcodeModel.setCurrentCommandNumber(commandRangeEvent.getLastCommandNumber());
+                requestRender();
             }
         }
     }
@@ -178,6 +250,7 @@ public class RendererInputHandler implements
         if (selecting) {
             gcodeRenderer.mouseMoved(point);
             selection.setEnd(gcodeRenderer.getMouseWorldLocation());
+            requestRender();
             return;
         }
 
@@ -193,12 +266,14 @@ public class RendererInputHandler implements
         } else if ((SwingUtilities.isRightMouseButton(e)) || SwingUtilities.isMiddleMouseButton(e)) {
             gcodeRenderer.mousePan(point);
         }
+        requestRender();
     }
 
     @Override
     public void mouseMoved(java.awt.event.MouseEvent e) {
         Point point = getScreenPoint(e.getX(), e.getY());
         gcodeRenderer.mouseMoved(point);
+        requestRender();
     }
 
     /**
@@ -207,6 +282,7 @@ public class RendererInputHandler implements
     @Override
     public void mouseWheelMoved(MouseWheelEvent e) {
         gcodeRenderer.zoom(e.getWheelRotation());
+        requestRender();
     }
 
     /**
@@ -223,7 +299,7 @@ public class RendererInputHandler implements
 
     @Override
     public void windowOpened(java.awt.event.WindowEvent e) {
-        new Thread(animator::start).start();
+        new Thread(this::startAnimator).start();
     }
 
     @Override
@@ -260,12 +336,32 @@ public class RendererInputHandler implements
             Position position = new Position(coords.getX(), coords.getY(), coords.getZ(), Units.MM)
                     .getPositionIn(settings.getPreferredUnits());
 
-            VisualizerPopupMenu visualizerPopupMenu = new VisualizerPopupMenu(backend, position);
+            VisualizerPopupMenu visualizerPopupMenu = new VisualizerPopupMenu(backend, position, getLineNumberAt(coords));
             visualizerPopupMenu.show(e.getComponent(), e.getX(), e.getY());
         } else if (SwingUtilities.isMiddleMouseButton(e)) {
             gcodeRenderer.resetView();
+            requestRender();
+        } else if (SwingUtilities.isLeftMouseButton(e) && !e.isMetaDown()) {
+            int lineNumber = getLineNumberAt(gcodeRenderer.getMouseWorldLocation());
+            if (lineNumber > 0) {
+                backend.dispatchEvent(new ToolpathLineSelectedEvent(lineNumber));
+            }
+        }
+    }
 
+    /**
+     * Finds the gcode line of the segment closest to a position
+     *
+     * @param position the position in the XY plane
+     * @return the line number or -1 if there is no segment close to the position
+     */
+    private int getLineNumberAt(Position position) {
+        ToolpathGeometry geometry = gcodeModel.getSpatialIndex().getGeometry();
+        int segment = gcodeModel.findSegmentAt(position, gcodeRenderer.getScaleFactor());
+        if (segment < 0 || segment >= geometry.size()) {
+            return -1;
         }
+        return geometry.getLineNumber(segment);
     }
 
     /**
@@ -293,6 +389,7 @@ public class RendererInputHandler implements
             selectionEnd = gcodeRenderer.getMouseWorldLocation();
             gcodeRenderer.zoomToRegion(selectionStart, selectionEnd, 1.0);
             selection.clear();
+            requestRender();
         }
     }
 
@@ -354,6 +451,7 @@ public class RendererInputHandler implements
                     gcodeRenderer.zoom(1);
                 break;
         }
+        requestRender();
     }
 
     /**
@@ -29,6 +29,9 @@ import com.willwinder.ugs.nbm.visualizer.shared.RenderableCheckBox;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.services.LookupService;
+import com.willwinder.universalgcodesender.services.RunFromService;
+import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import org.openide.util.Lookup;
 
 import javax.swing.*;
@@ -43,10 +46,21 @@ import java.util.List;
 public class VisualizerPopupMenu extends JPopupMenu {
     private final BackendAPI backend;
     private final Position position;
+    private final int lineNumber;
 
     public VisualizerPopupMenu(BackendAPI backend, Position clickedWorkPosition) {
+        this(backend, clickedWorkPosition, -1);
+    }
+
+    /**
+     * @param backend             the backend
+     * @param clickedWorkPosition the clicked position
+     * @param lineNumber          the gcode line of the toolpath at the clicked position or -1 if none
+     */
+    public VisualizerPopupMenu(BackendAPI backend, Position clickedWorkPosition, int lineNumber) {
         this.backend = backend;
         this.position = clickedWorkPosition;
+        this.lineNumber = lineNumber;
     }
 
     @Override
@@ -59,6 +73,7 @@ public class VisualizerPopupMenu extends JPopupMenu {
         CoordinatesSubMenu coordSubMenu = new CoordinatesSubMenu(backend, position);
         add(coordSubMenu);
 
+        addRunFromLine();
         addActions();
 
         super.show(invoker, x, y);
@@ -74,6 +89,23 @@ public class VisualizerPopupMenu extends JPopupMenu {
         add(new EditVisualizerOptionsAction());
     }
 
+    private void addRunFromLine() {
+        if (lineNumber <= 0) {
+            return;
+        }
+
+        JMenuItem menuItem = new JMenuItem(String.format(Localization.getString("platform.visualizer.popup.runFromLine"), lineNumber));
+        menuItem.setEnabled(backend.getGcodeFile() != null && backend.isConnected() && !backend.isSendingFile());
+        menuItem.addActionListener(e -> {
+            try {
+                LookupService.lookup(RunFromService.class).runFromLine(lineNumber);
+            } catch (Exception ex) {
+                GUIHelpers.displayErrorDialog(ex.getLocalizedMessage());
+            }
+        });
+        add(menuItem);
+    }
+
     private void createShowRenderablesSubmenu() {
         IRenderableRegistrationService renderableService =
                 Lookup.getDefault().lookup(IRenderableRegistrationService.class);
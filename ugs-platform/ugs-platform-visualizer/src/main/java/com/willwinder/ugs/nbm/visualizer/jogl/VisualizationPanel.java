@@ -99,20 +99,20 @@ public class VisualizationPanel extends JPanel {
         }
 
         FPSAnimator animator = new FPSAnimator(p, 15);
-        this.rih = new RendererInputHandler(renderer, animator, backend, 4, 15);
+        this.rih = new RendererInputHandler(renderer, animator, p, backend, 4, 15);
 
         Preferences pref = NbPreferences.forModule(VisualizerOptionsPanel.class);
         pref.addPreferenceChangeListener(this.rih);
 
+        // Install listeners before loading the file to get notified when it has been loaded
+        backend.addUGSEventListener(this.rih);
+
         File f = (backend.getProcessedGcodeFile() != null) ?
                 backend.getProcessedGcodeFile() : backend.getGcodeFile();
         if (f != null) {
             this.rih.setGcodeFile(f.getAbsolutePath());
         }
 
-        // Install listeners...
-        backend.addUGSEventListener(this.rih);
-
         // key listener...
         p.addKeyListener(this.rih);
 
@@ -127,7 +127,7 @@ public class VisualizationPanel extends JPanel {
 
         p.addGLEventListener(renderer);
 
-        animator.start();
+        this.rih.startAnimator();
 
         return p;
     }
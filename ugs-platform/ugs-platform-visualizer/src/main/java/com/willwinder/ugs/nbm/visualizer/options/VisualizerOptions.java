@@ -109,6 +109,12 @@ public class VisualizerOptions extends ArrayList<Option<?>> {
     public static final String VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM = "platform.visualizer.min.segment.mm";
     public static final String VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM_DESC = "platform.visualizer.min.segment.mm.desc";
 
+    public static final String VISUALIZER_OPTION_LEVEL_OF_DETAIL = "platform.visualizer.level.of.detail";
+    public static final String VISUALIZER_OPTION_LEVEL_OF_DETAIL_DESC = "platform.visualizer.level.of.detail.desc";
+
+    public static final String VISUALIZER_OPTION_RENDER_ON_DEMAND = "platform.visualizer.render.on.demand";
+    public static final String VISUALIZER_OPTION_RENDER_ON_DEMAND_DESC = "platform.visualizer.render.on.demand.desc";
+
     public VisualizerOptions() {
 
         // GcodeRenderer clear color
@@ -167,6 +173,8 @@ public class VisualizerOptions extends ArrayList<Option<?>> {
         add(getOption(VISUALIZER_OPTION_PROBE_PREVIEW, Localization.getString(VISUALIZER_OPTION_PROBE_PREVIEW_DESC), true));
 
         add(getOption(VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM, VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM_DESC, 0.0));
+        add(getOption(VISUALIZER_OPTION_LEVEL_OF_DETAIL, Localization.getString(VISUALIZER_OPTION_LEVEL_OF_DETAIL_DESC), true));
+        add(getOption(VISUALIZER_OPTION_RENDER_ON_DEMAND, Localization.getString(VISUALIZER_OPTION_RENDER_ON_DEMAND_DESC), false));
     }
 
     public static void addListener(Runnable runnable) {
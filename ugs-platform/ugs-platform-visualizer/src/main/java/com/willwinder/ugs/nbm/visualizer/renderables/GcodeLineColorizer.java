@@ -28,6 +28,7 @@ import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUAL
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_SPINDLE_MAX_SPEED;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_SPINDLE_MIN_SPEED;
 import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
 
 import java.awt.Color;
 
@@ -73,6 +74,20 @@ public class GcodeLineColorizer {
         }
     }
 
+    public Color getColor(ToolpathGeometry geometry, int index, long currentCommandNumber) {
+        if (geometry.getLineNumber(index) < currentCommandNumber) {
+            return completedColor;
+        } else if (geometry.isArc(index)) {
+            return arcColor;
+        } else if (geometry.isFastTraverse(index)) {
+            return rapidColor;
+        } else if (geometry.isZMovement(index)) {
+            return plungeColor;
+        } else {
+            return getFeedColor(geometry.getFeedRate(index), geometry.getSpindleSpeed(index));
+        }
+    }
+
     private Color getFeedColor(double feedRate, double spindleSpeed) {
         double currentSpindleSpeed = Math.max(spindleSpeed, 0.1);
         double currentFeedRate = Math.max(feedRate, 0.1);
@@ -125,6 +140,13 @@ public class GcodeLineColorizer {
         return new Color(red, green, blue, alpha);
     }
 
+    /**
+     * @return the color used for segments of completed commands
+     */
+    public Color getCompletedColor() {
+        return completedColor;
+    }
+
     public void setMaxSpindleSpeed(double maxSpindleSpeed) {
         this.maxSpindleSpeed = maxSpindleSpeed;
     }
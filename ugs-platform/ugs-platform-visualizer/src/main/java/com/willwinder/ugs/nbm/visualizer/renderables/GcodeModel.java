@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -26,10 +26,9 @@ import com.jogamp.opengl.GLAutoDrawable;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_COLOR_ARRAY;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
+import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_LEVEL_OF_DETAIL;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_MODEL;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
-import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
-import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
@@ -38,57 +37,99 @@ import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
-import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
 import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.ToolpathChunks;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometryCache;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLevelOfDetail;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLineIndex;
+import com.willwinder.universalgcodesender.visualizer.ToolpathLoader;
+import com.willwinder.universalgcodesender.visualizer.ToolpathSpatialIndex;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 
-import java.awt.Color;
 import java.io.File;
-import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Renders the toolpath of the loaded gcode file. The file is loaded in the background and
+ * the segments are added to the vertex buffers as they are parsed, so that the toolpath is
+ * painted progressively.
+ * <p>
+ * Once loaded, the parts of the toolpath outside the view are skipped and when zoomed out the
+ * segments smaller than a pixel are drawn merged, see {@link ToolpathChunks} and {@link ToolpathLevelOfDetail}.
+ *
  * @author wwinder
  */
 public class GcodeModel extends Renderable implements UGSEventListener {
     public static final double ARC_TOLERANCE = 0.01;
+    // The size in pixels below which segments are merged
+    private static final double LEVEL_OF_DETAIL_PIXELS = 1;
+    // The simplified toolpath is only used if it has fewer vertices than this part of the full toolpath
+    private static final double LEVEL_OF_DETAIL_MAX_RATIO = 0.75;
+    // The maximum distance to a segment for it to be found at a position, in the scale of the view
+    private static final double PICK_DISTANCE = 0.02;
     private static final Logger logger = Logger.getLogger(GcodeModel.class.getName());
     private final GcodeLineColorizer colorizer = new GcodeLineColorizer();
     private final BackendAPI backend;
-    private boolean colorArrayDirty;
-    private boolean vertexArrayDirty;
-    private boolean vertexBufferDirty;
+    private final ToolpathLoader loader;
+    private volatile boolean vertexBufferDirty;
     // Gcode file data
     private String gcodeFile = null;
-    private boolean isDrawable = false; //True if a file is loaded; false if not
-    // TODO: don't save the line list.
-    private List<LineSegment> gcodeLineList; //An ArrayList of linesegments composing the model
-    private List<LineSegment> pointList; //An ArrayList of linesegments composing the model
-    private int currentCommandNumber = 0;
+    private volatile ModelLoad currentLoad;
+    private volatile ToolpathGeometry geometry; // The segments of the completely loaded model
+    private volatile ToolpathLineIndex lineIndex = new ToolpathLineIndex(new ToolpathGeometry(0));
+    private volatile ToolpathSpatialIndex spatialIndex = new ToolpathSpatialIndex(new ToolpathGeometry(0));
+    private volatile int currentCommandNumber = 0;
+    // The load and the segments currently in the vertex and color arrays, only used by the GL thread
+    private ModelLoad renderedLoad;
+    private ToolpathGeometry renderedGeometry = new ToolpathGeometry(0);
+    private boolean isDrawable = false; //True if there are segments to draw
+    // The command number the colors in the color arrays were generated for
+    private int renderedCommandNumber = 0;
+    // The color of each segment when it isn't completed
+    private int[] segmentColors = new int[0];
     // OpenGL Object Buffer Variables
-    private int numberOfVertices = -1;
-    private float[] lineVertexData = null;
-    private byte[] lineColorData = null;
+    private int numberOfVertices = 0;
+    private float[] lineVertexData = new float[0];
+    private byte[] lineColorData = new byte[0];
     private FloatBuffer lineVertexBuffer = null;
     private ByteBuffer lineColorBuffer = null;
-    private Position objectMin;
-    private Position objectMax;
-    private Position objectSize;
+    // The number of values in the native buffers which are up-to-date with the arrays
+    private int uploadedVertexLength = 0;
+    private int uploadedColorLength = 0;
+    // Culling and level of detail of the completely loaded model, only used by the GL thread
+    private volatile boolean isLevelOfDetailEnabled = true;
+    private ToolpathChunks renderedChunks;
+    private ToolpathLevelOfDetail levelOfDetail;
+    private IntBuffer levelOfDetailBuffer = null;
+    // The largest tolerance that didn't simplify the toolpath enough to be used
+    private float ineffectiveTolerance = 0;
+    private final float[] modelViewMatrix = new float[16];
+    private final float[] projectionMatrix = new float[16];
+    // The start and end of each range of vertices, or of vertex indexes with level of detail, to draw
+    private int[] visibleRanges = new int[2];
+    private int visibleRangeCount = 0;
+    private boolean isLevelOfDetailVisible = false;
+    private volatile Position objectMin;
+    private volatile Position objectMax;
 
     public GcodeModel(String title, BackendAPI backend) {
         super(10, title, VISUALIZER_OPTION_MODEL);
-        objectSize = new Position(0, 0, 0);
         reloadPreferences(new VisualizerOptions());
         this.backend = backend;
+        this.loader = new ToolpathLoader(backend, ToolpathGeometryCache.getDefault());
+        this.loader.setParseSettings(ARC_TOLERANCE, VisualizerOptions.getDoubleOption(VisualizerOptions.VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM, 0));
         backend.addUGSEventListener(this);
     }
 
@@ -96,34 +137,69 @@ public class GcodeModel extends Renderable implements UGSEventListener {
     public final void reloadPreferences(VisualizerOptions vo) {
         super.reloadPreferences(vo);
         colorizer.reloadPreferences(vo);
+        isLevelOfDetailEnabled = VisualizerOptions.getBooleanOption(VISUALIZER_OPTION_LEVEL_OF_DETAIL, true);
         vertexBufferDirty = true;
     }
 
     /**
-     * Assign a gcode file to drawing.
+     * Assign a gcode file to drawing. The file is loaded in the background, cancelling the
+     * load of any previous file.
+     *
+     * @return true if the file is being loaded
      */
     public boolean setGcodeFile(String file) {
         this.gcodeFile = file;
-        this.isDrawable = false;
         this.currentCommandNumber = 0;
-
-        boolean result = generateObject();
-
-
-        logger.log(Level.INFO, "Done setting gcode file.");
-        return result;
+        return generateObject();
     }
 
     /**
-     * This is used to gray out completed commands.
+     * This is used to gray out completed commands. Only the colors of the segments
+     * between the previous and the new command number are updated on the next draw.
      */
     public void setCurrentCommandNumber(int num) {
         currentCommandNumber = num;
-        vertexBufferDirty = true;
     }
 
     public List<LineSegment> getLineList() {
-        return this.pointList != null ? this.pointList : Collections.emptyList();
+        ToolpathGeometry result = this.geometry;
+        return result != null ? result.asLineSegments() : Collections.emptyList();
+    }
+
+    /**
+     * @return the segments of the model with cartesian coordinates, empty until the file has been completely loaded
+     */
+    public ToolpathGeometry getGeometry() {
+        ToolpathGeometry result = this.geometry;
+        return result != null ? result : new ToolpathGeometry(0);
+    }
+
+    /**
+     * @return an index from line numbers to the segments of the model, empty until the file has been completely loaded
+     */
+    public ToolpathLineIndex getLineIndex() {
+        return lineIndex;
+    }
+
+    /**
+     * @return an index for finding the segments of the model closest to a position, empty until the file has been completely loaded
+     */
+    public ToolpathSpatialIndex getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Finds the segment closest to a position in the XY plane, such as the position of the mouse.
+     *
+     * @param position    the position to search from
+     * @param scaleFactor the current scale factor of the view, which the search distance is adjusted to
+     * @return the index of the segment in {@link #getGeometry()} or -1 if no segment is close to the position
+     */
+    public int findSegmentAt(Position position, double scaleFactor) {
+        if (position == null || this.geometry == null) {
+            return -1;
+        }
+        return spatialIndex.findNearestSegment(position.x, position.y, PICK_DISTANCE / scaleFactor);
     }
 
     @Override
@@ -143,11 +219,12 @@ public class GcodeModel extends Renderable implements UGSEventListener {
 
     @Override
     public void init(GLAutoDrawable drawable) {
-        generateObject();
+        vertexBufferDirty = true;
     }
 
     @Override
     public void draw(GLAutoDrawable drawable, boolean idle, Position machineCoord, Position workCoord, Position focusMin, Position focusMax, double scaleFactor, Position mouseCoordinates, Position rotation) {
+        updateLoadedSegments();
         if (!isDrawable) return;
 
         GL2 gl = drawable.getGL().getGL2();
@@ -161,227 +238,387 @@ public class GcodeModel extends Renderable implements UGSEventListener {
             gl.glEnableClientState(GL_COLOR_ARRAY);
 
             // Initialize OpenGL arrays if required.
-            if (this.vertexBufferDirty && !vertexArrayDirty && !colorArrayDirty) {
-                updateVertexBuffers();
+            if (this.vertexBufferDirty) {
                 this.vertexBufferDirty = false;
+                updateVertexBuffers();
+            } else if (renderedCommandNumber != currentCommandNumber) {
+                updateCompletedColors(currentCommandNumber);
             }
-            if (this.colorArrayDirty) {
-                this.updateGLColorArray();
-                this.colorArrayDirty = false;
-            }
-            if (this.vertexArrayDirty) {
-                this.updateGLGeometryArray();
-                this.vertexArrayDirty = false;
-            }
+            this.updateGLColorArray();
+            this.updateGLGeometryArray();
+            updateVisibleRanges(gl, drawable);
+
             gl.glLineWidth(1.0f);
             gl.glVertexPointer(3, GL.GL_FLOAT, 0, lineVertexBuffer);
             gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, lineColorBuffer);
-            gl.glDrawArrays(GL.GL_LINES, 0, numberOfVertices);
+            for (int range = 0; range < visibleRangeCount; range++) {
+                int start = visibleRanges[range * 2];
+                int count = visibleRanges[range * 2 + 1] - start;
+                if (isLevelOfDetailVisible) {
+                    ((Buffer) levelOfDetailBuffer).position(start);
+                    gl.glDrawElements(GL.GL_LINES, count, GL.GL_UNSIGNED_INT, levelOfDetailBuffer);
+                } else {
+                    gl.glDrawArrays(GL.GL_LINES, start, count);
+                }
+            }
             gl.glDisableClientState(GL_COLOR_ARRAY);
             gl.glDisableClientState(GL_VERTEX_ARRAY);
         }
         // Traditional OpenGL
         else {
+            if (this.vertexBufferDirty) {
+                this.vertexBufferDirty = false;
+                updateVertexBuffers();
+            } else if (renderedCommandNumber != currentCommandNumber) {
+                updateCompletedColors(currentCommandNumber);
+            }
+
+            updateVisibleRanges(gl, drawable);
+
             gl.glBegin(GL_LINES);
             gl.glLineWidth(1.0f);
 
-            int verts = 0;
-            int colors = 0;
-            for (int i = 0; i < pointList.size(); i++) {
-                gl.glColor4ub(lineColorData[colors++], lineColorData[colors++], lineColorData[colors++], lineColorData[colors++]);
-                gl.glVertex3d(lineVertexData[verts++], lineVertexData[verts++], lineVertexData[verts++]);
+            int[] vertexIndexes = isLevelOfDetailVisible ? levelOfDetail.getVertexIndexes() : null;
+            for (int range = 0; range < visibleRangeCount; range++) {
+                for (int i = visibleRanges[range * 2]; i < visibleRanges[range * 2 + 1]; i++) {
+                    int vertex = vertexIndexes != null ? vertexIndexes[i] : i;
+                    int colors = vertex * 4;
+                    int verts = vertex * 3;
+                    gl.glColor4ub(lineColorData[colors], lineColorData[colors + 1], lineColorData[colors + 2], lineColorData[colors + 3]);
+                    gl.glVertex3d(lineVertexData[verts], lineVertexData[verts + 1], lineVertexData[verts + 2]);
+                }
             }
             gl.glEnd();
         }
     }
 
-    public Position getMin() {
-        return this.objectMin;
+    /**
+     * Finds the ranges of vertices to draw, skipping the chunks of the toolpath outside the view and
+     * using the simplified toolpath when the segments are smaller than the pixels. Until the model
+     * has been completely loaded, or if disabled in the options, all vertices are drawn.
+     */
+    private void updateVisibleRanges(GL2 gl, GLAutoDrawable drawable) {
+        visibleRangeCount = 0;
+        isLevelOfDetailVisible = false;
+        if (renderedChunks == null || !isLevelOfDetailEnabled) {
+            addVisibleRange(0, numberOfVertices);
+            return;
+        }
+
+        gl.glGetFloatv(GL2.GL_MODELVIEW_MATRIX, modelViewMatrix, 0);
+        gl.glGetFloatv(GL2.GL_PROJECTION_MATRIX, projectionMatrix, 0);
+        float[] matrix = ToolpathChunks.multiply(projectionMatrix, modelViewMatrix);
+        ToolpathLevelOfDetail currentLevelOfDetail = getLevelOfDetail(drawable.getSurfaceHeight());
+        isLevelOfDetailVisible = currentLevelOfDetail != null;
+
+        for (int chunk = 0; chunk < renderedChunks.getChunkCount(); chunk++) {
+            if (!renderedChunks.isVisible(chunk, matrix)) {
+                continue;
+            }
+
+            if (currentLevelOfDetail != null) {
+                addVisibleRange(currentLevelOfDetail.getChunkStart(chunk), currentLevelOfDetail.getChunkEnd(chunk));
+            } else {
+                addVisibleRange(renderedChunks.getStart(chunk) * 2, renderedChunks.getEnd(chunk) * 2);
+            }
+        }
     }
 
-    public Position getMax() {
-        return this.objectMax;
+    private void addVisibleRange(int start, int end) {
+        // Join adjacent ranges to reduce the number of draw calls
+        if (visibleRangeCount > 0 && visibleRanges[visibleRangeCount * 2 - 1] == start) {
+            visibleRanges[visibleRangeCount * 2 - 1] = end;
+            return;
+        }
+
+        if (visibleRanges.length < (visibleRangeCount + 1) * 2) {
+            visibleRanges = Arrays.copyOf(visibleRanges, (visibleRangeCount + 1) * 4);
+        }
+        visibleRanges[visibleRangeCount * 2] = start;
+        visibleRanges[visibleRangeCount * 2 + 1] = end;
+        visibleRangeCount++;
     }
 
     /**
-     * Parse the gcodeFile and store the resulting geometry and data about it.
+     * Returns the toolpath simplified for the current zoom, simplifying it again if the zoom has changed.
+     * Expects the projection matrix to have been fetched. Only orthographic projections are simplified.
+     *
+     * @param surfaceHeight the height of the drawable in pixels
+     * @return the simplified toolpath or null if the full toolpath should be drawn
      */
-    private boolean generateObject() {
-        isDrawable = false;
-        if (this.gcodeFile == null) {
-            return false;
+    private ToolpathLevelOfDetail getLevelOfDetail(int surfaceHeight) {
+        // With a perspective projection the size of a pixel depends on the distance to the camera, the
+        // segments closest to the camera could then be simplified too much so the full toolpath is drawn
+        if (surfaceHeight <= 0 || projectionMatrix[5] == 0 || !isOrthographicProjection()) {
+            return null;
         }
 
-        try {
-            logger.log(Level.INFO, "About to process {}", gcodeFile);
-            GcodeViewParse gcvp = new GcodeViewParse();
-            gcodeLineList = loadModel(gcvp);
+        // The size of a pixel in model units with an orthographic projection, rounded down to a power
+        // of two so that the toolpath is only simplified again when the zoom has changed noticeably
+        double pixelSize = 2 / (Math.abs(projectionMatrix[5]) * surfaceHeight);
+        float tolerance = (float) Math.pow(2, Math.floor(Math.log(pixelSize * LEVEL_OF_DETAIL_PIXELS) / Math.log(2)));
+        if (tolerance <= ineffectiveTolerance) {
+            // A lower tolerance won't merge more segments
+            return null;
+        }
 
-            // Convert LineSegments to points.
-            this.pointList = new ArrayList<>(gcodeLineList.size());
+        if (levelOfDetail == null || levelOfDetail.getTolerance() != tolerance) {
+            levelOfDetail = new ToolpathLevelOfDetail(renderedGeometry, renderedChunks, tolerance);
+            if (levelOfDetail.size() >= numberOfVertices * LEVEL_OF_DETAIL_MAX_RATIO) {
+                ineffectiveTolerance = Math.max(ineffectiveTolerance, tolerance);
+                levelOfDetail = null;
+                return null;
+            }
 
-            for (LineSegment ls : gcodeLineList) {
-                this.pointList.add(VisualizerUtils.toCartesian(ls));
+            if (levelOfDetailBuffer == null || levelOfDetailBuffer.capacity() < levelOfDetail.size()) {
+                levelOfDetailBuffer = Buffers.newDirectIntBuffer(levelOfDetail.size());
             }
-            gcodeLineList = pointList;
+            ((Buffer) levelOfDetailBuffer).clear();
+            levelOfDetailBuffer.put(levelOfDetail.getVertexIndexes());
+            ((Buffer) levelOfDetailBuffer).flip();
+        }
+        return levelOfDetail;
+    }
 
-            this.objectMin = gcvp.getMinimumExtremes();
-            this.objectMax = gcvp.getMaximumExtremes();
-            this.colorizer.setMaxSpindleSpeed(gcvp.getMaxSpindleSpeed());
-            this.colorizer.setMaxFeedRate(gcvp.getMaxFeedRate());
+    /**
+     * Checks if the fetched projection matrix is orthographic, where the last row is (0, 0, 0, 1)
+     */
+    private boolean isOrthographicProjection() {
+        return projectionMatrix[3] == 0 && projectionMatrix[7] == 0 && projectionMatrix[11] == 0 && projectionMatrix[15] == 1;
+    }
 
-            if (gcodeLineList.isEmpty()) {
-                return false;
-            }
+    public Position getMin() {
+        return this.objectMin;
+    }
 
-            logger.info("Object bounds: X (" + objectMin.x + ", " + objectMax.x + ")");
-            logger.info("               Y (" + objectMin.y + ", " + objectMax.y + ")");
-            logger.info("               Z (" + objectMin.z + ", " + objectMax.z + ")");
+    public Position getMax() {
+        return this.objectMax;
+    }
 
-            Position center = VisualizerUtils.findCenter(objectMin, objectMax);
-            logger.info("Center = " + center);
-            logger.info("Num Line Segments :" + gcodeLineList.size());
+    /**
+     * Starts loading the gcodeFile in the background.
+     */
+    private boolean generateObject() {
+        loader.cancel();
+        geometry = null;
+        lineIndex = new ToolpathLineIndex(new ToolpathGeometry(0));
+        spatialIndex = new ToolpathSpatialIndex(new ToolpathGeometry(0));
+        if (this.gcodeFile == null) {
+            currentLoad = null;
+            return false;
+        }
 
-            objectSize.x = this.objectMax.x - this.objectMin.x;
-            objectSize.y = this.objectMax.y - this.objectMin.y;
-            objectSize.z = this.objectMax.z - this.objectMin.z;
+        logger.log(Level.INFO, "About to process {0}", gcodeFile);
+        ModelLoad load = new ModelLoad();
+        currentLoad = load;
+        loader.load(new File(gcodeFile), ARC_TOLERANCE, VisualizerOptions.getDoubleOption(VisualizerOptions.VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM, 0), load);
+        return true;
+    }
 
-            // Now that the object is known, fill the buffers.
-            this.isDrawable = true;
+    /**
+     * Adds the segments which have been loaded since the last frame to the vertex and color arrays.
+     * When the whole file has been loaded the colors are regenerated as the max feed rate and spindle
+     * speed are known first then.
+     */
+    private void updateLoadedSegments() {
+        ModelLoad load = currentLoad;
+        if (load != renderedLoad) {
+            renderedLoad = load;
+            renderedGeometry = new ToolpathGeometry(0);
+            renderedCommandNumber = currentCommandNumber;
+            numberOfVertices = 0;
+            uploadedVertexLength = 0;
+            uploadedColorLength = 0;
+            isDrawable = false;
+            renderedChunks = null;
+            levelOfDetail = null;
+            ineffectiveTolerance = 0;
+        }
 
-            this.numberOfVertices = gcodeLineList.size() * 2;
-            this.lineVertexData = new float[numberOfVertices * 4];
-            this.lineColorData = new byte[numberOfVertices * 4];
+        if (load == null || load.isRendered) {
+            return;
+        }
 
-            this.updateVertexBuffers();
-        } catch (GcodeParserException | IOException e) {
-            String error = Localization.getString("mainWindow.error.openingFile") + " : " + e.getLocalizedMessage();
-            logger.log(Level.SEVERE, error, e);
-            GUIHelpers.displayErrorDialog(error);
-            return false;
+        ToolpathGeometry loadedGeometry = load.geometry;
+        if (loadedGeometry != null) {
+            // All segments are in the loaded geometry, skip any chunks that haven't been added yet
+            load.isRendered = true;
+            load.segments.clear();
+            colorizer.setMaxSpindleSpeed(load.parser.getMaxSpindleSpeed());
+            colorizer.setMaxFeedRate(load.parser.getMaxFeedRate());
+            renderedGeometry = loadedGeometry;
+            renderedChunks = load.chunks;
+            ensureCapacity(renderedGeometry.size());
+            numberOfVertices = renderedGeometry.size() * 2;
+            isDrawable = !renderedGeometry.isEmpty();
+            vertexBufferDirty = true;
+            return;
         }
 
-        return true;
+        ToolpathGeometry segments;
+        while ((segments = load.segments.poll()) != null) {
+            int first = renderedGeometry.size();
+            renderedGeometry.append(segments);
+            ensureCapacity(renderedGeometry.size());
+            numberOfVertices = renderedGeometry.size() * 2;
+            updateVertexBuffers(first, renderedGeometry.size(), backend.getWorkPosition());
+            isDrawable = true;
+        }
     }
 
-    private List<LineSegment> loadModel(GcodeViewParse gcvp) throws IOException, GcodeParserException {
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile), new DefaultCommandCreator())) {
-            return gcvp.toObjFromReaderWithArcTolerance(gsr, ARC_TOLERANCE, VisualizerOptions.getDoubleOption(VisualizerOptions.VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM, 0));
-        } catch (GcodeStreamReader.NotGcodeStreamFile e) {
-            List<String> linesInFile = VisualizerUtils.readFiletoArrayList(this.gcodeFile);
-            return gcvp.toObjReduxWithArcTolerance(linesInFile, ARC_TOLERANCE, VisualizerOptions.getDoubleOption(VisualizerOptions.VISUALIZER_OPTION_MIN_SEGMENT_LENGTH_MM, 0));
+    /**
+     * Makes sure that the arrays can hold the given number of segments
+     */
+    private void ensureCapacity(int segments) {
+        if (segmentColors.length < segments) {
+            int capacity = Math.max(segments, segmentColors.length + (segmentColors.length >> 1));
+            segmentColors = Arrays.copyOf(segmentColors, capacity);
+            lineVertexData = Arrays.copyOf(lineVertexData, capacity * 6);
+            lineColorData = Arrays.copyOf(lineColorData, capacity * 8);
         }
     }
 
     /**
-     * Convert the gcodeLineList into vertex and color arrays.
+     * Convert the geometry into vertex and color arrays.
      */
     private void updateVertexBuffers() {
         if (this.isDrawable) {
-            int vertIndex = 0;
-            int colorIndex = 0;
-            byte[] c = new byte[4];
-            Position workPosition = backend.getWorkPosition();
-            for (LineSegment ls : gcodeLineList) {
-                Color color = colorizer.getColor(ls, this.currentCommandNumber);
-
-                Position p1 = addMissingCoordinateFromWorkPosition(ls.getStart(), workPosition);
-                Position p2 = addMissingCoordinateFromWorkPosition(ls.getEnd(), workPosition);
-
-                c[0] = (byte) color.getRed();
-                c[1] = (byte) color.getGreen();
-                c[2] = (byte) color.getBlue();
-                c[3] = (byte) color.getAlpha();
-
-                // colors
-                //p1
-                lineColorData[colorIndex++] = c[0];
-                lineColorData[colorIndex++] = c[1];
-                lineColorData[colorIndex++] = c[2];
-                lineColorData[colorIndex++] = c[3];
-
-                //p2
-                lineColorData[colorIndex++] = c[0];
-                lineColorData[colorIndex++] = c[1];
-                lineColorData[colorIndex++] = c[2];
-                lineColorData[colorIndex++] = c[3];
-
-                // p1 location
-                lineVertexData[vertIndex++] = (float) p1.x;
-                lineVertexData[vertIndex++] = (float) p1.y;
-                lineVertexData[vertIndex++] = (float) p1.z;
-                //p2
-                lineVertexData[vertIndex++] = (float) p2.x;
-                lineVertexData[vertIndex++] = (float) p2.y;
-                lineVertexData[vertIndex++] = (float) p2.z;
-            }
-
-            this.colorArrayDirty = true;
-            this.vertexArrayDirty = true;
+            // The whole arrays will be copied to the native buffers
+            uploadedVertexLength = 0;
+            uploadedColorLength = 0;
+            updateVertexBuffers(0, renderedGeometry.size(), backend.getWorkPosition());
         }
     }
 
-    private Position addMissingCoordinateFromWorkPosition(Position position, Position workPosition) {
-        if (!Double.isNaN(position.getX()) && Double.isNaN(position.getY())&& Double.isNaN(position.getZ())) {
-            return position;
+    /**
+     * Converts the given range of segments into vertex and color arrays.
+     */
+    private void updateVertexBuffers(int from, int to, Position workPosition) {
+        int vertIndex = from * 6;
+        int commandNumber = this.renderedCommandNumber;
+        int completedColor = colorizer.getCompletedColor().getRGB();
+        ToolpathGeometry segments = renderedGeometry;
+
+        for (int i = from; i < to; i++) {
+            // Get the color as if the segment wasn't completed so that it can be restored
+            segmentColors[i] = colorizer.getColor(segments, i, Long.MIN_VALUE).getRGB();
+            setSegmentColor(i, segments.getLineNumber(i) < commandNumber ? completedColor : segmentColors[i]);
+
+            // Coordinates that were never defined are drawn at the current work position
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getStartX(i), workPosition.x);
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getStartY(i), workPosition.y);
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getStartZ(i), workPosition.z);
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getEndX(i), workPosition.x);
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getEndY(i), workPosition.y);
+            lineVertexData[vertIndex++] = valueOrDefault(segments.getEndZ(i), workPosition.z);
         }
 
-        Position result = new Position(position);
-        if (Double.isNaN(result.getX())) {
-            result.setX(workPosition.getX());
-        }
-        if (Double.isNaN(result.getY())) {
-            result.setY(workPosition.getY());
-        }
-        if (Double.isNaN(result.getZ())) {
-            result.setZ(workPosition.getZ());
+        // Make sure that the updated vertices are copied to the native buffer
+        uploadedVertexLength = Math.min(uploadedVertexLength, from * 6);
+    }
+
+    /**
+     * Updates the colors of the segments between the rendered and the given command number,
+     * in both the color array and the native color buffer.
+     */
+    private void updateCompletedColors(int commandNumber) {
+        int from = Math.min(renderedCommandNumber, commandNumber);
+        int to = Math.max(renderedCommandNumber, commandNumber);
+        int completedColor = colorizer.getCompletedColor().getRGB();
+        ToolpathGeometry segments = renderedGeometry;
+
+        boolean isLineNumbersAscending = segments.isLineNumbersAscending();
+        int start = isLineNumbersAscending ? segments.findFirstSegment(from) : 0;
+        for (int i = start; i < segments.size(); i++) {
+            int lineNumber = segments.getLineNumber(i);
+            if (lineNumber >= to) {
+                if (isLineNumbersAscending) {
+                    break;
+                }
+                continue;
+            }
+
+            if (lineNumber >= from) {
+                setSegmentColor(i, lineNumber < commandNumber ? completedColor : segmentColors[i]);
+            }
         }
-        return result;
+
+        renderedCommandNumber = commandNumber;
     }
 
     /**
-     * Initialize or update open gl geometry array in native buffer objects.
+     * Sets the color of both vertices of a segment in the color array, and in the native color
+     * buffer if the segment has already been copied to it
      */
-    private void updateGLGeometryArray() {
-        // Reset buffer and set to null of new geometry doesn't fit.
-        if (lineVertexBuffer != null) {
-            ((Buffer) lineVertexBuffer).clear();
-            if (lineVertexBuffer.remaining() < lineVertexData.length) {
-                lineVertexBuffer = null;
+    private void setSegmentColor(int segmentIndex, int argb) {
+        byte red = (byte) (argb >> 16);
+        byte green = (byte) (argb >> 8);
+        byte blue = (byte) argb;
+        byte alpha = (byte) (argb >>> 24);
+
+        int colorIndex = segmentIndex * 8;
+        boolean isUploaded = lineColorBuffer != null && colorIndex + 8 <= uploadedColorLength;
+        for (int vertex = 0; vertex < 2; vertex++) {
+            lineColorData[colorIndex] = red;
+            lineColorData[colorIndex + 1] = green;
+            lineColorData[colorIndex + 2] = blue;
+            lineColorData[colorIndex + 3] = alpha;
+            if (isUploaded) {
+                lineColorBuffer.put(colorIndex, red);
+                lineColorBuffer.put(colorIndex + 1, green);
+                lineColorBuffer.put(colorIndex + 2, blue);
+                lineColorBuffer.put(colorIndex + 3, alpha);
             }
+            colorIndex += 4;
         }
+    }
+
+    private static float valueOrDefault(float value, double defaultValue) {
+        return Float.isNaN(value) ? (float) defaultValue : value;
+    }
+
+    /**
+     * Initialize or update open gl geometry array in native buffer objects, only the
+     * vertices which haven't been copied yet are copied.
+     */
+    private void updateGLGeometryArray() {
+        int length = numberOfVertices * 3;
 
-        if (lineVertexBuffer == null) {
+        // Create a new buffer if the geometry doesn't fit.
+        if (lineVertexBuffer == null || lineVertexBuffer.capacity() < length) {
             lineVertexBuffer = Buffers.newDirectFloatBuffer(lineVertexData.length);
+            uploadedVertexLength = 0;
         }
 
-        lineVertexBuffer.put(lineVertexData);
-        ((Buffer) lineVertexBuffer).flip();
+        if (uploadedVertexLength < length) {
+            ((Buffer) lineVertexBuffer).limit(length);
+            ((Buffer) lineVertexBuffer).position(uploadedVertexLength);
+            lineVertexBuffer.put(lineVertexData, uploadedVertexLength, length - uploadedVertexLength);
+            ((Buffer) lineVertexBuffer).position(0);
+            uploadedVertexLength = length;
+        }
     }
 
     /**
-     * Initialize or update open gl color array in native buffer objects.
+     * Initialize or update open gl color array in native buffer objects, only the
+     * colors which haven't been copied yet are copied.
      */
     private void updateGLColorArray() {
-        // Reset buffer and set to null of new colors don't fit.
-        if (lineColorBuffer != null) {
-            ((Buffer) lineColorBuffer).clear();
+        int length = numberOfVertices * 4;
 
-            if (lineColorBuffer.remaining() < lineColorData.length) {
-                lineColorBuffer = null;
-            }
+        // Create a new buffer if the colors don't fit.
+        if (lineColorBuffer == null || lineColorBuffer.capacity() < length) {
+            lineColorBuffer = Buffers.newDirectByteBuffer(lineColorData.length);
+            uploadedColorLength = 0;
         }
 
-        if (lineColorBuffer == null) {
-            if (lineColorData == null) {
-                updateVertexBuffers();
-            }
-            lineColorBuffer = Buffers.newDirectByteBuffer(this.lineColorData.length);
+        if (uploadedColorLength < length) {
+            ((Buffer) lineColorBuffer).limit(length);
+            ((Buffer) lineColorBuffer).position(uploadedColorLength);
+            lineColorBuffer.put(lineColorData, uploadedColorLength, length - uploadedColorLength);
+            ((Buffer) lineColorBuffer).position(0);
+            uploadedColorLength = length;
         }
-
-        lineColorBuffer.put(lineColorData);
-        ((Buffer) lineColorBuffer).flip();
-
     }
 
     @Override
@@ -396,4 +633,48 @@ public class GcodeModel extends Renderable implements UGSEventListener {
             vertexBufferDirty = true;
         }
     }
+
+    /**
+     * The state of loading a file, the loaded segments are queued until they are added to
+     * the vertex arrays by the GL thread.
+     */
+    private class ModelLoad implements ToolpathLoader.Listener {
+        private final Queue<ToolpathGeometry> segments = new ConcurrentLinkedQueue<>();
+        private volatile ToolpathGeometry geometry;
+        private volatile GcodeViewParse parser;
+        private volatile ToolpathChunks chunks;
+        // Only used by the GL thread
+        private boolean isRendered;
+
+        @Override
+        public void onSegmentsLoaded(ToolpathGeometry segments) {
+            this.segments.add(segments);
+        }
+
+        @Override
+        public void onLoaded(ToolpathGeometry geometry, GcodeViewParse parser) {
+            objectMin = parser.getMinimumExtremes();
+            objectMax = parser.getMaximumExtremes();
+            logger.info("Object bounds: X (" + objectMin.x + ", " + objectMax.x + ")");
+            logger.info("               Y (" + objectMin.y + ", " + objectMax.y + ")");
+            logger.info("               Z (" + objectMin.z + ", " + objectMax.z + ")");
+            logger.info("Center = " + VisualizerUtils.findCenter(objectMin, objectMax));
+            logger.info("Num Line Segments :" + geometry.size());
+
+            GcodeModel.this.lineIndex = new ToolpathLineIndex(geometry);
+            GcodeModel.this.spatialIndex = new ToolpathSpatialIndex(geometry);
+            GcodeModel.this.geometry = geometry;
+            this.parser = parser;
+            this.chunks = new ToolpathChunks(geometry);
+            this.geometry = geometry;
+            logger.log(Level.INFO, "Done setting gcode file.");
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            String error = Localization.getString("mainWindow.error.openingFile") + " : " + exception.getLocalizedMessage();
+            logger.log(Level.SEVERE, error, exception);
+            GUIHelpers.displayErrorDialog(error);
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
-    Copyright 2016-2024 Will Winder
+    Copyright 2016-2026 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -23,16 +23,25 @@ import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
 import com.jogamp.opengl.glu.GLU;
 import com.jogamp.opengl.glu.GLUquadric;
+import com.jogamp.opengl.util.awt.TextRenderer;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_MOUSE_OVER;
+import com.willwinder.ugs.nbm.visualizer.shared.IRenderableRegistrationService;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
+import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.ToolpathGeometry;
+import org.openide.util.Lookup;
 
 import java.awt.Color;
+import java.awt.Font;
+import java.text.DecimalFormat;
 
 /**
  * Draws a vertical line along the Z axis at the (X,Y) coordinate where the
- * mouse is considered to be.
+ * mouse is considered to be. The segment of the gcode model closest to the
+ * mouse is highlighted and its line number, feed rate and spindle speed are
+ * shown in the corner of the view.
  *
  * Ray - Plane intersection: http://stackoverflow.com/a/21114992/204023
  * @author wwinder
@@ -41,6 +50,9 @@ public class MouseOver extends Renderable {
 
     private static final GLU GLU = new GLU();
     private static GLUquadric GQ;
+    private static final DecimalFormat FORMATTER = new DecimalFormat("#.##");
+    private TextRenderer renderer;
+    private IRenderableRegistrationService renderableService;
 
     public MouseOver(String title) {
         super(5, title, VISUALIZER_OPTION_MOUSE_OVER);
@@ -59,6 +71,8 @@ public class MouseOver extends Renderable {
     @Override
     public void init(GLAutoDrawable drawable) {
         GQ = GLU.gluNewQuadric();
+        renderer = new TextRenderer(new Font("SansSerif", Font.PLAIN, 12));
+        renderableService = Lookup.getDefault().lookup(IRenderableRegistrationService.class);
     }
 
     static private boolean inBounds(Position point, Position bottomLeft, Position topRight) {
@@ -88,6 +102,56 @@ public class MouseOver extends Renderable {
                 gl.glTranslated(0, 0, 0.2);
                 GLU.gluCylinder(GQ, 0.03f, .0f, .01, 16, 1);
             gl.glPopMatrix();
+
+            drawHoveredSegment(drawable, scaleFactor, mouseWorldCoordinates);
+        }
+    }
+
+    private void drawHoveredSegment(GLAutoDrawable drawable, double scaleFactor, Position mouseWorldCoordinates) {
+        GcodeModel gcodeModel = findGcodeModel();
+        if (gcodeModel == null || renderer == null) {
+            return;
+        }
+
+        ToolpathGeometry geometry = gcodeModel.getSpatialIndex().getGeometry();
+        int segment = gcodeModel.findSegmentAt(mouseWorldCoordinates, scaleFactor);
+        if (segment < 0 || segment >= geometry.size()) {
+            return;
+        }
+
+        GL2 gl = drawable.getGL().getGL2();
+        gl.glLineWidth(3f);
+        gl.glColor4fv(VisualizerOptions.colorToFloatArray(Color.WHITE), 0);
+        gl.glBegin(GL.GL_LINES);
+        gl.glVertex3f(geometry.getStartX(segment), geometry.getStartY(segment), zeroIfNaN(geometry.getStartZ(segment)));
+        gl.glVertex3f(geometry.getEndX(segment), geometry.getEndY(segment), zeroIfNaN(geometry.getEndZ(segment)));
+        gl.glEnd();
+        gl.glLineWidth(1f);
+
+        String text = String.format(Localization.getString("platform.visualizer.mouseover.line"),
+                geometry.getLineNumber(segment),
+                FORMATTER.format(geometry.getFeedRate(segment)),
+                FORMATTER.format(geometry.getSpindleSpeed(segment)));
+        renderer.beginRendering(drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+        renderer.setColor(Color.WHITE);
+        renderer.draw(text, 10, 10);
+        renderer.endRendering();
+    }
+
+    private GcodeModel findGcodeModel() {
+        if (renderableService == null) {
+            return null;
         }
+
+        for (Renderable renderable : renderableService.getRenderables()) {
+            if (renderable instanceof GcodeModel gcodeModel && gcodeModel.isEnabled()) {
+                return gcodeModel;
+            }
+        }
+        return null;
+    }
+
+    private static float zeroIfNaN(float value) {
+        return Float.isNaN(value) ? 0 : value;
     }
 }
@@ -177,6 +177,13 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
         }
     }
 
+    /**
+     * Get the current scale factor of the view, where a higher value is zoomed in
+     */
+    public double getScaleFactor() {
+        return this.scaleFactor;
+    }
+
     /**
      * Get the location on the XY plane of the mouse.
      */